@@ -218,6 +218,11 @@ public StatisticsConfigurationBuilder statistics() {
       return builder.statistics();
    }
 
+   @Override
+   public AutoBatchingConfigurationBuilder autoBatching() {
+      return builder.autoBatching();
+   }
+
    @Override
    public TransactionConfigurationBuilder transaction() {
       return builder.transaction();
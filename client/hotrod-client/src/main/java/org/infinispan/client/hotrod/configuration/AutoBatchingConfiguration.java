@@ -0,0 +1,56 @@
+package org.infinispan.client.hotrod.configuration;
+
+import org.infinispan.commons.configuration.attributes.Attribute;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+
+/**
+ * Configures the coalescing of concurrent single-key writes into multi-key requests.
+ *
+ * @since 15.0
+ */
+public class AutoBatchingConfiguration {
+   public static final AttributeDefinition<Boolean> ENABLED = AttributeDefinition.builder("enabled", false).immutable().build();
+   public static final AttributeDefinition<Long> WINDOW = AttributeDefinition.builder("window", 100L).immutable().build();
+   public static final AttributeDefinition<Integer> MAX_BATCH_SIZE = AttributeDefinition.builder("max_batch_size", 128).immutable().build();
+   static AttributeSet attributeDefinitionSet() {
+      return new AttributeSet(AutoBatchingConfiguration.class, ENABLED, WINDOW, MAX_BATCH_SIZE);
+   }
+
+   private final Attribute<Boolean> enabled;
+   private final Attribute<Long> window;
+   private final Attribute<Integer> maxBatchSize;
+
+   private final AttributeSet attributes;
+
+   AutoBatchingConfiguration(AttributeSet attributes) {
+      this.attributes = attributes.checkProtection();
+      this.enabled = attributes.attribute(ENABLED);
+      this.window = attributes.attribute(WINDOW);
+      this.maxBatchSize = attributes.attribute(MAX_BATCH_SIZE);
+   }
+
+   public AttributeSet attributes() {
+      return attributes;
+   }
+
+   public boolean enabled() {
+      return enabled.get();
+   }
+
+   /**
+    * @return the time in microseconds a write waits for other writes before the batch is sent.
+    */
+   public long window() {
+      return window.get();
+   }
+
+   public int maxBatchSize() {
+      return maxBatchSize.get();
+   }
+
+   @Override
+   public String toString() {
+      return attributes.toString(AutoBatchingConfiguration.class.getSimpleName());
+   }
+}
@@ -0,0 +1,117 @@
+package org.infinispan.client.hotrod.configuration;
+
+import static org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration.ENABLED;
+import static org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration.MAX_BATCH_SIZE;
+import static org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration.WINDOW;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING_MAX_BATCH_SIZE;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING_WINDOW;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.configuration.Combine;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.commons.util.TypedProperties;
+
+/**
+ * Configures the coalescing of concurrent single-key writes into multi-key requests.
+ * <p>
+ * When enabled, the puts that do not need the previous value are held for a short window and sent
+ * together with the puts of the same window, in a single put-all request per server. Every put still completes its own
+ * future, once the request holding it completes. The other operations of the cache wait for the puts issued before
+ * them, so a read of a key returns the value of a previous put of the key.
+ *
+ * @since 15.0
+ */
+public class AutoBatchingConfigurationBuilder extends AbstractConfigurationChildBuilder implements
+      Builder<AutoBatchingConfiguration> {
+
+   AttributeSet attributes = AutoBatchingConfiguration.attributeDefinitionSet();
+
+   AutoBatchingConfigurationBuilder(ConfigurationBuilder builder) {
+      super(builder);
+   }
+
+   @Override
+   public AttributeSet attributes() {
+      return AttributeSet.EMPTY;
+   }
+
+   /**
+    * Enables or disables the coalescing of writes
+    *
+    * @param enabled whether to coalesce writes
+    */
+   public AutoBatchingConfigurationBuilder enabled(boolean enabled) {
+      attributes.attribute(ENABLED).set(enabled);
+      return this;
+   }
+
+   /**
+    * Enables the coalescing of writes
+    */
+   public AutoBatchingConfigurationBuilder enable() {
+      return enabled(true);
+   }
+
+   /**
+    * Disables the coalescing of writes
+    */
+   public AutoBatchingConfigurationBuilder disable() {
+      return enabled(false);
+   }
+
+   /**
+    * Sets how long the first write of a batch waits for other writes before the batch is sent. Defaults to 100
+    * microseconds.
+    *
+    * @param window the duration of the window
+    * @param unit   the unit of the duration
+    */
+   public AutoBatchingConfigurationBuilder window(long window, TimeUnit unit) {
+      attributes.attribute(WINDOW).set(unit.toMicros(window));
+      return this;
+   }
+
+   /**
+    * Sets the number of writes after which a batch is sent without waiting for the end of the window. Defaults to 128.
+    *
+    * @param maxBatchSize the maximum number of writes of a batch
+    */
+   public AutoBatchingConfigurationBuilder maxBatchSize(int maxBatchSize) {
+      attributes.attribute(MAX_BATCH_SIZE).set(maxBatchSize);
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      if (attributes.attribute(WINDOW).get() < 0) {
+         throw new IllegalArgumentException("The auto batching window must not be negative");
+      }
+      if (attributes.attribute(MAX_BATCH_SIZE).get() <= 0) {
+         throw new IllegalArgumentException("The auto batching max batch size must be greater than 0");
+      }
+   }
+
+   @Override
+   public AutoBatchingConfiguration create() {
+      return new AutoBatchingConfiguration(attributes.protect());
+   }
+
+   @Override
+   public Builder<?> read(AutoBatchingConfiguration template, Combine combine) {
+      this.attributes.read(template.attributes(), combine);
+      return this;
+   }
+
+   @Override
+   public ConfigurationBuilder withProperties(Properties properties) {
+      TypedProperties typed = TypedProperties.toTypedProperties(properties);
+      enabled(typed.getBooleanProperty(AUTO_BATCHING, ENABLED.getDefaultValue()));
+      window(typed.getLongProperty(AUTO_BATCHING_WINDOW, WINDOW.getDefaultValue()), TimeUnit.MICROSECONDS);
+      maxBatchSize(typed.getIntProperty(AUTO_BATCHING_MAX_BATCH_SIZE, MAX_BATCH_SIZE.getDefaultValue()));
+      return builder;
+   }
+}
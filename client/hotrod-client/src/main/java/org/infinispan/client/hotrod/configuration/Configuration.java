@@ -4,6 +4,9 @@
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_CALLBACK_HANDLER;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_CLIENT_SUBJECT;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_SERVER_NAME;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING_MAX_BATCH_SIZE;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING_WINDOW;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.BATCH_SIZE;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_CONFIGURATION_SUFFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CACHE_MARSHALLER;
@@ -110,6 +113,7 @@ public class Configuration {
    private final int batchSize;
    private final ClassAllowList classAllowList;
    private final StatisticsConfiguration statistics;
+   private final AutoBatchingConfiguration autoBatching;
    @Deprecated
    private final TransactionConfiguration transaction;
    private final Features features;
@@ -129,7 +133,8 @@ public Configuration(ExecutorFactoryConfiguration asyncExecutorFactory, Supplier
                         ProtocolVersion protocolVersion, List<ServerConfiguration> servers, int socketTimeout, SecurityConfiguration security, boolean tcpNoDelay, boolean tcpKeepAlive,
                         int valueSizeEstimate, int maxRetries, NearCacheConfiguration nearCache,
                         List<ClusterConfiguration> clusters, List<String> serialAllowList, int batchSize,
-                        TransactionConfiguration transaction, StatisticsConfiguration statistics, Features features,
+                        TransactionConfiguration transaction, StatisticsConfiguration statistics,
+                        AutoBatchingConfiguration autoBatching, Features features,
                         List<SerializationContextInitializer> contextInitializers,
                         Map<String, RemoteCacheConfiguration> remoteCaches,
                         TransportFactory transportFactory, boolean tracingPropagationEnabled) {
@@ -162,6 +167,7 @@ public Configuration(ExecutorFactoryConfiguration asyncExecutorFactory, Supplier
       this.batchSize = batchSize;
       this.transaction = transaction;
       this.statistics = statistics;
+      this.autoBatching = autoBatching;
       this.features = features;
       this.contextInitializers = contextInitializers;
       this.remoteCaches = remoteCaches;
@@ -346,6 +352,10 @@ public StatisticsConfiguration statistics() {
       return statistics;
    }
 
+   public AutoBatchingConfiguration autoBatching() {
+      return autoBatching;
+   }
+
    /**
     * @deprecated since 12.0. To be removed in Infinispan 14.
     */
@@ -399,6 +409,7 @@ public String toString() {
             + ", remoteCaches= " + remoteCaches
             + ", transaction=" + transaction
             + ", statistics=" + statistics
+            + ", autoBatching=" + autoBatching
             + "]";
    }
 
@@ -433,6 +444,9 @@ public Properties properties() {
       properties.setProperty(VALUE_SIZE_ESTIMATE, valueSizeEstimate());
       properties.setProperty(MAX_RETRIES, maxRetries());
       properties.setProperty(STATISTICS, statistics().enabled());
+      properties.setProperty(AUTO_BATCHING, autoBatching().enabled());
+      properties.setProperty(AUTO_BATCHING_WINDOW, autoBatching().window());
+      properties.setProperty(AUTO_BATCHING_MAX_BATCH_SIZE, autoBatching().maxBatchSize());
 
       properties.setProperty(DNS_RESOLVER_MIN_TTL, dnsResolverMinTTL);
       properties.setProperty(DNS_RESOLVER_MAX_TTL, dnsResolverMaxTTL);
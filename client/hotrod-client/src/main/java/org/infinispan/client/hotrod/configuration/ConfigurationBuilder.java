@@ -89,6 +89,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder, Builder<
    private int batchSize = ConfigurationProperties.DEFAULT_BATCH_SIZE;
    private final TransactionConfigurationBuilder transaction;
    private final StatisticsConfigurationBuilder statistics;
+   private final AutoBatchingConfigurationBuilder autoBatching;
    private final List<ClusterConfigurationBuilder> clusters = new ArrayList<>();
    private Features features;
    private final List<SerializationContextInitializer> contextInitializers = new ArrayList<>();
@@ -108,6 +109,7 @@ public ConfigurationBuilder() {
       this.nearCache = new NearCacheConfigurationBuilder(this);
       this.transaction = new TransactionConfigurationBuilder(this);
       this.statistics = new StatisticsConfigurationBuilder(this);
+      this.autoBatching = new AutoBatchingConfigurationBuilder(this);
       this.remoteCacheBuilders = new HashMap<>();
    }
 
@@ -403,6 +405,11 @@ public StatisticsConfigurationBuilder statistics() {
       return statistics;
    }
 
+   @Override
+   public AutoBatchingConfigurationBuilder autoBatching() {
+      return autoBatching;
+   }
+
    @Override
    public TransactionConfigurationBuilder transaction() {
       return transaction;
@@ -552,6 +559,7 @@ public ConfigurationBuilder withProperties(Properties properties) {
       }
 
       statistics.withProperties(properties);
+      autoBatching.withProperties(properties);
 
       if (typed.containsKey(ConfigurationProperties.TRANSPORT_FACTORY)) {
          this.transportFactory = Util.getInstance(typed.getProperty(ConfigurationProperties.TRANSPORT_FACTORY), classLoader.get());
@@ -598,6 +606,7 @@ public void validate() {
       nearCache.validate();
       transaction.validate();
       statistics.validate();
+      autoBatching.validate();
       if (maxRetries < 0) {
          throw HOTROD.invalidMaxRetries(maxRetries);
       }
@@ -645,7 +654,7 @@ public Configuration create() {
             dnsResolverMinTTL, dnsResolverMaxTTL, dnsResolverNegativeTTL,
             forceReturnValues, keySizeEstimate, buildMarshaller, buildMarshallerClass, protocolVersion, servers, socketTimeout,
             security.create(), tcpNoDelay, tcpKeepAlive, valueSizeEstimate, maxRetries, nearCache.create(),
-            serverClusterConfigs, allowListRegExs, batchSize, transaction.create(), statistics.create(), features,
+            serverClusterConfigs, allowListRegExs, batchSize, transaction.create(), statistics.create(), autoBatching.create(), features,
             contextInitializers, remoteCaches, transportFactory, tracingPropagationEnabled);
    }
 
@@ -702,6 +711,7 @@ public ConfigurationBuilder read(Configuration template, Combine combine) {
       this.allowListRegExs.addAll(template.serialWhitelist());
       this.transaction.read(template.transaction(), combine);
       this.statistics.read(template.statistics(), combine);
+      this.autoBatching.read(template.autoBatching(), combine);
       this.contextInitializers.clear();
       this.contextInitializers.addAll(template.getContextInitializers());
       this.clientIntelligence = template.clientIntelligence();
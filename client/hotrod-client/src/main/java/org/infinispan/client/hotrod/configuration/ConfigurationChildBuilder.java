@@ -237,6 +237,11 @@ public interface ConfigurationChildBuilder {
     */
    StatisticsConfigurationBuilder statistics();
 
+   /**
+    * Configures the coalescing of concurrent single-key writes into multi-key requests.
+    */
+   AutoBatchingConfigurationBuilder autoBatching();
+
    /**
     * Transaction configuration
     */
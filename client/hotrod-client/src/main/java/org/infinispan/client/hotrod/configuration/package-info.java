@@ -462,6 +462,27 @@
  *           <td>Relates to {@link org.infinispan.client.hotrod.configuration.StatisticsConfigurationBuilder#jmxDomain(java.lang.String)}</td>
  *        </tr>
  *        <tr>
+ *           <th colspan="4">Auto batching properties</th>
+ *        </tr>
+ *        <tr>
+ *           <td><b>infinispan.client.hotrod.auto_batching.enabled</b></td>
+ *           <td>Boolean</td>
+ *           <td>Default value {@link org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration#ENABLED}</td>
+ *           <td>Relates to {@link org.infinispan.client.hotrod.configuration.AutoBatchingConfigurationBuilder#enabled(boolean)}</td>
+ *        </tr>
+ *        <tr>
+ *           <td><b>infinispan.client.hotrod.auto_batching.window</b></td>
+ *           <td>Long</td>
+ *           <td>Default value {@link org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration#WINDOW}</td>
+ *           <td>The window in microseconds. Relates to {@link org.infinispan.client.hotrod.configuration.AutoBatchingConfigurationBuilder#window(long, java.util.concurrent.TimeUnit)}</td>
+ *        </tr>
+ *        <tr>
+ *           <td><b>infinispan.client.hotrod.auto_batching.max_batch_size</b></td>
+ *           <td>Integer</td>
+ *           <td>Default value {@link org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration#MAX_BATCH_SIZE}</td>
+ *           <td>Relates to {@link org.infinispan.client.hotrod.configuration.AutoBatchingConfigurationBuilder#maxBatchSize(int)}</td>
+ *        </tr>
+ *        <tr>
  *           <td><b>infinispan.client.hotrod.tracing.propagation_enabled</b></td>
  *           <td>Boolean</td>
  *           <td>Enabled implicitly by the presence of the OpenTelemetry API cn the client classpath.</td>
@@ -0,0 +1,314 @@
+package org.infinispan.client.hotrod.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.infinispan.client.hotrod.DataFormat;
+import org.infinispan.client.hotrod.configuration.AutoBatchingConfiguration;
+import org.infinispan.client.hotrod.impl.operations.OperationsFactory;
+import org.infinispan.client.hotrod.impl.operations.PutAllParallelOperation;
+import org.infinispan.commons.marshall.WrappedByteArray;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Coalesces the puts of a remote cache issued within a short window into {@link PutAllParallelOperation}s, which send
+ * a single request to each server owning some of the keys.
+ * <p>
+ * The first put of a batch schedules the batch to be sent at the end of the window, and the batch is sent right away
+ * once it holds the maximum number of keys. Only the puts with the same expiration and data format share a batch. When
+ * a batch holds several puts of the same key, the last one wins, as if the puts had been sent in order.
+ * <p>
+ * The other operations are not sent before the puts issued before them. An operation on a key with a put that is not
+ * complete yet sends the batch holding the put right away, and waits for the put to complete. An operation on the
+ * whole cache sends all the batches and waits for all the puts. The operations issued while an operation waits, puts
+ * included, wait for it in turn.
+ *
+ * @since 15.0
+ */
+public class AutoBatcher {
+   private final OperationsFactory operationsFactory;
+   private final ScheduledExecutorService scheduler;
+   private final long windowMicros;
+   private final int maxBatchSize;
+
+   @GuardedBy("this")
+   private final Map<BatchKey, Batch> batches = new HashMap<>();
+   // The last operation of each key that is not complete, either the batch holding its put or a waiting operation
+   @GuardedBy("this")
+   private final Map<WrappedByteArray, CompletableFuture<Void>> lastByKey = new HashMap<>();
+   @GuardedBy("this")
+   private final Set<CompletableFuture<Void>> incomplete = new HashSet<>();
+   // The last operation on the whole cache that is not complete
+   @GuardedBy("this")
+   private CompletableFuture<Void> barrier;
+
+   public AutoBatcher(OperationsFactory operationsFactory, AutoBatchingConfiguration configuration) {
+      this.operationsFactory = operationsFactory;
+      this.scheduler = operationsFactory.getChannelFactory().getScheduledExecutor();
+      this.windowMicros = configuration.window();
+      this.maxBatchSize = configuration.maxBatchSize();
+   }
+
+   /**
+    * Adds the put to the current batch with the same expiration and data format. If another operation on the key is
+    * not complete, other than a put of the same batch, the put is sent on its own once that operation completes.
+    *
+    * @param operation sends the put on its own.
+    * @return a stage completed when the put completes.
+    */
+   public <T> CompletableFuture<Void> put(byte[] key, byte[] value, long lifespan, TimeUnit lifespanUnit, long maxIdle,
+                                          TimeUnit maxIdleUnit, DataFormat dataFormat,
+                                          Supplier<CompletableFuture<T>> operation) {
+      WrappedByteArray wrappedKey = new WrappedByteArray(key);
+      BatchKey batchKey = new BatchKey(lifespan, lifespanUnit, maxIdle, maxIdleUnit, dataFormat);
+      Batch toSend = null;
+      CompletableFuture<Void> previous;
+      CompletableFuture<Void> done = null;
+      CompletableFuture<Void> result = null;
+      synchronized (this) {
+         Batch batch = batches.get(batchKey);
+         previous = previous(wrappedKey);
+         if (previous == null || batch != null && previous == batch.future) {
+            if (batch == null) {
+               batch = newBatch(batchKey);
+            }
+            batch.entries.put(wrappedKey, value);
+            lastByKey.put(wrappedKey, batch.future);
+            // Every put gets its own future, so the caller cannot complete or cancel the future of the other puts
+            result = batch.future.thenApply(ignore -> null);
+            if (batch.entries.size() >= maxBatchSize) {
+               batches.remove(batchKey);
+               toSend = batch;
+            }
+         } else {
+            toSend = removePendingBatch(wrappedKey);
+            done = register(wrappedKey);
+         }
+      }
+      if (toSend != null) {
+         toSend.send();
+      }
+      return result != null ? result : runAfter(previous, operation, done).thenApply(ignore -> null);
+   }
+
+   /**
+    * Executes an operation on a key once the operations on the key issued before it complete.
+    */
+   public <T> CompletableFuture<T> execute(byte[] key, Supplier<CompletableFuture<T>> operation) {
+      WrappedByteArray wrappedKey = new WrappedByteArray(key);
+      Batch pending;
+      CompletableFuture<Void> previous;
+      CompletableFuture<Void> done;
+      synchronized (this) {
+         previous = previous(wrappedKey);
+         if (previous == null) {
+            pending = null;
+            done = null;
+         } else {
+            pending = removePendingBatch(wrappedKey);
+            done = register(wrappedKey);
+         }
+      }
+      if (previous == null) {
+         return operation.get();
+      }
+      if (pending != null) {
+         pending.send();
+      }
+      return runAfter(previous, operation, done);
+   }
+
+   /**
+    * Executes an operation on the whole cache once all the operations issued before it complete.
+    */
+   public <T> CompletableFuture<T> executeAll(Supplier<CompletableFuture<T>> operation) {
+      List<Batch> pending;
+      CompletableFuture<Void> previous;
+      CompletableFuture<Void> done = null;
+      synchronized (this) {
+         pending = new ArrayList<>(batches.values());
+         batches.clear();
+         previous = allIncomplete();
+         if (previous != null) {
+            CompletableFuture<Void> waiting = new CompletableFuture<>();
+            barrier = waiting;
+            incomplete.add(waiting);
+            waiting.whenComplete((ignore, t) -> completed(null, waiting));
+            done = waiting;
+         }
+      }
+      pending.forEach(Batch::send);
+      return previous == null ? operation.get() : runAfter(previous, operation, done);
+   }
+
+   /**
+    * Sends all the pending batches without waiting for the end of their window.
+    *
+    * @return a stage completed when all the operations issued so far complete, even if some of them fail.
+    */
+   public CompletableFuture<Void> flush() {
+      List<Batch> pending;
+      CompletableFuture<Void> previous;
+      synchronized (this) {
+         pending = new ArrayList<>(batches.values());
+         batches.clear();
+         previous = allIncomplete();
+      }
+      pending.forEach(Batch::send);
+      return previous == null ? CompletableFuture.completedFuture(null) : previous.handle((ignore, t) -> null);
+   }
+
+   @GuardedBy("this")
+   private CompletableFuture<Void> previous(WrappedByteArray key) {
+      CompletableFuture<Void> last = lastByKey.get(key);
+      if (last == null) {
+         return barrier;
+      }
+      return barrier == null ? last : CompletableFuture.allOf(last, barrier);
+   }
+
+   @GuardedBy("this")
+   private CompletableFuture<Void> allIncomplete() {
+      return incomplete.isEmpty() ? null : CompletableFuture.allOf(incomplete.toArray(new CompletableFuture[0]));
+   }
+
+   @GuardedBy("this")
+   private Batch newBatch(BatchKey batchKey) {
+      Batch batch = new Batch(batchKey);
+      batches.put(batchKey, batch);
+      incomplete.add(batch.future);
+      batch.future.whenComplete((ignore, t) -> completed(batch));
+      scheduler.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+      return batch;
+   }
+
+   /**
+    * Removes the batch holding a put of the key if it was not sent yet.
+    */
+   @GuardedBy("this")
+   private Batch removePendingBatch(WrappedByteArray key) {
+      for (Iterator<Batch> it = batches.values().iterator(); it.hasNext(); ) {
+         Batch batch = it.next();
+         if (batch.entries.containsKey(key)) {
+            it.remove();
+            return batch;
+         }
+      }
+      return null;
+   }
+
+   @GuardedBy("this")
+   private CompletableFuture<Void> register(WrappedByteArray key) {
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      lastByKey.put(key, done);
+      incomplete.add(done);
+      done.whenComplete((ignore, t) -> completed(key, done));
+      return done;
+   }
+
+   private synchronized void completed(WrappedByteArray key, CompletableFuture<Void> done) {
+      if (key != null) {
+         lastByKey.remove(key, done);
+      }
+      incomplete.remove(done);
+      if (barrier == done) {
+         barrier = null;
+      }
+   }
+
+   private synchronized void completed(Batch batch) {
+      for (WrappedByteArray key : batch.entries.keySet()) {
+         lastByKey.remove(key, batch.future);
+      }
+      incomplete.remove(batch.future);
+   }
+
+   private static <T> CompletableFuture<T> runAfter(CompletableFuture<Void> previous,
+                                                    Supplier<CompletableFuture<T>> operation,
+                                                    CompletableFuture<Void> done) {
+      // A failed put only fails its own caller, the operations waiting for it still run
+      CompletableFuture<T> result = previous.handle((ignore, t) -> null).thenCompose(ignore -> operation.get());
+      result.whenComplete((ignore, t) -> done.complete(null));
+      return result;
+   }
+
+   private void flush(Batch batch) {
+      synchronized (this) {
+         // The batch was already sent when it got full or when another operation needed it
+         if (!batches.remove(batch.key, batch)) {
+            return;
+         }
+      }
+      batch.send();
+   }
+
+   private class Batch {
+      final BatchKey key;
+      final Map<WrappedByteArray, byte[]> entries = new LinkedHashMap<>();
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+
+      Batch(BatchKey key) {
+         this.key = key;
+      }
+
+      void send() {
+         Map<byte[], byte[]> map = new HashMap<>(entries.size());
+         entries.forEach((k, v) -> map.put(k.getBytes(), v));
+         try {
+            PutAllParallelOperation op = operationsFactory.newPutAllOperation(map, key.lifespan, key.lifespanUnit,
+                  key.maxIdle, key.maxIdleUnit, key.dataFormat);
+            op.execute().whenComplete((ignore, t) -> {
+               if (t != null) {
+                  future.completeExceptionally(t);
+               } else {
+                  future.complete(null);
+               }
+            });
+         } catch (Throwable t) {
+            future.completeExceptionally(t);
+         }
+      }
+   }
+
+   private static final class BatchKey {
+      final long lifespan;
+      final TimeUnit lifespanUnit;
+      final long maxIdle;
+      final TimeUnit maxIdleUnit;
+      final DataFormat dataFormat;
+
+      BatchKey(long lifespan, TimeUnit lifespanUnit, long maxIdle, TimeUnit maxIdleUnit, DataFormat dataFormat) {
+         this.lifespan = lifespan;
+         this.lifespanUnit = lifespanUnit;
+         this.maxIdle = maxIdle;
+         this.maxIdleUnit = maxIdleUnit;
+         this.dataFormat = dataFormat;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         BatchKey other = (BatchKey) o;
+         return lifespan == other.lifespan && maxIdle == other.maxIdle && lifespanUnit == other.lifespanUnit &&
+               maxIdleUnit == other.maxIdleUnit && dataFormat == other.dataFormat;
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(lifespan, lifespanUnit, maxIdle, maxIdleUnit, System.identityHashCode(dataFormat));
+      }
+   }
+}
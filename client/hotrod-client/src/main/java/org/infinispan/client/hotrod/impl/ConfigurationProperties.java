@@ -93,6 +93,10 @@ public class ConfigurationProperties {
    public static final String JMX = ICH + "jmx";
    public static final String JMX_NAME = ICH + "jmx_name";
    public static final String JMX_DOMAIN = ICH + "jmx_domain";
+   // Auto batching properties
+   public static final String AUTO_BATCHING = ICH + "auto_batching.enabled";
+   public static final String AUTO_BATCHING_WINDOW = ICH + "auto_batching.window";
+   public static final String AUTO_BATCHING_MAX_BATCH_SIZE = ICH + "auto_batching.max_batch_size";
    // Transaction properties
    public static final String TRANSACTION_MANAGER_LOOKUP = ICH + "transaction.transaction_manager_lookup";
    public static final String TRANSACTION_MODE = ICH + "transaction.transaction_mode";
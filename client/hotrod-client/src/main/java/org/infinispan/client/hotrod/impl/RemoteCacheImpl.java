@@ -16,6 +16,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
@@ -69,6 +70,7 @@
 import org.infinispan.query.dsl.Query;
 import org.reactivestreams.Publisher;
 
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
 
 /**
@@ -88,6 +90,7 @@
    protected ClientStatistics clientStatistics;
    private ObjectName mbeanObjectName;
    private RemoteQueryFactory queryFactory;
+   private AutoBatcher autoBatcher;
 
    public RemoteCacheImpl(RemoteCacheManager rcm, String name, TimeService timeService) {
       this(rcm, name, timeService, null);
@@ -126,6 +129,9 @@ public void init(OperationsFactory operationsFactory,
    @Override
    public void init(OperationsFactory operationsFactory, Configuration configuration) {
       init(operationsFactory, configuration.batchSize());
+      if (configuration.autoBatching().enabled()) {
+         this.autoBatcher = new AutoBatcher(operationsFactory, configuration.autoBatching());
+      }
    }
 
    private void init(OperationsFactory operationsFactory, int batchSize) {
@@ -182,9 +188,10 @@ public RemoteCacheContainer getRemoteCacheContainer() {
    @Override
    public CompletableFuture<Boolean> removeWithVersionAsync(final K key, final long version) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       RemoveIfUnmodifiedOperation<V> op = operationsFactory.newRemoveIfUnmodifiedOperation(
-            keyAsObjectIfNeeded(key), keyToBytes(key), version, dataFormat);
-      return op.execute().thenApply(response -> response.getCode().isUpdated());
+            keyAsObjectIfNeeded(key), keyBytes, version, dataFormat);
+      return afterPendingPuts(keyBytes, op::execute).thenApply(response -> response.getCode().isUpdated());
    }
 
    @Override
@@ -194,9 +201,10 @@ public CompletableFuture<V> mergeAsync(K key, V value, BiFunction<? super V, ? s
 
    public CompletableFuture<Boolean> replaceWithVersionAsync(K key, V newValue, long version, long lifespan, TimeUnit lifespanTimeUnit, long maxIdle, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(
-            keyAsObjectIfNeeded(key), keyToBytes(key), valueToBytes(newValue), lifespan, lifespanTimeUnit, maxIdle, maxIdleTimeUnit, version, dataFormat);
-      return op.execute().thenApply(response -> response.getCode().isUpdated());
+            keyAsObjectIfNeeded(key), keyBytes, valueToBytes(newValue), lifespan, lifespanTimeUnit, maxIdle, maxIdleTimeUnit, version, dataFormat);
+      return afterPendingPuts(keyBytes, op::execute).thenApply(response -> response.getCode().isUpdated());
    }
 
    @Override
@@ -213,8 +221,8 @@ public <E> Publisher<Entry<K, E>> publishEntries(String filterConverterFactory,
          return Flowable.empty();
       }
       byte[][] params = marshallParams(filterConverterParams);
-      return new RemotePublisher<>(operationsFactory, filterConverterFactory, params, segments,
-            batchSize, false, dataFormat);
+      return publishAfterPendingPuts(new RemotePublisher<>(operationsFactory, filterConverterFactory, params, segments,
+            batchSize, false, dataFormat));
    }
 
    @Override
@@ -239,24 +247,35 @@ public CloseableIterator<Entry<Object, MetadataValue<Object>>> retrieveEntriesWi
 
    @Override
    public Publisher<Entry<K, MetadataValue<V>>> publishEntriesWithMetadata(Set<Integer> segments, int batchSize) {
-      return new RemotePublisher<>(operationsFactory, null, null, segments,
-            batchSize, true, dataFormat);
+      return publishAfterPendingPuts(new RemotePublisher<>(operationsFactory, null, null, segments,
+            batchSize, true, dataFormat));
    }
 
    @Override
    public CompletableFuture<MetadataValue<V>> getWithMetadataAsync(K key) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       GetWithMetadataOperation<V> op = operationsFactory.newGetWithMetadataOperation(
-            keyAsObjectIfNeeded(key), keyToBytes(key), dataFormat);
-      return op.execute();
+            keyAsObjectIfNeeded(key), keyBytes, dataFormat);
+      return afterPendingPuts(keyBytes, op::execute);
    }
 
    @Override
    public RetryAwareCompletionStage<MetadataValue<V>> getWithMetadataAsync(K key, SocketAddress preferredAddres) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       GetWithMetadataOperation<V> op = operationsFactory.newGetWithMetadataOperation(
-            keyAsObjectIfNeeded(key), keyToBytes(key), dataFormat, preferredAddres);
-      return op.internalExecute();
+            keyAsObjectIfNeeded(key), keyBytes, dataFormat, preferredAddres);
+      if (autoBatcher == null) {
+         return op.internalExecute();
+      }
+      // The operation is its own stage, only a failure to start it has to be forwarded
+      autoBatcher.execute(keyBytes, () -> op.internalExecute().toCompletableFuture()).whenComplete((ignore, t) -> {
+         if (t != null) {
+            op.completeExceptionally(t);
+         }
+      });
+      return op;
    }
 
    @Override
@@ -270,14 +289,14 @@ public CompletableFuture<Void> putAllAsync(Map<? extends K, ? extends V> map, lo
          byteMap.put(keyToBytes(entry.getKey()), valueToBytes(entry.getValue()));
       }
       PutAllParallelOperation op = operationsFactory.newPutAllOperation(byteMap, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
-      return op.execute();
+      return afterAllPendingPuts(op::execute);
    }
 
    @Override
    public CompletableFuture<Long> sizeAsync() {
       assertRemoteCacheManagerIsStarted();
       SizeOperation op = operationsFactory.newSizeOperation();
-      return op.execute().thenApply(Integer::longValue);
+      return afterAllPendingPuts(op::execute).thenApply(Integer::longValue);
    }
 
    @Override
@@ -313,16 +332,26 @@ public CompletableFuture<V> putAsync(K key, V value, long lifespan, TimeUnit lif
       if (log.isTraceEnabled()) {
          log.tracef("About to add (K,V): (%s, %s) lifespan:%d, maxIdle:%d", key, value, lifespan, maxIdleTime);
       }
+      // Without flags the put returns no previous value, so it can be sent with other puts
+      boolean batch = autoBatcher != null && !operationsFactory.hasFlags();
+      byte[] keyBytes = keyToBytes(key);
+      byte[] valueBytes = valueToBytes(value);
+      // Creating the operation consumes the flags of the thread
       PutOperation<V> op = operationsFactory.newPutKeyValueOperation(keyAsObjectIfNeeded(key),
-            keyToBytes(key), valueToBytes(value), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
-      return op.execute();
+            keyBytes, valueBytes, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
+      if (batch) {
+         // The put is sent on its own if it has to wait for another operation on the key
+         return autoBatcher.put(keyBytes, valueBytes, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit,
+               dataFormat, op::execute).thenApply(ignore -> null);
+      }
+      return afterPendingPuts(keyBytes, op::execute);
    }
 
    @Override
    public CompletableFuture<Void> clearAsync() {
       assertRemoteCacheManagerIsStarted();
       ClearOperation op = operationsFactory.newClearOperation();
-      return op.execute();
+      return afterAllPendingPuts(op::execute);
    }
 
    @Override
@@ -415,9 +444,10 @@ public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
    @Override
    public CompletableFuture<V> putIfAbsentAsync(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       PutIfAbsentOperation<V> op = operationsFactory.newPutIfAbsentOperation(keyAsObjectIfNeeded(key),
-            keyToBytes(key), valueToBytes(value), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
-      return op.execute();
+            keyBytes, valueToBytes(value), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
+      return afterPendingPuts(keyBytes, op::execute);
    }
 
    @Override
@@ -446,10 +476,11 @@ public CompletableFuture<Boolean> replaceAsync(K key, V oldValue, V newValue, lo
    @Override
    public CompletableFuture<V> removeAsync(Object key) {
       assertRemoteCacheManagerIsStarted();
-      RemoveOperation<V> removeOperation = operationsFactory.newRemoveOperation(keyAsObjectIfNeeded(key), keyToBytes(key), dataFormat);
+      byte[] keyBytes = keyToBytes(key);
+      RemoveOperation<V> removeOperation = operationsFactory.newRemoveOperation(keyAsObjectIfNeeded(key), keyBytes, dataFormat);
       // TODO: It sucks that you need the prev value to see if it works...
       // We need to find a better API for RemoteCache...
-      return removeOperation.execute();
+      return afterPendingPuts(keyBytes, removeOperation::execute);
    }
 
    @Override
@@ -474,17 +505,19 @@ public CompletableFuture<Boolean> removeAsync(Object key, Object value) {
    @Override
    public CompletableFuture<V> replaceAsync(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       ReplaceOperation<V> op = operationsFactory.newReplaceOperation(keyAsObjectIfNeeded(key),
-            keyToBytes(key), valueToBytes(value), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
-      return op.execute();
+            keyBytes, valueToBytes(value), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit, dataFormat);
+      return afterPendingPuts(keyBytes, op::execute);
    }
 
    @Override
    public CompletableFuture<Boolean> containsKeyAsync(K key) {
       assertRemoteCacheManagerIsStarted();
+      byte[] keyBytes = keyToBytes(key);
       ContainsKeyOperation op = operationsFactory.newContainsKeyOperation(
-            keyAsObjectIfNeeded(key), keyToBytes(key), dataFormat);
-      return op.execute();
+            keyAsObjectIfNeeded(key), keyBytes, dataFormat);
+      return afterPendingPuts(keyBytes, op::execute);
    }
 
    @Override
@@ -504,7 +537,7 @@ public CompletableFuture<Map<K, V>> getAllAsync(Set<?> keys) {
          byteKeys.add(keyToBytes(key));
       }
       GetAllParallelOperation<K, V> op = operationsFactory.newGetAllOperation(byteKeys, dataFormat);
-      return op.execute().thenApply(Collections::unmodifiableMap);
+      return afterAllPendingPuts(op::execute).thenApply(Collections::unmodifiableMap);
    }
 
    @Override
@@ -516,6 +549,9 @@ public void start() {
 
    @Override
    public void stop() {
+      if (autoBatcher != null) {
+         autoBatcher.flush();
+      }
       unregisterMBean();
    }
 
@@ -605,7 +641,7 @@ public CompletableFuture<V> getAsync(Object key) {
       assertRemoteCacheManagerIsStarted();
       byte[] keyBytes = keyToBytes(key);
       GetOperation<V> gco = operationsFactory.newGetKeyOperation(keyAsObjectIfNeeded(key), keyBytes, dataFormat);
-      CompletableFuture<V> result = gco.execute();
+      CompletableFuture<V> result = afterPendingPuts(keyBytes, gco::execute);
       if (log.isTraceEnabled()) {
          result.thenAccept(value -> log.tracef("For key(%s) returning %s", key, value));
       }
@@ -626,6 +662,28 @@ protected byte[] valueToBytes(Object o) {
       return dataFormat.valueToBytes(o);
    }
 
+   /**
+    * Executes an operation on a key once the puts of the key held by the auto-batcher complete.
+    */
+   private <T> CompletableFuture<T> afterPendingPuts(byte[] keyBytes, Supplier<CompletableFuture<T>> operation) {
+      return autoBatcher == null ? operation.get() : autoBatcher.execute(keyBytes, operation);
+   }
+
+   /**
+    * Executes an operation on the whole cache once all the puts held by the auto-batcher complete.
+    */
+   private <T> CompletableFuture<T> afterAllPendingPuts(Supplier<CompletableFuture<T>> operation) {
+      return autoBatcher == null ? operation.get() : autoBatcher.executeAll(operation);
+   }
+
+   /**
+    * Starts the iteration once all the puts held by the auto-batcher complete.
+    */
+   private <E> Publisher<E> publishAfterPendingPuts(Publisher<E> publisher) {
+      return autoBatcher == null ? publisher : Completable.defer(() -> Completable.fromCompletionStage(autoBatcher.flush()))
+            .andThen(publisher);
+   }
+
    protected void assertRemoteCacheManagerIsStarted() {
       if (!remoteCacheManager.isStarted()) {
          String message = "Cannot perform operations on a cache associated with an unstarted RemoteCacheManager. Use RemoteCacheManager.start before using the remote cache.";
@@ -678,7 +736,7 @@ public <T> T execute(String taskName, Map<String, ?> params, Object key) {
          keyHint = isObjectStorage ? key : keyToBytes(key);
       }
       ExecuteOperation<T> op = operationsFactory.newExecuteOperation(taskName, marshalledParams, keyHint, dataFormat);
-      return await(op.execute());
+      return await(afterAllPendingPuts(op::execute));
    }
 
    @Override
@@ -704,6 +762,7 @@ public <T, U> InternalRemoteCache<T, U> withDataFormat(DataFormat newDataFormat)
    private <T, U> RemoteCacheImpl<T, U> newInstance() {
       RemoteCacheImpl<T, U> copy = new RemoteCacheImpl<>(this.remoteCacheManager, name, clientStatistics);
       copy.init(this.operationsFactory, this.batchSize);
+      copy.autoBatcher = this.autoBatcher;
       return copy;
    }
 
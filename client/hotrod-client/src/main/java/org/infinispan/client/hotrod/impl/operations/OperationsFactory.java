@@ -312,6 +312,14 @@ public boolean hasFlag(Flag flag) {
       return threadLocalFlags != null && (threadLocalFlags & flag.getFlagInt()) != 0;
    }
 
+   /**
+    * @return {@code true} if the next operation of the current thread needs the previous value or has flags set.
+    */
+   public boolean hasFlags() {
+      Integer threadLocalFlags = this.flagsMap.get();
+      return forceReturnValue || (threadLocalFlags != null && threadLocalFlags != 0);
+   }
+
    public CacheTopologyInfo getCacheTopologyInfo() {
       return channelFactory.getCacheTopologyInfo(cacheNameBytes);
    }
@@ -19,6 +19,7 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -173,6 +174,13 @@ public void start(Configuration configuration, Marshaller marshaller, ExecutorSe
       pingServersIgnoreException();
    }
 
+   /**
+    * @return the executor used to schedule the tasks of the client, backed by the event loop group.
+    */
+   public ScheduledExecutorService getScheduledExecutor() {
+      return eventLoopGroup;
+   }
+
    public Codec getNegotiatedCodec() {
       return codecHolder.getCodec();
    }
@@ -2,12 +2,26 @@
 
 import java.util.function.BiConsumer;
 
+import org.infinispan.client.hotrod.DataFormat;
 import org.infinispan.client.hotrod.MetadataValue;
 import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.commons.configuration.ClassAllowList;
 
 /**
  * @since 14.0
  **/
 public interface NearCacheFactory {
    <K,V> NearCache<K, V> createNearCache(NearCacheConfiguration config, BiConsumer<K, MetadataValue<V>> removedConsumer);
+
+   /**
+    * Creates the near cache of a remote cache, for the near caches that store the values in marshalled form.
+    *
+    * @param dataFormat the data format of the remote cache, to marshall and unmarshall the values.
+    * @param allowList the classes that can be unmarshalled.
+    * @since 15.0
+    */
+   default <K, V> NearCache<K, V> createNearCache(NearCacheConfiguration config, DataFormat dataFormat,
+                                                  ClassAllowList allowList, BiConsumer<K, MetadataValue<V>> removedConsumer) {
+      return createNearCache(config, removedConsumer);
+   }
 }
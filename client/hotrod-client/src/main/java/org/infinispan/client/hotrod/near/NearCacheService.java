@@ -54,6 +54,7 @@ protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier
    }
 
    public SocketAddress start(InternalRemoteCache<K, V> remote) {
+      this.remote = remote;
       if (cache == null) {
          // Create near cache
          cache = createNearCache(config, this::entryRemovedFromNearCache);
@@ -73,7 +74,6 @@ public SocketAddress start(InternalRemoteCache<K, V> remote) {
          // Get the listener ID for faster listener connected lookups
          listenerId = listenerNotifier.findListenerId(listener);
       }
-      this.remote = remote;
       return listenerAddress;
    }
 
@@ -108,7 +108,11 @@ public void stop(RemoteCache<K, V> remote) {
    }
 
    protected NearCache<K, V> createNearCache(NearCacheConfiguration config, BiConsumer<K, MetadataValue<V>> removedConsumer) {
-      return config.nearCacheFactory().createNearCache(config, removedConsumer);
+      if (remote == null) {
+         return config.nearCacheFactory().createNearCache(config, removedConsumer);
+      }
+      return config.nearCacheFactory().createNearCache(config, remote.getDataFormat(),
+            remote.getRemoteCacheContainer().getConfiguration().getClassAllowList(), removedConsumer);
    }
 
    public static <K, V> NearCacheService<K, V> create(
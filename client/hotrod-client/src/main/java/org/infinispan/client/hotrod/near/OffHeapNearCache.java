@@ -0,0 +1,264 @@
+package org.infinispan.client.hotrod.near;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+import org.infinispan.client.hotrod.DataFormat;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.commons.configuration.ClassAllowList;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+
+/**
+ * Near cache that keeps the marshalled values in direct memory, bounded by the size of the values instead of the
+ * number of entries.
+ * <p>
+ * The entries are held by a Caffeine cache weighted by the size of the off-heap buffers, so the W-TinyLFU policy of
+ * Caffeine decides with its frequency sketch whether a new value is worth evicting the existing ones. A buffer holds the
+ * metadata followed by the value bytes, and is released when its entry is removed, replaced or evicted. The values are
+ * only unmarshalled when the application reads them, a read racing with the removal of the entry is a miss.
+ * <p>
+ * The placeholders used by the remote cache while a value is being fetched stay on the heap, and the conditional
+ * operations only match the placeholders or the values returned by this near cache.
+ *
+ * @since 15.0
+ */
+final class OffHeapNearCache<K, V> implements NearCache<K, V> {
+   // version, created, lastUsed, lifespan and maxIdle
+   private static final int HEADER_SIZE = 3 * Long.BYTES + 2 * Integer.BYTES;
+
+   private final Cache<K, Slot> cache;
+   private final ConcurrentMap<K, Slot> map;
+   private final DataFormat dataFormat;
+   private final ClassAllowList allowList;
+
+   private OffHeapNearCache(Cache<K, Slot> cache, DataFormat dataFormat, ClassAllowList allowList) {
+      this.cache = cache;
+      this.map = cache.asMap();
+      this.dataFormat = dataFormat;
+      this.allowList = allowList;
+   }
+
+   static <K, V> NearCache<K, V> create(long maxSizeBytes, DataFormat dataFormat, ClassAllowList allowList,
+                                        BiConsumer<? super K, ? super MetadataValue<V>> removedConsumer) {
+      Cache<K, Slot> cache = Caffeine.newBuilder()
+            .maximumWeight(maxSizeBytes)
+            .<K, Slot>weigher((key, slot) -> slot.weight())
+            // Release the buffers right away instead of in the common pool
+            .executor(Runnable::run)
+            .removalListener((key, slot, cause) -> {
+               slot.release();
+               removedConsumer.accept(key, slot.placeholder());
+            })
+            .build();
+      return new OffHeapNearCache<>(cache, dataFormat, allowList);
+   }
+
+   @Override
+   public boolean putIfAbsent(K key, MetadataValue<V> value) {
+      Slot slot = toSlot(value);
+      if (map.putIfAbsent(key, slot) == null) {
+         return true;
+      }
+      slot.release();
+      return false;
+   }
+
+   @Override
+   public boolean replace(K key, MetadataValue<V> prevValue, MetadataValue<V> newValue) {
+      Slot current = map.get(key);
+      if (current == null || !current.matches(prevValue)) {
+         return false;
+      }
+      Slot slot = toSlot(newValue);
+      if (map.replace(key, current, slot)) {
+         return true;
+      }
+      slot.release();
+      return false;
+   }
+
+   @Override
+   public boolean remove(K key) {
+      return map.remove(key) != null;
+   }
+
+   @Override
+   public boolean remove(K key, MetadataValue<V> value) {
+      Slot current = map.get(key);
+      return current != null && current.matches(value) && map.remove(key, current);
+   }
+
+   @Override
+   public MetadataValue<V> get(K key) {
+      Slot slot = map.get(key);
+      return slot != null ? toValue(slot) : null;
+   }
+
+   @Override
+   public void clear() {
+      map.clear();
+   }
+
+   @Override
+   public int size() {
+      // Make sure to clean up any evicted entries so the returned size is correct
+      cache.cleanUp();
+      return map.size();
+   }
+
+   @Override
+   public Iterator<Map.Entry<K, MetadataValue<V>>> iterator() {
+      return map.entrySet().stream()
+            .map(e -> (Map.Entry<K, MetadataValue<V>>) new AbstractMap.SimpleImmutableEntry<>(e.getKey(), toValue(e.getValue())))
+            .filter(e -> e.getValue() != null)
+            .iterator();
+   }
+
+   private Slot toSlot(MetadataValue<V> value) {
+      if (value.getValue() == null) {
+         return new Slot(value, null);
+      }
+      byte[] bytes = dataFormat.valueToBytes(value.getValue());
+      ByteBuf buffer = Unpooled.directBuffer(HEADER_SIZE + bytes.length, HEADER_SIZE + bytes.length);
+      buffer.writeLong(value.getVersion());
+      buffer.writeLong(value.getCreated());
+      buffer.writeLong(value.getLastUsed());
+      buffer.writeInt(value.getLifespan());
+      buffer.writeInt(value.getMaxIdle());
+      buffer.writeBytes(bytes);
+      return new Slot(null, buffer);
+   }
+
+   @SuppressWarnings("unchecked")
+   private MetadataValue<V> toValue(Slot slot) {
+      if (slot.buffer == null) {
+         return (MetadataValue<V>) slot.placeholder;
+      }
+      ByteBuf buffer = slot.buffer;
+      try {
+         buffer.retain();
+      } catch (IllegalReferenceCountException e) {
+         // The entry was removed concurrently and its buffer released
+         return null;
+      }
+      try {
+         byte[] bytes = new byte[buffer.capacity() - HEADER_SIZE];
+         buffer.getBytes(HEADER_SIZE, bytes);
+         return new OffHeapMetadataValue<>(this, slot, buffer.getLong(0), buffer.getLong(8), buffer.getLong(16),
+               buffer.getInt(24), buffer.getInt(28), bytes);
+      } finally {
+         buffer.release();
+      }
+   }
+
+   private static final class Slot {
+      private final MetadataValue<?> placeholder;
+      private final ByteBuf buffer;
+
+      Slot(MetadataValue<?> placeholder, ByteBuf buffer) {
+         this.placeholder = placeholder;
+         this.buffer = buffer;
+      }
+
+      @SuppressWarnings("unchecked")
+      <V> MetadataValue<V> placeholder() {
+         return (MetadataValue<V>) placeholder;
+      }
+
+      int weight() {
+         return buffer != null ? buffer.capacity() : 0;
+      }
+
+      boolean matches(MetadataValue<?> value) {
+         if (buffer == null) {
+            return placeholder == value;
+         }
+         return value instanceof OffHeapMetadataValue && ((OffHeapMetadataValue<?>) value).slot == this;
+      }
+
+      void release() {
+         if (buffer != null) {
+            buffer.release();
+         }
+      }
+   }
+
+   private static final class OffHeapMetadataValue<T> implements MetadataValue<T> {
+      private final OffHeapNearCache<?, T> owner;
+      private final Slot slot;
+      private final long version;
+      private final long created;
+      private final long lastUsed;
+      private final int lifespan;
+      private final int maxIdle;
+      private byte[] bytes;
+      private T value;
+
+      OffHeapMetadataValue(OffHeapNearCache<?, T> owner, Slot slot, long version, long created, long lastUsed,
+                           int lifespan, int maxIdle, byte[] bytes) {
+         this.owner = owner;
+         this.slot = slot;
+         this.version = version;
+         this.created = created;
+         this.lastUsed = lastUsed;
+         this.lifespan = lifespan;
+         this.maxIdle = maxIdle;
+         this.bytes = bytes;
+      }
+
+      @Override
+      public synchronized T getValue() {
+         if (bytes != null) {
+            value = owner.dataFormat.valueToObj(bytes, owner.allowList);
+            bytes = null;
+         }
+         return value;
+      }
+
+      @Override
+      public long getVersion() {
+         return version;
+      }
+
+      @Override
+      public long getCreated() {
+         return created;
+      }
+
+      @Override
+      public int getLifespan() {
+         return lifespan;
+      }
+
+      @Override
+      public long getLastUsed() {
+         return lastUsed;
+      }
+
+      @Override
+      public int getMaxIdle() {
+         return maxIdle;
+      }
+
+      @Override
+      public String toString() {
+         return "OffHeapMetadataValue{" +
+               "version=" + version +
+               ", created=" + created +
+               ", lastUsed=" + lastUsed +
+               ", lifespan=" + lifespan +
+               ", maxIdle=" + maxIdle +
+               ", value=" + getValue() +
+               '}';
+      }
+   }
+}
@@ -0,0 +1,64 @@
+package org.infinispan.client.hotrod.near;
+
+import java.util.function.BiConsumer;
+
+import org.infinispan.client.hotrod.DataFormat;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.commons.configuration.ClassAllowList;
+
+/**
+ * Creates near caches that keep the values marshalled in direct memory, bounded by the total size of the values.
+ * <p>
+ * The eviction policy admits a value only when it is read more often than the values it would evict, so a scan of
+ * keys read once does not flush the frequently read values. {@link NearCacheConfiguration#maxEntries()} does not bound
+ * these near caches, but still sizes the bloom filter, so it should be set to the expected number of entries when the
+ * bloom filter is enabled.
+ *
+ * @since 15.0
+ */
+public class OffHeapNearCacheFactory implements NearCacheFactory {
+   public static final long DEFAULT_MAX_SIZE_BYTES = 64 * 1024 * 1024;
+
+   private final long maxSizeBytes;
+
+   /**
+    * Creates near caches of {@link #DEFAULT_MAX_SIZE_BYTES}, for the factories configured by class name.
+    */
+   public OffHeapNearCacheFactory() {
+      this(DEFAULT_MAX_SIZE_BYTES);
+   }
+
+   /**
+    * @param maxSizeBytes the maximum size in bytes of the marshalled values and their metadata held by each near cache.
+    */
+   public OffHeapNearCacheFactory(long maxSizeBytes) {
+      if (maxSizeBytes <= 0) {
+         throw new IllegalArgumentException("maxSizeBytes must be greater than 0");
+      }
+      this.maxSizeBytes = maxSizeBytes;
+   }
+
+   @Override
+   public <K, V> NearCache<K, V> createNearCache(NearCacheConfiguration config, BiConsumer<K, MetadataValue<V>> removedConsumer) {
+      // Without a data format the values cannot be marshalled
+      return DefaultNearCacheFactory.INSTANCE.createNearCache(config, removedConsumer);
+   }
+
+   @Override
+   public <K, V> NearCache<K, V> createNearCache(NearCacheConfiguration config, DataFormat dataFormat,
+                                                 ClassAllowList allowList, BiConsumer<K, MetadataValue<V>> removedConsumer) {
+      return OffHeapNearCache.create(maxSizeBytes, dataFormat, allowList, removedConsumer);
+   }
+
+   public long maxSizeBytes() {
+      return maxSizeBytes;
+   }
+
+   @Override
+   public String toString() {
+      return "OffHeapNearCacheFactory{" +
+            "maxSizeBytes=" + maxSizeBytes +
+            '}';
+   }
+}
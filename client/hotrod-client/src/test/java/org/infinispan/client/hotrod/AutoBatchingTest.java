@@ -0,0 +1,115 @@
+package org.infinispan.client.hotrod;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the puts are held until their batch is full, that the puts needing the previous value are not batched,
+ * and that the other operations are not sent before the puts issued before them.
+ */
+@Test(groups = "functional", testName = "client.hotrod.AutoBatchingTest")
+public class AutoBatchingTest extends SingleHotRodServerTest {
+   private static final int MAX_BATCH_SIZE = 4;
+
+   @Override
+   protected ConfigurationBuilder createHotRodClientConfigurationBuilder(String host, int serverPort) {
+      ConfigurationBuilder builder = super.createHotRodClientConfigurationBuilder(host, serverPort);
+      // A window long enough that only a full batch is sent during the test
+      builder.autoBatching().enable().window(1, TimeUnit.MINUTES).maxBatchSize(MAX_BATCH_SIZE);
+      return builder;
+   }
+
+   public void testPutsSentWhenBatchIsFull() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      List<CompletableFuture<String>> futures = new ArrayList<>();
+      for (int i = 0; i < MAX_BATCH_SIZE - 1; i++) {
+         futures.add(remoteCache.putAsync("k" + i, "v" + i));
+      }
+      Thread.sleep(100);
+      futures.forEach(f -> assertFalse(f.isDone()));
+      // An operation on another key doesn't send the batch
+      assertNull(remoteCache.get("unrelated"));
+      futures.forEach(f -> assertFalse(f.isDone()));
+
+      futures.add(remoteCache.putAsync("k" + (MAX_BATCH_SIZE - 1), "v" + (MAX_BATCH_SIZE - 1)));
+      CompletableFutures.sequence(futures).get(10, TimeUnit.SECONDS);
+      futures.forEach(f -> assertNull(f.join()));
+      for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+         assertEquals("v" + i, remoteCache.get("k" + i));
+      }
+   }
+
+   public void testSameKeyInBatch() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      List<CompletableFuture<String>> futures = new ArrayList<>();
+      futures.add(remoteCache.putAsync("same", "first"));
+      futures.add(remoteCache.putAsync("same", "second"));
+      for (int i = 0; i < MAX_BATCH_SIZE - 1; i++) {
+         futures.add(remoteCache.putAsync("other" + i, "v" + i));
+      }
+      CompletableFutures.sequence(futures).get(10, TimeUnit.SECONDS);
+      assertEquals("second", remoteCache.get("same"));
+   }
+
+   public void testReadYourWrites() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      CompletableFuture<String> put = remoteCache.putAsync("read", "v1");
+      assertFalse(put.isDone());
+      // The get sends the batch holding the put and waits for it
+      assertEquals("v1", remoteCache.get("read"));
+      assertNull(put.get(10, TimeUnit.SECONDS));
+
+      remoteCache.putAsync("read", "v2");
+      assertEquals("v2", remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).remove("read"));
+      assertNull(remoteCache.get("read"));
+   }
+
+   public void testPutsInDifferentBatchesKeepOrder() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      CompletableFuture<String> first = remoteCache.putAsync("order", "first");
+      // Another expiration goes to another batch, the put has to wait for the first one
+      CompletableFuture<String> second = remoteCache.putAsync("order", "second", 1, TimeUnit.HOURS);
+      CompletableFuture<Boolean> contains = remoteCache.containsKeyAsync("order");
+      assertEquals(Boolean.TRUE, contains.get(10, TimeUnit.SECONDS));
+      assertNull(first.get(10, TimeUnit.SECONDS));
+      assertNull(second.get(10, TimeUnit.SECONDS));
+      assertEquals("second", remoteCache.get("order"));
+   }
+
+   public void testCacheOperationsWaitForPuts() throws Exception {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      remoteCache.clear();
+      remoteCache.putAsync("bulk1", "v1");
+      remoteCache.putAsync("bulk2", "v2");
+      assertEquals(2, remoteCache.size());
+      assertEquals(2, remoteCache.getAll(Set.of("bulk1", "bulk2")).size());
+
+      remoteCache.putAsync("bulk3", "v3");
+      CompletableFuture<Void> clear = remoteCache.clearAsync();
+      // Issued after the clear, the put must not be overwritten by it
+      CompletableFuture<String> put = remoteCache.putAsync("bulk4", "v4");
+      clear.get(10, TimeUnit.SECONDS);
+      put.get(10, TimeUnit.SECONDS);
+      assertEquals(1, remoteCache.size());
+      assertEquals("v4", remoteCache.get("bulk4"));
+   }
+
+   public void testPutWithPreviousValueNotBatched() {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).put("previous", "v1");
+      assertEquals("v1", remoteCache.withFlags(Flag.FORCE_RETURN_VALUE).put("previous", "v2"));
+      assertEquals("v2", remoteCache.get("previous"));
+   }
+}
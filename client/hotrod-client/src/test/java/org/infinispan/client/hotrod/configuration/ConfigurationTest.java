@@ -6,6 +6,9 @@
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_PASSWORD;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_REALM;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_SERVER_NAME;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING_MAX_BATCH_SIZE;
+import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTO_BATCHING_WINDOW;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.AUTH_USERNAME;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CLUSTER_PROPERTIES_PREFIX;
 import static org.infinispan.client.hotrod.impl.ConfigurationProperties.CONNECTION_POOL_EXHAUSTED_ACTION;
@@ -182,6 +185,7 @@ public void testConfiguration() {
       ConfigurationBuilder builder = HotRodClientTestingUtil.newRemoteConfigurationBuilder();
       builder
             .statistics().enable().jmxEnable().jmxDomain("jmxInfinispanDomain").jmxName("jmxInfinispan")
+            .autoBatching().enable().window(2, TimeUnit.MILLISECONDS).maxBatchSize(64)
             .addServer()
             .host("host1")
             .port(11222)
@@ -299,6 +303,9 @@ public void testWithProperties() {
       p.setProperty(JMX, "true");
       p.setProperty(JMX_NAME, "jmxInfinispan");
       p.setProperty(JMX_DOMAIN, "jmxInfinispanDomain");
+      p.setProperty(AUTO_BATCHING, "true");
+      p.setProperty(AUTO_BATCHING_WINDOW, "2000");
+      p.setProperty(AUTO_BATCHING_MAX_BATCH_SIZE, "64");
       p.setProperty(TRACING_PROPAGATION_ENABLED, "false");
 
       Configuration configuration = builder.withProperties(p).build();
@@ -630,6 +637,9 @@ private void validateConfiguration(Configuration configuration) {
       assertTrue(configuration.statistics().jmxEnabled());
       assertEquals("jmxInfinispan", configuration.statistics().jmxName());
       assertEquals("jmxInfinispanDomain", configuration.statistics().jmxDomain());
+      assertTrue(configuration.autoBatching().enabled());
+      assertEquals(2000, configuration.autoBatching().window());
+      assertEquals(64, configuration.autoBatching().maxBatchSize());
    }
 
    private void validateSSLContextConfiguration(Configuration configuration) {
@@ -0,0 +1,90 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.function.BiConsumer;
+
+import org.infinispan.client.hotrod.DataFormat;
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.RemoteCache;
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.test.SingleHotRodServerTest;
+import org.infinispan.commons.configuration.ClassAllowList;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the off-heap near cache returns the cached values, and that it is bounded by the size of the values.
+ */
+@Test(groups = "functional", testName = "client.hotrod.near.OffHeapNearCacheTest")
+public class OffHeapNearCacheTest extends SingleHotRodServerTest {
+   private static final int MAX_SIZE_BYTES = 8 * 1024;
+
+   private final CapturingOffHeapNearCacheFactory factory = new CapturingOffHeapNearCacheFactory();
+
+   @Override
+   protected ConfigurationBuilder createHotRodClientConfigurationBuilder(String host, int serverPort) {
+      ConfigurationBuilder builder = super.createHotRodClientConfigurationBuilder(host, serverPort);
+      builder.nearCache().mode(NearCacheMode.INVALIDATED).maxEntries(-1).nearCacheFactory(factory);
+      return builder;
+   }
+
+   public void testGetFromNearCache() {
+      RemoteCache<String, String> remoteCache = remoteCacheManager.getCache();
+      remoteCache.put("k", "v1");
+      assertNull(factory.nearCache.get("k"));
+      assertEquals("v1", remoteCache.get("k"));
+
+      MetadataValue<Object> cached = factory.nearCache.get("k");
+      assertNotNull(cached);
+      assertEquals("v1", cached.getValue());
+      // Every read unmarshalls its own copy of the value
+      assertNotSame(cached.getValue(), factory.nearCache.get("k").getValue());
+      assertEquals("v1", remoteCache.get("k"));
+
+      remoteCache.put("k", "v2");
+      assertEquals("v2", remoteCache.get("k"));
+      assertEquals("v2", factory.nearCache.get("k").getValue());
+
+      remoteCache.remove("k");
+      assertNull(remoteCache.get("k"));
+   }
+
+   public void testBoundedBySize() {
+      RemoteCache<Integer, byte[]> remoteCache = remoteCacheManager.getCache();
+      int entries = 100;
+      for (int i = 0; i < entries; i++) {
+         byte[] value = new byte[512];
+         value[0] = (byte) i;
+         remoteCache.put(i, value);
+         assertEquals((byte) i, remoteCache.get(i)[0]);
+      }
+      int size = factory.nearCache.size();
+      assertTrue("Near cache size " + size, size > 0 && size < MAX_SIZE_BYTES / 512);
+      for (int i = 0; i < entries; i++) {
+         assertEquals((byte) i, remoteCache.get(i)[0]);
+      }
+   }
+
+   static class CapturingOffHeapNearCacheFactory extends OffHeapNearCacheFactory {
+      volatile NearCache<Object, Object> nearCache;
+
+      CapturingOffHeapNearCacheFactory() {
+         super(MAX_SIZE_BYTES);
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public <K, V> NearCache<K, V> createNearCache(NearCacheConfiguration config, DataFormat dataFormat,
+                                                    ClassAllowList allowList, BiConsumer<K, MetadataValue<V>> removedConsumer) {
+         NearCache<K, V> cache = super.createNearCache(config, dataFormat, allowList, removedConsumer);
+         nearCache = (NearCache<Object, Object>) cache;
+         return cache;
+      }
+   }
+}
@@ -75,6 +75,22 @@ default CompletionStage<RestResponse> entries() {
     */
    CompletionStage<RestResponse> keys(String mediaType);
 
+   /**
+    * Retrieves the entries of the keys in a JSON array or newline delimited JSON body, in the order of the keys.
+    * Missing keys are not included.
+    */
+   CompletionStage<RestResponse> getMany(RestEntity keys);
+
+   /**
+    * Stores the <code>{"key": ..., "value": ...}</code> objects of a JSON array or newline delimited JSON body
+    */
+   CompletionStage<RestResponse> putMany(RestEntity entries);
+
+   /**
+    * Removes the keys in a JSON array or newline delimited JSON body
+    */
+   CompletionStage<RestResponse> removeMany(RestEntity keys);
+
    /**
     * Retrieves the cache configuration
     */
@@ -362,6 +362,27 @@ public CompletionStage<RestResponse> keys(String mediaType) {
       return client.execute(builder);
    }
 
+   @Override
+   public CompletionStage<RestResponse> getMany(RestEntity keys) {
+      Request.Builder builder = new Request.Builder();
+      builder.url(cacheUrl + "?action=get-many").post(((RestEntityAdaptorOkHttp) keys).toRequestBody());
+      return client.execute(builder);
+   }
+
+   @Override
+   public CompletionStage<RestResponse> putMany(RestEntity entries) {
+      Request.Builder builder = new Request.Builder();
+      builder.url(cacheUrl + "?action=put-many").post(((RestEntityAdaptorOkHttp) entries).toRequestBody());
+      return client.execute(builder);
+   }
+
+   @Override
+   public CompletionStage<RestResponse> removeMany(RestEntity keys) {
+      Request.Builder builder = new Request.Builder();
+      builder.url(cacheUrl + "?action=remove-many").post(((RestEntityAdaptorOkHttp) keys).toRequestBody());
+      return client.execute(builder);
+   }
+
    @Override
    public CompletionStage<RestResponse> configuration(String mediaType) {
       Request.Builder builder = new Request.Builder();
@@ -163,6 +163,19 @@ public static long[] MurmurHash3_x64_128(final byte[] key, final int seed) {
     * @return 64 bit hashed key
     */
    public static long MurmurHash3_x64_64(final byte[] key, final int seed) {
+      return MurmurHash3_x64_64(key, 0, key.length, seed);
+   }
+
+   /**
+    * Hash a range of an array using the x64 64 bit variant of MurmurHash3, without copying it
+    *
+    * @param key array holding the value to hash
+    * @param offset position of the first byte of the value in the array
+    * @param length number of bytes of the value
+    * @param seed random value
+    * @return 64 bit hashed key, the same as hashing a copy of the range
+    */
+   public static long MurmurHash3_x64_64(final byte[] key, final int offset, final int length, final int seed) {
       // Exactly the same as MurmurHash3_x64_128, except it only returns state.h1
       State state = new State();
 
@@ -172,9 +185,9 @@ public static long MurmurHash3_x64_64(final byte[] key, final int seed) {
       state.c1 = 0x87c37b91114253d5L;
       state.c2 = 0x4cf5ad432745937fL;
 
-      for (int i = 0; i < key.length / 16; i++) {
-         state.k1 = getblock(key, i * 2 * 8);
-         state.k2 = getblock(key, (i * 2 + 1) * 8);
+      for (int i = 0; i < length / 16; i++) {
+         state.k1 = getblock(key, offset + i * 2 * 8);
+         state.k2 = getblock(key, offset + (i * 2 + 1) * 8);
 
          bmix(state);
       }
@@ -182,9 +195,9 @@ public static long MurmurHash3_x64_64(final byte[] key, final int seed) {
       state.k1 = 0;
       state.k2 = 0;
 
-      int tail = (key.length >>> 4) << 4;
+      int tail = offset + ((length >>> 4) << 4);
 
-      switch (key.length & 15) {
+      switch (length & 15) {
          case 15: state.k2 ^= (long) key[tail + 14] << 48;
          case 14: state.k2 ^= (long) key[tail + 13] << 40;
          case 13: state.k2 ^= (long) key[tail + 12] << 32;
@@ -204,7 +217,7 @@ public static long MurmurHash3_x64_64(final byte[] key, final int seed) {
             bmix(state);
       }
 
-      state.h2 ^= key.length;
+      state.h2 ^= length;
 
       state.h1 += state.h2;
       state.h2 += state.h1;
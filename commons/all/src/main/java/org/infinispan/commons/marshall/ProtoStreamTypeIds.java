@@ -129,6 +129,12 @@ public interface ProtoStreamTypeIds {
    int MULTIMAP_OBJECT_WRAPPER = MULTIMAP_LOWER_BOUND + 6;
    int MULTIMAP_SORTED_SET_BUCKET = MULTIMAP_LOWER_BOUND + 7;
    int MULTIMAP_SCORED_VALUE = MULTIMAP_LOWER_BOUND + 8;
+   int MULTIMAP_STREAM_BUCKET = MULTIMAP_LOWER_BOUND + 9;
+   int MULTIMAP_STREAM_ID = MULTIMAP_LOWER_BOUND + 10;
+   int MULTIMAP_STREAM_ENTRY = MULTIMAP_LOWER_BOUND + 11;
+   int MULTIMAP_STREAM_CONSUMER_GROUP = MULTIMAP_LOWER_BOUND + 12;
+   int MULTIMAP_STREAM_PENDING_ENTRY = MULTIMAP_LOWER_BOUND + 13;
+   int MULTIMAP_STREAM_CONSUMER = MULTIMAP_LOWER_BOUND + 14;
 
    // Server Core 5400 -> 5799
    int SERVER_CORE_LOWER_BOUND = 5400;
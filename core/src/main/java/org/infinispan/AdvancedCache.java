@@ -686,6 +686,19 @@ default CompletableFuture<CacheEntry<K, V>> getCacheEntryAsync(Object key) {
     */
    Map<K, CacheEntry<K, V>> getAllCacheEntries(Set<?> keys);
 
+   /**
+    * Asynchronous version of {@link #getAllCacheEntries(Set)}. The keys are fetched with a single invocation, grouped
+    * by owner in clustered caches.
+    *
+    * @param keys The keys whose associated values are to be returned.
+    * @return A future with the map of the entries that were found for the given keys. Keys not found are not present
+    * in the map.
+    * @since 15.0
+    */
+   default CompletableFuture<Map<K, CacheEntry<K, V>>> getAllCacheEntriesAsync(Set<?> keys) {
+      throw new UnsupportedOperationException("getAllCacheEntriesAsync");
+   }
+
    /**
     * Executes an equivalent of {@link Map#putAll(Map)}, returning previous values of the modified entries.
     *
@@ -613,6 +613,21 @@ public final Map<K, CacheEntry<K, V>> getAllCacheEntries(Set<?> keys,
       return map;
    }
 
+   @Override
+   public CompletableFuture<Map<K, CacheEntry<K, V>>> getAllCacheEntriesAsync(Set<?> keys) {
+      return getAllCacheEntriesAsync(keys, EnumUtil.EMPTY_BIT_SET,
+            invocationContextFactory.createInvocationContext(false, keys.size()));
+   }
+
+   final CompletableFuture<Map<K, CacheEntry<K, V>>> getAllCacheEntriesAsync(Set<?> keys, long explicitFlags,
+                                                                             InvocationContext ctx) {
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, explicitFlags, true);
+      return invocationHelper.<Map<K, CacheEntry<K, V>>>invokeAsync(ctx, command).thenApply(map -> {
+         map.entrySet().removeIf(entry -> entry.getValue() == null);
+         return map;
+      });
+   }
+
    @Override
    public Map<K, V> getGroup(String groupName) {
       return getGroup(groupName, EnumUtil.EMPTY_BIT_SET);
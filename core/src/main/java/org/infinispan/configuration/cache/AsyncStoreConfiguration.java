@@ -19,9 +19,10 @@ public class AsyncStoreConfiguration extends ConfigurationElement<AsyncStoreConf
    @Deprecated
    public static final AttributeDefinition<Integer> THREAD_POOL_SIZE = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.THREAD_POOL_SIZE, 1).immutable().build();
    public static final AttributeDefinition<Boolean> FAIL_SILENTLY = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.FAIL_SILENTLY, false).immutable().build();
+   public static final AttributeDefinition<Integer> FLUSH_PARALLELISM = AttributeDefinition.builder(org.infinispan.configuration.parsing.Attribute.FLUSH_PARALLELISM, 4).immutable().build();
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY);
+      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, FAIL_SILENTLY, FLUSH_PARALLELISM);
    }
 
    private final Attribute<Boolean> failSilently;
@@ -60,4 +61,11 @@ public int threadPoolSize() {
    public boolean failSilently() {
       return failSilently.get();
    }
+
+   /**
+    * The maximum number of batches of pending modifications written to the underlying store concurrently.
+    */
+   public int flushParallelism() {
+      return attributes.attribute(FLUSH_PARALLELISM).get();
+   }
 }
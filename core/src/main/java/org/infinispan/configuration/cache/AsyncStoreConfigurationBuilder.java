@@ -2,6 +2,7 @@
 
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.ENABLED;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FAIL_SILENTLY;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.FLUSH_PARALLELISM;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.THREAD_POOL_SIZE;
 
@@ -9,6 +10,7 @@
 import org.infinispan.commons.configuration.Combine;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.util.logging.Log;
 
 /**
  * Configuration for the async cache store. If enabled, this configuration provides
@@ -91,9 +93,24 @@ public AsyncStoreConfigurationBuilder<S> failSilently(boolean failSilently) {
       return this;
    }
 
+   /**
+    * Sets the maximum number of batches of pending modifications that are written to the underlying store
+    * concurrently. Modifications are queued per segment, and the queues of several segments are merged into a batch
+    * of up to {@link AbstractStoreConfigurationBuilder#maxBatchSize(int)} modifications. A segment is only part of a
+    * single running batch, so that a slow batch only holds back the writers of its segments. Defaults to
+    * <code>4</code>.
+    */
+   public AsyncStoreConfigurationBuilder<S> flushParallelism(int flushParallelism) {
+      attributes.attribute(FLUSH_PARALLELISM).set(flushParallelism);
+      return this;
+   }
+
    @Override
    public
    void validate() {
+      if (attributes.attribute(FLUSH_PARALLELISM).get() < 1) {
+         throw Log.CONFIG.invalidAsyncStoreFlushParallelism(attributes.attribute(FLUSH_PARALLELISM).get());
+      }
    }
 
    @Override
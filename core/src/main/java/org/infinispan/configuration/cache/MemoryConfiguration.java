@@ -22,11 +22,14 @@ public class MemoryConfiguration extends ConfigurationElement<MemoryConfiguratio
    public static final AttributeDefinition<String> MAX_SIZE = AttributeDefinition.builder(Attribute.MAX_SIZE, null, String.class).build();
    public static final AttributeDefinition<Long> MAX_COUNT = AttributeDefinition.builder(Attribute.MAX_COUNT, -1L).build();
    public static final AttributeDefinition<EvictionStrategy> WHEN_FULL = AttributeDefinition.builder(Attribute.WHEN_FULL, EvictionStrategy.NONE).immutable().build();
+   public static final AttributeDefinition<OffHeapAllocatorType> OFF_HEAP_ALLOCATOR = AttributeDefinition.builder(Attribute.OFF_HEAP_ALLOCATOR, OffHeapAllocatorType.UNPOOLED).immutable().build();
+   public static final AttributeDefinition<ValueCompressionType> COMPRESSION = AttributeDefinition.builder(Attribute.COMPRESSION, ValueCompressionType.NONE).immutable().build();
+   public static final AttributeDefinition<Integer> COMPRESSION_THRESHOLD = AttributeDefinition.builder(Attribute.COMPRESSION_THRESHOLD, 512).immutable().build();
 
    private final MemoryStorageConfiguration memoryStorageConfiguration;
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL);
+      return new AttributeSet(MemoryConfiguration.class, STORAGE, MAX_SIZE, MAX_COUNT, WHEN_FULL, OFF_HEAP_ALLOCATOR, COMPRESSION, COMPRESSION_THRESHOLD);
    }
 
    MemoryConfiguration(AttributeSet attributes, MemoryStorageConfiguration memoryStorageConfiguration) {
@@ -149,6 +152,27 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(WHEN_FULL).get();
    }
 
+   /**
+    * @return The {@link OffHeapAllocatorType} used to allocate entries when the storage is off-heap.
+    */
+   public OffHeapAllocatorType offHeapAllocator() {
+      return attributes.attribute(OFF_HEAP_ALLOCATOR).get();
+   }
+
+   /**
+    * @return The {@link ValueCompressionType} applied to the values when the storage is off-heap.
+    */
+   public ValueCompressionType compression() {
+      return attributes.attribute(COMPRESSION).get();
+   }
+
+   /**
+    * @return The size in bytes below which values are not compressed.
+    */
+   public int compressionThreshold() {
+      return attributes.attribute(COMPRESSION_THRESHOLD).get();
+   }
+
    /**
     * Returns whether remove eviction is in use
     */
@@ -241,6 +241,51 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(MemoryConfiguration.WHEN_FULL).get();
    }
 
+   /**
+    * Sets how the memory of entries is allocated when the storage is {@link StorageType#OFF_HEAP}. This setting has
+    * no effect on heap storage. Defaults to <code>UNPOOLED</code>.
+    * @param allocator the allocator type
+    * @return this
+    */
+   public MemoryConfigurationBuilder offHeapAllocator(OffHeapAllocatorType allocator) {
+      attributes.attribute(MemoryConfiguration.OFF_HEAP_ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public OffHeapAllocatorType offHeapAllocator() {
+      return attributes.attribute(MemoryConfiguration.OFF_HEAP_ALLOCATOR).get();
+   }
+
+   /**
+    * Sets how the values are compressed when the storage is {@link StorageType#OFF_HEAP}. This setting has no effect
+    * on heap storage. Defaults to <code>NONE</code>.
+    * @param compression the compression type
+    * @return this
+    */
+   public MemoryConfigurationBuilder compression(ValueCompressionType compression) {
+      attributes.attribute(MemoryConfiguration.COMPRESSION).set(compression);
+      return this;
+   }
+
+   public ValueCompressionType compression() {
+      return attributes.attribute(MemoryConfiguration.COMPRESSION).get();
+   }
+
+   /**
+    * Sets the size in bytes below which values are stored uncompressed, as small values rarely get smaller.
+    * Defaults to 512.
+    * @param threshold the minimum size of the values to compress
+    * @return this
+    */
+   public MemoryConfigurationBuilder compressionThreshold(int threshold) {
+      attributes.attribute(MemoryConfiguration.COMPRESSION_THRESHOLD).set(threshold);
+      return this;
+   }
+
+   public int compressionThreshold() {
+      return attributes.attribute(MemoryConfiguration.COMPRESSION_THRESHOLD).get();
+   }
+
    /**
     * The configured eviction strategy, please see {@link MemoryConfigurationBuilder#evictionStrategy(EvictionStrategy)}.
     * @return the configured eviction stategy
@@ -0,0 +1,18 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Defines how the memory of entries is allocated when the data container uses {@link StorageType#OFF_HEAP} storage.
+ *
+ * @since 15.0
+ */
+public enum OffHeapAllocatorType {
+   /**
+    * Every entry is allocated and freed individually through the native allocator.
+    */
+   UNPOOLED,
+   /**
+    * Entries are carved out of large slabs grouped by size class. Freed blocks are kept in per-thread caches and in
+    * per size class free lists for reuse, avoiding a native call for most allocations.
+    */
+   SLAB
+}
@@ -4,6 +4,7 @@
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.LOCATION;
 import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MAX_ENTRIES;
+import static org.infinispan.configuration.cache.SingleFileStoreConfiguration.MEMORY_MAPPED_INDEX;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.Combine;
@@ -82,6 +83,19 @@ public SingleFileStoreConfigurationBuilder fragmentationFactor(float fragmentati
       return this;
    }
 
+   /**
+    * Keeps the index of keys and their position in the file in a memory-mapped file next to the data file,
+    * <tt>&lt;location&gt;/&lt;cache name&gt;.idx</tt>, instead of the heap. The heap used by the store then no longer
+    * depends on the number of entries, and after a clean shutdown the index and the free space list are reloaded
+    * instead of being rebuilt by scanning the whole data file.
+    *
+    * A memory-mapped index cannot be combined with {@link #maxEntries(int)}. Defaults to <code>false</code>.
+    */
+   public SingleFileStoreConfigurationBuilder memoryMappedIndex(boolean memoryMappedIndex) {
+      attributes.attribute(MEMORY_MAPPED_INDEX).set(memoryMappedIndex);
+      return this;
+   }
+
    @Override
    public void validate() {
       Attribute<Boolean> segmentedAttribute = attributes.attribute(SEGMENTED);
@@ -89,6 +103,9 @@ public void validate() {
       if (segmentedAttribute.get() && maxEntriesAttribute.get() > 0) {
          throw Log.CONFIG.segmentedSingleFileStoreDoesNotSupportMaxEntries();
       }
+      if (attributes.attribute(MEMORY_MAPPED_INDEX).get() && maxEntriesAttribute.get() > 0) {
+         throw Log.CONFIG.memoryMappedIndexSingleFileStoreDoesNotSupportMaxEntries();
+      }
       super.validate();
    }
 
@@ -0,0 +1,18 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Defines how the values are compressed when the data container uses {@link StorageType#OFF_HEAP} storage.
+ *
+ * @since 15.0
+ */
+public enum ValueCompressionType {
+   /**
+    * Values are stored as they are.
+    */
+   NONE,
+   /**
+    * Values larger than the compression threshold are compressed with the deflate algorithm, unless they do not get
+    * smaller.
+    */
+   DEFLATE
+}
@@ -43,8 +43,11 @@ public enum Attribute {
     CLASS,
     CLUSTER,
     COMMIT_INTERVAL,
+    COMPACTION_PARALLELISM,
     COMPACTION_THRESHOLD,
     COMPLETED_TX_TIMEOUT("complete-timeout"),
+    COMPRESSION,
+    COMPRESSION_THRESHOLD,
     CONCURRENCY_LEVEL,
     CONFIGURATION,
     CONNECTION_ATTEMPTS,
@@ -74,6 +77,7 @@ public enum Attribute {
     FETCH_STATE,
     @Deprecated
     FLUSH_LOCK_TIMEOUT,
+    FLUSH_PARALLELISM,
     FRAGMENTATION_FACTOR,
     GAUGES,
     GROUP_NAME,
@@ -123,6 +127,8 @@ public enum Attribute {
     MBEAN_SERVER_LOOKUP,
     MERGE_POLICY,
     MEDIA_TYPE,
+    MEMORY_MAPPED,
+    MEMORY_MAPPED_INDEX,
     MIN_NODE_SIZE,
     MODE,
     NODE_NAME,
@@ -133,6 +139,7 @@ public enum Attribute {
     NAMES_AS_TAGS,
     NON_BLOCKING_EXECUTOR,
     NOTIFICATIONS,
+    OFF_HEAP_ALLOCATOR,
     ON_REHASH("onRehash"),
     OPEN_FILES_LIMIT,
     OWNERS,
@@ -195,6 +202,8 @@ public enum Attribute {
     STACK,
     STOP_TIMEOUT,
     SYNC_WRITES,
+    SYNC_WRITES_BATCH_SIZE,
+    SYNC_WRITES_MAX_DELAY,
     TAKE_BACKUP_OFFLINE_AFTER_FAILURES("after-failures"),
     TAKE_BACKUP_OFFLINE_MIN_WAIT("min-wait"),
     THREAD_FACTORY,
@@ -1245,6 +1245,13 @@ protected void parseFileStore(ConfigurationReader reader, ConfigurationBuilderHo
                   throw ParseUtils.unexpectedAttribute(reader, i);
                }
                break;
+            case COMPACTION_PARALLELISM:
+               if (fileStoreBuilder != null) {
+                  fileStoreBuilder.compactionParallelism(ParseUtils.parseInt(reader, i, value));
+               } else {
+                  throw ParseUtils.unexpectedAttribute(reader, i);
+               }
+               break;
             case PURGE: {
                actualStoreConfig.purgeOnStartup(ParseUtils.parseBoolean(reader, i, value));
                break;
@@ -1298,6 +1305,12 @@ private void parseData(ConfigurationReader reader, SoftIndexFileStoreConfigurati
             case SYNC_WRITES:
                builder.syncWrites(ParseUtils.parseBoolean(reader, i, value));
                break;
+            case SYNC_WRITES_BATCH_SIZE:
+               builder.syncWritesBatchSize(ParseUtils.parseInt(reader, i, value));
+               break;
+            case SYNC_WRITES_MAX_DELAY:
+               builder.syncWritesMaxDelay(ParseUtils.parseLong(reader, i, value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1332,6 +1345,9 @@ private void parseIndex(ConfigurationReader reader, SoftIndexFileStoreConfigurat
             case MAX_NODE_SIZE:
                builder.maxNodeSize(ParseUtils.parseInt(reader, i, value));
                break;
+            case MEMORY_MAPPED:
+               builder.indexMemoryMapped(ParseUtils.parseBoolean(reader, i, value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1363,6 +1379,10 @@ protected void parseSingleFileStore(ConfigurationReader reader, ConfigurationBui
                storeBuilder.fragmentationFactor(Float.parseFloat(value));
                break;
             }
+            case MEMORY_MAPPED_INDEX: {
+               storeBuilder.memoryMappedIndex(ParseUtils.parseBoolean(reader, i, value));
+               break;
+            }
             default: {
                parseStoreAttribute(reader, i, storeBuilder);
             }
@@ -1480,6 +1500,9 @@ public static void parseStoreWriteBehind(ConfigurationReader reader, AsyncStoreC
             case FAIL_SILENTLY:
                storeBuilder.failSilently(ParseUtils.parseBoolean(reader, i, value));
                break;
+            case FLUSH_PARALLELISM:
+               storeBuilder.flushParallelism(ParseUtils.parseInt(reader, i, value));
+               break;
             case THREAD_POOL_SIZE: {
                if (reader.getSchema().since(11, 0)) {
                   throw ParseUtils.attributeRemoved(reader, i);
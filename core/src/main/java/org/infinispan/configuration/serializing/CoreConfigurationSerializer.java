@@ -692,6 +692,9 @@ private void writeMemory(ConfigurationWriter writer, Configuration configuration
             attributes.write(writer, MemoryConfiguration.MAX_SIZE, Attribute.MAX_SIZE);
          }
          attributes.write(writer, MemoryConfiguration.WHEN_FULL, Attribute.WHEN_FULL);
+         attributes.write(writer, MemoryConfiguration.OFF_HEAP_ALLOCATOR, Attribute.OFF_HEAP_ALLOCATOR);
+         attributes.write(writer, MemoryConfiguration.COMPRESSION, Attribute.COMPRESSION);
+         attributes.write(writer, MemoryConfiguration.COMPRESSION_THRESHOLD, Attribute.COMPRESSION_THRESHOLD);
          writer.writeEndElement();
       }
    }
@@ -860,7 +863,9 @@ private void writeDataElement(ConfigurationWriter writer, SoftIndexFileStoreConf
       configuration.data().attributes().write(writer, Element.DATA.getLocalName(),
             DataConfiguration.DATA_LOCATION,
             DataConfiguration.MAX_FILE_SIZE,
-            DataConfiguration.SYNC_WRITES);
+            DataConfiguration.SYNC_WRITES,
+            DataConfiguration.SYNC_WRITES_BATCH_SIZE,
+            DataConfiguration.SYNC_WRITES_MAX_DELAY);
    }
 
    private void writeIndexElement(ConfigurationWriter writer, SoftIndexFileStoreConfiguration configuration) {
@@ -869,7 +874,8 @@ private void writeIndexElement(ConfigurationWriter writer, SoftIndexFileStoreCon
             IndexConfiguration.INDEX_QUEUE_LENGTH,
             IndexConfiguration.INDEX_SEGMENTS,
             IndexConfiguration.MIN_NODE_SIZE,
-            IndexConfiguration.MAX_NODE_SIZE);
+            IndexConfiguration.MAX_NODE_SIZE,
+            IndexConfiguration.MEMORY_MAPPED);
    }
 
    private void writeSingleFileStore(ConfigurationWriter writer, SingleFileStoreConfiguration configuration) {
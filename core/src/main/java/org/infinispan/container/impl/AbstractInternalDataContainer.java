@@ -3,6 +3,7 @@
 import static org.infinispan.commons.util.Util.toStr;
 
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -26,6 +27,7 @@
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ExpirationConfiguration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.KeyPartitioner;
@@ -33,6 +35,7 @@
 import org.infinispan.eviction.impl.PassivationManager;
 import org.infinispan.expiration.impl.InternalExpirationManager;
 import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.impl.ComponentRef;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -76,9 +79,31 @@
     */
    private final AtomicLong expirable = new AtomicLong();
 
+   /**
+    * The expiration times of the expirable entries, so the expiration reaper doesn't have to iterate over all the
+    * entries. Null when the reaper is disabled or when the entries are stored off-heap.
+    */
+   private ExpirationIndex<K> expirationIndex;
+
    protected abstract PeekableTouchableMap<K, V> getMapForSegment(int segment);
    protected abstract int getSegmentForKey(Object key);
 
+   @Start
+   public void startExpirationIndex() {
+      ExpirationConfiguration expiration = configuration.expiration();
+      // Off-heap containers would keep the keys of their expirable entries on the heap
+      if (expiration.reaperEnabled() && expiration.wakeUpInterval() > 0 && !configuration.memory().isOffHeap()) {
+         expirationIndex = new ExpirationIndex<>(expirationIndexPartitions(), () -> timeService.wallClockTime());
+      }
+   }
+
+   /**
+    * @return the number of partitions of the expiration index, either 1 or the number of segments of the container.
+    */
+   protected int expirationIndexPartitions() {
+      return 1;
+   }
+
    @Override
    public InternalCacheEntry<K, V> get(int segment, Object k) {
       PeekableTouchableMap<K, V> map = getMapForSegment(segment);
@@ -161,6 +186,7 @@ public void put(int segment, K k, V v, Metadata metadata, PrivateMetadata intern
          else entryAdded(copy);
 
          putEntryInMap(entries, segment, k, copy);
+         recordExpiration(segment, k, copy);
       } else {
          log.tracef("Insertion attempted for key: %s but there was no map created for it at segment: %d", k, segment);
       }
@@ -205,6 +231,7 @@ public InternalCacheEntry<K, V> remove(int segment, Object k) {
 
          if (e.canExpire()) {
             entryRemoved(e);
+            removeExpiration(segment, e.getKey());
             if (e.isExpired(timeService.wallClockTime())) {
                return null;
             }
@@ -235,6 +262,7 @@ public CompletionStage<Void> evict(int segment, K key) {
          evictionStageRef.set(handleEviction(entry, null, passivator.running(), null, this, null));
          computeEntryRemoved(o, entry);
          entryRemoved(entry);
+         removeExpiration(segment, o);
          return null;
       });
       return evictionStageRef.get();
@@ -251,14 +279,20 @@ public InternalCacheEntry<K, V> compute(int segment, K key, DataContainer.Comput
       return entries != null ? entries.compute(key, (k, oldEntry) -> {
          InternalCacheEntry<K, V> newEntry = action.compute(k, oldEntry, entryFactory);
          if (newEntry == oldEntry) {
+            // The entry may have been updated in place
+            if (oldEntry != null && oldEntry.canExpire()) {
+               recordExpiration(segment, k, oldEntry);
+            }
             return oldEntry;
          } else if (newEntry == null) {
             computeEntryRemoved(k, oldEntry);
             entryRemoved(oldEntry);
+            removeExpiration(segment, k);
             return null;
          }
          computeEntryWritten(k, newEntry);
          entryAdded(newEntry);
+         recordExpiration(segment, k, newEntry);
          if (log.isTraceEnabled())
             log.tracef("Store %s in container", newEntry);
          return newEntry;
@@ -278,9 +312,88 @@ public void clear(IntSet segments) {
             segmentRemoved(map);
             map.clear();
          }
+         clearExpirationIndex(segment);
       });
    }
 
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expirationCandidates(long currentTimeMillis) {
+      if (expirationIndex == null) {
+         return iteratorIncludingExpired();
+      }
+      List<InternalCacheEntry<K, V>> candidates = new ArrayList<>();
+      for (int partition = 0; partition < expirationIndex.partitions(); ++partition) {
+         drainExpirationIndex(partition, currentTimeMillis, null, candidates);
+      }
+      return candidates.iterator();
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> expirationCandidates(IntSet segments, long currentTimeMillis) {
+      if (expirationIndex == null) {
+         return iteratorIncludingExpired(segments);
+      }
+      List<InternalCacheEntry<K, V>> candidates = new ArrayList<>();
+      if (expirationIndex.partitions() == 1) {
+         drainExpirationIndex(0, currentTimeMillis, segments, candidates);
+      } else {
+         segments.forEach((int segment) -> drainExpirationIndex(segment, currentTimeMillis, null, candidates));
+      }
+      return candidates.iterator();
+   }
+
+   private void drainExpirationIndex(int partition, long currentTimeMillis, IntSet segments,
+                                     List<InternalCacheEntry<K, V>> candidates) {
+      List<K> due = new ArrayList<>();
+      expirationIndex.drain(partition, currentTimeMillis, due);
+      for (K key : due) {
+         InternalCacheEntry<K, V> ice = peek(partition, key);
+         if (ice == null || !ice.canExpire()) {
+            continue;
+         }
+         // Entries read since they were written expire later, and an expired entry is only removed if the expiration
+         // succeeds, so the entry is recorded again until it is removed from the container
+         expirationIndex.schedule(partition, key, ice.getExpiryTime());
+         if (segments == null || segments.contains(keyPartitioner.getSegment(key))) {
+            candidates.add(ice);
+         }
+      }
+   }
+
+   /**
+    * Clears the expiration times of all the entries, when the whole container is cleared.
+    */
+   protected void clearExpirationIndex() {
+      if (expirationIndex != null) {
+         expirationIndex.clear();
+      }
+   }
+
+   /**
+    * Clears the expiration times of the entries of a segment that is removed from the container.
+    */
+   protected void clearExpirationIndex(int segment) {
+      if (expirationIndex != null) {
+         expirationIndex.clear(segment);
+      }
+   }
+
+   private void recordExpiration(int segment, K key, InternalCacheEntry<K, V> ice) {
+      if (expirationIndex != null) {
+         if (ice.canExpire()) {
+            expirationIndex.schedule(segment, key, ice.getExpiryTime());
+         } else {
+            expirationIndex.remove(segment, key);
+         }
+      }
+   }
+
+   private void removeExpiration(int segment, K key) {
+      if (expirationIndex != null) {
+         expirationIndex.remove(segment, key);
+      }
+   }
+
    /**
     * This method is invoked every time an entry is written inside a compute block
     * @param key key passed to compute method
@@ -524,6 +637,10 @@ void onEntryChosenForEviction(K key, InternalCacheEntry<K, V> value) {
          // Schedule an eviction to happen after the key lock is released
          CompletableFuture<Void> future = new CompletableFuture<>();
          ensureEvictionDone.put(key, future);
+         // The evicted entry is passivated and must not be expired by the reaper
+         if (value.canExpire()) {
+            removeExpiration(getSegmentForKey(key), key);
+         }
          handleEviction(value, orderer, passivator.running(), evictionManager, AbstractInternalDataContainer.this,
                future);
       }
@@ -143,12 +143,14 @@ public void clear() {
       for (int i = 0; i < maps.length(); ++i) {
          clearMapIfPresent(i);
       }
+      clearExpirationIndex();
    }
 
    @Override
    public void clear(IntSet segments) {
       clear(segments, false);
       segments.forEach((IntConsumer) this::clearMapIfPresent);
+      segments.forEach((IntConsumer) this::clearExpirationIndex);
    }
 
    private void clearMapIfPresent(int segment) {
@@ -167,6 +167,7 @@ public void clear(IntSet segments) {
    public void clear() {
       log.tracef("Clearing data container");
       entries.clear();
+      clearExpirationIndex();
    }
 
    @Override
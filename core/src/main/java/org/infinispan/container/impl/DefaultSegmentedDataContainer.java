@@ -78,6 +78,11 @@ public int getSegmentForKey(Object key) {
       return keyPartitioner.getSegment(key);
    }
 
+   @Override
+   protected int expirationIndexPartitions() {
+      return maps.length();
+   }
+
    @Override
    public PeekableTouchableMap<K, V> getMapForSegment(int segment) {
       return maps.get(segment);
@@ -216,6 +221,7 @@ public void clear() {
             map.clear();
          }
       }
+      clearExpirationIndex();
    }
 
    @Override
@@ -289,6 +295,7 @@ private void stopMap(int segment, boolean notifyListener) {
             listeners.forEach(c -> c.accept(map.values()));
          }
          segmentRemoved(map);
+         clearExpirationIndex(segment);
          if (map instanceof AutoCloseable) {
             try {
                ((AutoCloseable) map).close();
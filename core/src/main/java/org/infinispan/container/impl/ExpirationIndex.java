@@ -0,0 +1,233 @@
+package org.infinispan.container.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Records the keys of the entries that can expire by the time they expire, so the expiration reaper only visits the
+ * entries that are due instead of iterating over the whole container.
+ * <p>
+ * Every segment has its own hierarchical timing wheel, created with the first expirable entry of the segment. A wheel
+ * has {@link #LEVELS} levels of {@link #SLOTS} slots. A slot of the first level spans a tick of {@link #TICK}
+ * milliseconds, and a slot of the next levels spans all the slots of the previous level. When the wheel reaches the
+ * start of a slot of an upper level, the keys of that slot are cascaded to the lower levels, so that the cost of
+ * advancing the wheel depends on the number of keys that are due and not on the number of keys in the wheel.
+ * <p>
+ * The index only holds the last expiration time each key was written with. Entries with max idle expire later when
+ * they are read, so the container checks the entries of the keys that are due and records them again if needed.
+ *
+ * @since 15.0
+ */
+@ThreadSafe
+final class ExpirationIndex<K> {
+   static final long TICK = 1000;
+   static final int LEVELS = 5;
+   private static final int SLOT_BITS = 6;
+   static final int SLOTS = 1 << SLOT_BITS;
+   private static final int SLOT_MASK = SLOTS - 1;
+
+   private final AtomicReferenceArray<Wheel<K>> wheels;
+   private final LongSupplier wallClock;
+
+   ExpirationIndex(int partitions, LongSupplier wallClock) {
+      this.wheels = new AtomicReferenceArray<>(partitions);
+      this.wallClock = wallClock;
+   }
+
+   int partitions() {
+      return wheels.length();
+   }
+
+   /**
+    * Records the expiration time of the key, replacing the previous one.
+    */
+   void schedule(int segment, K key, long expiryTime) {
+      int partition = partition(segment);
+      Wheel<K> wheel = wheels.get(partition);
+      if (wheel == null) {
+         Wheel<K> newWheel = new Wheel<>(wallClock.getAsLong() / TICK);
+         wheel = wheels.compareAndSet(partition, null, newWheel) ? newWheel : wheels.get(partition);
+      }
+      wheel.schedule(key, expiryTime);
+   }
+
+   void remove(int segment, K key) {
+      Wheel<K> wheel = wheels.get(partition(segment));
+      if (wheel != null) {
+         wheel.remove(key);
+      }
+   }
+
+   /**
+    * Removes the keys of the partition that are due at the given time and adds them to the list.
+    */
+   void drain(int partition, long currentTimeMillis, List<K> due) {
+      Wheel<K> wheel = wheels.get(partition);
+      if (wheel != null) {
+         wheel.advance(currentTimeMillis, due);
+      }
+   }
+
+   void clear(int segment) {
+      // A single partition holds the keys of all the segments
+      if (wheels.length() > 1) {
+         wheels.set(segment, null);
+      }
+   }
+
+   void clear() {
+      for (int i = 0; i < wheels.length(); ++i) {
+         wheels.set(i, null);
+      }
+   }
+
+   private int partition(int segment) {
+      return wheels.length() == 1 ? 0 : segment;
+   }
+
+   private static final class Node<K> {
+      final K key;
+      long expiryTime;
+      int level;
+      Node<K> prev = this;
+      Node<K> next = this;
+
+      Node(K key) {
+         this.key = key;
+      }
+   }
+
+   private static final class Wheel<K> {
+      private final Map<K, Node<K>> nodes = new HashMap<>();
+      // The sentinels of the slots of each level, the last level holds the keys too far in the future
+      private final Node<K>[][] slots;
+      private final int[] counts = new int[LEVELS + 1];
+      private long currentTick;
+
+      @SuppressWarnings("unchecked")
+      Wheel(long currentTick) {
+         this.currentTick = currentTick;
+         slots = new Node[LEVELS + 1][];
+         for (int level = 0; level <= LEVELS; ++level) {
+            slots[level] = new Node[level == LEVELS ? 1 : SLOTS];
+            for (int i = 0; i < slots[level].length; ++i) {
+               slots[level][i] = new Node<>(null);
+            }
+         }
+      }
+
+      synchronized void schedule(K key, long expiryTime) {
+         Node<K> node = nodes.get(key);
+         if (node == null) {
+            node = new Node<>(key);
+            nodes.put(key, node);
+         } else if (node.expiryTime == expiryTime) {
+            return;
+         } else {
+            unlink(node);
+         }
+         node.expiryTime = expiryTime;
+         link(node);
+      }
+
+      synchronized void remove(K key) {
+         Node<K> node = nodes.remove(key);
+         if (node != null) {
+            unlink(node);
+         }
+      }
+
+      synchronized void advance(long currentTimeMillis, List<K> due) {
+         long nowTick = currentTimeMillis / TICK;
+         while (!nodes.isEmpty()) {
+            expireSlot(currentTimeMillis, due);
+            if (currentTick >= nowTick) {
+               return;
+            }
+            currentTick = nextTick(nowTick);
+            cascade();
+         }
+         currentTick = Math.max(currentTick, nowTick);
+      }
+
+      private void expireSlot(long currentTimeMillis, List<K> due) {
+         Node<K> sentinel = slots[0][(int) (currentTick & SLOT_MASK)];
+         for (Node<K> node = sentinel.next; node != sentinel; ) {
+            Node<K> next = node.next;
+            // Only the keys of the current tick can expire later than the current time
+            if (node.expiryTime <= currentTimeMillis) {
+               unlink(node);
+               nodes.remove(node.key);
+               due.add(node.key);
+            }
+            node = next;
+         }
+      }
+
+      /**
+       * @return the next tick that has keys to expire or to cascade, but not after the given tick.
+       */
+      private long nextTick(long nowTick) {
+         for (int level = 0; level <= LEVELS; ++level) {
+            if (counts[level] > 0) {
+               int shift = SLOT_BITS * level;
+               return Math.min(((currentTick >>> shift) + 1) << shift, nowTick);
+            }
+         }
+         return nowTick;
+      }
+
+      /**
+       * Moves the keys of the upper level slots starting at the current tick to the lower levels.
+       */
+      private void cascade() {
+         for (int level = LEVELS; level > 0; --level) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+               continue;
+            }
+            Node<K> sentinel = level == LEVELS ? slots[LEVELS][0] : slots[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+            // Detach the slot first, the keys too far in the future go back to the same slot
+            Node<K> node = sentinel.next;
+            sentinel.prev.next = null;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != null && node != sentinel) {
+               Node<K> next = node.next;
+               counts[node.level]--;
+               link(node);
+               node = next;
+            }
+         }
+      }
+
+      private void link(Node<K> node) {
+         long tick = Math.max(node.expiryTime / TICK, currentTick);
+         // The level is the first one where the tick and the current tick share all the upper bits
+         int level = 0;
+         while (level < LEVELS && (tick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+         }
+         Node<K> sentinel = level == LEVELS ? slots[LEVELS][0] : slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+         node.level = level;
+         node.prev = sentinel.prev;
+         node.next = sentinel;
+         sentinel.prev.next = node;
+         sentinel.prev = node;
+         counts[level]++;
+      }
+
+      private void unlink(Node<K> node) {
+         node.prev.next = node.next;
+         node.next.prev = node.prev;
+         node.prev = node;
+         node.next = node;
+         counts[node.level]--;
+      }
+   }
+}
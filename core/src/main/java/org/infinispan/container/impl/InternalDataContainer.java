@@ -199,6 +199,28 @@ default int sizeIncludingExpired(IntSet segments) {
     */
    Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(IntSet segments);
 
+   /**
+    * Returns the entries that may be expired at the given time, for the expiration reaper. Containers that keep track
+    * of when their entries expire only return the entries that are due, the others return all the entries including
+    * the expired ones like {@link #iteratorIncludingExpired()}.
+    * @param currentTimeMillis the wall clock time the entries are checked against
+    * @return iterator of the entries that may be expired
+    */
+   default Iterator<InternalCacheEntry<K, V>> expirationCandidates(long currentTimeMillis) {
+      return iteratorIncludingExpired();
+   }
+
+   /**
+    * Same as {@link #expirationCandidates(long)} except that only entries that map to the provided segments are
+    * returned via the iterator.
+    * @param segments segments of entries to use
+    * @param currentTimeMillis the wall clock time the entries are checked against
+    * @return iterator of the entries mapped to the given segments that may be expired
+    */
+   default Iterator<InternalCacheEntry<K, V>> expirationCandidates(IntSet segments, long currentTimeMillis) {
+      return iteratorIncludingExpired(segments);
+   }
+
    default Publisher<InternalCacheEntry<K, V>> publisher(int segment) {
       return Flowable.fromIterable(() -> iterator(IntSets.immutableSet(segment)));
    }
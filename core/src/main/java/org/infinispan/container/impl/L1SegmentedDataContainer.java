@@ -152,6 +152,7 @@ public void clear(IntSet segments) {
          ConcurrentMap<K, InternalCacheEntry<K, V>> map = maps.get(segment);
          if (map != null) {
             map.clear();
+            clearExpirationIndex(segment);
          } else {
             // If we don't have a map for a segment we have to later go through the unowned segments and remove
             // those entries separately
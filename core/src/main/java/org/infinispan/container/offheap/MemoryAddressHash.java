@@ -40,7 +40,7 @@ public long getMemoryAddressOffsetNoTraceIfAbsent(int offset) {
    }
 
    public void deallocate() {
-      allocator.deallocate(memory, pointerCount << 3);
+      allocator.deallocate(memory, ((long) pointerCount) << 3);
    }
 
    /**
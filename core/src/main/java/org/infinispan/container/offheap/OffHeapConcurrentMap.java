@@ -14,6 +14,7 @@
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiFunction;
@@ -45,6 +46,7 @@
  *    <li><code>bucket</code>: Can store multiple entries (normally via a forward only list)
  *    <li><code>memory lookup</code>: Stores an array of buckets - used primarily to lookup the location a key would be
  *    <li><code>lock region</code>: The number of lock regions is fixed, and each region has {@code bucket count / lock count} buckets.
+ *    The number of lock regions is four times the number of processors, rounded up to a power of two.
  * </ul>
  * <p>
  * This implementation provides constant-time performance for the basic
@@ -55,8 +57,12 @@
  * <p>
  * A map must be started after creating to create the initial memory lookup, which is also store in the native heap.
  * When the size of the map reaches the load factor, that is .75 times the capacity, the map will attempt to resize
- * by increasing its internal memory lookup to have an array of buckets twice as big. Normal operations can still
- * proceed during this, allowing for minimal downtime during a resize.
+ * by increasing its internal memory lookup to have an array of buckets twice as big. The new memory lookup is
+ * allocated without holding any lock and all the write locks are only held to swap the references. The entries are
+ * then moved to the new memory lookup one lock region at a time: a write operation moves the region it locked and
+ * the write operations that insert a new entry also move a bounded number of additional regions, so that no single
+ * operation has to move the whole map. Normal operations can still proceed during this, reads from a region not yet
+ * moved use the old memory lookup.
  * <p>
  * This map is created assuming some knowledge of expiration in the Infinispan system. Thus operations that do not
  * expose this information via its APIs are not supported. These methods are {@code keySet}, {@code containsKey} and
@@ -97,11 +103,14 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
 
-   // We always have to have more buckets than locks
-   public final static int INITIAL_SIZE = 256;
+   // Upper bound for the number of locks, which also bounds the initial number of buckets
+   private final static int MAX_LOCK_COUNT = 1 << 12;
+
+   private final static int LOCK_COUNT = Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()) << 2,
+         MAX_LOCK_COUNT);
 
-   private final static int LOCK_COUNT = Math.min(Util.findNextHighestPowerOfTwo(ProcessorInfo.availableProcessors()) << 1,
-         INITIAL_SIZE);
+   // We always have to have more buckets than locks
+   public final static int INITIAL_SIZE = Math.max(256, LOCK_COUNT);
    // This is the largest power of 2 positive integer value
    private final static int MAX_ADDRESS_COUNT = 1 << 31;
    // Since lockCount is always a power of 2 - We can just shift by this many bits which is the same as dividing by
@@ -109,9 +118,14 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    private final static int LOCK_SHIFT = 31 - Integer.numberOfTrailingZeros(LOCK_COUNT);
    // The number of bits required to shift to the right to get the bucket size from a given pointer address
    private final static int LOCK_REGION_SHIFT = Integer.numberOfTrailingZeros(LOCK_COUNT);
+   // How many buckets a write operation inserting an entry moves to the new memory lookup during a resize, in addition
+   // to its own lock region. At least one lock region is always moved.
+   private final static int TRANSFER_BUCKETS_PER_OPERATION = 1024;
 
    private final AtomicLong size = new AtomicLong();
    private final StripedLock locks;
+   // Only a single thread allocates the new memory lookup when the resize threshold is reached
+   private final AtomicBoolean allocatingResize = new AtomicBoolean();
 
    private final OffHeapMemoryAllocator allocator;
    private final OffHeapEntryFactory offHeapEntryFactory;
@@ -126,8 +140,9 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    // Non null during a resize operation - this will be initialized to contain all of the numbers equal to how many
    // locks we have - This and oldMemoryLookup should always be either both null or not null at the same time.
+   // This variable can be read outside of locks to help a resize in progress - thus is volatile
    @GuardedBy("locks")
-   private IntSet pendingBlocks;
+   private volatile IntSet pendingBlocks;
    // Always non null, unless map has been stopped
    @GuardedBy("locks")
    private MemoryAddressHash memoryLookup;
@@ -358,22 +373,53 @@ private void checkDeallocation() {
     */
    @GuardedBy("locks#lockAll")
    private boolean sizeMemoryBuckets(int bucketCount) {
+      MemoryAddressHash newMemoryLookup = allocateMemoryBuckets(bucketCount);
+      if (newMemoryLookup == null) {
+         sizeThreshold = Integer.MAX_VALUE;
+         return false;
+      }
+      installMemoryBuckets(newMemoryLookup);
+      return true;
+   }
+
+   /**
+    * Allocates a new memory lookup with the given amount of buckets. This method does not require any lock.
+    * @param bucketCount the expected new size
+    * @return the new memory lookup or null if the listener prevented the resize
+    */
+   private MemoryAddressHash allocateMemoryBuckets(int bucketCount) {
       if (listener != null) {
          if (!listener.resize(bucketCount)) {
-            sizeThreshold = Integer.MAX_VALUE;
-            return false;
+            return null;
          }
       }
+      return new MemoryAddressHash(bucketCount, allocator);
+   }
+
+   /**
+    * Frees a memory lookup allocated with {@link #allocateMemoryBuckets(int)} that was never installed.
+    */
+   private void releaseMemoryBuckets(MemoryAddressHash memoryLookup) {
+      if (listener != null) {
+         boolean resized = listener.resize(-memoryLookup.getPointerCount());
+         assert resized : "Resize of negative pointers should always work!";
+      }
+      memoryLookup.deallocate();
+   }
 
+   /**
+    * Makes the provided memory lookup the current one, retaining the current one as the old memory lookup.
+    */
+   @GuardedBy("locks#lockAll")
+   private void installMemoryBuckets(MemoryAddressHash newMemoryLookup) {
+      int bucketCount = newMemoryLookup.getPointerCount();
       sizeThreshold = computeThreshold(bucketCount);
 
       oldMemoryLookup = memoryLookup;
       oldMemoryShift = memoryShift;
-      memoryLookup = new MemoryAddressHash(bucketCount, allocator);
+      memoryLookup = newMemoryLookup;
       // Max capacity is 2^31 (thus find the bit position that would be like dividing evenly into that)
       memoryShift = 31 - Integer.numberOfTrailingZeros(bucketCount);
-
-      return true;
    }
 
    /**
@@ -391,32 +437,64 @@ StripedLock getLocks() {
    }
 
    /**
-    * This method checks if the map must be resized and if so starts the operation. This caller <b>MUST NOT</b>
-    * hold any locks when invoked.
+    * This method checks if the map must be resized and if so starts the operation. If a resize is already in progress
+    * it instead moves some of the pending lock regions to the new memory lookup, completing the resize once all of
+    * them have been moved. This caller <b>MUST NOT</b> hold any locks when invoked.
     */
    private void checkResize() {
-      // We don't do a resize if we aren't to the boundary or if we are in a pending resize
-      if (size.get() < sizeThreshold || oldMemoryLookup != null) {
+      IntSet localPendingBlocks = this.pendingBlocks;
+      if (localPendingBlocks != null) {
+         helpCompleteTransfer(localPendingBlocks);
+         return;
+      }
+      // We don't do a resize if we aren't to the boundary
+      if (size.get() < sizeThreshold) {
+         return;
+      }
+      // Someone else is already allocating the new memory lookup
+      if (!allocatingResize.compareAndSet(false, true)) {
          return;
       }
-      boolean onlyHelp = false;
-      IntSet localPendingBlocks;
-      locks.lockAll();
       try {
-         // Don't replace blocks if it was already done - means we had concurrent requests
-         if (oldMemoryLookup != null) {
-            onlyHelp = true;
-            localPendingBlocks = this.pendingBlocks;
-         } else {
-            int newBucketCount = memoryLookup.getPointerCount() << 1;
-            if (newBucketCount == MAX_ADDRESS_COUNT) {
-               sizeThreshold = Integer.MAX_VALUE;
-            }
+         localPendingBlocks = startResize();
+      } finally {
+         allocatingResize.set(false);
+      }
+      if (localPendingBlocks != null) {
+         helpCompleteTransfer(localPendingBlocks);
+      }
+   }
 
-            // We couldn't resize
-            if (!sizeMemoryBuckets(newBucketCount)) {
-               return;
-            }
+   /**
+    * Allocates the new memory lookup without holding any lock and then installs it while holding all the write locks.
+    * Only a single thread may invoke this method at a time.
+    * @return the lock regions pending transfer or null if the map was not resized
+    */
+   private IntSet startResize() {
+      int newBucketCount;
+      StampedLock lock = locks.getLockWithOffset(0);
+      long readStamp = lock.readLock();
+      try {
+         // Check again as a resize or clear may have completed since
+         if (memoryLookup == null || pendingBlocks != null || size.get() < sizeThreshold) {
+            return null;
+         }
+         newBucketCount = memoryLookup.getPointerCount() << 1;
+      } finally {
+         lock.unlockRead(readStamp);
+      }
+
+      // We can't resize past the largest power of 2
+      MemoryAddressHash newMemoryLookup = newBucketCount == MAX_ADDRESS_COUNT ? null : allocateMemoryBuckets(newBucketCount);
+
+      IntSet localPendingBlocks = null;
+      locks.lockAll();
+      try {
+         if (newMemoryLookup == null) {
+            sizeThreshold = Integer.MAX_VALUE;
+         } else if (memoryLookup != null && pendingBlocks == null && memoryLookup.getPointerCount() << 1 == newBucketCount) {
+            installMemoryBuckets(newMemoryLookup);
+            newMemoryLookup = null;
             localPendingBlocks = IntSets.concurrentSet(LOCK_COUNT);
             for (int i = 0; i < LOCK_COUNT; ++i) {
                localPendingBlocks.set(i);
@@ -426,31 +504,11 @@ private void checkResize() {
       } finally {
          locks.unlockAll();
       }
-
-      // Try to complete without waiting if possible for locks
-      helpCompleteTransfer(localPendingBlocks, true);
-
-      if (!onlyHelp) {
-         if (!localPendingBlocks.isEmpty()) {
-            // We attempted to transfer without waiting on locks - but we didn't finish them all yet - so now we have
-            // to wait to ensure they are all transferred
-            helpCompleteTransfer(localPendingBlocks, false);
-            // Now everything should be empty for sure
-            assert localPendingBlocks.isEmpty();
-         }
-
-         // Now that all blocks have been transferred we can replace references
-         locks.lockAll();
-         try {
-            // This means that someone else completed the transfer for us - only clear can do that currently
-            if (this.pendingBlocks == null) {
-               return;
-            }
-            transferComplete();
-         } finally {
-            locks.unlockAll();
-         }
+      if (newMemoryLookup != null) {
+         // A clear happened while allocating, the map is back to its initial size
+         releaseMemoryBuckets(newMemoryLookup);
       }
+      return localPendingBlocks;
    }
 
    /**
@@ -470,33 +528,50 @@ private void transferComplete() {
    }
 
    /**
+    * Moves up to {@link #TRANSFER_BUCKETS_PER_OPERATION} buckets, but at least one lock region, to the new memory
+    * lookup. Lock regions whose lock can't be acquired immediately are skipped, as the operation holding the lock will
+    * move it. Whoever observes that all the lock regions have been moved completes the resize.
+    * <p>
     * This <b>MUST NOT</b>  be invoked while holding any lock
-    * @param tryLock whether the lock acquisition only does a try, returning earlier with some lock segments not transferred possibly
+    * @param pendingBlocks the lock regions pending transfer
     */
-   private void helpCompleteTransfer(IntSet pendingBlocks, boolean tryLock) {
-      if (pendingBlocks != null) {
-         PrimitiveIterator.OfInt iterator = pendingBlocks.iterator();
-         while (iterator.hasNext()) {
-            int offset = iterator.nextInt();
-            StampedLock lock = locks.getLockWithOffset(offset);
-
-            long stamp;
-            if (tryLock) {
-               // If we can't get it - just assume another person is working on it - so try next one
-               if ((stamp = lock.tryWriteLock()) == 0) {
-                  continue;
+   private void helpCompleteTransfer(IntSet pendingBlocks) {
+      // Computed once the first lock is held, as the memory lookup must not be read without one
+      int regionsToTransfer = -1;
+      PrimitiveIterator.OfInt iterator = pendingBlocks.iterator();
+      while (regionsToTransfer != 0 && iterator.hasNext()) {
+         int offset = iterator.nextInt();
+         StampedLock lock = locks.getLockWithOffset(offset);
+
+         long stamp;
+         // If we can't get it - just assume another person is working on it - so try next one
+         if ((stamp = lock.tryWriteLock()) == 0) {
+            continue;
+         }
+         try {
+            // Only run it now that we have lock if someone else just didn't finish it
+            if (this.pendingBlocks == pendingBlocks && pendingBlocks.remove(offset)) {
+               if (regionsToTransfer < 0) {
+                  int regionSize = getBucketRegionSize(memoryLookup.getPointerCount());
+                  regionsToTransfer = Math.max(1, TRANSFER_BUCKETS_PER_OPERATION / regionSize);
                }
-            } else {
-               stamp = lock.writeLock();
+               transfer(offset);
+               regionsToTransfer--;
             }
-            try {
-               // Only run it now that we have lock if someone else just didn't finish it
-               if (pendingBlocks.remove(offset)) {
-                  transfer(offset);
-               }
-            } finally {
-               lock.unlockWrite(stamp);
+         } finally {
+            lock.unlockWrite(stamp);
+         }
+      }
+
+      if (pendingBlocks.isEmpty()) {
+         locks.lockAll();
+         try {
+            // Only the first one to see it empty completes it, a clear may also have completed it for us
+            if (this.pendingBlocks == pendingBlocks) {
+               transferComplete();
             }
+         } finally {
+            locks.unlockAll();
          }
       }
    }
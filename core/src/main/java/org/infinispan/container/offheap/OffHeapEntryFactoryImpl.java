@@ -1,6 +1,5 @@
 package org.infinispan.container.offheap;
 
-import static org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator.estimateSizeOverhead;
 import static org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator.offHeapEntrySize;
 
 import java.io.IOException;
@@ -13,6 +12,7 @@
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ValueCompressionType;
 import org.infinispan.container.entries.ExpiryHelper;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.InternalEntryFactory;
@@ -45,6 +45,7 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    @Inject Configuration configuration;
 
    private boolean evictionEnabled;
+   private ValueCompressor compressor;
 
    // If custom than we just store the metadata as is (no other bits should be used)
    private static final byte CUSTOM = 1;
@@ -63,6 +64,9 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    // Whether this entry has private metadata or not
    private static final byte HAS_PRIVATE_METADATA = 1 << 6;
 
+   // Whether the value bytes are compressed or not
+   private static final byte COMPRESSED = (byte) (1 << 7);
+
    /**
     * HEADER is composed of type (byte), hashCode (int), keyLength (int), valueLength (int)
     * Note that metadata is not included as this is now optional
@@ -72,6 +76,9 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    @Start
    public void start() {
       this.evictionEnabled = configuration.memory().isEvictionEnabled();
+      if (configuration.memory().compression() == ValueCompressionType.DEFLATE) {
+         this.compressor = new ValueCompressor(configuration.memory().compressionThreshold());
+      }
    }
 
    @Override
@@ -133,7 +140,21 @@ public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedByt
       int keySize = key.getLength();
       int metadataSize = metadataBytes.length;
       WrappedBytes value = ice.getValue();
-      int valueSize = value != null ? value.getLength() : 0;
+      byte[] valueBytes = compress(value);
+      int valueOffset;
+      int valueSize;
+      if (valueBytes != null) {
+         type |= COMPRESSED;
+         valueOffset = 0;
+         valueSize = valueBytes.length;
+      } else if (value != null) {
+         valueBytes = value.getBytes();
+         valueOffset = value.backArrayOffset();
+         valueSize = value.getLength();
+      } else {
+         valueOffset = 0;
+         valueSize = 0;
+      }
 
       byte[] internalMetadataBytes;
       int internalMetadataSize;
@@ -180,7 +201,7 @@ public long create(WrappedBytes key, int hashCode, InternalCacheEntry<WrappedByt
       offset += metadataSize;
 
       if (valueSize > 0) {
-         MEMORY.putBytes(value.getBytes(), value.backArrayOffset(), memoryAddress, offset, valueSize);
+         MEMORY.putBytes(valueBytes, valueOffset, memoryAddress, offset, valueSize);
          offset += valueSize;
       }
 
@@ -237,7 +258,7 @@ public long getSize(long entryAddress, boolean includeAllocationOverhead) {
       }
 
       int size = headerOffset + keyLength + metadataLength + valueLength + internalMetadataLength;
-      return includeAllocationOverhead ? estimateSizeOverhead(size) : size;
+      return includeAllocationOverhead ? allocator.allocatedSize(size) : size;
    }
 
    @Override
@@ -309,7 +330,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
       offset += 4;
 
       byte[] metadataBytes;
-      switch (metadataType & (~HAS_PRIVATE_METADATA)) {
+      switch (metadataType & ~(HAS_PRIVATE_METADATA | COMPRESSED)) {
          case IMMORTAL:
             metadataBytes = Util.EMPTY_BYTE_ARRAY;
             break;
@@ -348,6 +369,9 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
          MEMORY.getBytes(address, offset, valueBytes, 0, valueBytes.length);
          offset += valueBytes.length;
 
+         if ((metadataType & COMPRESSED) == COMPRESSED) {
+            valueBytes = compressor.decompress(valueBytes);
+         }
          valueWrappedBytes = new WrappedByteArray(valueBytes);
       } else {
          valueWrappedBytes = null;
@@ -566,7 +590,9 @@ static private boolean requiresInternalMetadataSize(byte type) {
    public long calculateSize(WrappedBytes key, WrappedBytes value, Metadata metadata, PrivateMetadata internalMetadata) {
       long totalSize = evictionEnabled ? 24 : 8;
       totalSize += HEADER_LENGTH;
-      totalSize += key.getLength() + value.getLength();
+      byte[] compressedValue = compressor != null && value != null ?
+            compressor.compressForSize(value.getBytes(), value.backArrayOffset(), value.getLength()) : null;
+      totalSize += key.getLength() + (compressedValue != null ? compressedValue.length : value.getLength());
       long metadataSize = 0;
       if (metadata instanceof EmbeddedMetadata) {
          EntryVersion version = metadata.version();
@@ -589,7 +615,7 @@ public long calculateSize(WrappedBytes key, WrappedBytes value, Metadata metadat
       long internalMetadataSize = shouldWriteInternalMetadata(internalMetadata) ?
                                   marshall(internalMetadata).length + 4:
                                   0;
-      return estimateSizeOverhead(totalSize + metadataSize + internalMetadataSize);
+      return allocator.allocatedSize(totalSize + metadataSize + internalMetadataSize);
    }
 
    @Override
@@ -725,6 +751,16 @@ private <T> T unmarshall(byte[] bytes) {
       }
    }
 
+   /**
+    * @return the compressed value bytes, or <code>null</code> if the value is stored as is.
+    */
+   private byte[] compress(WrappedBytes value) {
+      if (compressor == null || value == null) {
+         return null;
+      }
+      return compressor.compress(value.getBytes(), value.backArrayOffset(), value.getLength());
+   }
+
    private static boolean shouldWriteInternalMetadata(PrivateMetadata metadata) {
       return metadata != null && !metadata.isEmpty();
    }
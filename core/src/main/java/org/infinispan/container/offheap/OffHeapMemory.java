@@ -168,4 +168,34 @@ void free(long address) {
       }
       UNSAFE.freeMemory(address);
    }
+
+   /**
+    * Allocates a region that is split into blocks by a pooling allocator. Unlike {@link #allocate(long)} the region
+    * is not tracked itself, instead the blocks handed out of it must be tracked with {@link #trackBlock(long, long)}.
+    */
+   long allocateRegion(long size) {
+      return UNSAFE.allocateMemory(size);
+   }
+
+   void freeRegion(long address) {
+      UNSAFE.freeMemory(address);
+   }
+
+   void trackBlock(long address, long size) {
+      if (log.isTraceEnabled()) {
+         Long prev = allocatedBlocks.put(address, size);
+         if (prev != null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
+
+   void untrackBlock(long address) {
+      if (log.isTraceEnabled()) {
+         Long prev = allocatedBlocks.remove(address);
+         if (prev == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
 }
@@ -23,4 +23,14 @@ public interface OffHeapMemoryAllocator {
    void deallocate(long memoryAddress, long size);
 
    long getAllocatedAmount();
+
+   /**
+    * Returns how much memory an allocation of the given length takes, including the overhead of the allocator. This
+    * is the amount charged against the memory bound of the container.
+    * @param memoryLength the size of memory to allocate
+    * @return the memory used by the allocation
+    */
+   default long allocatedSize(long memoryLength) {
+      return UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength);
+   }
 }
@@ -264,7 +264,7 @@ public boolean resize(int pointerCount) {
          try {
             boolean isNegative = pointerCount < 0;
             long memoryUsed = ((long) Math.abs(pointerCount)) << 3;
-            long change = UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryUsed);
+            long change = allocator.allocatedSize(memoryUsed);
 
             // We only attempt to deny resizes that are an increase in pointers
             if (!isNegative) {
@@ -0,0 +1,354 @@
+package org.infinispan.container.offheap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.stat.MetricInfo;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.metrics.impl.CustomMetricsSupplier;
+import org.infinispan.metrics.impl.MetricUtils;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import sun.misc.Unsafe;
+
+/**
+ * Memory allocator that carves allocations out of large slabs instead of calling the native allocator for every
+ * entry.
+ * <p>
+ * Allocations up to {@link #MAX_BLOCK_SIZE} bytes are rounded up to a size class: 16 byte steps up to 128 bytes and
+ * then 4 classes per power of two. Every size class owns its slabs of {@link #SLAB_SIZE} bytes and a free list of
+ * released blocks, linked through the first 8 bytes of each block. Threads keep a small cache of blocks per size
+ * class, which is refilled from and flushed to the size class in batches, so most allocations and deallocations do not
+ * need any lock. Larger allocations go directly to the native allocator.
+ * <p>
+ * Slabs are only returned to the operating system when the allocator is stopped.
+ *
+ * @since 15.0
+ */
+@MBean(objectName = SlabOffHeapMemoryAllocator.OBJECT_NAME, description = "Slab allocator of the off-heap data container")
+@Scope(Scopes.NAMED_CACHE)
+public class SlabOffHeapMemoryAllocator implements OffHeapMemoryAllocator, CustomMetricsSupplier {
+   public static final String OBJECT_NAME = "OffHeapAllocator";
+   public static final String SIZE_CLASS_TAG_NAME = "size_class";
+
+   private static final Log log = LogFactory.getLog(SlabOffHeapMemoryAllocator.class, Log.class);
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   static final int SLAB_SIZE = 1 << 20;
+   static final int MAX_BLOCK_SIZE = 4096;
+   // How many bytes worth of blocks a thread caches per size class
+   private static final int THREAD_CACHE_BYTES = 16 * 1024;
+   private static final int[] BLOCK_SIZES = createBlockSizes();
+
+   private final SizeClass[] sizeClasses;
+   private final LongAdder requestedBytes = new LongAdder();
+   private final LongAdder directBytes = new LongAdder();
+   private volatile ThreadLocal<ThreadCache> threadCaches;
+
+   public SlabOffHeapMemoryAllocator() {
+      sizeClasses = new SizeClass[BLOCK_SIZES.length];
+      for (int i = 0; i < sizeClasses.length; ++i) {
+         sizeClasses[i] = new SizeClass(i, BLOCK_SIZES[i]);
+      }
+      threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+   }
+
+   @Stop
+   public void stop() {
+      // Blocks held in the thread caches point to the slabs, replacing the thread local discards all of them
+      threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+      for (SizeClass sizeClass : sizeClasses) {
+         sizeClass.freeSlabs();
+      }
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      long memoryLocation;
+      if (memoryLength > MAX_BLOCK_SIZE) {
+         memoryLocation = MEMORY.allocate(memoryLength);
+         directBytes.add(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength));
+      } else {
+         SizeClass sizeClass = sizeClasses[sizeClassIndex(memoryLength)];
+         memoryLocation = threadCaches.get().allocate(sizeClass);
+         sizeClass.usedBlocks.increment();
+         MEMORY.trackBlock(memoryLocation, memoryLength);
+      }
+      requestedBytes.add(memoryLength);
+      if (log.isTraceEnabled()) {
+         log.tracef("Allocated off-heap memory at 0x%016x with %d bytes. Total reserved: %d", memoryLocation,
+               memoryLength, getReservedBytes());
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      if (log.isTraceEnabled()) {
+         log.tracef("Deallocating off-heap memory at 0x%016x with %d bytes. Total reserved: %d", memoryAddress,
+               size, getReservedBytes());
+      }
+      requestedBytes.add(-size);
+      if (size > MAX_BLOCK_SIZE) {
+         directBytes.add(-UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size));
+         MEMORY.free(memoryAddress);
+      } else {
+         MEMORY.untrackBlock(memoryAddress);
+         SizeClass sizeClass = sizeClasses[sizeClassIndex(size)];
+         sizeClass.usedBlocks.decrement();
+         threadCaches.get().free(sizeClass, memoryAddress);
+      }
+   }
+
+   /**
+    * Allocations served from the slabs take a whole block of their size class.
+    */
+   @Override
+   public long allocatedSize(long memoryLength) {
+      return memoryLength > MAX_BLOCK_SIZE ? UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(memoryLength) :
+            blockSize(memoryLength);
+   }
+
+   /**
+    * Returns the memory reserved from the operating system, which includes the unused parts of the slabs.
+    */
+   @Override
+   public long getAllocatedAmount() {
+      return getReservedBytes();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory reserved by the allocator, including the free space in slabs",
+         displayName = "Reserved bytes",
+         units = Units.BYTES
+   )
+   public long getReservedBytes() {
+      long reserved = directBytes.sum();
+      for (SizeClass sizeClass : sizeClasses) {
+         reserved += sizeClass.reservedBytes();
+      }
+      return reserved;
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory handed out by the allocator, rounded up to the size classes",
+         displayName = "Used bytes",
+         units = Units.BYTES
+   )
+   public long getUsedBytes() {
+      long used = directBytes.sum();
+      for (SizeClass sizeClass : sizeClasses) {
+         used += sizeClass.usedBytes();
+      }
+      return used;
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory requested from the allocator",
+         displayName = "Requested bytes",
+         units = Units.BYTES
+   )
+   public long getRequestedBytes() {
+      return requestedBytes.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Fraction of the reserved off-heap memory that does not hold requested data, because of size class rounding or free blocks",
+         displayName = "Fragmentation ratio"
+   )
+   public double getFragmentationRatio() {
+      long reserved = getReservedBytes();
+      return reserved == 0 ? 0 : 1 - (double) getRequestedBytes() / reserved;
+   }
+
+   @ManagedAttribute(
+         description = "Number of slabs allocated for all the size classes",
+         displayName = "Slab count"
+   )
+   public int getSlabCount() {
+      int count = 0;
+      for (SizeClass sizeClass : sizeClasses) {
+         count += sizeClass.slabCount;
+      }
+      return count;
+   }
+
+   @ManagedAttribute(
+         description = "Size of the slabs the blocks are carved from",
+         displayName = "Slab size",
+         units = Units.BYTES,
+         dataType = DataType.TRAIT
+   )
+   public int getSlabSize() {
+      return SLAB_SIZE;
+   }
+
+   @Override
+   public Collection<MetricInfo> getCustomMetrics(boolean nameAsTag) {
+      List<MetricInfo> attributes = new ArrayList<>(sizeClasses.length * 2);
+      for (SizeClass sizeClass : sizeClasses) {
+         int blockSize = sizeClass.blockSize;
+         Map<String, String> tags = Map.of(SIZE_CLASS_TAG_NAME, String.valueOf(blockSize));
+         String suffix = nameAsTag ? "" : "_" + blockSize;
+         attributes.add(MetricUtils.<SlabOffHeapMemoryAllocator>createGauge("SizeClassUsedBytes" + suffix,
+               "Amount of off-heap memory handed out in blocks of " + blockSize + " bytes",
+               allocator -> allocator.sizeClasses[sizeClass.index].usedBytes(), tags));
+         attributes.add(MetricUtils.<SlabOffHeapMemoryAllocator>createGauge("SizeClassReservedBytes" + suffix,
+               "Amount of off-heap memory reserved for blocks of " + blockSize + " bytes",
+               allocator -> allocator.sizeClasses[sizeClass.index].reservedBytes(), tags));
+      }
+      return attributes;
+   }
+
+   static int blockSize(long size) {
+      return BLOCK_SIZES[sizeClassIndex(size)];
+   }
+
+   static int sizeClassIndex(long size) {
+      if (size <= 128) {
+         return size <= 16 ? 0 : (int) ((size - 1) >>> 4);
+      }
+      // 4 classes for every power of two above 128, selected by the 2 bits after the highest one
+      long n = size - 1;
+      int highestBit = 63 - Long.numberOfLeadingZeros(n);
+      return 8 + ((highestBit - 7) << 2) + (int) ((n >>> (highestBit - 2)) & 3);
+   }
+
+   private static int[] createBlockSizes() {
+      List<Integer> sizes = new ArrayList<>();
+      for (int size = 16; size <= 128; size += 16) {
+         sizes.add(size);
+      }
+      for (int base = 128; base < MAX_BLOCK_SIZE; base <<= 1) {
+         for (int step = 1; step <= 4; ++step) {
+            sizes.add(base + step * (base >> 2));
+         }
+      }
+      return sizes.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   private static final class SizeClass {
+      final int index;
+      final int blockSize;
+      final int threadCacheSize;
+      final LongAdder usedBlocks = new LongAdder();
+
+      // The following fields are guarded by this
+      private final List<Long> slabs = new ArrayList<>();
+      private long freeList;
+      private long slabAddress;
+      private int slabOffset = SLAB_SIZE;
+      private volatile int slabCount;
+
+      SizeClass(int index, int blockSize) {
+         this.index = index;
+         this.blockSize = blockSize;
+         this.threadCacheSize = Math.max(4, Math.min(64, THREAD_CACHE_BYTES / blockSize));
+      }
+
+      long usedBytes() {
+         return usedBlocks.sum() * blockSize;
+      }
+
+      long reservedBytes() {
+         return (long) slabCount * SLAB_SIZE;
+      }
+
+      /**
+       * Moves {@code count} blocks into {@code cache}, taking released blocks first and carving new ones out of the
+       * current slab otherwise.
+       */
+      synchronized void refill(long[] cache, int count) {
+         for (int i = 0; i < count; ++i) {
+            long address = freeList;
+            if (address != 0) {
+               freeList = UNSAFE.getLong(address);
+            } else {
+               if (slabOffset + blockSize > SLAB_SIZE) {
+                  slabAddress = MEMORY.allocateRegion(SLAB_SIZE);
+                  slabs.add(slabAddress);
+                  slabOffset = 0;
+                  slabCount++;
+               }
+               address = slabAddress + slabOffset;
+               slabOffset += blockSize;
+            }
+            cache[i] = address;
+         }
+      }
+
+      /**
+       * Links the blocks of {@code cache} between {@code from} (inclusive) and {@code to} (exclusive) into the free
+       * list.
+       */
+      synchronized void release(long[] cache, int from, int to) {
+         for (int i = from; i < to; ++i) {
+            UNSAFE.putLong(cache[i], freeList);
+            freeList = cache[i];
+         }
+      }
+
+      synchronized void freeSlabs() {
+         for (long slab : slabs) {
+            MEMORY.freeRegion(slab);
+         }
+         slabs.clear();
+         freeList = 0;
+         slabOffset = SLAB_SIZE;
+         slabCount = 0;
+         usedBlocks.reset();
+      }
+   }
+
+   private final class ThreadCache {
+      private final long[][] blocks = new long[sizeClasses.length][];
+      private final int[] counts = new int[sizeClasses.length];
+
+      long allocate(SizeClass sizeClass) {
+         int index = sizeClass.index;
+         long[] cache = cache(sizeClass);
+         int count = counts[index];
+         if (count == 0) {
+            count = cache.length >> 1;
+            sizeClass.refill(cache, count);
+         }
+         counts[index] = --count;
+         return cache[count];
+      }
+
+      void free(SizeClass sizeClass, long address) {
+         int index = sizeClass.index;
+         long[] cache = cache(sizeClass);
+         int count = counts[index];
+         if (count == cache.length) {
+            // Flush the older half, the blocks released most recently are more likely to still be in the CPU caches
+            int flushed = cache.length >> 1;
+            sizeClass.release(cache, 0, flushed);
+            System.arraycopy(cache, flushed, cache, 0, count - flushed);
+            count -= flushed;
+         }
+         cache[count] = address;
+         counts[index] = count + 1;
+      }
+
+      private long[] cache(SizeClass sizeClass) {
+         long[] cache = blocks[sizeClass.index];
+         if (cache == null) {
+            cache = new long[sizeClass.threadCacheSize];
+            blocks[sizeClass.index] = cache;
+         }
+         return cache;
+      }
+   }
+}
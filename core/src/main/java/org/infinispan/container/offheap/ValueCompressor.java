@@ -0,0 +1,145 @@
+package org.infinispan.container.offheap;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.infinispan.commons.CacheException;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Compresses the value bytes of the off-heap entries with the deflate algorithm.
+ * <p>
+ * The compressed form starts with the length of the original bytes, so the value can be restored with a single
+ * allocation. Values smaller than the threshold, and values that do not get smaller, are not compressed. The deflater
+ * and the inflater are kept per thread, as creating them allocates native memory.
+ * <p>
+ * The size of a value is calculated before the value is written, so each thread also remembers the last values it
+ * compressed, and writing a value whose size was just calculated reuses the compressed bytes instead of compressing the
+ * value again.
+ *
+ * @since 15.0
+ */
+@ThreadSafe
+final class ValueCompressor {
+   private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+   private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+   // The size of the new value and the size of the previous value are calculated before the new value is written
+   private static final int RECENT_SIZE = 2;
+   private static final ThreadLocal<Recent> RECENT = ThreadLocal.withInitial(Recent::new);
+
+   private final int threshold;
+
+   ValueCompressor(int threshold) {
+      this.threshold = Math.max(threshold, 5);
+   }
+
+   /**
+    * Compresses a value that is written, reusing the compressed bytes if the size of the value was just calculated.
+    *
+    * @return the compressed bytes, or <code>null</code> if the value must be stored as is.
+    */
+   byte[] compress(byte[] bytes, int offset, int length) {
+      if (length < threshold) {
+         return null;
+      }
+      Recent recent = RECENT.get();
+      int index = recent.indexOf(bytes, offset, length);
+      return index >= 0 ? recent.remove(index) : deflate(bytes, offset, length);
+   }
+
+   /**
+    * Compresses a value to calculate its size, and remembers the compressed bytes for the write that follows.
+    *
+    * @return the compressed bytes, or <code>null</code> if the value must be stored as is.
+    */
+   byte[] compressForSize(byte[] bytes, int offset, int length) {
+      if (length < threshold) {
+         return null;
+      }
+      Recent recent = RECENT.get();
+      int index = recent.indexOf(bytes, offset, length);
+      if (index >= 0) {
+         return recent.compressed(index);
+      }
+      byte[] compressed = deflate(bytes, offset, length);
+      recent.add(bytes, offset, length, compressed);
+      return compressed;
+   }
+
+   private static byte[] deflate(byte[] bytes, int offset, int length) {
+      // Only worth it if the compressed form, including the length, is smaller than the value
+      byte[] buffer = new byte[length];
+      Bits.putInt(buffer, 0, length);
+      Deflater deflater = DEFLATER.get();
+      try {
+         deflater.setInput(bytes, offset, length);
+         deflater.finish();
+         int compressedLength = deflater.deflate(buffer, 4, length - 4);
+         return deflater.finished() ? Arrays.copyOf(buffer, 4 + compressedLength) : null;
+      } finally {
+         deflater.reset();
+      }
+   }
+
+   byte[] decompress(byte[] compressed) {
+      byte[] bytes = new byte[Bits.getInt(compressed, 0)];
+      Inflater inflater = INFLATER.get();
+      try {
+         inflater.setInput(compressed, 4, compressed.length - 4);
+         int length = inflater.inflate(bytes);
+         if (length != bytes.length || !inflater.finished()) {
+            throw new CacheException("Corrupted compressed value, expected " + bytes.length + " bytes but got " + length);
+         }
+         return bytes;
+      } catch (DataFormatException e) {
+         throw new CacheException(e);
+      } finally {
+         inflater.reset();
+      }
+   }
+
+   /**
+    * The last values compressed by a thread, matched by identity as the value bytes are never modified.
+    */
+   private static final class Recent {
+      private final byte[][] values = new byte[RECENT_SIZE][];
+      private final int[] offsets = new int[RECENT_SIZE];
+      private final int[] lengths = new int[RECENT_SIZE];
+      private final byte[][] compressed = new byte[RECENT_SIZE][];
+      private int next;
+
+      int indexOf(byte[] bytes, int offset, int length) {
+         for (int i = 0; i < RECENT_SIZE; ++i) {
+            if (values[i] == bytes && offsets[i] == offset && lengths[i] == length) {
+               return i;
+            }
+         }
+         return -1;
+      }
+
+      byte[] compressed(int index) {
+         return compressed[index];
+      }
+
+      /**
+       * Forgets the value once it is written, so the thread doesn't keep a reference to it.
+       */
+      byte[] remove(int index) {
+         byte[] result = compressed[index];
+         values[index] = null;
+         compressed[index] = null;
+         return result;
+      }
+
+      void add(byte[] bytes, int offset, int length, byte[] result) {
+         values[next] = bytes;
+         offsets[next] = offset;
+         lengths[next] = length;
+         compressed[next] = result;
+         next = (next + 1) % RECENT_SIZE;
+      }
+   }
+}
@@ -125,7 +125,7 @@ private boolean purgeInMemoryContents(LocalizedCacheTopology topology) {
             segments = IntSets.immutableEmptySet();
          }
 
-         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().iteratorIncludingExpired(segments);
+         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.running().expirationCandidates(segments, currentTimeMillis);
               purgeCandidates.hasNext();) {
             InternalCacheEntry<K, V> ice = purgeCandidates.next();
             if (ice.canExpire()) {
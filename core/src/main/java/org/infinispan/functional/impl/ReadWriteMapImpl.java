@@ -35,11 +35,11 @@
       super(params, functionalMap);
    }
 
-   public static <K, V> ReadWriteMap<K, V> create(FunctionalMapImpl<K, V> functionalMap) {
+   public static <K, V> ReadWriteMapImpl<K, V> create(FunctionalMapImpl<K, V> functionalMap) {
       return create(Params.from(functionalMap.params.params), functionalMap);
    }
 
-   private static <K, V> ReadWriteMap<K, V> create(Params params, FunctionalMapImpl<K, V> functionalMap) {
+   private static <K, V> ReadWriteMapImpl<K, V> create(Params params, FunctionalMapImpl<K, V> functionalMap) {
       if (functionalMap.cache().getCacheConfiguration().simpleCache()) {
          return new SimpleReadWriteMapImpl<>(params, functionalMap);
       }
@@ -87,6 +87,14 @@ public <T, R> Traversable<R> evalMany(Map<? extends K, ? extends T> arguments, B
 
    @Override
    public <R> Traversable<R> evalMany(Set<? extends K> keys, Function<ReadWriteEntryView<K, V>, R> f) {
+      return Traversables.of(evalManyAsync(keys, f).join().stream());
+   }
+
+   /**
+    * Same as {@link #evalMany(Set, Function)}, but returns the results without waiting for the operation to complete.
+    * The results are not in the order of the keys.
+    */
+   public <R> CompletableFuture<List<R>> evalManyAsync(Set<? extends K> keys, Function<ReadWriteEntryView<K, V>, R> f) {
       log.tracef("Invoked evalMany(keys=%s, %s)", keys, params);
       Set<?> encodedKeys = encodeKeys(keys);
       ReadWriteManyCommand<K, V, R> cmd = fmap.commandsFactory.buildReadWriteManyCommand(encodedKeys, f, params, keyDataConversion, valueDataConversion);
@@ -94,7 +102,7 @@ public <R> Traversable<R> evalMany(Set<? extends K> keys, Function<ReadWriteEntr
       if (ctx.getLockOwner() == null) {
          ctx.setLockOwner(cmd.getKeyLockOwner());
       }
-      return Traversables.of(((List<R>) invokeAsync(ctx, cmd).join()).stream());
+      return invokeAsync(ctx, cmd);
    }
 
    @Override
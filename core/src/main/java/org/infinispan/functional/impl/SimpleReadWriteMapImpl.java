@@ -96,7 +96,7 @@ public <T, R> Traversable<R> evalMany(Map<? extends K, ? extends T> arguments, B
    }
 
    @Override
-   public <R> Traversable<R> evalMany(Set<? extends K> keys, Function<EntryView.ReadWriteEntryView<K, V>, R> f) {
+   public <R> CompletableFuture<List<R>> evalManyAsync(Set<? extends K> keys, Function<EntryView.ReadWriteEntryView<K, V>, R> f) {
       List<R> results = new ArrayList<>(keys.size());
       BiFunction<?, EntryView.ReadWriteEntryView<K, V>, R> bf = (ignore, v) -> f.apply(v);
       for (K key : keys) {
@@ -106,7 +106,7 @@ public <R> Traversable<R> evalMany(Set<? extends K> keys, Function<EntryView.Rea
          results.add(CompletionStages.join(cf));
       }
 
-      return Traversables.of(results.stream());
+      return CompletableFuture.completedFuture(results);
    }
 
    @Override
@@ -96,6 +96,7 @@
 
    protected final AtomicLong cacheLoads = new AtomicLong(0);
    protected final AtomicLong cacheMisses = new AtomicLong(0);
+   protected final AtomicLong coalescedLoads = new AtomicLong(0);
 
    @Inject protected PersistenceManager persistenceManager;
    @Inject protected CacheNotifier notifier;
@@ -318,7 +319,9 @@ protected final CompletionStage<?> loadIfNeeded(final InvocationContext ctx, Obj
    /**
     * Attemps to load the given entry for a key from the persistence store. This method optimizes concurrent loads
     * of the same key so only the first is actually loaded. The additional loads will in turn complete when the
-    * first completes, which provides minimal hits to the backing store(s).
+    * first completes, which provides minimal hits to the backing store(s). This includes the loads performed on
+    * behalf of the {@link org.infinispan.commands.remote.ClusteredGetCommand}s received from other nodes, so a key
+    * missing after an expiration or a restart is loaded once per node however many requests need it.
     * @param ctx context for this invocation
     * @param key key to find the entry for
     * @param segment the segment of the key
@@ -334,6 +337,9 @@ protected CompletionStage<?> loadInContext(InvocationContext ctx, Object key, in
          if (log.isTraceEnabled()) {
             log.tracef("Piggybacking on concurrent load for key %s", key);
          }
+         if (getStatisticsEnabled()) {
+            coalescedLoads.incrementAndGet();
+         }
          // Resume on a different CPU thread so we don't have to wait until the other command completes
          return otherCF.thenAcceptAsync(entry -> putInContext(ctx, key, cmd, entry), nonBlockingExecutor);
       }
@@ -527,10 +533,20 @@ public long getCacheLoaderMisses() {
       return cacheMisses.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of loads that waited for a concurrent load of the same key instead of reading the cache store",
+         displayName = "Number of coalesced cache store loads",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCacheLoaderCoalescedLoads() {
+      return coalescedLoads.get();
+   }
+
    @Override
    public void resetStatistics() {
       cacheLoads.set(0);
       cacheMisses.set(0);
+      coalescedLoads.set(0);
    }
 
    /**
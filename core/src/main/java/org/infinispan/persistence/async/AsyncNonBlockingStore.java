@@ -2,9 +2,14 @@
 
 import java.lang.invoke.MethodHandles;
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -26,6 +31,7 @@
 import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.configuration.cache.StoreConfiguration;
 import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.persistence.internal.StoreStatisticsRegistration;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.MarshallableEntry;
 import org.infinispan.persistence.spi.NonBlockingStore;
@@ -45,15 +51,21 @@
 
 /**
  * A delegating NonBlockingStore implementation that batches write operations and runs the resulting batches on the
- * delegate store in a non overlapping manner. That is that only a single batch will be running at a time.
+ * delegate store. Write operations are queued per segment, and the queues of several segments are merged into a batch
+ * until it holds {@link StoreConfiguration#maxBatchSize()} modifications. A segment is only part of a single running
+ * batch at a time, while up to {@link AsyncStoreConfiguration#flushParallelism()} batches are written concurrently.
  * <p>
- * Whenever a write operation is performed it will also attempt to start a batch write immediately to the delegate store.
- * Any concurrent writes during this time may be included in the batch. Any additional writes will be enqueued until
- * the batch completes in which case it will automatically submit the pending batch, if there is one.  Write operations
- * to the same key in the same batch will be coalesced with only the last write being written to the underlying store.
- * If the number of enqueued pending write operations becomes equal or larger than the modification queue, then any
- * subsequent write will be added to the queue, but the returned Stage will not complete until the current batch completes
- * in an attempt to provide some backpressure to slow writes.
+ * Whenever a write operation is performed it will also attempt to start a batch write of its segment immediately to
+ * the delegate store. Any concurrent writes to the segment during this time may be included in the batch. Any
+ * additional writes will be enqueued until the batch completes in which case it will automatically submit the pending
+ * batch of the segment, if there is one.  Write operations to the same key in the same batch will be coalesced with
+ * only the last write being written to the underlying store. If the number of enqueued pending write operations
+ * becomes equal or larger than the modification queue, then any subsequent write will be added to the queue, but the
+ * returned Stage will not complete until the current batch of its segment completes in an attempt to provide some
+ * backpressure to slow writes. Writers of the other segments are not held back by a slow batch.
+ * <p>
+ * A clear is applied to all segments: no batch is started until the clear has been written, which happens once the
+ * batches running when it was requested have completed.
  * <p>
  * Read operations may be resolved by this store immediately if the given key is still being updated in the
  * delegate store or if it is enqueued for the next batch. If the key is in neither it will query the underlying store
@@ -70,17 +82,20 @@
    private Executor nonBlockingExecutor;
    private int segmentCount;
    private int modificationQueueSize;
+   private int flushParallelism;
+   private int maxBatchSize;
    private PersistenceConfiguration persistenceConfiguration;
    private AsyncStoreConfiguration asyncConfiguration;
 
    // "Non blocking" scheduler used for the purpose of delaying retry batch operations on failures
    private ScheduledExecutorService scheduler;
+   private AsyncStoreStatistics statistics;
+   private StoreStatisticsRegistration statisticsRegistration;
 
-   // This variable will be non null if there is a pending batch being sent to the underlying store
-   // If a request causes the modification queue to overflow it will receive a stage back that is only complete
-   // when this future is completed (aka. previous replication has completed)
+   // This variable will be non null while there are modifications pending or being sent to the underlying store
+   // and is completed when all of them have been written
    @GuardedBy("this")
-   private CompletableFuture<Void> batchFuture;
+   private CompletableFuture<Void> quiescenceFuture;
 
    // This variable will be non null if the underlying store has been found to be not available
    // Note that the async store will still be available as long as the queue size (ie. modificationMap.size) is not
@@ -88,18 +103,23 @@
    @GuardedBy("this")
    private CompletableFuture<Void> delegateAvailableFuture;
 
-   // Any pending modifications will be enqueued in this map
+   // The modifications of each segment, a non segmented store has a single queue
+   @GuardedBy("this")
+   private SegmentQueue[] queues;
+   // Segments with pending modifications waiting for a batch to be started, in the order they were enqueued
+   @GuardedBy("this")
+   private final Deque<SegmentQueue> flushQueue = new ArrayDeque<>();
+   // Number of batches currently being written to the delegating store
    @GuardedBy("this")
-   private Map<Object, Modification> pendingModifications = new HashMap<>();
+   private int activeFlushes;
+   // Number of modifications in all the pending and replicating maps
+   @GuardedBy("this")
+   private int pendingCount;
+   @GuardedBy("this")
+   private int replicatingCount;
    // If there is a pending clear this will be true
    @GuardedBy("this")
    private boolean hasPendingClear;
-   // The next two variables are held temporarily until a replication of the values is complete. We need to retain
-   // these values until we are sure the entries are actually in the store - note these variables are only written to
-   // via reference (thus the map is safe to read outside of this lock, but the reference must be read in synchronized)
-   // This map contains all the modifications currently being replicated to the delegating store
-   @GuardedBy("this")
-   private Map<Object, Modification> replicatingModifications = Collections.emptyMap();
    // True if there is an outstanding clear that is being ran on the delegating store
    @GuardedBy("this")
    private boolean isReplicatingClear;
@@ -127,7 +147,17 @@ public CompletionStage<Void> start(InitializationContext ctx) {
       segmentCount = storeConfiguration.segmented() ? cacheConfiguration.clustering().hash().numSegments() : 1;
       asyncConfiguration = storeConfiguration.async();
       modificationQueueSize = asyncConfiguration.modificationQueueSize();
+      flushParallelism = asyncConfiguration.flushParallelism();
+      maxBatchSize = Math.max(1, storeConfiguration.maxBatchSize());
       nonBlockingExecutor = ctx.getNonBlockingExecutor();
+      synchronized (this) {
+         queues = new SegmentQueue[segmentCount];
+         for (int i = 0; i < segmentCount; ++i) {
+            queues[i] = new SegmentQueue();
+         }
+      }
+      statistics = new AsyncStoreStatistics(this, ctx.getTimeService());
+      statisticsRegistration = StoreStatisticsRegistration.register(ctx, statistics);
       stopped = false;
       return actual.start(ctx);
    }
@@ -144,6 +174,10 @@ public CompletionStage<Void> stop() {
             log.tracef("Stopping store %s from async store", actual);
          }
          stopped = true;
+         if (statisticsRegistration != null) {
+            statisticsRegistration.unregister();
+            statisticsRegistration = null;
+         }
          return actual.stop();
       });
    }
@@ -154,106 +188,169 @@ public CompletionStage<Void> stop() {
    private CompletionStage<Void> awaitQuiescence() {
       CompletionStage<Void> stage;
       synchronized (this) {
-         stage = batchFuture;
+         stage = quiescenceFuture;
       }
       if (stage == null) {
          return CompletableFutures.completedNull();
       }
       if (log.isTraceEnabled()) {
-         log.tracef("Must wait until prior batch completes for %s", actual);
+         log.tracef("Must wait until prior batches complete for %s", actual);
       }
       return stage.thenCompose(ignore -> awaitQuiescence());
    }
 
+   @GuardedBy("this")
    void putModification(Object key, Modification modification) {
-      pendingModifications.put(key, modification);
+      SegmentQueue queue = queues[queueIndex(modification.getSegment())];
+      boolean coalesced = queue.pending.put(key, modification) != null;
+      if (!coalesced) {
+         pendingCount++;
+      }
+      statistics.modificationSubmitted(coalesced);
+      if (queue.flushFuture == null) {
+         queue.flushFuture = new CompletableFuture<>();
+         flushQueue.add(queue);
+      }
    }
 
+   @GuardedBy("this")
    void putClearModification() {
-      pendingModifications.clear();
+      for (SegmentQueue queue : queues) {
+         queue.pending.clear();
+      }
+      pendingCount = 0;
       hasPendingClear = true;
    }
 
+   private int queueIndex(int segment) {
+      return segmentCount == 1 ? 0 : segment;
+   }
+
    /**
-    * This method submits a batch of modifications to the underlying store and completes {@code batchFuture}
-    * when the modifications are done.
-    *
-    * If there are any pending modifications at that time, it automatically submits a new batch,
-    * otherwise it sets {@code batchFuture} to null.
-    *
-    * Callers must atomically check that {@code batchFuture} is null and set it to a non-null value,
-    * to ensure that only one batch is being processed at any time.
+    * Starts the clear or the batches that can run now. A clear is started only when no batch is running and no batch
+    * is started while a clear is pending or running. Segments are flushed in the order they were enqueued, each batch
+    * taking the whole queue of as many segments as needed to reach {@code maxBatchSize} modifications, with at most
+    * {@code flushParallelism} batches running at the same time.
+    * <p>
+    * Must be invoked while holding the lock, the returned tasks must be run after releasing it.
     */
-   private void submitTask() {
-      Map<Object, Modification> newMap = new HashMap<>();
-      if (log.isTraceEnabled()) {
-         log.tracef("Starting new batch with id %s", System.identityHashCode(newMap));
-      }
-      boolean ourClearToReplicate;
-      Map<Object, Modification> ourModificationsToReplicate;
-      synchronized (this) {
-         // The isReplicatingClear would be true or replicatingModifications non empty if an update was currently pending
-         // But we should only allow one at a time
-         assert replicatingModifications.isEmpty() && !isReplicatingClear;
-         replicatingModifications = pendingModifications;
-         ourModificationsToReplicate = pendingModifications;
-         pendingModifications = newMap;
-         isReplicatingClear = hasPendingClear;
-         ourClearToReplicate = hasPendingClear;
+   @GuardedBy("this")
+   private List<Runnable> scheduleFlushes() {
+      List<Runnable> tasks = new ArrayList<>(2);
+      if (hasPendingClear && !isReplicatingClear && activeFlushes == 0) {
          hasPendingClear = false;
+         isReplicatingClear = true;
+         tasks.add(this::submitClear);
       }
-
-      CompletionStage<Void> asyncBatchStage;
-      if (ourClearToReplicate) {
-         if (log.isTraceEnabled()) {
-            log.tracef("Sending clear to underlying store for id %s", System.identityHashCode(ourModificationsToReplicate));
-         }
-         asyncBatchStage = retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
-            synchronized (this) {
-               isReplicatingClear = false;
+      if (!hasPendingClear && !isReplicatingClear) {
+         while (activeFlushes < flushParallelism && !flushQueue.isEmpty()) {
+            List<SegmentQueue> batchQueues = new ArrayList<>();
+            List<Map<Object, Modification>> batch = new ArrayList<>();
+            int batchSize = 0;
+            while (batchSize < maxBatchSize && !flushQueue.isEmpty()) {
+               SegmentQueue queue = flushQueue.poll();
+               if (queue.pending.isEmpty()) {
+                  // The modifications were dropped by a clear or by the removal of the segment
+                  CompletableFuture<Void> future = queue.flushFuture;
+                  queue.flushFuture = null;
+                  tasks.add(() -> future.complete(null));
+                  continue;
+               }
+               Map<Object, Modification> modifications = queue.pending;
+               queue.replicating = modifications;
+               queue.pending = new HashMap<>();
+               batchQueues.add(queue);
+               batch.add(modifications);
+               batchSize += modifications.size();
             }
-         });
-      } else {
-         asyncBatchStage = CompletableFutures.completedNull();
+            if (batchQueues.isEmpty()) {
+               continue;
+            }
+            pendingCount -= batchSize;
+            replicatingCount += batchSize;
+            activeFlushes++;
+            int size = batchSize;
+            tasks.add(() -> submitFlush(batchQueues, batch, size));
+         }
+      }
+      if (quiescenceFuture != null && activeFlushes == 0 && flushQueue.isEmpty() && !hasPendingClear && !isReplicatingClear) {
+         CompletableFuture<Void> future = quiescenceFuture;
+         quiescenceFuture = null;
+         tasks.add(() -> future.complete(null));
       }
+      return tasks;
+   }
 
-      if (!ourModificationsToReplicate.isEmpty()) {
-         asyncBatchStage = asyncBatchStage.thenCompose(ignore -> {
-            if (log.isTraceEnabled()) {
-               log.tracef("Sending batch of %d write/remove operations to underlying store with id %s", ourModificationsToReplicate.size(),
-                     System.identityHashCode(ourModificationsToReplicate));
-            }
-            return retry(() -> replicateModifications(ourModificationsToReplicate), persistenceConfiguration.connectionAttempts())
-                  .whenComplete((ignore2, t) -> {
-               synchronized (this) {
-                  replicatingModifications = Collections.emptyMap();
-               }
-            });
-         });
+   /**
+    * Runs the tasks returned by {@link #scheduleFlushes()} after a batch completed. They are run on the non blocking
+    * executor, as the underlying store may complete batches synchronously and starting the next batches from the
+    * completion of the previous one would otherwise recurse once per enqueued segment.
+    */
+   private void runScheduledTasks(List<Runnable> tasks) {
+      if (!tasks.isEmpty()) {
+         nonBlockingExecutor.execute(() -> tasks.forEach(Runnable::run));
       }
+   }
 
-      asyncBatchStage.whenComplete((ignore, t) -> {
+   private void submitClear() {
+      if (log.isTraceEnabled()) {
+         log.trace("Sending clear to underlying store");
+      }
+      retry(actual::clear, persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
          if (log.isTraceEnabled()) {
-            log.tracef("Async operations completed for id %s", System.identityHashCode(ourModificationsToReplicate));
+            log.trace("Clear of underlying store completed");
          }
-         boolean submitNewBatch;
-         CompletableFuture<Void> future;
+         List<Runnable> tasks;
          synchronized (this) {
-            submitNewBatch = !pendingModifications.isEmpty() || hasPendingClear;
-            future = batchFuture;
-            batchFuture = submitNewBatch ? new CompletableFuture<>() : null;
+            isReplicatingClear = false;
+            tasks = scheduleFlushes();
          }
-         if (t != null) {
-            future.completeExceptionally(t);
-         } else {
-            future.complete(null);
+         runScheduledTasks(tasks);
+      });
+   }
+
+   /**
+    * This method submits a batch with the modifications of one or more segments to the underlying store and completes
+    * the flush futures of the segments when the modifications are done.
+    * <p>
+    * If a segment got any pending modifications in the meantime, it is enqueued again for a new batch.
+    */
+   private void submitFlush(List<SegmentQueue> batchQueues, List<Map<Object, Modification>> batch, int size) {
+      if (log.isTraceEnabled()) {
+         log.tracef("Sending batch of %d write/remove operations from %d segments to underlying store with id %s",
+               size, batchQueues.size(), System.identityHashCode(batch));
+      }
+      long start = statistics.flushStarted();
+      retry(() -> replicateModifications(batchQueues.size(), batch), persistenceConfiguration.connectionAttempts()).whenComplete((ignore, t) -> {
+         if (log.isTraceEnabled()) {
+            log.tracef("Async operations completed for id %s", System.identityHashCode(batch));
          }
-         if (submitNewBatch) {
-            if (log.isTraceEnabled()) {
-               log.trace("Submitting new batch after completion of prior");
+         statistics.flushFinished(start, size, t != null);
+         List<CompletableFuture<Void>> futures = new ArrayList<>(batchQueues.size());
+         List<Runnable> tasks;
+         synchronized (this) {
+            replicatingCount -= size;
+            activeFlushes--;
+            for (SegmentQueue queue : batchQueues) {
+               queue.replicating = Collections.emptyMap();
+               futures.add(queue.flushFuture);
+               if (queue.pending.isEmpty()) {
+                  queue.flushFuture = null;
+               } else {
+                  queue.flushFuture = new CompletableFuture<>();
+                  flushQueue.add(queue);
+               }
             }
-            submitTask();
+            tasks = scheduleFlushes();
          }
+         for (CompletableFuture<Void> future : futures) {
+            if (t != null) {
+               future.completeExceptionally(t);
+            } else {
+               future.complete(null);
+            }
+         }
+         runScheduledTasks(tasks);
       });
    }
 
@@ -309,16 +406,19 @@ public void run() {
       }
    }
 
-   private CompletionStage<Void> replicateModifications(Map<Object, Modification> modifications) {
+   private CompletionStage<Void> replicateModifications(int segments, List<Map<Object, Modification>> batch) {
+      // Every map holds the modifications of a single segment, or of all the segments when the store is not segmented,
+      // so there is at most a publisher per map
       // Use a connected flowable, so we don't have to iterate over the modifications twice
-      ConnectableFlowable<Modification> connectableModifications = Flowable.fromIterable(modifications.values())
+      ConnectableFlowable<Modification> connectableModifications = Flowable.fromIterable(batch)
+            .concatMapIterable(Map::values)
             .publish();
 
       // The method below may subscribe to the Flowable on a different thread, thus we must auto connect after both are
       // subscribed to (e.g. NonBlockingStoreAdapter subscribes on a blocking thread)
       Flowable<Modification> modificationFlowable = connectableModifications.autoConnect(2);
 
-      return actual.batch(segmentCount,
+      return actual.batch(segments,
             modificationFlowable.ofType(RemoveModification.class)
                   .groupBy(Modification::getSegment, RemoveModification::getKey)
                   .map(SegmentPublisherWrapper::wrap),
@@ -364,7 +464,7 @@ public Publisher<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
 
    private <E> Publisher<E> abstractPublish(IntSet segments, Predicate<? super K> filter, Function<PutModification, E> putFunction,
          Function<E, K> toKeyFunction, BiFunction<IntSet, Predicate<K>, Publisher<E>> publisherFunction) {
-      Map.Entry<Boolean, Map<Object, Modification>> entryModifications = flattenModificationMaps();
+      Map.Entry<Boolean, Map<Object, Modification>> entryModifications = flattenModificationMaps(segments);
 
       Map<Object, Modification> modificationCopy = entryModifications.getValue();
 
@@ -393,40 +493,56 @@ private <E> Publisher<E> abstractPublish(IntSet segments, Predicate<? super K> f
       return modPublisher.concatWith(publisherFunction.apply(segments, combinedPredicate));
    }
 
-   private Map.Entry<Boolean, Map<Object, Modification>> flattenModificationMaps() {
-      Map<Object, Modification> modificationCopy;
-      Map<Object, Modification> modificationsToReplicate;
+   private Map.Entry<Boolean, Map<Object, Modification>> flattenModificationMaps(IntSet segments) {
+      Map<Object, Modification> modificationCopy = new HashMap<>();
       boolean clearToReplicate;
       synchronized (this) {
-         modificationCopy = new HashMap<>(pendingModifications);
          if (hasPendingClear) {
+            for (SegmentQueue queue : queuesFor(segments)) {
+               modificationCopy.putAll(queue.pending);
+            }
             return new AbstractMap.SimpleImmutableEntry<>(Boolean.TRUE, modificationCopy);
          }
-         modificationsToReplicate = this.replicatingModifications;
+         for (SegmentQueue queue : queuesFor(segments)) {
+            // Pending modifications are more recent than the ones being replicated
+            modificationCopy.putAll(queue.replicating);
+            modificationCopy.putAll(queue.pending);
+         }
          clearToReplicate = this.isReplicatingClear;
       }
-
-      modificationCopy.putAll(modificationsToReplicate);
       return new AbstractMap.SimpleImmutableEntry<>(clearToReplicate, modificationCopy);
    }
 
+   @GuardedBy("this")
+   private List<SegmentQueue> queuesFor(IntSet segments) {
+      if (segmentCount == 1) {
+         return Collections.singletonList(queues[0]);
+      }
+      List<SegmentQueue> segmentQueues = new ArrayList<>(segments.size());
+      for (PrimitiveIterator.OfInt iter = segments.iterator(); iter.hasNext(); ) {
+         segmentQueues.add(queues[iter.nextInt()]);
+      }
+      return segmentQueues;
+   }
+
    @Override
    public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
       assertNotStopped();
-      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(key);
+      CompletionStage<MarshallableEntry<K, V>> pendingStage = getStageFromPending(segment, key);
       if (pendingStage != null) {
          return pendingStage;
       }
       return actual.load(segment, key);
    }
 
-   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key) {
+   private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(int segment, Object key) {
       Object wrappedKey = wrapKeyIfNeeded(key);
       Map<Object, Modification> modificationsToReplicate;
       boolean clearToReplicate;
       synchronized (this) {
+         SegmentQueue queue = queues[queueIndex(segment)];
          // Note that writes to this map are done only in synchronized block, so we have to do same for get
-         Modification modification = pendingModifications.get(wrappedKey);
+         Modification modification = queue.pending.get(wrappedKey);
          if (modification != null) {
             if (log.isTraceEnabled()) {
                log.tracef("Found entry was pending write in async store: %s", modification);
@@ -440,7 +556,7 @@ private CompletionStage<MarshallableEntry<K, V>> getStageFromPending(Object key)
             return CompletableFutures.completedNull();
          }
          // This map is never written to so just reading reference in synchronized block is sufficient
-         modificationsToReplicate = this.replicatingModifications;
+         modificationsToReplicate = queue.replicating;
          clearToReplicate = this.isReplicatingClear;
       }
       Modification modification = modificationsToReplicate.get(wrappedKey);
@@ -474,35 +590,33 @@ public CompletionStage<Void> batch(int publisherCount, Publisher<SegmentedPublis
 
    CompletionStage<Void> submitModification(Modification modification) {
       boolean isTraceEnabled = log.isTraceEnabled();
-      boolean startNewBatch;
+      List<Runnable> tasks;
       CompletionStage<Void> submitStage;
       synchronized (this) {
-         int previousBatchId;
          if (isTraceEnabled) {
-            previousBatchId = System.identityHashCode(replicatingModifications);
-            int currentBatchId = System.identityHashCode(pendingModifications);
-            log.tracef("Adding modification %s to batch %s", modification, currentBatchId);
-         } else {
-            previousBatchId = 0;
+            log.tracef("Adding modification %s to write-behind queue", modification);
          }
          modification.apply(this);
 
-         startNewBatch = batchFuture == null;
-         if (startNewBatch) {
-            batchFuture = new CompletableFuture<>();
+         if (quiescenceFuture == null) {
+            quiescenceFuture = new CompletableFuture<>();
          }
 
-         int queueSize = pendingModifications.size() + replicatingModifications.size();
-         submitStage = queueSize > modificationQueueSize ? batchFuture : null;
-         if (submitStage != null && isTraceEnabled) {
-            log.tracef("Too many modifications queued (%d), operation must wait until previous batch %d completes",
-                       queueSize, previousBatchId);
+         int queueSize = pendingCount + replicatingCount;
+         if (queueSize > modificationQueueSize && modification != ClearModification.INSTANCE) {
+            // Only the writers of this segment wait, until the current or next batch of the segment completes
+            submitStage = queues[queueIndex(modification.getSegment())].flushFuture;
+            if (isTraceEnabled) {
+               log.tracef("Too many modifications queued (%d), operation must wait until batch of segment %d completes",
+                     queueSize, modification.getSegment());
+            }
+         } else {
+            submitStage = null;
          }
+         tasks = scheduleFlushes();
       }
 
-      if (startNewBatch) {
-         submitTask();
-      }
+      tasks.forEach(Runnable::run);
       return submitStage == null ? CompletableFutures.completedNull() :
              submitStage.thenApplyAsync(CompletableFutures.toNullFunction(), nonBlockingExecutor);
    }
@@ -547,7 +661,11 @@ public CompletionStage<Void> addSegments(IntSet segments) {
    public CompletionStage<Void> removeSegments(IntSet segments) {
       assertNotStopped();
       synchronized (this) {
-         pendingModifications.values().removeIf(modification -> segments.contains(modification.getSegment()));
+         for (SegmentQueue queue : queues) {
+            int previousSize = queue.pending.size();
+            queue.pending.values().removeIf(modification -> segments.contains(modification.getSegment()));
+            pendingCount -= previousSize - queue.pending.size();
+         }
       }
       return actual.removeSegments(segments);
    }
@@ -594,8 +712,8 @@ public CompletionStage<Boolean> isAvailable() {
          boolean isReplicating;
          int queueSize;
          synchronized (this) {
-            isReplicating = !replicatingModifications.isEmpty() || isReplicatingClear;
-            queueSize = pendingModifications.size();
+            isReplicating = activeFlushes > 0 || isReplicatingClear;
+            queueSize = pendingCount;
             if (delegateUnavailable = delegateAvailableFuture == null) {
                delegateAvailableFuture = new CompletableFuture<>();
             }
@@ -612,6 +730,25 @@ public NonBlockingStore<K, V> delegate() {
       return actual;
    }
 
+   synchronized int queueDepth() {
+      return pendingCount + replicatingCount;
+   }
+
+   synchronized int activeFlushes() {
+      return activeFlushes;
+   }
+
+   int flushParallelism() {
+      return flushParallelism;
+   }
+
+   /**
+    * Returns the statistics of the write-behind queue, available once the store is started.
+    */
+   public AsyncStoreStatistics getStatistics() {
+      return statistics;
+   }
+
    private void assertNotStopped() throws CacheException {
       if (stopped)
          throw new IllegalLifecycleStateException("AsyncCacheWriter stopped; no longer accepting more entries.");
@@ -628,4 +765,17 @@ static Object wrapKeyIfNeeded(Object key) {
       }
       return key;
    }
+
+   /**
+    * The modifications of a segment. All the fields are guarded by the lock of the store.
+    */
+   private static final class SegmentQueue {
+      // Modifications waiting for the next batch of the segment
+      Map<Object, Modification> pending = new HashMap<>();
+      // The modifications currently being replicated to the delegating store. The map is never written to once
+      // published here, thus it is safe to read outside of the lock, but the reference must be read in synchronized
+      Map<Object, Modification> replicating = Collections.emptyMap();
+      // Non null while the segment waits for a batch or is being written, completed when that batch completes
+      CompletableFuture<Void> flushFuture;
+   }
 }
@@ -0,0 +1,147 @@
+package org.infinispan.persistence.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Exposes the state of the write-behind queue of an {@link AsyncNonBlockingStore}, so that it can be seen how far the
+ * underlying store lags behind the cache and how much work the coalescing of modifications saves it.
+ *
+ * @since 15.0
+ */
+@MBean(objectName = "AsyncStore", description = "Write-behind queue statistics of the store")
+public final class AsyncStoreStatistics {
+   private final AsyncNonBlockingStore<?, ?> store;
+   private final TimeService timeService;
+   private final AtomicLong submittedModifications = new AtomicLong();
+   private final AtomicLong coalescedModifications = new AtomicLong();
+   private final AtomicLong flushedModifications = new AtomicLong();
+   private final AtomicLong flushes = new AtomicLong();
+   private final AtomicLong failedFlushes = new AtomicLong();
+   private final AtomicLong totalFlushNanos = new AtomicLong();
+   private final AtomicLong maxFlushNanos = new AtomicLong();
+
+   AsyncStoreStatistics(AsyncNonBlockingStore<?, ?> store, TimeService timeService) {
+      this.store = store;
+      this.timeService = timeService;
+   }
+
+   void modificationSubmitted(boolean coalesced) {
+      submittedModifications.incrementAndGet();
+      if (coalesced) {
+         coalescedModifications.incrementAndGet();
+      }
+   }
+
+   long flushStarted() {
+      return timeService.time();
+   }
+
+   void flushFinished(long start, int modifications, boolean failed) {
+      long duration = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+      flushes.incrementAndGet();
+      if (failed) {
+         failedFlushes.incrementAndGet();
+      } else {
+         flushedModifications.addAndGet(modifications);
+      }
+      totalFlushNanos.addAndGet(duration);
+      maxFlushNanos.accumulateAndGet(duration, Math::max);
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications queued or being written to the underlying store",
+         displayName = "Queue depth"
+   )
+   public int getQueueDepth() {
+      return store.queueDepth();
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches currently being written to the underlying store",
+         displayName = "Active flushes"
+   )
+   public int getActiveFlushes() {
+      return store.activeFlushes();
+   }
+
+   @ManagedAttribute(
+         description = "Maximum number of batches written to the underlying store at the same time",
+         displayName = "Flush parallelism",
+         dataType = DataType.TRAIT
+   )
+   public int getFlushParallelism() {
+      return store.flushParallelism();
+   }
+
+   @ManagedAttribute(
+         description = "Number of write and remove operations submitted to the write-behind queue",
+         displayName = "Submitted modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getSubmittedModifications() {
+      return submittedModifications.get();
+   }
+
+   @ManagedAttribute(
+         description = "Number of write and remove operations written to the underlying store",
+         displayName = "Flushed modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFlushedModifications() {
+      return flushedModifications.get();
+   }
+
+   @ManagedAttribute(
+         description = "Fraction of the submitted operations that replaced a queued operation on the same key and were never written to the underlying store",
+         displayName = "Coalescing ratio"
+   )
+   public double getCoalescingRatio() {
+      long submitted = submittedModifications.get();
+      return submitted == 0 ? 0 : (double) coalescedModifications.get() / submitted;
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches written to the underlying store",
+         displayName = "Flushes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFlushes() {
+      return flushes.get();
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches that could not be written to the underlying store after all retries",
+         displayName = "Failed flushes",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFailedFlushes() {
+      return failedFlushes.get();
+   }
+
+   @ManagedAttribute(
+         description = "Average time taken to write a batch to the underlying store, including retries",
+         displayName = "Average flush time",
+         units = Units.MILLISECONDS
+   )
+   public long getAverageFlushTime() {
+      long count = flushes.get();
+      return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalFlushNanos.get() / count);
+   }
+
+   @ManagedAttribute(
+         description = "Maximum time taken to write a batch to the underlying store, including retries",
+         displayName = "Maximum flush time",
+         units = Units.MILLISECONDS
+   )
+   public long getMaxFlushTime() {
+      return TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get());
+   }
+}
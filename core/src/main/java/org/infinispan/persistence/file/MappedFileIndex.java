@@ -0,0 +1,709 @@
+package org.infinispan.persistence.file;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.persistence.file.SingleFileStore.FileEntry;
+import org.infinispan.persistence.spi.PersistenceException;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Index of the {@link SingleFileStore} kept in a memory-mapped file, <tt>&lt;location&gt;/&lt;cache name&gt;.idx</tt>,
+ * instead of the heap.
+ * <p/>
+ * The index is an open addressing hash table with linear probing. Keys are not stored in the index: each slot holds
+ * the 64-bit hash of the serialized key together with the position of the entry in the data file, and the key is read
+ * back from the data file to confirm a match. Removed slots are marked as deleted instead of moving the following
+ * slots, so that a slot never changes position unless the table is resized, and the table is not resized while an
+ * iteration is in progress unless it becomes almost full. A resize during an iteration restarts it from the first slot,
+ * skipping the keys it has already visited.
+ * <p/>
+ * The format of the file is as follows:
+ * <ul>
+ * <li>64 bytes: header with the magic, a clean shutdown flag, the table capacity, the number of free entries, the size
+ * of the data file and the number of segments</li>
+ * <li>capacity * 32 bytes: slots with the entry offset (0 if the slot is empty, -1 if it was removed), the key hash,
+ * the expiration time, the segment and the entry size</li>
+ * <li>free entries * 12 bytes: offset and size of the free entries of the data file, only written on shutdown</li>
+ * </ul>
+ * The index is only reused on startup if it was closed cleanly and it matches the data file, otherwise it is rebuilt.
+ * <p/>
+ * The index monitor only guards the slots and the counters, it is never held while reading the data file. A lookup
+ * collects the offsets of the slots with the hash of the key holding the monitor, compares the keys in the data file
+ * without it, and then locates the slot of the matching entry again by its offset, as a resize may have moved it.
+ * The operations on a key hold the lock of its stripe, shared for a lookup and exclusive for a write, so that the
+ * key is not added or removed between the comparison and the update of its slot.
+ * <p/>
+ * The store invokes these methods holding its {@code resizeLock}, so the data file is not truncated while keys are
+ * compared.
+ *
+ * @since 15.0
+ */
+final class MappedFileIndex {
+   private static final byte[] MAGIC = new byte[]{'F', 'C', 'S', 'I'};
+   private static final int CLEAN_POS = 4;
+   private static final int CAPACITY_POS = 8;
+   private static final int FREE_ENTRIES_POS = 12;
+   private static final int DATA_SIZE_POS = 16;
+   private static final int SEGMENTS_POS = 24;
+   private static final int HEADER_SIZE = 64;
+
+   private static final int OFFSET = 0;
+   private static final int HASH = 8;
+   private static final int EXPIRY = 16;
+   private static final int SEGMENT = 24;
+   private static final int SIZE = 28;
+   private static final int SLOT_SIZE = 32;
+   private static final int FREE_ENTRY_SIZE = 8 + 4;
+
+   private static final long EMPTY = 0;
+   private static final long DELETED = -1;
+
+   private static final int REGION_SHIFT = 30;
+   private static final long REGION_SIZE = 1L << REGION_SHIFT;
+   private static final long REGION_MASK = REGION_SIZE - 1;
+   private static final int MIN_CAPACITY = 1 << 10;
+   private static final int MAX_CAPACITY = 1 << 30;
+   private static final int HASH_SEED = 9001;
+   private static final byte[] ZEROS = new byte[8192];
+   private static final long[] NO_OFFSETS = new long[0];
+   private static final int STRIPES = 64;
+
+   private final File file;
+   private final long[] segmentSizes;
+   private FileChannel channel;
+   // Slots never straddle two regions, as the region size is a multiple of the slot size
+   private MappedByteBuffer[] regions;
+   private final ReadWriteLock[] stripes = new ReadWriteLock[STRIPES];
+   @GuardedBy("this")
+   private int capacity;
+   @GuardedBy("this")
+   private int size;
+   // Number of slots that are not empty, including the removed ones
+   @GuardedBy("this")
+   private int used;
+   @GuardedBy("this")
+   private final List<Iteration> iterations = new ArrayList<>();
+
+   MappedFileIndex(File file, int numSegments) {
+      this.file = file;
+      this.segmentSizes = new long[numSegments];
+      for (int i = 0; i < STRIPES; ++i) {
+         stripes[i] = new ReentrantReadWriteLock();
+      }
+   }
+
+   /**
+    * Opens the index file, reusing its contents if it was closed cleanly while the data file had the given size.
+    *
+    * @param dataFileSize size of the data file, or -1 if the data file is new and the index must be reset
+    * @param freeList     the free entries stored in the index are added to this collection when the index is reused
+    * @return {@code true} if the index was reused, {@code false} if it is empty
+    */
+   synchronized boolean open(long dataFileSize, Collection<FileEntry> freeList) throws IOException {
+      channel = new RandomAccessFile(file, "rw").getChannel();
+      try {
+         boolean reused = dataFileSize >= 0 && reuse(dataFileSize, freeList);
+         if (!reused) {
+            reset(MIN_CAPACITY);
+         }
+         // The index is going to diverge from the file, it must not be reused after a crash
+         regions[0].putInt(CLEAN_POS, 0);
+         regions[0].force();
+         return reused;
+      } catch (Throwable t) {
+         channel.close();
+         throw t;
+      }
+   }
+
+   private boolean reuse(long dataFileSize, Collection<FileEntry> freeList) throws IOException {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_SIZE)
+         return false;
+
+      ByteBuffer header = read(ByteBuffer.allocate(HEADER_SIZE), 0);
+      int storedCapacity = header.getInt(CAPACITY_POS);
+      int freeEntries = header.getInt(FREE_ENTRIES_POS);
+      if (!Arrays.equals(MAGIC, 0, MAGIC.length, header.array(), 0, MAGIC.length) ||
+            header.getInt(CLEAN_POS) != 1 ||
+            header.getLong(DATA_SIZE_POS) != dataFileSize ||
+            header.getInt(SEGMENTS_POS) != segmentSizes.length ||
+            storedCapacity < MIN_CAPACITY || storedCapacity > MAX_CAPACITY || Integer.bitCount(storedCapacity) != 1 ||
+            freeEntries < 0 || fileSize != tableEnd(storedCapacity) + (long) freeEntries * FREE_ENTRY_SIZE) {
+         return false;
+      }
+
+      List<FileEntry> storedFreeList = new ArrayList<>(freeEntries);
+      ByteBuffer buffer = ByteBuffer.allocate(FREE_ENTRY_SIZE * 1024);
+      for (long position = tableEnd(storedCapacity); position < fileSize; ) {
+         buffer.clear().limit((int) Math.min(buffer.capacity(), fileSize - position));
+         read(buffer, position).flip();
+         position += buffer.limit();
+         while (buffer.hasRemaining()) {
+            storedFreeList.add(new FileEntry(buffer.getLong(), buffer.getInt()));
+         }
+      }
+      channel.truncate(tableEnd(storedCapacity));
+
+      capacity = storedCapacity;
+      map();
+      for (int slot = 0; slot < capacity; ++slot) {
+         long offset = getLong(slot, OFFSET);
+         if (offset == EMPTY)
+            continue;
+
+         used++;
+         if (offset != DELETED) {
+            size++;
+            segmentSizes[getInt(slot, SEGMENT)]++;
+         }
+      }
+      freeList.addAll(storedFreeList);
+      return true;
+   }
+
+   private void reset(int newCapacity) throws IOException {
+      channel.truncate(0);
+      capacity = newCapacity;
+      size = 0;
+      used = 0;
+      Arrays.fill(segmentSizes, 0);
+      map();
+      MappedByteBuffer header = regions[0];
+      for (int i = 0; i < MAGIC.length; ++i) {
+         header.put(i, MAGIC[i]);
+      }
+      header.putInt(CAPACITY_POS, capacity);
+      header.putInt(SEGMENTS_POS, segmentSizes.length);
+   }
+
+   /**
+    * Stores the free list in the index file and marks the index as clean, so that it is reused by the next
+    * {@link #open(long, Collection)}. The data file must have been forced to disk before.
+    */
+   synchronized void close(long dataFileSize, Collection<FileEntry> freeList) throws IOException {
+      try {
+         long position = tableEnd(capacity);
+         ByteBuffer buffer = ByteBuffer.allocate(FREE_ENTRY_SIZE * 1024);
+         int freeEntries = 0;
+         for (FileEntry fe : freeList) {
+            if (!buffer.hasRemaining()) {
+               position += write(buffer.flip(), position);
+               buffer.clear();
+            }
+            buffer.putLong(fe.offset).putInt(fe.size);
+            freeEntries++;
+         }
+         write(buffer.flip(), position);
+
+         MappedByteBuffer header = regions[0];
+         header.putInt(FREE_ENTRIES_POS, freeEntries);
+         header.putLong(DATA_SIZE_POS, dataFileSize);
+         for (MappedByteBuffer region : regions) {
+            region.force();
+         }
+         channel.force(true);
+         // Only flag the index as clean once everything else is on disk
+         header.putInt(CLEAN_POS, 1);
+         header.force();
+      } finally {
+         regions = null;
+         channel.close();
+      }
+   }
+
+   /**
+    * Closes the index file without flagging it as clean.
+    */
+   synchronized void release() throws IOException {
+      regions = null;
+      channel.close();
+   }
+
+   /**
+    * @param whileIndexed invoked with the entry before a concurrent write of the key can replace or remove it, or
+    *                     {@code null}
+    * @return the entry of the given key, with the header fields read from the data file, or {@code null}
+    */
+   FileEntry get(int segment, byte[] key, int keyOffset, int keyLength, FileChannel dataChannel,
+                 Consumer<FileEntry> whileIndexed) throws IOException {
+      long hash = hash(key, keyOffset, keyLength);
+      Lock lock = stripe(hash).readLock();
+      lock.lock();
+      try {
+         FileEntry fe = match(candidates(segment, hash), key, keyOffset, keyLength, dataChannel);
+         if (fe == null)
+            return null;
+
+         synchronized (this) {
+            // The expiration or the removal of the segment may have removed the entry meanwhile
+            if (slotOf(hash, fe.offset) < 0)
+               return null;
+
+            if (whileIndexed != null) {
+               whileIndexed.accept(fe);
+            }
+         }
+         return fe;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Adds or replaces the entry of the given key. The record must have been written to the data file.
+    *
+    * @return the previous entry of the key, or {@code null}
+    */
+   FileEntry put(int segment, byte[] key, int keyOffset, int keyLength, FileEntry entry,
+                 FileChannel dataChannel) throws IOException {
+      long hash = hash(key, keyOffset, keyLength);
+      Lock lock = stripe(hash).writeLock();
+      lock.lock();
+      try {
+         FileEntry previous = match(candidates(segment, hash), key, keyOffset, keyLength, dataChannel);
+         synchronized (this) {
+            int slot = previous == null ? -1 : slotOf(hash, previous.offset);
+            if (slot >= 0) {
+               previous = new FileEntry(previous.offset, getInt(slot, SIZE));
+               writeSlot(slot, entry.offset, hash, entry.expiryTime, segment, entry.size);
+               return previous;
+            }
+
+            slot = insertionSlot(hash);
+            if (getLong(slot, OFFSET) == EMPTY) {
+               if (needsRehash(used + 1)) {
+                  rehash();
+                  slot = emptySlot(hash);
+               }
+               used++;
+            }
+            writeSlot(slot, entry.offset, hash, entry.expiryTime, segment, entry.size);
+            size++;
+            segmentSizes[segment]++;
+            return null;
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * @return the removed entry, or {@code null} if the key was not found
+    */
+   FileEntry remove(int segment, byte[] key, int keyOffset, int keyLength, FileChannel dataChannel) throws IOException {
+      long hash = hash(key, keyOffset, keyLength);
+      Lock lock = stripe(hash).writeLock();
+      lock.lock();
+      try {
+         FileEntry fe = match(candidates(segment, hash), key, keyOffset, keyLength, dataChannel);
+         if (fe == null)
+            return null;
+
+         synchronized (this) {
+            int slot = slotOf(hash, fe.offset);
+            return slot < 0 ? null : removeSlot(slot);
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Removes all the entries of the given segments.
+    *
+    * @return the removed entries
+    */
+   synchronized List<FileEntry> removeSegments(IntSet segments) {
+      List<FileEntry> removed = new ArrayList<>();
+      for (int slot = 0; slot < capacity; ++slot) {
+         if (isLive(getLong(slot, OFFSET)) && segments.contains(getInt(slot, SEGMENT))) {
+            removed.add(removeSlot(slot));
+         }
+      }
+      return removed;
+   }
+
+   /**
+    * Collects the entries that are not expired in the next {@code count} slots of the iteration.
+    *
+    * @param segments     the segments to collect, or {@code null} for all segments
+    * @param whileIndexed invoked with each entry before a concurrent write of its key can replace or remove it
+    */
+   synchronized void collect(Iteration iteration, int count, IntSet segments, long now, List<FileEntry> entries,
+                             Consumer<FileEntry> whileIndexed) {
+      int to = (int) Math.min(capacity, (long) iteration.slot + count);
+      for (int slot = iteration.slot; slot < to; ++slot) {
+         long offset = getLong(slot, OFFSET);
+         if (isLive(offset) && !isExpired(getLong(slot, EXPIRY), now) &&
+               (segments == null || segments.contains(getInt(slot, SEGMENT))) &&
+               !iteration.visited(getLong(slot, HASH))) {
+            FileEntry fe = new FileEntry(offset, getInt(slot, SIZE));
+            whileIndexed.accept(fe);
+            entries.add(fe);
+         }
+      }
+      iteration.slot = to < capacity ? to : -1;
+   }
+
+   /**
+    * Removes the expired entries in the next {@code count} slots of the iteration.
+    *
+    * @param whileIndexed invoked with each removed entry before a lookup can return it
+    */
+   synchronized void removeExpired(Iteration iteration, int count, long now, List<FileEntry> entries,
+                                   Consumer<FileEntry> whileIndexed) {
+      int to = (int) Math.min(capacity, (long) iteration.slot + count);
+      for (int slot = iteration.slot; slot < to; ++slot) {
+         if (isLive(getLong(slot, OFFSET)) && isExpired(getLong(slot, EXPIRY), now) &&
+               !iteration.visited(getLong(slot, HASH))) {
+            FileEntry fe = removeSlot(slot);
+            whileIndexed.accept(fe);
+            entries.add(fe);
+         }
+      }
+      iteration.slot = to < capacity ? to : -1;
+   }
+
+   /**
+    * Defers resizing the table until {@link #endIteration(Iteration)}, unless it becomes almost full, so that
+    * {@link #collect(Iteration, int, IntSet, long, List)} usually sees every slot once.
+    */
+   synchronized Iteration startIteration() {
+      Iteration iteration = new Iteration();
+      iterations.add(iteration);
+      return iteration;
+   }
+
+   synchronized void endIteration(Iteration iteration) throws IOException {
+      iterations.remove(iteration);
+      if (regions != null && needsRehash(used)) {
+         rehash();
+      }
+   }
+
+   synchronized void clear() {
+      zero(HEADER_SIZE, tableEnd(capacity));
+      size = 0;
+      used = 0;
+      Arrays.fill(segmentSizes, 0);
+   }
+
+   synchronized long size() {
+      return size;
+   }
+
+   synchronized long segmentSize(int segment) {
+      return segmentSizes[segment];
+   }
+
+   private ReadWriteLock stripe(long hash) {
+      // The slot is chosen by the low bits of the hash, the stripe by the high bits
+      return stripes[(int) (hash >>> 58) & (STRIPES - 1)];
+   }
+
+   /**
+    * @return the offsets of the entries with the given hash in the segment, their keys still have to be compared
+    */
+   private synchronized long[] candidates(int segment, long hash) {
+      long[] offsets = NO_OFFSETS;
+      int count = 0;
+      int mask = capacity - 1;
+      for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+         long offset = getLong(slot, OFFSET);
+         if (offset == EMPTY) {
+            return count == offsets.length ? offsets : Arrays.copyOf(offsets, count);
+         }
+         if (offset != DELETED && getLong(slot, HASH) == hash && getInt(slot, SEGMENT) == segment) {
+            if (count == offsets.length) {
+               offsets = Arrays.copyOf(offsets, Math.max(2, count << 1));
+            }
+            offsets[count++] = offset;
+         }
+      }
+   }
+
+   /**
+    * Reads the candidates from the data file, without holding the index monitor, until one of them has the given key.
+    *
+    * @return the entry of the key, with the header fields read from the data file, or {@code null}
+    */
+   private static FileEntry match(long[] offsets, byte[] key, int keyOffset, int keyLength, FileChannel dataChannel) throws IOException {
+      if (offsets.length == 0)
+         return null;
+
+      int length = SingleFileStore.KEY_POS_LATEST + keyLength;
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      for (long offset : offsets) {
+         buffer.clear();
+         if (read(dataChannel, buffer, offset) && buffer.getInt(SingleFileStore.KEYLEN_POS) == keyLength &&
+               Arrays.equals(buffer.array(), SingleFileStore.KEY_POS_LATEST, length, key, keyOffset, keyOffset + keyLength)) {
+            buffer.position(0).limit(SingleFileStore.KEY_POS_LATEST);
+            return new FileEntry(offset, buffer);
+         }
+      }
+      return null;
+   }
+
+   private static boolean read(FileChannel dataChannel, ByteBuffer buffer, long offset) throws IOException {
+      while (buffer.hasRemaining()) {
+         if (dataChannel.read(buffer, offset + buffer.position()) < 0)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * @return the slot of the entry at the given offset of the data file, or -1 if it is not in the index
+    */
+   @GuardedBy("this")
+   private int slotOf(long hash, long offset) {
+      int mask = capacity - 1;
+      for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+         long current = getLong(slot, OFFSET);
+         if (current == offset)
+            return slot;
+         if (current == EMPTY)
+            return -1;
+      }
+   }
+
+   /**
+    * @return the first removed or empty slot for the hash
+    */
+   @GuardedBy("this")
+   private int insertionSlot(long hash) {
+      int mask = capacity - 1;
+      int slot = (int) hash & mask;
+      while (isLive(getLong(slot, OFFSET))) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   private int emptySlot(long hash) {
+      int mask = capacity - 1;
+      int slot = (int) hash & mask;
+      while (getLong(slot, OFFSET) != EMPTY) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   private FileEntry removeSlot(int slot) {
+      FileEntry removed = new FileEntry(getLong(slot, OFFSET), getInt(slot, SIZE));
+      size--;
+      segmentSizes[getInt(slot, SEGMENT)]--;
+      int mask = capacity - 1;
+      if (getLong((slot + 1) & mask, OFFSET) == EMPTY) {
+         // No lookup probes past this slot, nor past the removed slots right before it
+         do {
+            putLong(slot, OFFSET, EMPTY);
+            used--;
+            slot = (slot - 1) & mask;
+         } while (getLong(slot, OFFSET) == DELETED);
+      } else {
+         putLong(slot, OFFSET, DELETED);
+      }
+      return removed;
+   }
+
+   private boolean needsRehash(int slots) {
+      // Keep at least 1/16 of the slots empty even during iterations, so that lookups stay short
+      return slots > capacity - (capacity >> 2) && (iterations.isEmpty() || slots > capacity - (capacity >> 4));
+   }
+
+   /**
+    * Restarts the iterations from the first slot before the slots are moved, recording the hashes of the keys in the
+    * slots they already went through so that these keys are skipped.
+    */
+   private void restartIterations() {
+      for (Iteration iteration : iterations) {
+         if (iteration.slot <= 0)
+            continue;
+
+         long[] previous = iteration.visited;
+         int count = previous == null ? 0 : previous.length;
+         long[] hashes = previous == null ? new long[iteration.slot] : Arrays.copyOf(previous, count + iteration.slot);
+         for (int slot = 0; slot < iteration.slot; ++slot) {
+            if (isLive(getLong(slot, OFFSET))) {
+               hashes[count++] = getLong(slot, HASH);
+            }
+         }
+         hashes = Arrays.copyOf(hashes, count);
+         Arrays.sort(hashes);
+         iteration.visited = hashes;
+         iteration.slot = 0;
+      }
+   }
+
+   /**
+    * Doubles the capacity of the table if it is more than 3/8 full, otherwise only drops the removed slots.
+    * The slots are copied after the end of the new table, which is then cleared and filled again.
+    */
+   private void rehash() throws IOException {
+      int newCapacity = size + 1 > (capacity >> 2) + (capacity >> 3) ? capacity << 1 : capacity;
+      if (newCapacity > MAX_CAPACITY || newCapacity <= 0)
+         throw new PersistenceException("The index " + file + " cannot hold more than " + MAX_CAPACITY + " entries");
+
+      restartIterations();
+      long oldEnd = tableEnd(capacity);
+      long copyStart = tableEnd(newCapacity);
+      for (long position = HEADER_SIZE; position < oldEnd; ) {
+         ByteBuffer source = regions[(int) (position >>> REGION_SHIFT)].duplicate();
+         int start = (int) (position & REGION_MASK);
+         int end = (int) Math.min(source.capacity(), start + (oldEnd - position));
+         source.limit(end).position(start);
+         write(source, copyStart + position - HEADER_SIZE);
+         position += end - start;
+      }
+
+      capacity = newCapacity;
+      regions = null;
+      map();
+      zero(HEADER_SIZE, oldEnd);
+      regions[0].putInt(CAPACITY_POS, capacity);
+
+      ByteBuffer buffer = ByteBuffer.allocate(SLOT_SIZE * 1024);
+      long copyEnd = copyStart + oldEnd - HEADER_SIZE;
+      for (long position = copyStart; position < copyEnd; ) {
+         buffer.clear().limit((int) Math.min(buffer.capacity(), copyEnd - position));
+         read(buffer, position).flip();
+         position += buffer.limit();
+         while (buffer.hasRemaining()) {
+            long offset = buffer.getLong();
+            long hash = buffer.getLong();
+            long expiry = buffer.getLong();
+            int segment = buffer.getInt();
+            int entrySize = buffer.getInt();
+            if (isLive(offset)) {
+               writeSlot(emptySlot(hash), offset, hash, expiry, segment, entrySize);
+            }
+         }
+      }
+      used = size;
+      channel.truncate(tableEnd(capacity));
+   }
+
+   private void map() throws IOException {
+      long end = tableEnd(capacity);
+      MappedByteBuffer[] mapped = new MappedByteBuffer[(int) ((end + REGION_MASK) >>> REGION_SHIFT)];
+      for (int i = 0; i < mapped.length; ++i) {
+         long position = (long) i << REGION_SHIFT;
+         mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(REGION_SIZE, end - position));
+      }
+      regions = mapped;
+   }
+
+   private void zero(long from, long to) {
+      for (long position = from; position < to; ) {
+         ByteBuffer region = regions[(int) (position >>> REGION_SHIFT)].duplicate();
+         int start = (int) (position & REGION_MASK);
+         int length = (int) Math.min(Math.min(ZEROS.length, to - position), region.capacity() - start);
+         region.position(start);
+         region.put(ZEROS, 0, length);
+         position += length;
+      }
+   }
+
+   private ByteBuffer read(ByteBuffer buffer, long position) throws IOException {
+      while (buffer.hasRemaining()) {
+         if (channel.read(buffer, position + buffer.position()) < 0)
+            throw new EOFException(file.toString());
+      }
+      return buffer;
+   }
+
+   private int write(ByteBuffer buffer, long position) throws IOException {
+      int written = 0;
+      while (buffer.hasRemaining()) {
+         written += channel.write(buffer, position + written);
+      }
+      return written;
+   }
+
+   private void writeSlot(int slot, long offset, long hash, long expiry, int segment, int entrySize) {
+      putLong(slot, HASH, hash);
+      putLong(slot, EXPIRY, expiry);
+      putInt(slot, SEGMENT, segment);
+      putInt(slot, SIZE, entrySize);
+      putLong(slot, OFFSET, offset);
+   }
+
+   private long getLong(int slot, int field) {
+      long position = tableEnd(slot) + field;
+      return regions[(int) (position >>> REGION_SHIFT)].getLong((int) (position & REGION_MASK));
+   }
+
+   private int getInt(int slot, int field) {
+      long position = tableEnd(slot) + field;
+      return regions[(int) (position >>> REGION_SHIFT)].getInt((int) (position & REGION_MASK));
+   }
+
+   private void putLong(int slot, int field, long value) {
+      long position = tableEnd(slot) + field;
+      regions[(int) (position >>> REGION_SHIFT)].putLong((int) (position & REGION_MASK), value);
+   }
+
+   private void putInt(int slot, int field, int value) {
+      long position = tableEnd(slot) + field;
+      regions[(int) (position >>> REGION_SHIFT)].putInt((int) (position & REGION_MASK), value);
+   }
+
+   /**
+    * @return the position of the given slot, or the end of a table with the given capacity
+    */
+   private static long hash(byte[] key, int keyOffset, int keyLength) {
+      return MurmurHash3.MurmurHash3_x64_64(key, keyOffset, keyLength, HASH_SEED);
+   }
+
+   private static long tableEnd(int slots) {
+      return HEADER_SIZE + (long) slots * SLOT_SIZE;
+   }
+
+   private static boolean isLive(long offset) {
+      return offset != EMPTY && offset != DELETED;
+   }
+
+   private static boolean isExpired(long expiryTime, long now) {
+      return expiryTime > 0 && expiryTime < now;
+   }
+
+   /**
+    * Position of an iteration over the slots of the table. The fields are only modified holding the index monitor.
+    */
+   static final class Iteration {
+      private int slot;
+      // Sorted hashes of the keys visited before the table was last resized, a key sharing the 64-bit hash of a visited
+      // key would be skipped too
+      private long[] visited;
+
+      /**
+       * @return {@code true} once the whole table has been visited
+       */
+      boolean isDone() {
+         return slot < 0;
+      }
+
+      private boolean visited(long hash) {
+         return visited != null && Arrays.binarySearch(visited, hash) >= 0;
+      }
+   }
+}
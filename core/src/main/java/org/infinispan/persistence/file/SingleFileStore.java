@@ -29,6 +29,8 @@
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -81,6 +83,10 @@
  * This file store stores cache values in a single file <tt>&lt;location&gt;/&lt;cache name&gt;.dat</tt>,
  * keys and file positions are kept in memory.
  * <p/>
+ * Alternatively, with {@link SingleFileStoreConfiguration#memoryMappedIndex()} the hashes of the keys and the file
+ * positions are kept in a memory-mapped file <tt>&lt;location&gt;/&lt;cache name&gt;.idx</tt> instead, see
+ * {@link MappedFileIndex}, and the heap used by the store does not depend on the number of entries.
+ * <p/>
  * Note: this CacheStore implementation keeps keys and file positions in memory!
  * The current implementation needs about 100 bytes per cache entry, plus the
  * memory for the key objects.
@@ -114,7 +120,7 @@
    public static final byte[] MAGIC_12_1 = new byte[]{'F', 'C', 'S', '4'};
    public static final byte[] MAGIC_LATEST = MAGIC_12_1;
    private static final byte[] ZERO_INT = {0, 0, 0, 0};
-   private static final int KEYLEN_POS = 4;
+   static final int KEYLEN_POS = 4;
    /*
     * 4 bytes - entry size
     * 4 bytes - key length
@@ -137,6 +143,8 @@
    // bytes required by created and lastUsed timestamps
    private static final int TIMESTAMP_BYTES = 8 + 8;
    private static final int SMALLEST_ENTRY_SIZE = 128;
+   // Number of memory-mapped index slots visited at a time when iterating
+   private static final int ITERATION_BATCH_SIZE = 4096;
 
    private SingleFileStoreConfiguration configuration;
 
@@ -145,7 +153,14 @@
    private FileChannel channel;
    @GuardedBy("resizeLock")
    private Map<K, FileEntry>[] entries;
+   // Replaces entries when the index is memory-mapped
+   private MappedFileIndex mappedIndex;
+   @GuardedBy("resizeLock")
+   private boolean[] ownedSegments;
    private SortedSet<FileEntry> freeList;
+   // Readers of each entry by file offset when the index is memory-mapped, as the index creates a new FileEntry for
+   // every lookup. The in-memory index shares its FileEntry instances, which count their own readers
+   private ConcurrentMap<Long, Readers> readers;
    private long filePos;
    private File file;
    private float fragmentationFactor = .75f;
@@ -163,6 +178,10 @@ public static File getStoreFile(String directoryPath, String cacheName) {
       return new File(new File(directoryPath), cacheName + ".dat");
    }
 
+   public static File getIndexFile(String directoryPath, String cacheName) {
+      return new File(new File(directoryPath), cacheName + ".idx");
+   }
+
    @Override
    public CompletionStage<Void> start(InitializationContext ctx) {
       this.ctx = ctx;
@@ -180,7 +199,15 @@ public CompletionStage<Void> start(InitializationContext ctx) {
          actualNumSegments = 1;
       }
 
-      entries = new Map[actualNumSegments];
+      if (configuration.memoryMappedIndex()) {
+         Path resolvedPath = PersistenceUtil.getLocation(ctx.getGlobalConfiguration(), configuration.location());
+         mappedIndex = new MappedFileIndex(getIndexFile(resolvedPath.toString(), cacheName()), actualNumSegments);
+         readers = new ConcurrentHashMap<>();
+         ownedSegments = new boolean[actualNumSegments];
+      } else {
+         entries = new Map[actualNumSegments];
+         readers = null;
+      }
       freeList = Collections.synchronizedSortedSet(new TreeSet<>());
 
       // Not really blocking because no other thread can access the lock during start
@@ -201,12 +228,19 @@ private void blockingStart() {
 
             byte[] magicHeader = validateExistingFile(channel, file.getAbsolutePath());
             if (magicHeader != null) {
+               openMappedIndex(-1);
                migrateNonSegmented(magicHeader);
+            } else if (openMappedIndex(channel.size())) {
+               // The index and the free list were saved on shutdown
+               filePos = channel.size();
+               if (log.isTraceEnabled()) log.tracef("Reused index of %s, file size is %d", cacheName(), filePos);
+               processFreeEntries();
             } else {
                rebuildIndex();
                processFreeEntries();
             }
          } else if (hasAnyComposedSegmentedFiles()) {
+            openMappedIndex(-1);
             migrateFromComposedSegmentedLoadWriteStore();
          } else {
             // No existing files
@@ -217,6 +251,13 @@ private void blockingStart() {
                }
 
                channel = createNewFile(file);
+               openMappedIndex(-1);
+            } else if (mappedIndex != null) {
+               // Nothing to index, an empty in-memory index is enough
+               mappedIndex = null;
+               readers = null;
+               entries = new Map[actualNumSegments];
+               blockingAddSegments(IntSets.immutableRangeSet(actualNumSegments));
             }
          }
 
@@ -229,6 +270,16 @@ private void blockingStart() {
       }
    }
 
+   /**
+    * Opens the memory-mapped index, if enabled.
+    *
+    * @param dataFileSize the size of the data file, or -1 if the index must not be reused
+    * @return {@code true} if the index saved by the last clean shutdown was reused
+    */
+   private boolean openMappedIndex(long dataFileSize) throws IOException {
+      return mappedIndex != null && mappedIndex.open(dataFileSize, freeList);
+   }
+
    private boolean hasAnyComposedSegmentedFiles() {
       int numSegments = ctx.getCache().getCacheConfiguration().clustering().hash().numSegments();
       for (int segment = 0; segment < numSegments; segment++) {
@@ -332,6 +383,15 @@ private void blockingStop() {
       long stamp = resizeLock.writeLock();
       try {
          if (channel != null) {
+            if (mappedIndex != null) {
+               try {
+                  // The index can only be reused if the data it points to is on disk
+                  channel.force(true);
+                  mappedIndex.close(channel.size(), freeList);
+               } finally {
+                  mappedIndex = null;
+               }
+            }
             // reset state
             channel.close();
             channel = null;
@@ -387,6 +447,12 @@ private void rebuildIndex() throws Exception {
 
             // deserialize key and add to entries map
             // Marshaller should allow for provided type return for safety
+            if (mappedIndex != null) {
+               // The key is only needed for its segment
+               int segment = segmented ? getSegment(ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen)) : 0;
+               mappedIndex.put(segment, buf.array(), 0, fe.keyLen, fe, channel);
+               continue;
+            }
             K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
             // We start by owning all the segments
             Map<K, FileEntry> segmentEntries = getSegmentEntries(getSegment(key));
@@ -538,8 +604,12 @@ private void copyEntriesFromV12_0(FileChannel destChannel, FileChannel sourceCha
             // Update the entry with the destination filePos
             FileEntry newFe = new FileEntry(this.filePos, oldFe.size, oldFe.keyLen, oldFe.dataLen, oldFe.metadataLen, oldFe.internalMetadataLen, oldFe.expiryTime);
             // Put the updated entry in the entries map so we don't need to rebuild the index later
-            Map<K, FileEntry> segmentEntries = getSegmentEntries(getSegment(key));
-            segmentEntries.put(key, newFe);
+            if (mappedIndex != null) {
+               mappedIndex.put(getSegment(key), bodyBuf.array(), 0, oldFe.keyLen, newFe, destChannel);
+            } else {
+               Map<K, FileEntry> segmentEntries = getSegmentEntries(getSegment(key));
+               segmentEntries.put(key, newFe);
+            }
 
             buf.flip();
             destChannel.write(buf, this.filePos);
@@ -807,6 +877,10 @@ private ByteBuffer allocate(ByteBuffer buf, int length) {
     */
    @Override
    public CompletionStage<Boolean> containsKey(int segment, Object key) {
+      if (mappedIndex != null) {
+         // The key must be marshalled and compared with the one in the file
+         return blockingManager.supplyBlocking(() -> blockingContainsKey(segment, key), "sfs-containsKey");
+      }
       // Avoid switching threads if there is nothing to load
       long stamp = resizeLock.tryReadLock();
       if (stamp != 0) {
@@ -838,7 +912,7 @@ private FileEntry allocate(int len) {
          for (Iterator<FileEntry> it = candidates.iterator(); it.hasNext(); ) {
             FileEntry free = it.next();
             // ignore entries that are still in use by concurrent readers
-            if (free.isLocked())
+            if (isLocked(free))
                continue;
 
             // There's no race condition risk between locking the entry on
@@ -908,7 +982,7 @@ private void addNewFreeEntry(FileEntry fe) throws IOException {
    private void free(FileEntry fe) throws IOException {
       if (fe != null) {
          // Wait for any reader to finish
-         fe.waitUnlocked();
+         waitUnlocked(fe);
 
          // Invalidate entry on disk (by setting keyLen field to 0)
          // No need to wait for readers to unlock here, the FileEntry instance is not modified,
@@ -944,10 +1018,20 @@ private void write(int segment, MarshallableEntry<? extends K, ? extends V> mars
 
       long stamp = resizeLock.readLock();
       try {
-         Map<K, FileEntry> segmentEntries = getSegmentEntries(segment);
-         if (segmentEntries == null) {
-            // We don't own the segment
-            return;
+         Map<K, FileEntry> segmentEntries = null;
+         int indexSegment = -1;
+         if (mappedIndex != null) {
+            indexSegment = getIndexSegment(segment);
+            if (indexSegment < 0) {
+               // We don't own the segment
+               return;
+            }
+         } else {
+            segmentEntries = getSegmentEntries(segment);
+            if (segmentEntries == null) {
+               // We don't own the segment
+               return;
+            }
          }
 
          FileEntry newEntry = allocate(len);
@@ -974,12 +1058,17 @@ private void write(int segment, MarshallableEntry<? extends K, ? extends V> mars
          if (log.isTraceEnabled())
             log.tracef("Wrote entry %s:%d at %d:%d", marshalledEntry.getKey(), len, newEntry.offset, newEntry.size);
 
-         // add the new entry to in-memory index
-         FileEntry oldEntry = segmentEntries.put(marshalledEntry.getKey(), newEntry);
+         FileEntry oldEntry;
+         if (mappedIndex != null) {
+            oldEntry = mappedIndex.put(indexSegment, key.getBuf(), key.getOffset(), key.getLength(), newEntry, channel);
+         } else {
+            // add the new entry to in-memory index
+            oldEntry = segmentEntries.put(marshalledEntry.getKey(), newEntry);
 
-         // if we added an entry, check if we need to evict something
-         if (oldEntry == null)
-            oldEntry = evict();
+            // if we added an entry, check if we need to evict something
+            if (oldEntry == null)
+               oldEntry = evict();
+         }
 
          // in case we replaced or evicted an entry, add to freeList
          free(oldEntry);
@@ -1022,22 +1111,29 @@ private void blockingClear() {
       try {
          // Wait until all readers are done reading all file entries
          // First, used entries
-         for (Map<K, FileEntry> segmentEntries : entries) {
-            if (segmentEntries == null)
-               continue;
+         if (mappedIndex != null) {
+            for (Readers entryReaders : readers.values())
+               entryReaders.await();
 
-            synchronized (segmentEntries) {
-               for (FileEntry fe : segmentEntries.values())
-                  fe.waitUnlocked();
+            mappedIndex.clear();
+         } else {
+            for (Map<K, FileEntry> segmentEntries : entries) {
+               if (segmentEntries == null)
+                  continue;
 
-               segmentEntries.clear();
+               synchronized (segmentEntries) {
+                  for (FileEntry fe : segmentEntries.values())
+                     waitUnlocked(fe);
+
+                  segmentEntries.clear();
+               }
             }
          }
 
          // Then free entries that others might still be reading
          synchronized (freeList) {
             for (FileEntry fe : freeList)
-               fe.waitUnlocked();
+               waitUnlocked(fe);
 
             // clear in-memory state
             freeList.clear();
@@ -1057,6 +1153,10 @@ private void blockingClear() {
 
    @Override
    public CompletionStage<Boolean> delete(int segment, Object key) {
+      if (mappedIndex != null) {
+         // The key must be marshalled and compared with the one in the file
+         return blockingManager.supplyBlocking(() -> blockingDelete(segment, key), "sfs-delete");
+      }
       long stamp = resizeLock.tryReadLock();
       if (stamp != 0) {
          FileEntry fe = deleteWithReadLock(segment, key);
@@ -1073,7 +1173,13 @@ public CompletionStage<Boolean> delete(int segment, Object key) {
 
    private boolean blockingDelete(int segment, Object key) {
       long stamp = resizeLock.readLock();
-      FileEntry fe = deleteWithReadLock(segment, key);
+      FileEntry fe;
+      try {
+         fe = deleteWithReadLock(segment, key);
+      } catch (RuntimeException e) {
+         resizeLock.unlockRead(stamp);
+         throw e;
+      }
       return deleteInFile(stamp, fe);
    }
 
@@ -1092,6 +1198,18 @@ private boolean deleteInFile(long stamp, FileEntry fe) {
    }
 
    private FileEntry deleteWithReadLock(int segment, Object key) {
+      if (mappedIndex != null) {
+         int indexSegment = getIndexSegment(segment);
+         if (indexSegment < 0)
+            return null;
+
+         byte[] keyBytes = marshallKey(key);
+         try {
+            return mappedIndex.remove(indexSegment, keyBytes, 0, keyBytes.length, channel);
+         } catch (IOException e) {
+            throw new PersistenceException(e);
+         }
+      }
       Map<K, FileEntry> segmentEntries = getSegmentEntries(segment);
       if (segmentEntries == null) {
          // We don't own the segment
@@ -1103,6 +1221,10 @@ private FileEntry deleteWithReadLock(int segment, Object key) {
 
    @Override
    public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
+      if (mappedIndex != null) {
+         // The key must be marshalled and compared with the one in the file
+         return blockingManager.supplyBlocking(() -> blockingLoad(segment, key, true, true), "sfs-load");
+      }
       // Avoid switching threads if there is nothing to load
       long stamp = resizeLock.tryReadLock();
       if (stamp != 0) {
@@ -1135,6 +1257,9 @@ private MarshallableEntry<K, V> blockingLoad(int segment, Object key, boolean lo
    private FileEntry getFileEntryWithReadLock(int segment, Object key, long stamp, boolean lockFileEntry) {
       final FileEntry fe;
       try {
+         if (mappedIndex != null)
+            return getMappedFileEntry(segment, key, lockFileEntry);
+
          Map<K, FileEntry> segmentEntries = getSegmentEntries(segment);
          if (segmentEntries == null)
             return null;
@@ -1150,7 +1275,7 @@ private FileEntry getFileEntryWithReadLock(int segment, Object key, long stamp,
                return null;
             } else if (lockFileEntry) {
                // lock entry for reading before releasing entries monitor
-               fe.lock();
+               lock(fe);
             }
          }
       } finally {
@@ -1159,6 +1284,39 @@ private FileEntry getFileEntryWithReadLock(int segment, Object key, long stamp,
       return fe;
    }
 
+   @GuardedBy("resizeLock#readLock")
+   private FileEntry getMappedFileEntry(int segment, Object key, boolean lockFileEntry) {
+      int indexSegment = getIndexSegment(segment);
+      if (indexSegment < 0)
+         return null;
+
+      byte[] keyBytes = marshallKey(key);
+      try {
+         // Lock the entry before a concurrent write can free it
+         FileEntry fe = mappedIndex.get(indexSegment, keyBytes, 0, keyBytes.length, channel,
+               lockFileEntry ? this::lock : null);
+         if (fe != null && fe.isExpired(timeService.wallClockTime())) {
+            if (lockFileEntry)
+               unlock(fe);
+            return null;
+         }
+         return fe;
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private byte[] marshallKey(Object key) {
+      try {
+         return ctx.getPersistenceMarshaller().objectToByteBuffer(key);
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException(e);
+      }
+   }
+
    private MarshallableEntry<K, V> readFromDisk(FileEntry fe, Object key, boolean loadValue, boolean loadMetadata) {
       org.infinispan.commons.io.ByteBuffer valueBb = null;
 
@@ -1167,7 +1325,7 @@ private MarshallableEntry<K, V> readFromDisk(FileEntry fe, Object key, boolean l
          try {
             return entryFactory.create(key);
          } finally {
-            fe.unlock();
+            unlock(fe);
          }
       }
 
@@ -1182,7 +1340,7 @@ private MarshallableEntry<K, V> readFromDisk(FileEntry fe, Object key, boolean l
       } finally {
          // No need to keep the lock for deserialization.
          // FileEntry is immutable, so its members can't be changed by another thread.
-         fe.unlock();
+         unlock(fe);
       }
 
       if (log.isTraceEnabled()) log.tracef("Read entry %s at %d:%d", key, fe.offset, fe.actualSize());
@@ -1238,8 +1396,27 @@ private Map<K, FileEntry> getSegmentEntries(int segment) {
       return entries[segment];
    }
 
+   /**
+    * @return The segment of the key in the memory-mapped index, or {@code -1} if the segment is not owned
+    */
+   @GuardedBy("resizeLock")
+   private int getIndexSegment(int segment) {
+      if (!segmented) {
+         return 0;
+      }
+
+      // Segmented
+      if (actualNumSegments <= segment) {
+         throw new IndexOutOfBoundsException();
+      }
+      return ownedSegments[segment] ? segment : -1;
+   }
+
    @Override
    public Publisher<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
+      if (mappedIndex != null) {
+         return publishMappedEntries(segments, filter, false).map(MarshallableEntry::getKey);
+      }
       if (!segmented) {
          return publishSegmentKeys(k -> keyMatches(segments, filter, k), 0);
       }
@@ -1292,6 +1469,9 @@ private Flowable<K> publishSegmentKeysWithReadLock(Predicate<? super K> filter,
    @Override
    public Publisher<MarshallableEntry<K, V>> publishEntries(IntSet segments, Predicate<? super K> filter,
                                                             boolean includeValues) {
+      if (mappedIndex != null) {
+         return publishMappedEntries(segments, filter, includeValues);
+      }
       if (!segmented) {
          return publishSegmentEntries(0, k -> keyMatches(segments, filter, k), includeValues);
       }
@@ -1352,6 +1532,73 @@ private Flowable<MarshallableEntry<K, V>> blockingPublishSegmentEntries(int segm
       }).filter(me -> me != entryFactory.getEmpty());
    }
 
+   /**
+    * Keys are not kept in memory with a memory-mapped index, so they are read from the file in batches of slots,
+    * each batch sorted by file offset.
+    */
+   private Flowable<MarshallableEntry<K, V>> publishMappedEntries(IntSet segments, Predicate<? super K> filter,
+                                                                  boolean includeValues) {
+      // All the keys are in segment 0 of the index when the store is not segmented
+      IntSet indexSegments = segmented ? segments : null;
+      Predicate<? super K> keyFilter = segmented ? filter : k -> keyMatches(segments, filter, k);
+      MappedFileIndex index = mappedIndex;
+      return blockingManager.blockingPublisher(Flowable.using(index::startIteration,
+            iteration -> Flowable.<List<MarshallableEntry<K, V>>>generate(emitter -> {
+               if (iteration.isDone()) {
+                  emitter.onComplete();
+                  return;
+               }
+               List<MarshallableEntry<K, V>> batch = new ArrayList<>();
+               readMappedEntries(iteration, indexSegments, keyFilter, includeValues, batch);
+               emitter.onNext(batch);
+            }).concatMapIterable(batch -> batch), index::endIteration));
+   }
+
+   /**
+    * Reads the entries of the next batch of slots of the iteration.
+    */
+   private void readMappedEntries(MappedFileIndex.Iteration iteration, IntSet segments, Predicate<? super K> filter,
+                                  boolean includeValues, List<MarshallableEntry<K, V>> entries) {
+      List<FileEntry> entriesToRead = new ArrayList<>();
+      long stamp = resizeLock.readLock();
+      try {
+         // readMappedEntry() unlocks the entries
+         mappedIndex.collect(iteration, ITERATION_BATCH_SIZE, segments, timeService.wallClockTime(), entriesToRead,
+               this::lock);
+      } finally {
+         resizeLock.unlockRead(stamp);
+      }
+
+      entriesToRead.sort(Comparator.comparingLong(fe -> fe.offset));
+      for (int i = 0; i < entriesToRead.size(); i++) {
+         try {
+            MarshallableEntry<K, V> entry = readMappedEntry(entriesToRead.get(i), includeValues);
+            if (filter == null || filter.test(entry.getKey())) {
+               entries.add(entry);
+            }
+         } catch (Throwable t) {
+            unlockAll(entriesToRead, i + 1);
+            throw t;
+         }
+      }
+   }
+
+   /**
+    * Reads an entry found in the memory-mapped index, which only knows its offset and size, and unlocks it.
+    */
+   private MarshallableEntry<K, V> readMappedEntry(FileEntry fe, boolean loadValue) {
+      FileEntry header;
+      try {
+         ByteBuffer buf = readChannel(ByteBuffer.allocate(KEY_POS_LATEST), fe.offset, KEY_POS_LATEST, channel);
+         buf.flip();
+         header = new FileEntry(fe.offset, buf);
+      } catch (Exception e) {
+         unlock(fe);
+         throw new PersistenceException(e);
+      }
+      return readFromDisk(header, null, loadValue, true);
+   }
+
    /**
     * Manipulates the free entries for optimizing disk space.
     */
@@ -1387,7 +1634,7 @@ private void truncateFile(List<FileEntry> entries) {
          // Till we have free entries at the end of the file,
          // we can remove them and contract the file to release disk
          // space.
-         if (!fe.isLocked() && ((fe.offset + fe.size) == filePos)) {
+         if (!isLocked(fe) && ((fe.offset + fe.size) == filePos)) {
             truncateOffset = fe.offset;
             filePos = fe.offset;
             freeList.remove(fe);
@@ -1425,7 +1672,7 @@ private void mergeFreeEntries(List<FileEntry> entries) {
       int mergeCounter = 0;
       for (FileEntry fe : entries) {
          // truncateFile sets entries to null instead of removing them
-         if (fe == null || fe.isLocked())
+         if (fe == null || isLocked(fe))
             continue;
 
          // Merge any holes created (consecutive free entries) in the file
@@ -1474,20 +1721,24 @@ public Publisher<MarshallableEntry<K, V>> purgeExpired() {
    private void blockingPurgeExpired(UnicastProcessor<MarshallableEntry<K, V>> processor) {
       try {
          long now = timeService.wallClockTime();
-         for (int segment = 0; segment < actualNumSegments; segment++) {
-            List<KeyValuePair<Object, FileEntry>> entriesToPurge;
-            long stamp = resizeLock.readLock();
-            try {
-               Map<K, FileEntry> segmentEntries = getSegmentEntries(segment);
-               if (segmentEntries == null)
-                  continue;
+         if (mappedIndex != null) {
+            purgeExpiredMappedEntries(now, processor);
+         } else {
+            for (int segment = 0; segment < actualNumSegments; segment++) {
+               List<KeyValuePair<Object, FileEntry>> entriesToPurge;
+               long stamp = resizeLock.readLock();
+               try {
+                  Map<K, FileEntry> segmentEntries = getSegmentEntries(segment);
+                  if (segmentEntries == null)
+                     continue;
 
-               entriesToPurge = collectExpiredEntries(now, segmentEntries);
-            } finally {
-               resizeLock.unlockRead(stamp);
-            }
+                  entriesToPurge = collectExpiredEntries(now, segmentEntries);
+               } finally {
+                  resizeLock.unlockRead(stamp);
+               }
 
-            purgeExpiredEntries(now, processor, entriesToPurge);
+               purgeExpiredEntries(now, processor, entriesToPurge);
+            }
          }
 
          // Disk space optimizations
@@ -1521,6 +1772,37 @@ private void purgeExpiredEntries(long now, UnicastProcessor<MarshallableEntry<K,
       }
    }
 
+   private void purgeExpiredMappedEntries(long now, UnicastProcessor<MarshallableEntry<K, V>> processor) throws IOException {
+      MappedFileIndex index = mappedIndex;
+      MappedFileIndex.Iteration iteration = index.startIteration();
+      try {
+         while (!iteration.isDone()) {
+            List<FileEntry> entriesToPurge = new ArrayList<>();
+            long stamp = resizeLock.readLock();
+            try {
+               // readMappedEntry() unlocks the entries
+               index.removeExpired(iteration, ITERATION_BATCH_SIZE, now, entriesToPurge, this::lock);
+            } finally {
+               resizeLock.unlockRead(stamp);
+            }
+
+            entriesToPurge.sort(Comparator.comparingLong(fe -> fe.offset));
+            for (int i = 0; i < entriesToPurge.size(); i++) {
+               FileEntry fe = entriesToPurge.get(i);
+               try {
+                  processor.onNext(readMappedEntry(fe, true));
+                  free(fe);
+               } catch (Throwable t) {
+                  unlockAll(entriesToPurge, i + 1);
+                  throw t;
+               }
+            }
+         }
+      } finally {
+         index.endIteration(iteration);
+      }
+   }
+
    @GuardedBy("resizeLock")
    private List<KeyValuePair<Object, FileEntry>> collectExpiredEntries(long now, Map<K, FileEntry> segmentEntries) {
       List<KeyValuePair<Object, FileEntry>> entriesToPurge = new ArrayList<>();
@@ -1532,7 +1814,7 @@ private List<KeyValuePair<Object, FileEntry>> collectExpiredEntries(long now, Ma
                it.remove();
                // We don't have to worry about other operations freeing the entry while we are reading it,
                // but we have to lock because readFromDisk() unlocks
-               fe.lock();
+               lock(fe);
                entriesToPurge.add(new KeyValuePair<>(next.getKey(), fe));
             }
          }
@@ -1554,6 +1836,20 @@ private long blockingApproximateSize(IntSet segments) {
       long size = 0;
       long stamp = resizeLock.readLock();
       try {
+         if (mappedIndex != null) {
+            if (!segmented) {
+               return mappedIndex.size();
+            }
+
+            for (PrimitiveIterator.OfInt iterator = segments.iterator(); iterator.hasNext(); ) {
+               int segment = iterator.next();
+               if (ownedSegments[segment]) {
+                  size += mappedIndex.segmentSize(segment);
+               }
+            }
+            return size;
+         }
+
          if (!segmented) {
             return getSegmentEntries(0).size();
          }
@@ -1607,6 +1903,13 @@ public CompletionStage<Void> addSegments(IntSet segments) {
    private void blockingAddSegments(IntSet segments) {
       long stamp = resizeLock.writeLock();
       try {
+         if (entries == null) {
+            for (int segment : segments) {
+               ownedSegments[segment] = true;
+            }
+            return;
+         }
+
          for (int segment : segments) {
             if (entries[segment] != null)
                continue;
@@ -1631,6 +1934,10 @@ public CompletionStage<Void> removeSegments(IntSet segments) {
    }
 
    private void blockingRemoveSegments(IntSet segments) {
+      if (mappedIndex != null) {
+         blockingRemoveMappedSegments(segments);
+         return;
+      }
       List<Map<K, FileEntry>> removedSegments = new ArrayList<>(segments.size());
       long stamp = resizeLock.writeLock();
       try {
@@ -1659,6 +1966,104 @@ private void blockingRemoveSegments(IntSet segments) {
       processFreeEntries();
    }
 
+   private void blockingRemoveMappedSegments(IntSet segments) {
+      List<FileEntry> removedEntries;
+      long stamp = resizeLock.writeLock();
+      try {
+         for (int segment : segments) {
+            ownedSegments[segment] = false;
+         }
+         removedEntries = mappedIndex.removeSegments(segments);
+      } finally {
+         resizeLock.unlockWrite(stamp);
+      }
+
+      try {
+         for (FileEntry fileEntry : removedEntries) {
+            free(fileEntry);
+         }
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      }
+
+      // Disk space optimizations
+      processFreeEntries();
+   }
+
+   private void lock(FileEntry fe) {
+      if (readers == null) {
+         fe.lock();
+         return;
+      }
+      readers.compute(fe.offset, (offset, entryReaders) -> {
+         if (entryReaders == null) {
+            entryReaders = new Readers();
+         }
+         entryReaders.count++;
+         return entryReaders;
+      });
+   }
+
+   private void unlock(FileEntry fe) {
+      if (readers == null) {
+         fe.unlock();
+         return;
+      }
+      readers.computeIfPresent(fe.offset, (offset, entryReaders) -> {
+         if (--entryReaders.count > 0)
+            return entryReaders;
+
+         entryReaders.release();
+         return null;
+      });
+   }
+
+   private void unlockAll(List<FileEntry> entries, int from) {
+      for (int i = from; i < entries.size(); i++) {
+         unlock(entries.get(i));
+      }
+   }
+
+   private boolean isLocked(FileEntry fe) {
+      return readers == null ? fe.isLocked() : readers.containsKey(fe.offset);
+   }
+
+   private void waitUnlocked(FileEntry fe) {
+      if (readers == null) {
+         fe.waitUnlocked();
+         return;
+      }
+      Readers entryReaders = readers.get(fe.offset);
+      if (entryReaders != null) {
+         entryReaders.await();
+      }
+   }
+
+   /**
+    * Readers of the entry at a given offset.
+    */
+   private static final class Readers {
+      // Only modified inside readers.compute()
+      int count;
+      @GuardedBy("this")
+      boolean released;
+
+      synchronized void release() {
+         released = true;
+         notifyAll();
+      }
+
+      synchronized void await() {
+         while (!released) {
+            try {
+               wait();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+      }
+   }
+
    /**
     * Helper class to represent an entry in the cache file.
     * <p/>
@@ -1674,7 +2079,7 @@ private void blockingRemoveSegments(IntSet segments) {
     * <li>{@link #metadataLen} bytes: serialized key</li>
     * </ul>
     */
-   private static class FileEntry implements Comparable<FileEntry> {
+   static class FileEntry implements Comparable<FileEntry> {
       /**
        * File offset of this block.
        */
@@ -1711,7 +2116,7 @@ private static class FileEntry implements Comparable<FileEntry> {
       final long expiryTime;
 
       /**
-       * Number of current readers.
+       * Number of current readers, only used with the in-memory index.
        */
       transient int readers = 0;
 
@@ -0,0 +1,96 @@
+package org.infinispan.persistence.internal;
+
+import java.util.Set;
+
+import javax.management.ObjectName;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.StoreConfiguration;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.jmx.CacheJmxRegistration;
+import org.infinispan.metrics.impl.CacheMetricsRegistration;
+import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Registers the statistics of a store, which is not a component of the cache, with the JMX and metrics registries of
+ * the cache the store belongs to. The registration has to be released with {@link #unregister()} when the store is
+ * stopped.
+ *
+ * @since 15.0
+ */
+public final class StoreStatisticsRegistration {
+   private static final Log log = LogFactory.getLog(StoreStatisticsRegistration.class);
+
+   private final CacheJmxRegistration jmxRegistration;
+   private final CacheMetricsRegistration metricsRegistration;
+   private final ObjectName objectName;
+   private final Set<Object> metricIds;
+
+   private StoreStatisticsRegistration(CacheJmxRegistration jmxRegistration, ObjectName objectName,
+                                       CacheMetricsRegistration metricsRegistration, Set<Object> metricIds) {
+      this.jmxRegistration = jmxRegistration;
+      this.objectName = objectName;
+      this.metricsRegistration = metricsRegistration;
+      this.metricIds = metricIds;
+   }
+
+   /**
+    * Registers the given {@link org.infinispan.jmx.annotations.MBean} annotated instance. The JMX name and the metric
+    * names are qualified by the position of the store in the persistence configuration of the cache, so that the
+    * statistics of several stores of the same cache do not collide.
+    *
+    * @param ctx        the initialization context of the store
+    * @param statistics the statistics object to expose
+    * @return the registration, never null
+    */
+   public static StoreStatisticsRegistration register(InitializationContext ctx, Object statistics) {
+      Cache<?, ?> cache = ctx.getCache();
+      String storeName = storeName(cache, ctx.getConfiguration());
+      ComponentRegistry componentRegistry = cache.getAdvancedCache().getComponentRegistry();
+      GlobalConfiguration globalConfiguration = componentRegistry.getGlobalComponentRegistry().getGlobalConfiguration();
+      CacheJmxRegistration jmxRegistration = null;
+      ObjectName objectName = null;
+      if (globalConfiguration.jmx().enabled()) {
+         jmxRegistration = componentRegistry.getComponent(CacheJmxRegistration.class);
+         try {
+            // The group name already holds the cache and cache manager names
+            String groupName = jmxRegistration.getGroupName() + ",store=" + ObjectName.quote(storeName);
+            objectName = jmxRegistration.registerExternalMBean(statistics, groupName);
+         } catch (Exception e) {
+            log.debugf(e, "Unable to register store statistics %s in JMX", statistics);
+         }
+      }
+      CacheMetricsRegistration metricsRegistration = null;
+      Set<Object> metricIds = null;
+      if (globalConfiguration.metrics().enabled() && cache.getCacheConfiguration().statistics().enabled()) {
+         metricsRegistration = componentRegistry.getComponent(CacheMetricsRegistration.class);
+         if (metricsRegistration != null && metricsRegistration.metricsEnabled()) {
+            // The metric names already hold the cache name, or the cache tag
+            metricIds = metricsRegistration.registerExternalMetrics(statistics, storeName);
+         }
+      }
+      return new StoreStatisticsRegistration(jmxRegistration, objectName, metricsRegistration, metricIds);
+   }
+
+   private static String storeName(Cache<?, ?> cache, StoreConfiguration configuration) {
+      int index = cache.getCacheConfiguration().persistence().stores().indexOf(configuration);
+      // The stores added at runtime are not in the configuration of the cache
+      return index >= 0 ? "store_" + index : configuration.getClass().getSimpleName().replace("Configuration", "");
+   }
+
+   public void unregister() {
+      if (objectName != null) {
+         try {
+            jmxRegistration.unregisterMBean(objectName);
+         } catch (Exception e) {
+            log.debugf(e, "Unable to unregister store statistics %s from JMX", objectName);
+         }
+      }
+      if (metricIds != null) {
+         metricsRegistration.unregisterMetrics(metricIds);
+      }
+   }
+}
@@ -0,0 +1,137 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Exposes the state of the {@link Compactor} of a soft-index file store, so that the disk space needed by the store
+ * can be sized from how fast compaction keeps up with the writes.
+ *
+ * @since 15.0
+ */
+@MBean(objectName = "SoftIndexFileStoreCompaction", description = "Compaction statistics of the soft-index file store")
+public final class CompactionStatistics {
+   // Reclaimed bytes are bucketed per second over the last minute to compute the reclaim rate
+   private static final int WINDOW_SECONDS = 60;
+
+   private final Compactor compactor;
+   private final TimeService timeService;
+   private final AtomicInteger activeCompactions = new AtomicInteger();
+   private final AtomicLong compactedFiles = new AtomicLong();
+   private final AtomicLong bytesReclaimed = new AtomicLong();
+   private final long[] reclaimedPerSecond = new long[WINDOW_SECONDS];
+   private final long[] bucketSecond = new long[WINDOW_SECONDS];
+
+   CompactionStatistics(Compactor compactor, TimeService timeService) {
+      this.compactor = compactor;
+      this.timeService = timeService;
+   }
+
+   void compactionStarted() {
+      activeCompactions.incrementAndGet();
+   }
+
+   void compactionFinished() {
+      activeCompactions.decrementAndGet();
+   }
+
+   void fileCompacted(long reclaimed) {
+      compactedFiles.incrementAndGet();
+      if (reclaimed <= 0) {
+         return;
+      }
+      bytesReclaimed.addAndGet(reclaimed);
+      long second = currentSecond();
+      int bucket = (int) (second % WINDOW_SECONDS);
+      synchronized (reclaimedPerSecond) {
+         if (bucketSecond[bucket] != second) {
+            bucketSecond[bucket] = second;
+            reclaimedPerSecond[bucket] = 0;
+         }
+         reclaimedPerSecond[bucket] += reclaimed;
+      }
+   }
+
+   private long currentSecond() {
+      return timeService.wallClockTime() / TimeUnit.SECONDS.toMillis(1);
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files waiting to be compacted",
+         displayName = "Compaction backlog"
+   )
+   public int getCompactionBacklog() {
+      return compactor.backlogSize();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of unused space in the data files waiting to be compacted",
+         displayName = "Compaction backlog size",
+         units = Units.BYTES
+   )
+   public long getCompactionBacklogBytes() {
+      return compactor.backlogFreeBytes();
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files currently being compacted",
+         displayName = "Active compactions"
+   )
+   public int getActiveCompactions() {
+      return activeCompactions.get();
+   }
+
+   @ManagedAttribute(
+         description = "Maximum number of data files compacted at the same time",
+         displayName = "Compaction parallelism",
+         dataType = DataType.TRAIT
+   )
+   public int getCompactionParallelism() {
+      return compactor.getParallelism();
+   }
+
+   @ManagedAttribute(
+         description = "Number of data files compacted and removed",
+         displayName = "Compacted files",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getCompactedFiles() {
+      return compactedFiles.get();
+   }
+
+   @ManagedAttribute(
+         description = "Disk space reclaimed by compaction",
+         displayName = "Bytes reclaimed",
+         measurementType = MeasurementType.TRENDSUP,
+         units = Units.BYTES
+   )
+   public long getBytesReclaimed() {
+      return bytesReclaimed.get();
+   }
+
+   @ManagedAttribute(
+         description = "Disk space reclaimed by compaction per second, averaged over the last minute",
+         displayName = "Bytes reclaimed per second",
+         units = Units.PER_SECOND
+   )
+   public long getBytesReclaimedPerSecond() {
+      long now = currentSecond();
+      long sum = 0;
+      synchronized (reclaimedPerSecond) {
+         for (int i = 0; i < WINDOW_SECONDS; ++i) {
+            if (now - bucketSecond[i] < WINDOW_SECONDS) {
+               sum += reclaimedPerSecond[i];
+            }
+         }
+      }
+      return sum / WINDOW_SECONDS;
+   }
+}
@@ -4,12 +4,15 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -39,6 +42,10 @@
  * Component keeping the data about log file usage - as soon as entries from some file are overwritten so that the file
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
+ * <p>
+ * Up to {@code parallelism} files are compacted at the same time, each of them into its own output file. Files that
+ * cross the compaction threshold are kept in a backlog and the next one to compact is picked by a cost-benefit
+ * policy, preferring files with little live data that were completed a long time ago.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -54,7 +61,9 @@ class Compactor {
    private final KeyPartitioner keyPartitioner;
    private final int maxFileSize;
    private final double compactionThreshold;
+   private final int parallelism;
    private final Executor blockingExecutor;
+   private final CompactionStatistics statistics;
 
    // Initialize so we can enqueue operations until start begins
    private FlowableProcessor<CompletableFuture<Void>> processor = UnicastProcessor.<CompletableFuture<Void>>create().toSerialized();
@@ -67,17 +76,25 @@ class Compactor {
    // This variable is never to be null
    private volatile CompletableFuture<?> stopped = CompletableFutures.completedNull();
 
-   // This buffer is used by the compactor thread to avoid allocating buffers per entry written that are smaller
-   // than the header size
-   private final java.nio.ByteBuffer REUSED_BUFFER = java.nio.ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
-
-   FileProvider.Log logFile = null;
-   long nextExpirationTime = -1;
-   int currentOffset = 0;
+   // Files that crossed the compaction threshold and wait for a free compaction slot, guarded by itself
+   private final Set<Integer> backlog = new HashSet<>();
+   // Compactions that are currently processing a file, clear has to wait for them before releasing the outputs.
+   // Registration and the check of the clear signal are guarded by the set itself
+   private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+   private final List<CompactionOutput> outputs;
+   // There is always an idle output when a request is processed as no more than parallelism requests run at once
+   private final Queue<CompactionOutput> idleOutputs = new ConcurrentLinkedQueue<>();
 
    public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvider, TemporaryTable temporaryTable,
          Marshaller marshaller, TimeService timeService, KeyPartitioner keyPartitioner, int maxFileSize,
          double compactionThreshold, Executor blockingExecutor) {
+      this(nonBlockingManager, fileProvider, temporaryTable, marshaller, timeService, keyPartitioner, maxFileSize,
+            compactionThreshold, 1, blockingExecutor);
+   }
+
+   public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvider, TemporaryTable temporaryTable,
+         Marshaller marshaller, TimeService timeService, KeyPartitioner keyPartitioner, int maxFileSize,
+         double compactionThreshold, int parallelism, Executor blockingExecutor) {
       this.nonBlockingManager = nonBlockingManager;
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
@@ -86,7 +103,42 @@ public Compactor(NonBlockingManager nonBlockingManager, FileProvider fileProvide
       this.keyPartitioner = keyPartitioner;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
+      this.parallelism = parallelism;
       this.blockingExecutor = blockingExecutor;
+      this.statistics = new CompactionStatistics(this, timeService);
+      this.outputs = new ArrayList<>(parallelism);
+      for (int i = 0; i < parallelism; ++i) {
+         CompactionOutput output = new CompactionOutput();
+         outputs.add(output);
+         idleOutputs.add(output);
+      }
+   }
+
+   CompactionStatistics getStatistics() {
+      return statistics;
+   }
+
+   int getParallelism() {
+      return parallelism;
+   }
+
+   int backlogSize() {
+      synchronized (backlog) {
+         return backlog.size();
+      }
+   }
+
+   long backlogFreeBytes() {
+      long free = 0;
+      synchronized (backlog) {
+         for (Integer file : backlog) {
+            Stats stats = fileStats.get(file);
+            if (stats != null) {
+               free += stats.getFree();
+            }
+         }
+      }
+      return free;
    }
 
    public void setIndex(Index index) {
@@ -109,7 +161,7 @@ public void completeFile(int file, int currentSize, long nextExpirationTime) {
 
    public void completeFile(int file, int currentSize, long nextExpirationTime, boolean canSchedule) {
       Stats stats = getStats(file, currentSize, nextExpirationTime);
-      stats.setCompleted();
+      stats.setCompleted(timeService.wallClockTime());
       // It is possible this was a logFile that was compacted
       if (canSchedule && stats.readyToBeScheduled(compactionThreshold, stats.getFree())) {
          schedule(file, stats);
@@ -137,7 +189,7 @@ boolean addFreeFile(int file, int expectedSize, int freeSize, long expirationTim
          return false;
       }
       log.tracef("Added new file %s to compactor manually with total size %s and free size %s", file, fileSize, freeSize);
-      stats.setCompleted();
+      stats.setCompleted(timeService.wallClockTime());
       if (canScheduleCompaction && stats.readyToBeScheduled(compactionThreshold, freeSize)) {
          schedule(file, stats);
       }
@@ -149,7 +201,7 @@ public void start() {
 
       Scheduler scheduler = Schedulers.from(blockingExecutor);
       processor.observeOn(scheduler)
-            .concatMapCompletable(stage -> {
+            .flatMapCompletable(stage -> Completable.defer(() -> {
                processRequest(stage);
                Completable completable = Completable.fromCompletionStage(stage);
                // If stage is completed asynchronously it could be on a non blocking thread, make sure to resume
@@ -158,7 +210,8 @@ public void start() {
                   completable = completable.observeOn(scheduler);
                }
                return completable;
-            })
+               // Each request is subscribed on its own worker so that up to parallelism files are compacted at once
+            }).subscribeOn(scheduler), false, parallelism)
             .subscribe(() -> stopped.complete(null), error -> {
                log.compactorEncounteredException(error, -1);
                stopped.completeExceptionally(error);
@@ -298,15 +351,44 @@ private void schedule(int file, Stats stats) {
       assert stats.isScheduled();
       if (!terminateSignal) {
          log.debugf("Scheduling file %d for compaction: %d/%d free", file, stats.free.get(), stats.total);
-         CompactionRequest request = new CompactionRequest(file);
-         processor.onNext(request);
-         request.whenComplete((__, t) -> {
-            if (t != null) {
-               log.compactorEncounteredException(t, file);
-               // Poor attempt to allow compactor to continue operating - file will never be compacted again
-               fileStats.remove(file);
+         synchronized (backlog) {
+            backlog.add(file);
+         }
+         // The request doesn't refer to the file, the most profitable file in the backlog is picked when it's processed
+         processor.onNext(new CompactionRequest(CompactionRequest.FROM_BACKLOG));
+      }
+   }
+
+   /**
+    * Removes the file that gives the best space reclaimed to cost ratio from the backlog, using the cost-benefit policy
+    * of log-structured file systems: {@code (1 - u) * age / (1 + u)} where {@code u} is the ratio of live data in the
+    * file and {@code age} is the time since the file was completed.
+    *
+    * @return the file to compact or -1 if the backlog is empty
+    */
+   private int pollBacklog() {
+      long now = timeService.wallClockTime();
+      synchronized (backlog) {
+         int bestFile = -1;
+         double bestScore = -1;
+         for (Iterator<Integer> iter = backlog.iterator(); iter.hasNext(); ) {
+            int file = iter.next();
+            Stats stats = fileStats.get(file);
+            if (stats == null) {
+               // File was released in the meantime
+               iter.remove();
+               continue;
             }
-         });
+            double score = stats.compactionScore(now);
+            if (score > bestScore) {
+               bestScore = score;
+               bestFile = file;
+            }
+         }
+         if (bestFile >= 0) {
+            backlog.remove(bestFile);
+         }
+         return bestFile;
       }
    }
 
@@ -351,11 +433,13 @@ public void stopOperations() {
       // The stopped CompletableFuture is completed in onComplete or onError callback for the processor, so this will
       // return after all compaction calls are completed
       stopped.join();
-      if (logFile != null) {
-         Util.close(logFile);
-         // Complete the file, this file should not be compacted
-         completeFile(logFile.fileId, currentOffset, nextExpirationTime, false);
-         logFile = null;
+      for (CompactionOutput output : outputs) {
+         if (output.logFile != null) {
+            Util.close(output.logFile);
+            // Complete the file, this file should not be compacted
+            completeFile(output.logFile.fileId, output.currentOffset, output.nextExpirationTime, false);
+            output.logFile = null;
+         }
       }
 
       // Reinitialize processor so it can be started again possibly
@@ -363,6 +447,9 @@ public void stopOperations() {
    }
 
    private static class CompactionRequest extends CompletableFuture<Void> {
+      // Placeholder file id for requests that compact the best file from the backlog
+      static final int FROM_BACKLOG = -1;
+
       private final int fileId;
       private final boolean isLogFile;
       private final CompactionExpirationSubscriber subscriber;
@@ -387,6 +474,17 @@ public String toString() {
       }
    }
 
+   /**
+    * The log file a compaction writes live entries to, one per parallel compaction.
+    */
+   private static class CompactionOutput {
+      // Used to avoid allocating buffers per entry written that are smaller than the header size
+      private final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
+      private FileProvider.Log logFile;
+      private long nextExpirationTime = -1;
+      private int currentOffset;
+   }
+
    void completeFuture(CompletableFuture<Void> future) {
       nonBlockingManager.complete(future, null);
    }
@@ -398,20 +496,44 @@ public void processRequest(CompletableFuture<Void> stageRequest) throws Throwabl
          completeFuture(stageRequest);
          return;
       }
-      // Note that this accept is only invoked from a single thread at a time so we don't have to worry about
-      // any other threads decrementing clear signal. However, another thread can increment, that is okay for us
-      if (clearSignal.get()) {
+      // Requests are processed by up to parallelism threads, so the clear signal is checked and the request registered
+      // as in flight under the same lock the clear takes to collect the requests it has to wait for. Otherwise a request
+      // could pass the check right before the clear snapshots the in flight requests and still write to an output the
+      // clear closes
+      boolean clearing;
+      CompletableFuture<?>[] running = null;
+      synchronized (inFlight) {
+         clearing = clearSignal.get();
+         if (!clearing) {
+            inFlight.add(stageRequest);
+         } else if (stageRequest instanceof ClearFuture) {
+            running = inFlight.toArray(new CompletableFuture[0]);
+         }
+      }
+      if (clearing) {
          // We ignore any entries since it was last cleared
-         if (stageRequest instanceof ClearFuture) {
+         if (running != null) {
             log.tracef("Compactor ignoring all future compactions until clear completes");
-
-            if (logFile != null) {
-               logFile.close();
-               logFile = null;
-               nextExpirationTime = -1;
+            synchronized (backlog) {
+               backlog.clear();
             }
 
-            nonBlockingManager.complete(stageRequest, null);
+            // Compactions running in parallel will not pick up new work, but they may still be writing to their output
+            CompletableFuture.allOf(running)
+                  .whenCompleteAsync((ignore, t) -> {
+                     try {
+                        for (CompactionOutput output : outputs) {
+                           if (output.logFile != null) {
+                              output.logFile.close();
+                              output.logFile = null;
+                              output.nextExpirationTime = -1;
+                           }
+                        }
+                        nonBlockingManager.complete(stageRequest, null);
+                     } catch (Throwable closeFailure) {
+                        stageRequest.completeExceptionally(closeFailure);
+                     }
+                  }, blockingExecutor);
          } else {
             log.tracef("Ignoring compaction request for %s as compactor is being cleared", stageRequest);
             completeFuture(stageRequest);
@@ -419,7 +541,11 @@ public void processRequest(CompletableFuture<Void> stageRequest) throws Throwabl
          return;
       }
 
-      CompactionRequest request = (CompactionRequest) stageRequest;
+      stageRequest.whenComplete((__, t) -> inFlight.remove(stageRequest));
+      CompactionRequest request = resolveRequest((CompactionRequest) stageRequest);
+      if (request == null) {
+         return;
+      }
       try {
          // Any other type submitted has to be a positive integer
          Stats stats = fileStats.get(request.fileId);
@@ -447,6 +573,34 @@ public void processRequest(CompletableFuture<Void> stageRequest) throws Throwabl
       }
    }
 
+   /**
+    * Replaces a request for the backlog with a request for the file picked from it. The original request is completed
+    * once the file has been compacted.
+    *
+    * @return the request to process or null if there is nothing to compact
+    */
+   private CompactionRequest resolveRequest(CompactionRequest request) {
+      if (request.fileId != CompactionRequest.FROM_BACKLOG) {
+         return request;
+      }
+      int file = pollBacklog();
+      if (file < 0) {
+         log.tracef("Compaction backlog is empty, ignoring %s", request);
+         completeFuture(request);
+         return null;
+      }
+      CompactionRequest fileRequest = new CompactionRequest(file);
+      fileRequest.whenComplete((__, t) -> {
+         if (t != null) {
+            log.compactorEncounteredException(t, file);
+            // Poor attempt to allow compactor to continue operating - file will never be compacted again
+            fileStats.remove(file);
+         }
+         completeFuture(request);
+      });
+      return fileRequest;
+   }
+
    /**
     * Compacts a single file into the current log file. This method has two modes of operation based on if the file
     * is a log file or not. If it is a log file non expired entries are ignored and only expired entries are "updated"
@@ -469,6 +623,20 @@ private void compactSingleFile(CompactionRequest compactionRequest,
          return;
       }
 
+      CompactionOutput output = idleOutputs.poll();
+      assert output != null : "More concurrent compactions than parallelism " + parallelism;
+      statistics.compactionStarted();
+      try {
+         compactSingleFile(compactionRequest, currentTimeMilliseconds, output);
+      } finally {
+         statistics.compactionFinished();
+         idleOutputs.add(output);
+      }
+   }
+
+   private void compactSingleFile(CompactionRequest compactionRequest, long currentTimeMilliseconds,
+         CompactionOutput output) throws IOException, ClassNotFoundException {
+      int scheduledFile = compactionRequest.fileId;
       CompactionExpirationSubscriber subscriber = compactionRequest.subscriber;
       boolean isLogFile = compactionRequest.isLogFile;
       if (subscriber == null) {
@@ -484,8 +652,11 @@ private void compactSingleFile(CompactionRequest compactionRequest,
       if (handle == null) {
          throw new IllegalStateException("Compactor should not get deleted file for compaction!");
       }
+      long compactedFileSize = 0;
+      long movedBytes = 0;
       try (handle) {
          long fileSize = handle.getFileSize();
+         compactedFileSize = fileSize;
          AggregateCompletionStage<Void> aggregateCompletionStage = CompletionStages.aggregateCompletionStage();
          EntryHeader header;
          while ((header = EntryRecord.readEntryHeader(handle, scheduledOffset)) != null) {
@@ -626,15 +797,15 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                }
                index.handleRequest(IndexRequest.dropped(segment, key, ByteBufferImpl.create(serializedKey), prevFile, prevOffset, scheduledFile, scheduledOffset));
             } else {
-               if (logFile == null || currentOffset + header.totalLength() > maxFileSize) {
-                  if (logFile != null) {
-                     logFile.close();
-                     completeFile(logFile.fileId, currentOffset, nextExpirationTime);
-                     nextExpirationTime = -1;
+               if (output.logFile == null || output.currentOffset + header.totalLength() > maxFileSize) {
+                  if (output.logFile != null) {
+                     output.logFile.close();
+                     completeFile(output.logFile.fileId, output.currentOffset, output.nextExpirationTime);
+                     output.nextExpirationTime = -1;
                   }
-                  currentOffset = 0;
-                  logFile = fileProvider.getFileForLog();
-                  log.debugf("Compacting to %d", (Object) logFile.fileId);
+                  output.currentOffset = 0;
+                  output.logFile = fileProvider.getFileForLog();
+                  log.debugf("Compacting to %d", (Object) output.logFile.fileId);
                }
 
                byte[] serializedValue = null;
@@ -650,16 +821,16 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                   if (header.internalMetadataLength() > 0) {
                      serializedInternalMetadata = EntryRecord.readInternalMetadata(handle, header, scheduledOffset);
                   }
-                  entryOffset = currentOffset;
+                  entryOffset = output.currentOffset;
                   writtenLength = header.totalLength();
                   // Update the next expiration time only for entries that are not removed
-                  nextExpirationTime = ExpiryHelper.mostRecentExpirationTime(nextExpirationTime, header.expiryTime());
+                  output.nextExpirationTime = ExpiryHelper.mostRecentExpirationTime(output.nextExpirationTime, header.expiryTime());
                } else {
-                  entryOffset = ~currentOffset;
+                  entryOffset = ~output.currentOffset;
                   writtenLength = header.getHeaderLength() + header.keyLength();
                }
-               EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, serializedKey, metadata, serializedValue, serializedInternalMetadata, header.seqId(), header.expiryTime());
-               TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(segment, key, logFile.fileId, entryOffset, scheduledFile, indexedOffset);
+               EntryRecord.writeEntry(output.logFile.fileChannel, output.buffer, serializedKey, metadata, serializedValue, serializedInternalMetadata, header.seqId(), header.expiryTime());
+               TemporaryTable.LockedEntry lockedEntry = temporaryTable.replaceOrLock(segment, key, output.logFile.fileId, entryOffset, scheduledFile, indexedOffset);
                if (lockedEntry == null) {
                   if (log.isTraceEnabled()) {
                      log.trace("Found entry in temporary table");
@@ -679,7 +850,7 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                      }
                   } finally {
                      if (update) {
-                        temporaryTable.updateAndUnlock(lockedEntry, logFile.fileId, entryOffset);
+                        temporaryTable.updateAndUnlock(lockedEntry, output.logFile.fileId, entryOffset);
                      } else {
                         temporaryTable.removeAndUnlock(lockedEntry, segment, key);
                      }
@@ -687,37 +858,41 @@ private void compactSingleFile(CompactionRequest compactionRequest,
                }
                if (log.isTraceEnabled()) {
                   log.tracef("Update %d:%d -> %d:%d | %d,%d", scheduledFile, indexedOffset,
-                        logFile.fileId, entryOffset, logFile.fileChannel.position(), logFile.fileChannel.size());
+                        output.logFile.fileId, entryOffset, output.logFile.fileChannel.position(), output.logFile.fileChannel.size());
                }
                IndexRequest indexRequest;
                ByteBuffer keyBuffer = ByteBufferImpl.create(serializedKey);
                if (isLogFile) {
                   // When it is a log file we are still keeping the original entry, we are just updating it to say
                   // it was expired
-                  indexRequest = IndexRequest.update(segment, key, keyBuffer, logFile.fileId, entryOffset, writtenLength);
+                  indexRequest = IndexRequest.update(segment, key, keyBuffer, output.logFile.fileId, entryOffset, writtenLength);
                } else {
                   // entryFile cannot be used as we have to report the file due to free space statistics
-                  indexRequest = IndexRequest.moved(segment, key, keyBuffer, logFile.fileId, entryOffset, writtenLength,
+                  indexRequest = IndexRequest.moved(segment, key, keyBuffer, output.logFile.fileId, entryOffset, writtenLength,
                         scheduledFile, indexedOffset);
                }
                aggregateCompletionStage.dependsOn(index.handleRequest(indexRequest));
 
-               currentOffset += writtenLength;
+               output.currentOffset += writtenLength;
+               movedBytes += writtenLength;
             }
             scheduledOffset += header.totalLength();
          }
          if (!clearSignal.get()) {
-            // We delay the next operation until all prior moves are done. By moving it can trigger another
-            // compaction before the index has been fully updated. Thus we block any other compaction events
-            // until all entries have been moved for this file
+            // The request only completes once the index has applied all the moves of this file, so this worker does
+            // not pick another file and a clear waits for the index updates. The other workers keep compacting other
+            // files meanwhile, even the output files of this compaction: the moved entries stay in the temporary
+            // table until the index applies them, so such a compaction still sees them as live and moves them again
             CompletionStage<Void> aggregate = aggregateCompletionStage.freeze();
             if (!CompletionStages.isCompletedSuccessfully(aggregate)) {
+               // The output may move on to another file by the time the index updates complete
+               int outputFile = output.logFile != null ? output.logFile.fileId : -1;
                log.tracef("Compactor paused, waiting for previous index updates to complete");
                // We resume after completed, Note that we must complete the {@code paused} variable inside the compactor
                // execution pipeline otherwise we can invoke compactor operations in the wrong thread
                aggregate.whenComplete((ignore, t) -> {
                   if (t != null) {
-                     log.error("There was a problem moving indexes for compactor with file " + logFile.fileId, t);
+                     log.error("There was a problem moving indexes for compactor with file " + outputFile, t);
                      compactionRequest.completeExceptionally(t);
                   } else {
                      log.tracef("Compaction ended after index was updated for %s", scheduledFile);
@@ -752,6 +927,7 @@ private void compactSingleFile(CompactionRequest compactionRequest,
             stats.markForDeletion();
          }
          index.deleteFileAsync(scheduledFile);
+         statistics.fileCompacted(compactedFileSize - movedBytes);
       }
    }
 
@@ -765,6 +941,7 @@ static class Stats {
          File cannot be scheduled for compaction until it's completed.
          */
       private volatile boolean completed = false;
+      private volatile long completedTime;
       private final AtomicBoolean scheduled = new AtomicBoolean();
       private boolean markedForDeletion = false;
 
@@ -818,10 +995,25 @@ public boolean isCompleted() {
          return completed;
       }
 
-      public void setCompleted() {
+      public void setCompleted(long completedTime) {
+         this.completedTime = completedTime;
          this.completed = true;
       }
 
+      /**
+       * Cost-benefit of compacting this file, the higher the better: {@code (1 - u) * age / (1 + u)}
+       */
+      double compactionScore(long currentTime) {
+         int total = this.total;
+         if (total <= 0) {
+            return 0;
+         }
+         double liveRatio = Math.max(0, total - free.get()) / (double) total;
+         // Age in seconds, at least one so that the live ratio still orders files completed at the same time
+         long age = Math.max(1, (currentTime - completedTime) / 1000);
+         return (1 - liveRatio) * age / (1 + liveRatio);
+      }
+
       public void markForDeletion() {
          this.markedForDeletion = true;
       }
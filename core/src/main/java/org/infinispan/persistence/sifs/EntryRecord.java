@@ -234,6 +234,33 @@ static void writeEntry(FileChannel fileChannel, ByteBuffer reusedBuffer, ByteBuf
       }
    }
 
+   /**
+    * Same as {@link #writeEntry(FileChannel, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, ByteBuffer, long, long, long, long)}
+    * but appends the record to the given buffer, which must have enough space remaining for the whole record.
+    */
+   static void writeEntry(ByteBuffer target, ByteBuffer serializedKey,
+                          ByteBuffer serializedMetadata,
+                          ByteBuffer serializedInternalMetadata,
+                          ByteBuffer serializedValue,
+                          long seqId, long expiration, long created, long lastUsed) {
+      EntryHeader.writeHeader(target, (short) serializedKey.remaining(), EntryMetadata.size(serializedMetadata),
+            serializedValue == null ? 0 : serializedValue.remaining(),
+            serializedInternalMetadata == null ? 0 : (short) serializedInternalMetadata.remaining(),
+            seqId, expiration);
+      target.put(serializedKey);
+      if (serializedMetadata != null) {
+         target.put(serializedMetadata);
+         target.putLong(created);
+         target.putLong(lastUsed);
+      }
+      if (serializedValue != null) {
+         target.put(serializedValue);
+      }
+      if (serializedInternalMetadata != null) {
+         target.put(serializedInternalMetadata);
+      }
+   }
+
    private static void writeTimestamps(FileChannel fileChannel, ByteBuffer reusedBuffer, long created, long lastUsed) throws IOException {
       assert reusedBuffer.position() == 0;
       int previousLimit = reusedBuffer.limit();
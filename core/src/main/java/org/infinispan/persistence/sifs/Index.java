@@ -5,9 +5,11 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +67,7 @@ class Index {
    private final Compactor compactor;
    private final int minNodeSize;
    private final int maxNodeSize;
+   private final boolean memoryMapped;
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
    private final Segment[] segments;
    private final TimeService timeService;
@@ -109,8 +112,8 @@ public void setOverwritten(IndexRequest request, int cacheSegment, boolean overw
    };
 
    public Index(NonBlockingManager nonBlockingManager, FileProvider fileProvider, Path indexDir, int segments,
-                int cacheSegments, int minNodeSize, int maxNodeSize, TemporaryTable temporaryTable, Compactor compactor,
-                TimeService timeService) throws IOException {
+                int cacheSegments, int minNodeSize, int maxNodeSize, boolean memoryMapped, TemporaryTable temporaryTable,
+                Compactor compactor, TimeService timeService) throws IOException {
       this.nonBlockingManager = nonBlockingManager;
       this.fileProvider = fileProvider;
       this.compactor = compactor;
@@ -118,6 +121,7 @@ public Index(NonBlockingManager nonBlockingManager, FileProvider fileProvider, P
       this.indexDir = indexDir;
       this.minNodeSize = minNodeSize;
       this.maxNodeSize = maxNodeSize;
+      this.memoryMapped = memoryMapped;
       this.sizePerSegment = new AtomicLongArray(cacheSegments);
       indexDir.toFile().mkdirs();
       this.indexSizeFile = new File(indexDir.toFile(), "index-count");
@@ -244,36 +248,36 @@ public EntryRecord getRecordEvenIfExpired(Object key, int cacheSegment, byte[] s
    }
 
    private EntryRecord getRecord(Object key, int cacheSegment, byte[] indexKey, IndexNode.ReadOperation readOperation) throws IOException {
-      int segment = (key.hashCode() & Integer.MAX_VALUE) % segments.length;
-      lock.readLock().lock();
-      try {
-         return IndexNode.applyOnLeaf(segments[segment], cacheSegment, indexKey, segments[segment].rootReadLock(), readOperation);
-      } finally {
-         lock.readLock().unlock();
-      }
+      return applyOnLeaf(key, cacheSegment, indexKey, readOperation);
    }
 
    /**
     * Get position or null if expired
     */
    public EntryPosition getPosition(Object key, int cacheSegment, org.infinispan.commons.io.ByteBuffer serializedKey) throws IOException {
-      int segment = (key.hashCode() & Integer.MAX_VALUE) % segments.length;
-      lock.readLock().lock();
-      try {
-         return IndexNode.applyOnLeaf(segments[segment], cacheSegment, toIndexKey(cacheSegment, serializedKey), segments[segment].rootReadLock(), IndexNode.ReadOperation.GET_POSITION);
-      } finally {
-         lock.readLock().unlock();
-      }
+      return applyOnLeaf(key, cacheSegment, toIndexKey(cacheSegment, serializedKey), IndexNode.ReadOperation.GET_POSITION);
    }
 
    /**
     * Get position + numRecords, without expiration
     */
    public EntryInfo getInfo(Object key, int cacheSegment, byte[] serializedKey) throws IOException {
-      int segment = (key.hashCode() & Integer.MAX_VALUE) % segments.length;
+      return applyOnLeaf(key, cacheSegment, toIndexKey(cacheSegment, serializedKey), IndexNode.ReadOperation.GET_INFO);
+   }
+
+   private <T> T applyOnLeaf(Object key, int cacheSegment, byte[] indexKey, IndexNode.ReadOperation readOperation) throws IOException {
+      Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+      if (memoryMapped) {
+         // The index lock only covers the submission of a clear, which then replaces the root of each segment, so
+         // the optimistic lookup validates the root and the nodes it walked through instead
+         IndexNode.OptimisticResult<T> result = IndexNode.applyOnLeafOptimistic(segment, cacheSegment, indexKey, readOperation);
+         if (result != null) {
+            return result.value;
+         }
+      }
       lock.readLock().lock();
       try {
-         return IndexNode.applyOnLeaf(segments[segment], cacheSegment, toIndexKey(cacheSegment, serializedKey), segments[segment].rootReadLock(), IndexNode.ReadOperation.GET_INFO);
+         return IndexNode.applyOnLeaf(segment, cacheSegment, indexKey, segment.rootReadLock(), readOperation);
       } finally {
          lock.readLock().unlock();
       }
@@ -435,12 +439,20 @@ private static void write(FileChannel indexFile, ByteBuffer buffer) throws IOExc
    }
 
    static class Segment extends CompletableFuture<Void> implements Consumer<IndexRequest>, Action {
+      private static final int REGION_SHIFT = 26;
+      private static final long REGION_SIZE = 1L << REGION_SHIFT;
+      private static final MappedByteBuffer[] NO_REGIONS = new MappedByteBuffer[0];
       final Index index;
       private final TemporaryTable temporaryTable;
       private final TreeMap<Short, List<IndexSpace>> freeBlocks = new TreeMap<>();
       private final ReadWriteLock rootLock = new ReentrantReadWriteLock();
       private final FileChannel indexFile;
       private long indexFileSize;
+      // Read-only views of indexFile, only used when the index is memory mapped. Region i starts at i * REGION_SIZE and
+      // overlaps the next one by the maximum node size, so a node is always contained in the region where it starts.
+      // Only the last region is mapped again when the file grows, and all are dropped before the file is truncated on
+      // load or reset.
+      private volatile MappedByteBuffer[] mappedRegions = NO_REGIONS;
 
       private volatile IndexNode root;
 
@@ -470,6 +482,7 @@ boolean load() throws IOException {
             indexFileSize = freeBlocksOffset;
             loaded = true;
          } else {
+            mappedRegions = NO_REGIONS;
             this.indexFile.truncate(0);
             root = IndexNode.emptyWithLeaves(this);
             loaded = false;
@@ -486,6 +499,7 @@ boolean load() throws IOException {
       }
 
       void reset() throws IOException {
+         mappedRegions = NO_REGIONS;
          this.indexFile.truncate(0);
          root = IndexNode.emptyWithLeaves(this);
          // reserve space for shutdown
@@ -507,7 +521,10 @@ public void accept(IndexRequest request) throws Throwable {
          switch (request.getType()) {
             case CLEAR:
                root = IndexNode.emptyWithLeaves(this);
-               indexFile.truncate(0);
+               // Readers may still walk the old tree through the mapping, so we must not shrink the file under them
+               if (!index.memoryMapped) {
+                  indexFile.truncate(0);
+               }
                indexFileSize = INDEX_FILE_HEADER_SIZE;
                freeBlocks.clear();
                index.nonBlockingManager.complete(request, null);
@@ -701,6 +718,10 @@ void freeIndexSpace(long offset, short length) {
             freeBlocks.computeIfAbsent(length, k -> new ArrayList<>()).add(new IndexSpace(offset, length));
          } else {
             indexFileSize -= length;
+            if (index.memoryMapped) {
+               // Accessing a mapped region past the end of the file faults, the space is reused by the next allocation
+               return;
+            }
             try {
                indexFile.truncate(indexFileSize);
             } catch (IOException e) {
@@ -709,6 +730,55 @@ void freeIndexSpace(long offset, short length) {
          }
       }
 
+      /**
+       * Returns a read-only view of the given index node when the index is memory mapped, or null if the node has to
+       * be read through the file channel.
+       */
+      ByteBuffer mappedNodeBuffer(long offset, int length) throws IOException {
+         if (!index.memoryMapped) {
+            return null;
+         }
+         int region = (int) (offset >>> REGION_SHIFT);
+         long start = (long) region << REGION_SHIFT;
+         long end = offset + length;
+         MappedByteBuffer[] regions = mappedRegions;
+         MappedByteBuffer mapped = region < regions.length ? regions[region] : null;
+         if (mapped == null || end - start > mapped.capacity()) {
+            mapped = mapRegion(region, end);
+            if (mapped == null) {
+               return null;
+            }
+         }
+         ByteBuffer buffer = mapped.duplicate();
+         buffer.limit((int) (end - start));
+         buffer.position((int) (offset - start));
+         return buffer.slice();
+      }
+
+      private synchronized MappedByteBuffer mapRegion(int region, long requiredEnd) throws IOException {
+         MappedByteBuffer[] regions = mappedRegions;
+         long start = (long) region << REGION_SHIFT;
+         MappedByteBuffer mapped = region < regions.length ? regions[region] : null;
+         if (mapped != null && requiredEnd - start <= mapped.capacity()) {
+            return mapped;
+         }
+         // Never map past the end of the file, as mapping a writable channel would extend it
+         long fileSize = indexFile.size();
+         if (requiredEnd > fileSize) {
+            return null;
+         }
+         // A complete region never changes, the replaced mapping of a partial region is released once unreachable
+         long size = Math.min(fileSize - start, REGION_SIZE + Short.MAX_VALUE);
+         mapped = indexFile.map(FileChannel.MapMode.READ_ONLY, start, size);
+         if (log.isTraceEnabled()) {
+            log.tracef("Mapped %d bytes of index file at %d", size, start);
+         }
+         regions = Arrays.copyOf(regions, Math.max(regions.length, region + 1));
+         regions[region] = mapped;
+         mappedRegions = regions;
+         return mapped;
+      }
+
       Lock rootReadLock() {
          return rootLock.readLock();
       }
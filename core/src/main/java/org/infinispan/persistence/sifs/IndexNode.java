@@ -1,6 +1,7 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.lang.invoke.VarHandle;
 import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
@@ -67,6 +68,8 @@ class IndexNode {
    private InnerNode[] innerNodes;
    private LeafNode[] leafNodes = LeafNode.EMPTY_ARRAY;
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+   // Odd while the single writer thread is modifying the node under the write lock, used by optimistic readers
+   private volatile int version;
    private long offset = -1;
    private short keyPartsLength = -1;
    private short contentLength = -1;
@@ -85,7 +88,10 @@ public enum RecordChange {
       this.offset = offset;
       this.occupiedSpace = occupiedSpace;
 
-      ByteBuffer buffer = loadBuffer(segment.getIndexFile(), offset, occupiedSpace);
+      ByteBuffer buffer = segment.mappedNodeBuffer(offset, occupiedSpace);
+      if (buffer == null) {
+         buffer = loadBuffer(segment.getIndexFile(), offset, occupiedSpace);
+      }
 
       prefix = new byte[buffer.getShort()];
       buffer.get(prefix);
@@ -171,6 +177,7 @@ public boolean equals(Object o) {
    private void replaceContent(IndexNode other) throws IOException {
       try {
          lock.writeLock().lock();
+         version++;
          this.prefix = other.prefix;
          this.keyParts = other.keyParts;
          this.innerNodes = other.innerNodes;
@@ -179,6 +186,7 @@ private void replaceContent(IndexNode other) throws IOException {
          this.keyPartsLength = -1;
          this.totalLength = -1;
       } finally {
+         version++;
          lock.writeLock().unlock();
       }
 
@@ -345,6 +353,95 @@ public static <T> T applyOnLeaf(Index.Segment segment, int cacheSegment, byte[]
       }
    }
 
+   /**
+    * Holder for the outcome of {@link #applyOnLeafOptimistic(Index.Segment, int, byte[], ReadOperation)}, as
+    * <code>null</code> is a valid result of the read operation itself.
+    */
+   static final class OptimisticResult<T> {
+      final T value;
+
+      private OptimisticResult(T value) {
+         this.value = value;
+      }
+   }
+
+   /**
+    * Same as {@link #applyOnLeaf(Index.Segment, int, byte[], Lock, ReadOperation)} but without acquiring the root or
+    * node locks. Each node is read under its version, and once the operation completes the versions of all the nodes
+    * on the path are validated again, together with the root of the segment. A child may be loaded from an offset that
+    * was freed and reused concurrently, in which case it has a fresh version of its own and only the validation of its
+    * ancestors detects the race.
+    *
+    * @return the result of the operation or <code>null</code> if the lookup raced with an update and should be retried
+    * with locks held
+    */
+   static <T> OptimisticResult<T> applyOnLeafOptimistic(Index.Segment segment, int cacheSegment, byte[] indexKey, ReadOperation operation) throws IOException {
+      IndexNode root = segment.getRoot();
+      IndexNode[] path = new IndexNode[8];
+      int[] versions = new int[8];
+      int depth = 0;
+      IndexNode node = root;
+      try {
+         for (;;) {
+            int version = node.version;
+            if ((version & 1) != 0) {
+               return null;
+            }
+            if (depth == path.length) {
+               path = Arrays.copyOf(path, depth * 2);
+               versions = Arrays.copyOf(versions, depth * 2);
+            }
+            path[depth] = node;
+            versions[depth] = version;
+            depth++;
+            byte[] prefix = node.prefix;
+            byte[][] keyParts = node.keyParts;
+            InnerNode[] innerNodes = node.innerNodes;
+            LeafNode[] leafNodes = node.leafNodes;
+            VarHandle.acquireFence();
+            if (node.version != version) {
+               return null;
+            }
+            int insertionPoint = getInsertionPoint(prefix, keyParts, indexKey);
+            if (innerNodes != null) {
+               node = innerNodes[insertionPoint].getIndexNode(segment);
+               // The child is only trusted if its parent did not change while it was loaded
+               if (node == null || !validatePath(path, versions, depth)) {
+                  return null;
+               }
+               continue;
+            }
+            T value = null;
+            if (leafNodes.length != 0) {
+               int cacheSegmentBytesSize = UnsignedNumeric.sizeUnsignedInt(cacheSegment);
+               value = operation.apply(leafNodes[insertionPoint], ByteBufferImpl.create(indexKey, cacheSegmentBytesSize, indexKey.length - cacheSegmentBytesSize),
+                     segment.getFileProvider(), segment.getTimeService());
+            }
+            // A miss is only definitive if nothing on the path changed, otherwise the key may have moved
+            if (!validatePath(path, versions, depth) || segment.getRoot() != root) {
+               return null;
+            }
+            return new OptimisticResult<>(value);
+         }
+      } catch (IndexNodeOutdatedException | RuntimeException e) {
+         // A node that was freed and reused concurrently may decode to anything, the locked path sorts it out
+         if (log.isTraceEnabled()) {
+            log.tracef(e, "Optimistic index lookup failed, retrying with locks");
+         }
+         return null;
+      }
+   }
+
+   private static boolean validatePath(IndexNode[] path, int[] versions, int depth) {
+      VarHandle.acquireFence();
+      for (int i = 0; i < depth; ++i) {
+         if (path[i].version != versions[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
    public static long calculateMaxSeqId(Index.Segment segment, Lock lock) throws IOException {
       lock.lock();
       try {
@@ -475,6 +572,7 @@ public static void setPosition(IndexNode root, IndexRequest request, OverwriteHo
          while (!garbage.isEmpty()) {
             IndexNode oldNode = garbage.pop();
             oldNode.lock.writeLock().lock();
+            oldNode.version++;
             try {
                if (oldNode.offset >= 0) {
                   oldNode.segment.freeIndexSpace(oldNode.offset, oldNode.occupiedSpace);
@@ -482,6 +580,7 @@ public static void setPosition(IndexNode root, IndexRequest request, OverwriteHo
                   oldNode.occupiedSpace = -1;
                }
             } finally {
+               oldNode.version++;
                oldNode.lock.writeLock().unlock();
             }
          }
@@ -738,9 +837,11 @@ private IndexNode copyWith(IndexRequest request, int cacheSegment, byte[] indexK
                   offset = oldLeafNode.offset;
                }
                lock.writeLock().lock();
+               version++;
                try {
                   leafNodes[insertPart] = new LeafNode(file, offset, numRecords, cacheSegment);
                } finally {
+                  version++;
                   lock.writeLock().unlock();
                }
 
@@ -847,6 +948,10 @@ private int getIterationPoint(byte[] key, int cacheSegment) {
    }
 
    private int getInsertionPoint(byte[] key) {
+      return getInsertionPoint(prefix, keyParts, key);
+   }
+
+   private static int getInsertionPoint(byte[] prefix, byte[][] keyParts, byte[] key) {
       int comp = compare(key, prefix, prefix.length);
       int insertionPoint;
       if (comp > 0) {
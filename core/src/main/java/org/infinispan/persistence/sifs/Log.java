@@ -92,4 +92,13 @@ public interface Log extends BasicLogger {
    @LogMessage(level = Logger.Level.WARN)
    @Message(value = "Compaction skipping a corrupted entry for key %s, at %s:%s|%s that doesn't have enough bytes for header %s", id = 29022)
    void compactedFileNotLongEnough(byte[] key, int file, long offset, long fileSize, EntryHeader record);
+
+   @Message(value = "Compaction parallelism (%d) should be greater than 0.", id = 29023)
+   CacheConfigurationException invalidCompactionParallelism(int value);
+
+   @Message(value = "Sync writes batch size (%d) should be greater than 0.", id = 29024)
+   CacheConfigurationException invalidSyncWritesBatchSize(int value);
+
+   @Message(value = "Sync writes maximum delay (%d) cannot be negative.", id = 29025)
+   CacheConfigurationException invalidSyncWritesMaxDelay(long value);
 }
@@ -1,28 +1,42 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.util.Util;
 import org.infinispan.container.entries.ExpiryHelper;
 import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.concurrent.NonBlockingManager;
 import org.infinispan.util.logging.LogFactory;
 
+import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.processors.FlowableProcessor;
 import io.reactivex.rxjava3.processors.UnicastProcessor;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
+/**
+ * Appends the log requests to the current log file from a single thread.
+ * <p>
+ * When sync writes are enabled the appender performs group commit: the records are gathered in a buffer and written
+ * to the file with a single write, followed by a single fsync, after which all the requests of the batch are
+ * completed. A batch is synced once it reaches the configured batch size, or, when there is no maximum delay, as soon
+ * as there are no more requests queued. With a maximum delay the batch is instead synced at the latest that long after
+ * its first request was appended, which lets more concurrent writers share the same fsync.
+ */
 public class LogAppender implements Consumer<LogAppender.WriteOperation> {
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass(), Log.class);
+   // Upper bound of the buffer gathering the records of a group commit, records that don't fit are written directly
+   private static final int MAX_WRITE_BUFFER_SIZE = 1 << 20;
 
    private final NonBlockingManager nonBlockingManager;
    private final Index index;
@@ -30,13 +44,18 @@ public class LogAppender implements Consumer<LogAppender.WriteOperation> {
    private final Compactor compactor;
    private final FileProvider fileProvider;
    private final boolean syncWrites;
+   private final int syncBatchSize;
+   private final long syncMaxDelay;
    private final int maxFileSize;
    // Used to keep track of how many log requests have been submitted. This way if the blocking thread has consumed
    // the same number of log requests it can immediately flush.
    private final AtomicInteger submittedCount = new AtomicInteger();
    // This variable is null unless sync writes are enabled. When sync writes are enabled this list holds
    // all the log requests that should be completed when the disk is ensured to be flushed
-   private final List<Consumer<LogAppender>> toSyncLogRequests;
+   private final List<LogRequest> toSyncLogRequests;
+   // This variable is null unless sync writes are enabled. Holds the records of the requests in toSyncLogRequests
+   // that were not written to the log file yet
+   private final java.nio.ByteBuffer writeBuffer;
 
    // This buffer is used by the log appender thread to avoid allocating buffers per entry written that are smaller
    // than the header size
@@ -50,6 +69,8 @@ public class LogAppender implements Consumer<LogAppender.WriteOperation> {
    private List<LogRequest> delayedLogRequests;
    private FileProvider.Log logFile;
    private long nextExpirationTime = -1;
+   private boolean syncScheduled;
+   private Scheduler writeScheduler;
 
    // This is volatile as it can be read from different threads when submitting
    private volatile FlowableProcessor<LogRequest> requestProcessor;
@@ -60,23 +81,28 @@ public class LogAppender implements Consumer<LogAppender.WriteOperation> {
 
    public LogAppender(NonBlockingManager nonBlockingManager, Index index,
                       TemporaryTable temporaryTable, Compactor compactor,
-                      FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+                      FileProvider fileProvider, boolean syncWrites, int syncBatchSize, long syncMaxDelay,
+                      int maxFileSize) {
       this.nonBlockingManager = nonBlockingManager;
       this.index = index;
       this.temporaryTable = temporaryTable;
       this.compactor = compactor;
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
+      this.syncBatchSize = syncBatchSize;
+      this.syncMaxDelay = syncMaxDelay;
       this.maxFileSize = maxFileSize;
 
       this.toSyncLogRequests = syncWrites ? new ArrayList<>() : null;
+      this.writeBuffer = syncWrites ? java.nio.ByteBuffer.allocateDirect(Math.min(maxFileSize, MAX_WRITE_BUFFER_SIZE)) : null;
    }
 
    public synchronized void start(Executor executor) {
       assert requestProcessor == null;
 
+      writeScheduler = Schedulers.from(executor);
       writeProcessor = UnicastProcessor.create();
-      writeProcessor.observeOn(Schedulers.from(executor))
+      writeProcessor.observeOn(writeScheduler)
             .subscribe(this, e -> log.warn("Exception encountered while performing write log request ", e));
 
       completionProcessor = UnicastProcessor.create();
@@ -103,6 +129,12 @@ public synchronized void start(Executor executor) {
 
    public synchronized void stop() {
       assert requestProcessor != null;
+      if (syncWrites && syncMaxDelay > 0) {
+         // Requests waiting for a delayed sync would otherwise never complete
+         LogRequest syncRequest = LogRequest.syncRequest();
+         requestProcessor.onNext(syncRequest);
+         CompletionStages.join(syncRequest);
+      }
       requestProcessor.onComplete();
       requestProcessor = null;
    }
@@ -205,7 +237,11 @@ private static <I> CompletionStage<I> cast(CompletionStage stage) {
     * @param request the log request
     */
    private void callerAccept(LogRequest request) {
-      if (request.isPause()) {
+      if (request.isSync()) {
+         // Syncs only affect requests already sent to the write processor, so they are never delayed by a pause
+         writeProcessor.onNext(WriteOperation.fromLogRequest(request));
+         return;
+      } else if (request.isPause()) {
          delayedLogRequests = new ArrayList<>();
          // This request is created in the same thread - so there can be no dependents
          request.complete(null);
@@ -240,6 +276,12 @@ private void sendToWriteProcessor(LogRequest request) {
    @Override
    public void accept(WriteOperation writeOperation) {
       LogRequest actualRequest = writeOperation.logRequest;
+      if (actualRequest.isSync()) {
+         syncScheduled = false;
+         syncPendingLogRequests();
+         completeRequest(actualRequest);
+         return;
+      }
       try {
          if (logFile == null) {
             logFile = fileProvider.getFileForLog();
@@ -247,8 +289,11 @@ public void accept(WriteOperation writeOperation) {
          }
 
          if (actualRequest.isClear()) {
-            logFile.close();
-            completePendingLogRequests();
+            syncPendingLogRequests();
+            // A failed sync may have dropped the log file
+            if (logFile != null) {
+               logFile.close();
+            }
             nextExpirationTime = -1;
             currentOffset = 0;
             logFile = null;
@@ -258,61 +303,178 @@ public void accept(WriteOperation writeOperation) {
          int actualLength = actualRequest.length();
          if (currentOffset != 0 && currentOffset + actualLength > maxFileSize) {
             // switch to next file
-            logFile.close();
-            completePendingLogRequests();
-
-            final int fileId = logFile.fileId;
-            final int offset = currentOffset;
-            final long exp = nextExpirationTime;
-            // Have to schedule the compaction after all other log appender operations are complete and register their
-            // index updates. Then we can do a sync index call to ensure the compactor is ran after all updates are done
-            completionProcessor.onNext(la -> la.index.ensureRunOnLast(() -> compactor.completeFile(fileId, offset, exp)));
-
-            logFile = fileProvider.getFileForLog();
-            nextExpirationTime = -1;
-            currentOffset = 0;
-            log.tracef("Appending records to %s", logFile.fileId);
+            syncPendingLogRequests();
+            if (logFile == null) {
+               // A failed sync dropped the log file
+               logFile = fileProvider.getFileForLog();
+               log.tracef("Appending records to %s", logFile.fileId);
+            } else if (currentOffset != 0) {
+               switchToNextFile();
+            }
          }
          long seqId = nextSeqId();
          log.tracef("Appending record to %s:%s", logFile.fileId, currentOffset);
          nextExpirationTime = ExpiryHelper.mostRecentExpirationTime(nextExpirationTime, actualRequest.getExpiration());
-         EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, writeOperation.serializedKey,
-               writeOperation.serializedMetadata, writeOperation.serializedInternalMetadata,
-               writeOperation.serializedValue, seqId, actualRequest.getExpiration(), actualRequest.getCreated(),
-               actualRequest.getLastUsed());
-         actualRequest.setFile(logFile.fileId);
-         actualRequest.setFileOffset(currentOffset);
-
          if (!syncWrites) {
+            EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, writeOperation.serializedKey,
+                  writeOperation.serializedMetadata, writeOperation.serializedInternalMetadata,
+                  writeOperation.serializedValue, seqId, actualRequest.getExpiration(), actualRequest.getCreated(),
+                  actualRequest.getLastUsed());
+            actualRequest.setFile(logFile.fileId);
+            actualRequest.setFileOffset(currentOffset);
+            currentOffset += actualLength;
             completionProcessor.onNext(writeOperation);
          } else {
+            appendToBatch(writeOperation, seqId, actualLength);
+            actualRequest.setFile(logFile.fileId);
+            actualRequest.setFileOffset(currentOffset);
+            // Advance before syncing, a failed sync rewinds the offset to the first pending record
+            currentOffset += actualLength;
             // This cannot be null when sync writes is true
-            toSyncLogRequests.add(la -> la.handleRequestCompletion(actualRequest));
-            if (submittedCount.get() == ++receivedCount || toSyncLogRequests.size() == 1000) {
-               logFile.fileChannel.force(false);
-               completePendingLogRequests();
+            toSyncLogRequests.add(actualRequest);
+            ++receivedCount;
+            if (toSyncLogRequests.size() >= syncBatchSize) {
+               syncPendingLogRequests();
+            } else if (syncMaxDelay > 0) {
+               scheduleSync();
+            } else if (submittedCount.get() == receivedCount) {
+               syncPendingLogRequests();
             }
          }
-         currentOffset += actualLength;
       } catch (Exception e) {
          log.debugf("Exception encountered while processing log request %s", actualRequest);
          actualRequest.completeExceptionally(e);
+         if (syncWrites && e instanceof IOException && !actualRequest.isClear()) {
+            // The records batched so far may have been partially written to the log file
+            failPendingLogRequests((IOException) e);
+         }
       }
    }
 
+   /**
+    * Completes the current log file so that it can be compacted and starts appending to a new one. Must only be
+    * invoked by {@link #accept(WriteOperation)} method.
+    */
+   private void switchToNextFile() throws IOException {
+      final int fileId = logFile.fileId;
+      final int offset = currentOffset;
+      final long exp = nextExpirationTime;
+      FileProvider.Log completedFile = logFile;
+      logFile = null;
+      nextExpirationTime = -1;
+      currentOffset = 0;
+      completedFile.close();
+      // Have to schedule the compaction after all other log appender operations are complete and register their
+      // index updates. Then we can do a sync index call to ensure the compactor is ran after all updates are done
+      completionProcessor.onNext(la -> la.index.ensureRunOnLast(() -> compactor.completeFile(fileId, offset, exp)));
+
+      logFile = fileProvider.getFileForLog();
+      log.tracef("Appending records to %s", logFile.fileId);
+   }
+
    public void complete(Consumer<LogAppender> consumer) throws Throwable {
       consumer.accept(this);
    }
 
    /**
-    * Must only be invoked by {@link #accept(WriteOperation)} method.
+    * Adds the record of the given operation to the current batch. The records gathered so far are written to the log
+    * file first if there isn't enough space left in the buffer, and a record larger than the whole buffer is written
+    * directly. Must only be invoked by {@link #accept(WriteOperation)} method.
     */
-   private void completePendingLogRequests() {
-      if (toSyncLogRequests != null) {
-         for (Iterator<Consumer<LogAppender>> iter = toSyncLogRequests.iterator(); iter.hasNext(); ) {
-            Consumer<LogAppender> consumer = iter.next();
-            iter.remove();
-            completionProcessor.onNext(consumer);
+   private void appendToBatch(WriteOperation writeOperation, long seqId, int length) throws IOException {
+      LogRequest request = writeOperation.logRequest;
+      if (length > writeBuffer.remaining()) {
+         flushWriteBuffer();
+      }
+      if (length > writeBuffer.remaining()) {
+         EntryRecord.writeEntry(logFile.fileChannel, REUSED_BUFFER, writeOperation.serializedKey,
+               writeOperation.serializedMetadata, writeOperation.serializedInternalMetadata,
+               writeOperation.serializedValue, seqId, request.getExpiration(), request.getCreated(),
+               request.getLastUsed());
+      } else {
+         EntryRecord.writeEntry(writeBuffer, writeOperation.serializedKey, writeOperation.serializedMetadata,
+               writeOperation.serializedInternalMetadata, writeOperation.serializedValue, seqId,
+               request.getExpiration(), request.getCreated(), request.getLastUsed());
+      }
+   }
+
+   private void flushWriteBuffer() throws IOException {
+      writeBuffer.flip();
+      while (writeBuffer.hasRemaining()) {
+         logFile.fileChannel.write(writeBuffer);
+      }
+      writeBuffer.clear();
+   }
+
+   /**
+    * Sends a sync request once the maximum delay elapses, unless one is already pending. Must only be invoked by
+    * {@link #accept(WriteOperation)} method.
+    */
+   private void scheduleSync() {
+      if (syncScheduled) {
+         return;
+      }
+      syncScheduled = true;
+      writeScheduler.scheduleDirect(() -> {
+         FlowableProcessor<LogRequest> processor = requestProcessor;
+         if (processor != null) {
+            processor.onNext(LogRequest.syncRequest());
+         }
+      }, syncMaxDelay, TimeUnit.MICROSECONDS);
+   }
+
+   /**
+    * Writes the pending records, forces them to disk and then completes their requests. If the data cannot be
+    * written or forced all the pending requests are failed with {@link #failPendingLogRequests(IOException)}. Must
+    * only be invoked by {@link #accept(WriteOperation)} method.
+    */
+   private void syncPendingLogRequests() {
+      if (toSyncLogRequests == null || toSyncLogRequests.isEmpty()) {
+         return;
+      }
+      try {
+         flushWriteBuffer();
+         logFile.fileChannel.force(false);
+      } catch (IOException e) {
+         log.debugf(e, "Exception encountered while syncing %d log requests", toSyncLogRequests.size());
+         failPendingLogRequests(e);
+         return;
+      }
+      for (LogRequest request : toSyncLogRequests) {
+         completionProcessor.onNext(la -> la.handleRequestCompletion(request));
+      }
+      toSyncLogRequests.clear();
+   }
+
+   /**
+    * Completes the pending requests exceptionally and discards their records. The log file is truncated back to the
+    * end of the last durable record, so that the records appended next are not preceded by partially written ones. If
+    * the log file cannot be truncated it is completed at that offset and the next records go to a new log file. Must
+    * only be invoked by {@link #accept(WriteOperation)} method.
+    */
+   private void failPendingLogRequests(IOException e) {
+      writeBuffer.clear();
+      if (!toSyncLogRequests.isEmpty()) {
+         currentOffset = toSyncLogRequests.get(0).getFileOffset();
+         for (LogRequest request : toSyncLogRequests) {
+            nonBlockingManager.completeExceptionally(request, e);
+         }
+         toSyncLogRequests.clear();
+      }
+      if (logFile == null) {
+         return;
+      }
+      try {
+         logFile.fileChannel.truncate(currentOffset);
+         logFile.fileChannel.position(currentOffset);
+      } catch (IOException truncateFailure) {
+         log.debugf(truncateFailure, "Unable to truncate log file %d to %d, switching to a new log file",
+               logFile.fileId, currentOffset);
+         try {
+            switchToNextFile();
+         } catch (IOException switchFailure) {
+            // The next request opens a new log file
+            log.debugf(switchFailure, "Unable to switch to a new log file");
          }
       }
    }
@@ -18,7 +18,8 @@ enum Type {
       DELETE,
       CLEAR_ALL,
       PAUSE,
-      RESUME
+      RESUME,
+      SYNC
    }
 
    private final Type type;
@@ -74,6 +75,10 @@ public static LogRequest resumeRequest() {
       return new LogRequest(Type.RESUME);
    }
 
+   public static LogRequest syncRequest() {
+      return new LogRequest(Type.SYNC);
+   }
+
    public int length() {
       return EntryHeader.HEADER_SIZE_11_0 + serializedKey.getLength()
             + (serializedValue != null ? serializedValue.getLength() : 0)
@@ -129,6 +134,10 @@ public boolean isResume() {
       return type == Type.RESUME;
    }
 
+   public boolean isSync() {
+      return type == Type.SYNC;
+   }
+
    public void setIndexRequest(IndexRequest indexRequest) {
       this.indexRequest = indexRequest;
    }
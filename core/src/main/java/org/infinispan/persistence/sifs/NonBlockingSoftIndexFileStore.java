@@ -38,6 +38,7 @@
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.PrivateMetadata;
+import org.infinispan.persistence.internal.StoreStatisticsRegistration;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
 import org.infinispan.persistence.spi.InitializationContext;
@@ -145,6 +146,7 @@
    private LogAppender logAppender;
    private Index index;
    private Compactor compactor;
+   private StoreStatisticsRegistration compactionStatistics;
    private Marshaller marshaller;
    private ByteBufferFactory byteBufferFactory;
    private MarshallableEntryFactory<K, V> marshallableEntryFactory;
@@ -197,17 +199,19 @@ public CompletionStage<Void> start(InitializationContext ctx) {
             configuration.maxFileSize());
       compactor = new Compactor(ctx.getNonBlockingManager(), fileProvider, temporaryTable, marshaller, timeService,
             keyPartitioner, configuration.maxFileSize(), configuration.compactionThreshold(),
-            blockingManager.asExecutor("sifs-compactor"));
+            configuration.compactionParallelism(), blockingManager.asExecutor("sifs-compactor"));
+      compactionStatistics = StoreStatisticsRegistration.register(ctx, compactor.getStatistics());
       try {
          index = new Index(ctx.getNonBlockingManager(), fileProvider, getIndexLocation(), configuration.indexSegments(),
-               cacheSegments, configuration.minNodeSize(), configuration.maxNodeSize(), temporaryTable, compactor,
-               timeService);
+               cacheSegments, configuration.minNodeSize(), configuration.maxNodeSize(),
+               configuration.indexMemoryMapped(), temporaryTable, compactor, timeService);
       } catch (IOException e) {
          throw log.cannotOpenIndex(configuration.indexLocation(), e);
       }
       compactor.setIndex(index);
       logAppender = new LogAppender(ctx.getNonBlockingManager(), index, temporaryTable, compactor, fileProvider,
-            configuration.syncWrites(), configuration.maxFileSize());
+            configuration.syncWrites(), configuration.syncWritesBatchSize(), configuration.syncWritesMaxDelay(),
+            configuration.maxFileSize());
       logAppender.start(blockingManager.asExecutor("sifs-log-processor"));
       startIndex();
       final AtomicLong maxSeqId = new AtomicLong(0);
@@ -455,6 +459,8 @@ public CompletionStage<Void> stop() {
          try {
             logAppender.stop();
             compactor.stopOperations();
+            compactionStatistics.unregister();
+            compactionStatistics = null;
             compactor = null;
             CompletionStages.join(index.stop());
             index = null;
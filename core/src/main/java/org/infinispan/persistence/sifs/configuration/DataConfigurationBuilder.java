@@ -3,12 +3,17 @@
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.DATA_LOCATION;
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.MAX_FILE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.SYNC_WRITES;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.SYNC_WRITES_BATCH_SIZE;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.SYNC_WRITES_MAX_DELAY;
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.Combine;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.persistence.sifs.Log;
+import org.infinispan.util.logging.LogFactory;
 
 public class DataConfigurationBuilder implements Builder<DataConfiguration> {
+   private static final Log log = LogFactory.getLog(DataConfigurationBuilder.class, Log.class);
 
    private final AttributeSet attributes;
 
@@ -35,6 +40,28 @@ public DataConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   public DataConfigurationBuilder syncWritesBatchSize(int syncWritesBatchSize) {
+      attributes.attribute(SYNC_WRITES_BATCH_SIZE).set(syncWritesBatchSize);
+      return this;
+   }
+
+   public DataConfigurationBuilder syncWritesMaxDelay(long syncWritesMaxDelay) {
+      attributes.attribute(SYNC_WRITES_MAX_DELAY).set(syncWritesMaxDelay);
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      int syncWritesBatchSize = attributes.attribute(SYNC_WRITES_BATCH_SIZE).get();
+      if (syncWritesBatchSize <= 0) {
+         throw log.invalidSyncWritesBatchSize(syncWritesBatchSize);
+      }
+      long syncWritesMaxDelay = attributes.attribute(SYNC_WRITES_MAX_DELAY).get();
+      if (syncWritesMaxDelay < 0) {
+         throw log.invalidSyncWritesMaxDelay(syncWritesMaxDelay);
+      }
+   }
+
    @Override
    public DataConfiguration create() {
       return new DataConfiguration(attributes.protect());
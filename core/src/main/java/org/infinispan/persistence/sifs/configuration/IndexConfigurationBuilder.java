@@ -4,6 +4,7 @@
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.INDEX_QUEUE_LENGTH;
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.INDEX_SEGMENTS;
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.MAX_NODE_SIZE;
+import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.MEMORY_MAPPED;
 import static org.infinispan.persistence.sifs.configuration.IndexConfiguration.MIN_NODE_SIZE;
 
 import org.infinispan.commons.configuration.Builder;
@@ -55,6 +56,11 @@ public IndexConfigurationBuilder indexQueueLength(int indexQueueLength) {
       return this;
    }
 
+   public IndexConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      attributes.attribute(MEMORY_MAPPED).set(memoryMapped);
+      return this;
+   }
+
    @Override
    public IndexConfiguration create() {
       return new IndexConfiguration(attributes.protect());
@@ -19,11 +19,12 @@ public class SoftIndexFileStoreConfiguration extends AbstractStoreConfiguration<
 
    public static final AttributeDefinition<Integer> OPEN_FILES_LIMIT = AttributeDefinition.builder(Attribute.OPEN_FILES_LIMIT, 1000).immutable().build();
    public static final AttributeDefinition<Double> COMPACTION_THRESHOLD = AttributeDefinition.builder(Attribute.COMPACTION_THRESHOLD, 0.5d).immutable().build();
+   public static final AttributeDefinition<Integer> COMPACTION_PARALLELISM = AttributeDefinition.builder(Attribute.COMPACTION_PARALLELISM, 1).immutable().build();
    private final IndexConfiguration index;
    private final DataConfiguration data;
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), OPEN_FILES_LIMIT, COMPACTION_THRESHOLD);
+      return new AttributeSet(SoftIndexFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), OPEN_FILES_LIMIT, COMPACTION_THRESHOLD, COMPACTION_PARALLELISM);
    }
 
    public SoftIndexFileStoreConfiguration(AttributeSet attributes,
@@ -63,10 +64,22 @@ public int indexQueueLength() {
       return index.indexQueueLength();
    }
 
+   public boolean indexMemoryMapped() {
+      return index.memoryMapped();
+   }
+
    public boolean syncWrites() {
       return data.syncWrites();
    }
 
+   public int syncWritesBatchSize() {
+      return data.syncWritesBatchSize();
+   }
+
+   public long syncWritesMaxDelay() {
+      return data.syncWritesMaxDelay();
+   }
+
    public int openFilesLimit() {
       return attributes.attribute(OPEN_FILES_LIMIT).get();
    }
@@ -75,6 +88,10 @@ public double compactionThreshold() {
       return attributes.attribute(COMPACTION_THRESHOLD).get();
    }
 
+   public int compactionParallelism() {
+      return attributes.attribute(COMPACTION_PARALLELISM).get();
+   }
+
    public IndexConfiguration index() {
       return index;
    }
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.configuration.cache.AbstractStoreConfiguration.SEGMENTED;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_PARALLELISM;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
 
@@ -111,6 +112,18 @@ public SoftIndexFileStoreConfigurationBuilder indexQueueLength ( int indexQueueL
          return this;
       }
 
+      /**
+       * Sets whether index lookups should read the index segment files through a read-only memory mapping instead of
+       * file channel reads. Readers then traverse the index optimistically and only fall back to locking when they
+       * race with a concurrent update of the node they are reading.
+       *
+       * Defaults to <code>false</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder indexMemoryMapped ( boolean memoryMapped){
+         index.memoryMapped(memoryMapped);
+         return this;
+      }
+
       /**
        * Sets whether writes shoud wait to be fsynced to disk.
        *
@@ -121,6 +134,29 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites ( boolean syncWrites){
          return this;
       }
 
+      /**
+       * Sets the maximum number of writes that are made durable by a single fsync when {@link #syncWrites(boolean)}
+       * is enabled.
+       *
+       * Defaults to <code>1000</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder syncWritesBatchSize ( int syncWritesBatchSize){
+         data.syncWritesBatchSize(syncWritesBatchSize);
+         return this;
+      }
+
+      /**
+       * Sets the maximum time, in microseconds, a write waits for other writes to share its fsync when
+       * {@link #syncWrites(boolean)} is enabled. With the default of <code>0</code> the data is synced as soon as no
+       * more writes are queued, so that only writes arriving while a previous fsync is in progress are grouped.
+       *
+       * Defaults to <code>0</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder syncWritesMaxDelay ( long syncWritesMaxDelay){
+         data.syncWritesMaxDelay(syncWritesMaxDelay);
+         return this;
+      }
+
       /**
        * Sets the maximum number of open files.
        *
@@ -141,6 +177,17 @@ public SoftIndexFileStoreConfigurationBuilder compactionThreshold ( double compa
          return this;
       }
 
+      /**
+       * Sets the maximum number of data files that are compacted at the same time. When several files are eligible,
+       * the ones with the least live data and the longest time since they were completed are compacted first.
+       *
+       * Defaults to <code>1</code>.
+       */
+      public SoftIndexFileStoreConfigurationBuilder compactionParallelism ( int compactionParallelism){
+         attributes.attribute(COMPACTION_PARALLELISM).set(compactionParallelism);
+         return this;
+      }
+
       @Override
       public SoftIndexFileStoreConfiguration create () {
          return new SoftIndexFileStoreConfiguration(attributes.protect(), async.create(), index.create(), data.create());
@@ -167,10 +214,15 @@ protected void validate ( boolean skipClassChecks){
          }
          super.validate(skipClassChecks);
          index.validate();
+         data.validate();
          double compactionThreshold = attributes.attribute(COMPACTION_THRESHOLD).get();
          if (compactionThreshold <= 0 || compactionThreshold > 1) {
             throw log.invalidCompactionThreshold(compactionThreshold);
          }
+         int compactionParallelism = attributes.attribute(COMPACTION_PARALLELISM).get();
+         if (compactionParallelism <= 0) {
+            throw log.invalidCompactionParallelism(compactionParallelism);
+         }
       }
 
       @Override
@@ -2375,4 +2375,10 @@ CacheConfigurationException storeConfiguredHasBothReadAndWriteOnly(String storeC
    @LogMessage(level = WARN)
    @Message(value = "Failed to register metrics with id %s. Reason: %s", id = 970)
    void metricRegistrationFailed(String id, String reason);
+
+   @Message(value = "SingleFileStore does not support max-entries with a memory-mapped index", id = 971)
+   CacheConfigurationException memoryMappedIndexSingleFileStoreDoesNotSupportMaxEntries();
+
+   @Message(value = "The write-behind flush-parallelism must be at least 1, was %d", id = 972)
+   CacheConfigurationException invalidAsyncStoreFlushParallelism(int flushParallelism);
 }
@@ -0,0 +1,52 @@
+package org.infinispan.container.impl;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the entries evicted from a bounded container are removed from the {@link ExpirationIndex}, so the index
+ * doesn't keep the keys of the entries that are no longer in memory.
+ */
+@Test(groups = "functional", testName = "container.impl.BoundedExpirationIndexTest")
+public class BoundedExpirationIndexTest extends SingleCacheManagerTest {
+   private static final int MAX_COUNT = 10;
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
+      cfg.memory().maxCount(MAX_COUNT);
+      cfg.expiration().wakeUpInterval(1, TimeUnit.MINUTES);
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   public void testEvictedEntriesRemovedFromIndex() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("key-" + i, "value-" + i, 1, TimeUnit.HOURS);
+      }
+      InternalDataContainer<Object, Object> container = TestingUtil.extractComponent(cache, InternalDataContainer.class);
+      ExpirationIndex<Object> index = TestingUtil.extractField(AbstractInternalDataContainer.class, container,
+            "expirationIndex");
+      eventuallyEquals(MAX_COUNT, container::sizeIncludingExpired);
+
+      List<Object> indexed = new ArrayList<>();
+      long farFuture = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+      for (int partition = 0; partition < index.partitions(); partition++) {
+         index.drain(partition, farFuture, indexed);
+      }
+      assertTrue("Too many keys in the index: " + indexed, indexed.size() <= MAX_COUNT);
+      for (Object key : indexed) {
+         assertTrue("Evicted key still in the index: " + key, container.containsKey(key));
+      }
+   }
+}
@@ -0,0 +1,96 @@
+package org.infinispan.container.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the {@link ExpirationIndex} only drains the keys that are due, across the levels of the timing wheel.
+ */
+@Test(groups = "unit", testName = "container.impl.ExpirationIndexTest")
+public class ExpirationIndexTest extends AbstractInfinispanTest {
+   private static final long START = 1_700_000_000_123L;
+
+   public void testDrainDueKeys() {
+      ExpirationIndex<String> index = new ExpirationIndex<>(1, () -> START);
+      index.schedule(0, "ms", START + 10);
+      index.schedule(0, "seconds", START + TimeUnit.SECONDS.toMillis(90));
+      index.schedule(0, "hours", START + TimeUnit.HOURS.toMillis(5));
+      index.schedule(0, "days", START + TimeUnit.DAYS.toMillis(40));
+      index.schedule(0, "years", START + TimeUnit.DAYS.toMillis(365 * 50));
+
+      assertEquals(List.of(), drain(index, 0, START + 9));
+      assertEquals(List.of("ms"), drain(index, 0, START + 10));
+      assertEquals(List.of(), drain(index, 0, START + TimeUnit.SECONDS.toMillis(89)));
+      assertEquals(List.of("seconds"), drain(index, 0, START + TimeUnit.MINUTES.toMillis(2)));
+      assertEquals(List.of("hours"), drain(index, 0, START + TimeUnit.DAYS.toMillis(1)));
+      assertEquals(List.of(), drain(index, 0, START + TimeUnit.DAYS.toMillis(40) - 1));
+      assertEquals(List.of("days"), drain(index, 0, START + TimeUnit.DAYS.toMillis(40)));
+      assertEquals(List.of("years"), drain(index, 0, START + TimeUnit.DAYS.toMillis(365 * 50)));
+      assertEquals(List.of(), drain(index, 0, START + TimeUnit.DAYS.toMillis(365 * 60)));
+   }
+
+   public void testRescheduleAndRemove() {
+      ExpirationIndex<String> index = new ExpirationIndex<>(1, () -> START);
+      index.schedule(0, "k1", START + 1_000);
+      index.schedule(0, "k2", START + 1_000);
+      index.schedule(0, "k3", START + 1_000);
+      // The last expiration time replaces the previous one
+      index.schedule(0, "k1", START + 100_000);
+      index.schedule(0, "k2", START + 500);
+      index.remove(0, "k3");
+
+      assertEquals(List.of("k2"), drain(index, 0, START + 1_000));
+      assertEquals(List.of(), drain(index, 0, START + 99_999));
+      assertEquals(List.of("k1"), drain(index, 0, START + 100_000));
+   }
+
+   public void testPastExpirationTime() {
+      ExpirationIndex<String> index = new ExpirationIndex<>(1, () -> START);
+      index.schedule(0, "past", START - TimeUnit.HOURS.toMillis(1));
+      assertEquals(List.of("past"), drain(index, 0, START));
+   }
+
+   public void testPartitions() {
+      ExpirationIndex<Integer> index = new ExpirationIndex<>(4, () -> START);
+      for (int i = 0; i < 100; i++) {
+         index.schedule(i % 4, i, START + i * 1_000L);
+      }
+      index.clear(3);
+
+      List<Integer> due = drain(index, 1, START + 50_000);
+      assertEquals(13, due.size());
+      assertTrue(due.stream().allMatch(i -> i % 4 == 1 && i <= 50));
+      assertEquals(0, drain(index, 3, START + 200_000).size());
+      assertEquals(25, drain(index, 0, START + 200_000).size());
+   }
+
+   public void testManyKeysAcrossTicks() {
+      ExpirationIndex<Integer> index = new ExpirationIndex<>(1, () -> START);
+      int keys = 10_000;
+      for (int i = 0; i < keys; i++) {
+         index.schedule(0, i, START + i * 997L);
+      }
+      int drained = 0;
+      for (long time = START; drained < keys; time += TimeUnit.MINUTES.toMillis(7)) {
+         for (int key : drain(index, 0, time)) {
+            assertTrue(START + key * 997L <= time);
+            assertTrue(START + key * 997L > time - TimeUnit.MINUTES.toMillis(7));
+            drained++;
+         }
+      }
+      assertEquals(keys, drained);
+   }
+
+   private static <K> List<K> drain(ExpirationIndex<K> index, int partition, long time) {
+      List<K> due = new ArrayList<>();
+      index.drain(partition, time, due);
+      return due;
+   }
+}
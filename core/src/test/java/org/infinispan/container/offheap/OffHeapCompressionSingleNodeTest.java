@@ -0,0 +1,74 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.cache.ValueCompressionType;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the {@link OffHeapSingleNodeTest} with the values compressed, with a threshold low enough to compress most of
+ * the values of the tests.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapCompressionSingleNodeTest")
+public class OffHeapCompressionSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
+      dcc.memory().storage(StorageType.OFF_HEAP).compression(ValueCompressionType.DEFLATE).compressionThreshold(8);
+      // Only start up the 1 cache
+      addClusterEnabledCacheManager(dcc);
+
+      configureTimeService();
+   }
+
+   public void testCompressedValues() {
+      Cache<String, String> cache = cache(0);
+      OffHeapMemoryAllocator allocator = TestingUtil.extractComponent(cache, OffHeapMemoryAllocator.class);
+      String value = "compressible".repeat(1_000);
+
+      long before = allocator.getAllocatedAmount();
+      cache.put("compressed", value);
+      assertTrue(allocator.getAllocatedAmount() - before < value.length() / 10);
+      assertEquals(value, cache.get("compressed"));
+
+      // Random bytes do not get smaller, so they are stored as they are
+      byte[] random = new byte[1_000];
+      new Random(0).nextBytes(random);
+      Cache<String, byte[]> bytesCache = cache(0);
+      bytesCache.put("random", random);
+      assertTrue(Arrays.equals(random, bytesCache.get("random")));
+
+      cache.put("tiny", "v");
+      assertEquals("v", cache.get("tiny"));
+   }
+
+   public void testValueCompressedOnceForSizeAndWrite() {
+      ValueCompressor compressor = new ValueCompressor(8);
+      byte[] value = "compressible".repeat(100).getBytes(StandardCharsets.UTF_8);
+      byte[] other = "other value".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+      byte[] forSize = compressor.compressForSize(value, 0, value.length);
+      assertNotNull(forSize);
+      // The size of the previous value is calculated between the size and the write of the new value
+      compressor.compressForSize(other, 0, other.length);
+      assertSame(forSize, compressor.compress(value, 0, value.length));
+      // The write forgets the value, writing it again compresses it again
+      byte[] again = compressor.compress(value, 0, value.length);
+      assertNotSame(forSize, again);
+      assertTrue(Arrays.equals(forSize, again));
+   }
+}
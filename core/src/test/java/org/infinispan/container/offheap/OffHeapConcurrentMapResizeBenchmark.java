@@ -0,0 +1,91 @@
+package org.infinispan.container.offheap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Samples the latency of {@link OffHeapConcurrentMap#put} while the map grows from its initial size, so that the
+ * percentiles show the pauses caused by resizing the memory lookup.
+ * <p>
+ * Every iteration starts from an empty map and inserts keys out of {@code numKeys}, the map resizes repeatedly until
+ * it holds all of them. Run with {@code -Dkeys=1000000} to restrict the key counts.
+ */
+public class OffHeapConcurrentMapResizeBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+
+   public static void main(String[] args) throws Exception {
+      OptionsBuilder builder = new OptionsBuilder();
+      builder.include(OffHeapConcurrentMapResizeBenchmark.class.getName() + ".State.*")
+            .mode(Mode.SampleTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .threads(Runtime.getRuntime().availableProcessors())
+            .forks(1)
+            .shouldFailOnError(true);
+      String keys = System.getProperty("keys");
+      if (keys != null) {
+         builder.param("numKeys", keys.split(","));
+      }
+      Options opt = builder.build();
+
+      new Runner(opt).run();
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State {
+      @Param({"1000000", "10000000"})
+      int numKeys;
+
+      private final WrappedByteArray value = new WrappedByteArray(new byte[64]);
+      private OffHeapConcurrentMap map;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         OffHeapMemoryAllocator allocator = new UnpooledOffHeapMemoryAllocator();
+         OffHeapEntryFactoryImpl offHeapEntryFactory = new OffHeapEntryFactoryImpl();
+         offHeapEntryFactory.allocator = allocator;
+         offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
+         offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
+         offHeapEntryFactory.start();
+
+         map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null);
+      }
+
+      @Setup(Level.Iteration)
+      public void clear() {
+         // Shrinks the memory lookup back to its initial size, so every iteration goes through all the resizes
+         map.clear();
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         map.close();
+      }
+
+      @Benchmark
+      public InternalCacheEntry<?, ?> put() {
+         int i = ThreadLocalRandom.current().nextInt(numKeys);
+         WrappedByteArray key = new WrappedByteArray(new byte[] {(byte) (i >>> 24), (byte) (i >>> 16), (byte) (i >>> 8), (byte) i});
+         return map.put(key, new ImmortalCacheEntry(key, value));
+      }
+   }
+}
@@ -4,10 +4,16 @@
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
@@ -132,6 +138,42 @@ public void testIterationCreatedButNotUsedUntilAfterAResize() {
       assertEquals(RESIZE_LIMITATION, entriesFound);
    }
 
+   public void testConcurrentPutsDuringResizes() throws Exception {
+      int threads = 8;
+      int keysPerThread = RESIZE_LIMITATION * 64;
+      List<Set<WrappedBytes>> insertedKeys = new ArrayList<>();
+      List<Future<?>> futures = new ArrayList<>();
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+         for (int i = 0; i < threads; ++i) {
+            Set<WrappedBytes> keys = new HashSet<>();
+            insertedKeys.add(keys);
+            futures.add(executor.submit(() -> {
+               for (int j = 0; j < keysPerThread; ++j) {
+                  keys.add(putInMap(map, valueByteArray));
+               }
+            }));
+         }
+         for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+
+      assertEquals(threads * keysPerThread, map.size());
+      for (Set<WrappedBytes> keys : insertedKeys) {
+         for (WrappedBytes key : keys) {
+            assertNotNull(map.get(key));
+         }
+      }
+      int entriesFound = 0;
+      for (InternalCacheEntry<WrappedBytes, WrappedBytes> ignored : map.values()) {
+         entriesFound++;
+      }
+      assertEquals(threads * keysPerThread, entriesFound);
+   }
+
    WrappedBytes putInMap(OffHeapConcurrentMap map, WrappedBytes value) {
       InternalCacheEntry<WrappedBytes, WrappedBytes> ice;
       WrappedBytes key;
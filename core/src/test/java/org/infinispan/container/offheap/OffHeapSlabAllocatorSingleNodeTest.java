@@ -0,0 +1,36 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the {@link OffHeapSingleNodeTest} with entries allocated by the {@link SlabOffHeapMemoryAllocator}.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapSlabAllocatorSingleNodeTest")
+public class OffHeapSlabAllocatorSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
+      dcc.memory().storage(StorageType.OFF_HEAP).offHeapAllocator(OffHeapAllocatorType.SLAB);
+      // Only start up the 1 cache
+      addClusterEnabledCacheManager(dcc);
+
+      configureTimeService();
+   }
+
+   public void testSlabAllocatorInUse() {
+      Cache<String, String> cache = cache(0);
+      cache.put("key", "value");
+      OffHeapMemoryAllocator allocator = TestingUtil.extractComponent(cache, OffHeapMemoryAllocator.class);
+      assertTrue(allocator instanceof SlabOffHeapMemoryAllocator);
+      assertTrue(((SlabOffHeapMemoryAllocator) allocator).getSlabCount() > 0);
+   }
+}
@@ -0,0 +1,170 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@Test(groups = "functional", testName = "container.offheap.SlabOffHeapMemoryAllocatorTest")
+public class SlabOffHeapMemoryAllocatorTest extends AbstractInfinispanTest {
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+
+   private SlabOffHeapMemoryAllocator allocator;
+
+   @BeforeMethod
+   public void createAllocator() {
+      allocator = new SlabOffHeapMemoryAllocator();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stopAllocator() {
+      allocator.stop();
+   }
+
+   @DataProvider(name = "blockSizes")
+   Object[][] blockSizes() {
+      return new Object[][] {
+            { 1, 16 },
+            { 16, 16 },
+            { 17, 32 },
+            { 128, 128 },
+            { 129, 160 },
+            { 161, 192 },
+            { 256, 256 },
+            { 257, 320 },
+            { 1000, 1024 },
+            { 3073, 3584 },
+            { 4096, 4096 },
+      };
+   }
+
+   @Test(dataProvider = "blockSizes")
+   public void testBlockSizes(long size, int expected) {
+      assertEquals(expected, SlabOffHeapMemoryAllocator.blockSize(size));
+   }
+
+   @Test(dataProvider = "blockSizes")
+   public void testAllocatedSizeIsBlockSize(long size, int expected) {
+      // The eviction weight of an entry is the whole block it takes
+      assertEquals(expected, allocator.allocatedSize(size));
+   }
+
+   public void testAllocatedSizeOfDirectAllocation() {
+      long size = SlabOffHeapMemoryAllocator.MAX_BLOCK_SIZE + 1;
+      assertEquals(UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(size), allocator.allocatedSize(size));
+   }
+
+   public void testEverySizeFitsItsBlock() {
+      int previous = 0;
+      for (int size = 1; size <= SlabOffHeapMemoryAllocator.MAX_BLOCK_SIZE; ++size) {
+         int blockSize = SlabOffHeapMemoryAllocator.blockSize(size);
+         assertTrue(blockSize >= size);
+         assertTrue(blockSize >= previous);
+         // No more than 25% waste past the 16 byte classes
+         assertTrue(size <= 16 || blockSize - size < (size >> 2) + 16);
+         previous = blockSize;
+      }
+   }
+
+   public void testBlocksDoNotOverlap() {
+      List<Long> addresses = new ArrayList<>();
+      List<Long> sizes = new ArrayList<>();
+      for (int i = 0; i < 10_000; ++i) {
+         long size = ThreadLocalRandom.current().nextInt(1, SlabOffHeapMemoryAllocator.MAX_BLOCK_SIZE + 1);
+         long address = allocator.allocate(size);
+         MEMORY.putLong(address, 0, i);
+         MEMORY.putByte(address, size - 1, (byte) i);
+         addresses.add(address);
+         sizes.add(size);
+      }
+      for (int i = 0; i < addresses.size(); ++i) {
+         assertEquals(i, MEMORY.getLong(addresses.get(i), 0));
+         assertEquals((byte) i, MEMORY.getByte(addresses.get(i), sizes.get(i) - 1));
+      }
+      for (int i = 0; i < addresses.size(); ++i) {
+         allocator.deallocate(addresses.get(i), sizes.get(i));
+      }
+      assertEquals(0, allocator.getRequestedBytes());
+      assertEquals(0, allocator.getUsedBytes());
+   }
+
+   public void testFreedBlocksAreReused() {
+      int count = 20_000;
+      long[] addresses = new long[count];
+      for (int i = 0; i < count; ++i) {
+         addresses[i] = allocator.allocate(100);
+      }
+      long reserved = allocator.getReservedBytes();
+      int slabs = allocator.getSlabCount();
+      assertTrue(slabs > 1);
+      for (long address : addresses) {
+         allocator.deallocate(address, 100);
+      }
+      for (int i = 0; i < count; ++i) {
+         addresses[i] = allocator.allocate(100);
+      }
+      assertEquals(reserved, allocator.getReservedBytes());
+      assertEquals(slabs, allocator.getSlabCount());
+   }
+
+   public void testStatistics() {
+      long small = allocator.allocate(100);
+      long large = allocator.allocate(10_000);
+
+      assertEquals(10_100, allocator.getRequestedBytes());
+      assertEquals(112 + UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(10_000), allocator.getUsedBytes());
+      assertEquals(SlabOffHeapMemoryAllocator.SLAB_SIZE + UnpooledOffHeapMemoryAllocator.estimateSizeOverhead(10_000),
+            allocator.getReservedBytes());
+      assertEquals(allocator.getReservedBytes(), allocator.getAllocatedAmount());
+      assertEquals(1, allocator.getSlabCount());
+      double fragmentation = allocator.getFragmentationRatio();
+      assertTrue(fragmentation > 0 && fragmentation < 1);
+      assertFalse(allocator.getCustomMetrics(true).isEmpty());
+
+      allocator.deallocate(small, 100);
+      allocator.deallocate(large, 10_000);
+      assertEquals(0, allocator.getRequestedBytes());
+      assertEquals(SlabOffHeapMemoryAllocator.SLAB_SIZE, allocator.getReservedBytes());
+      assertEquals(1.0, allocator.getFragmentationRatio(), 0);
+
+      allocator.stop();
+      assertEquals(0, allocator.getReservedBytes());
+      assertEquals(0, allocator.getSlabCount());
+   }
+
+   public void testBlocksMoveBetweenThreads() throws Exception {
+      int count = 5_000;
+      long[] addresses = new long[count];
+      for (int i = 0; i < count; ++i) {
+         addresses[i] = allocator.allocate(48);
+      }
+      fork(() -> {
+         for (long address : addresses) {
+            allocator.deallocate(address, 48);
+         }
+         for (int i = 0; i < count; ++i) {
+            addresses[i] = allocator.allocate(48);
+         }
+      }).get(10, TimeUnit.SECONDS);
+      int slabs = allocator.getSlabCount();
+      Set<Long> unique = new HashSet<>();
+      for (long address : addresses) {
+         assertTrue(unique.add(address));
+         allocator.deallocate(address, 48);
+      }
+      assertEquals(slabs, allocator.getSlabCount());
+      assertEquals(0, allocator.getUsedBytes());
+   }
+}
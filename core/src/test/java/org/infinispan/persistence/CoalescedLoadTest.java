@@ -0,0 +1,59 @@
+package org.infinispan.persistence;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.impl.CacheLoaderInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.support.DelayStore;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the concurrent reads of a key missing from memory share a single load from the store.
+ */
+@Test(groups = "functional", testName = "persistence.CoalescedLoadTest")
+public class CoalescedLoadTest extends SingleCacheManagerTest {
+   private static final int READERS = 4;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
+      cfg.statistics().enable();
+      cfg.persistence().addStore(DelayStore.ConfigurationBuilder.class);
+      return TestCacheManagerFactory.createCacheManager(cfg);
+   }
+
+   public void testConcurrentReadsShareLoad() throws Exception {
+      cache.put("k", "v");
+      cache.evict("k");
+      DelayStore store = TestingUtil.getFirstStore(cache);
+      CacheLoaderInterceptor<?, ?> interceptor = TestingUtil.extractComponent(cache, AsyncInterceptorChain.class)
+            .findInterceptorExtending(CacheLoaderInterceptor.class);
+      store.clearStats();
+      interceptor.resetStatistics();
+
+      store.delayBeforeLoad(1);
+      List<Future<Object>> futures = new ArrayList<>();
+      for (int i = 0; i < READERS; i++) {
+         futures.add(fork(() -> cache.get("k")));
+      }
+      // The first read is waiting for the store, the others for the first read
+      eventuallyEquals((long) READERS - 1, interceptor::getCacheLoaderCoalescedLoads);
+      store.endDelay();
+
+      for (Future<Object> future : futures) {
+         assertEquals("v", future.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, store.stats().get("load").intValue());
+      assertEquals(1, interceptor.getCacheLoaderLoads());
+   }
+}
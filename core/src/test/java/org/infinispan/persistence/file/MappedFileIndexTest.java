@@ -0,0 +1,143 @@
+package org.infinispan.persistence.file;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.persistence.file.SingleFileStore.FileEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@link MappedFileIndex} on its own, with records holding only a key in the data file.
+ */
+@Test(groups = "unit", testName = "persistence.file.MappedFileIndexTest")
+public class MappedFileIndexTest extends AbstractInfinispanTest {
+   private String tmpDirectory;
+   private FileChannel dataChannel;
+   private MappedFileIndex index;
+   // Offset 0 marks the empty slots of the index
+   private long dataPos = 4;
+
+   @BeforeMethod
+   protected void setUp() throws IOException {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+      File dir = new File(tmpDirectory);
+      dir.mkdirs();
+      dataChannel = new RandomAccessFile(new File(dir, "data.dat"), "rw").getChannel();
+      index = new MappedFileIndex(new File(dir, "data.idx"), 1);
+      index.open(-1, new ArrayList<>());
+      dataPos = 4;
+   }
+
+   @AfterMethod(alwaysRun = true)
+   protected void tearDown() throws IOException {
+      index.release();
+      dataChannel.close();
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testKeyInLargerArray() throws IOException {
+      FileEntry entry = put("key");
+      byte[] padded = "--key--".getBytes(StandardCharsets.UTF_8);
+      FileEntry found = index.get(0, padded, 2, 3, dataChannel, null);
+      assertNotNull(found);
+      assertEquals(entry.offset, found.offset);
+   }
+
+   public void testIterationSurvivesRehash() throws IOException {
+      // Below the 3/4 load factor of the initial capacity
+      int initialKeys = 700;
+      Map<Long, Integer> visits = new HashMap<>();
+      for (int i = 0; i < initialKeys; i++) {
+         visits.put(put("k" + i).offset, 0);
+      }
+
+      MappedFileIndex.Iteration iteration = index.startIteration();
+      try {
+         List<FileEntry> collected = new ArrayList<>();
+         index.collect(iteration, 300, null, 0, collected, fe -> { });
+         assertFalse(iteration.isDone());
+         // Going past 15/16 of the capacity resizes the table even during an iteration
+         for (int i = 0; i < 300; i++) {
+            put("added" + i);
+         }
+         while (!iteration.isDone()) {
+            index.collect(iteration, 100, null, 0, collected, fe -> { });
+         }
+         for (FileEntry fe : collected) {
+            visits.computeIfPresent(fe.offset, (offset, count) -> count + 1);
+         }
+      } finally {
+         index.endIteration(iteration);
+      }
+      visits.forEach((offset, count) -> assertEquals("Entry at " + offset, 1, count.intValue()));
+   }
+
+   public void testConcurrentWritesAndLookups() throws Exception {
+      int threads = 4;
+      int keys = 500;
+      List<Future<Void>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+         String prefix = "t" + t + "-";
+         futures.add(fork(() -> {
+            for (int i = 0; i < keys; i++) {
+               FileEntry entry = put(prefix + i);
+               byte[] keyBytes = (prefix + i).getBytes(StandardCharsets.UTF_8);
+               FileEntry found = index.get(0, keyBytes, 0, keyBytes.length, dataChannel, null);
+               assertNotNull(found);
+               assertEquals(entry.offset, found.offset);
+               if (i % 2 == 0) {
+                  assertEquals(entry.offset, index.remove(0, keyBytes, 0, keyBytes.length, dataChannel).offset);
+               }
+            }
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(threads * keys / 2, index.size());
+      for (int t = 0; t < threads; t++) {
+         for (int i = 0; i < keys; i++) {
+            byte[] keyBytes = ("t" + t + "-" + i).getBytes(StandardCharsets.UTF_8);
+            assertEquals(i % 2 != 0, index.get(0, keyBytes, 0, keyBytes.length, dataChannel, null) != null);
+         }
+      }
+   }
+
+   private FileEntry put(String key) throws IOException {
+      byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+      int size = SingleFileStore.KEY_POS_LATEST + keyBytes.length;
+      long offset;
+      synchronized (this) {
+         offset = dataPos;
+         dataPos += size;
+      }
+      FileEntry entry = new FileEntry(offset, size, keyBytes.length, 0, 0, 0, -1);
+      ByteBuffer buf = ByteBuffer.allocate(size);
+      entry.writeToBuf(buf);
+      buf.put(keyBytes).flip();
+      while (buf.hasRemaining()) {
+         dataChannel.write(buf, offset + buf.position());
+      }
+      index.put(0, keyBytes, 0, keyBytes.length, entry, dataChannel);
+      return entry;
+   }
+}
@@ -0,0 +1,92 @@
+package org.infinispan.persistence.file;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the {@link SingleFileStoreTest} with the index kept in a memory-mapped file.
+ */
+@Test(groups = "unit", testName = "persistence.file.SingleFileStoreMappedIndexTest")
+public class SingleFileStoreMappedIndexTest extends SingleFileStoreTest {
+
+   @Factory
+   @Override
+   public Object[] factory() {
+      return new Object[] {
+            new SingleFileStoreMappedIndexTest().segmented(false),
+            new SingleFileStoreMappedIndexTest().segmented(true),
+      };
+   }
+
+   @Override
+   protected SingleFileStoreConfigurationBuilder createCacheStoreConfig(PersistenceConfigurationBuilder lcb) {
+      return super.createCacheStoreConfig(lcb).memoryMappedIndex(true);
+   }
+
+   public void testIndexReusedAfterRestart() {
+      int numEntries = 2000;
+      for (int i = 0; i < numEntries; i++) {
+         store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      for (int i = 0; i < numEntries; i += 3) {
+         store.delete("k" + i);
+      }
+      store.stopAndWait();
+
+      File indexFile = indexFile();
+      assertTrue(indexFile.exists());
+
+      startStore(store);
+      assertEntries(numEntries);
+   }
+
+   public void testIndexRebuiltAfterUncleanShutdown() throws Exception {
+      int numEntries = 2000;
+      for (int i = 0; i < numEntries; i++) {
+         store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      for (int i = 0; i < numEntries; i += 3) {
+         store.delete("k" + i);
+      }
+      store.stopAndWait();
+
+      // Clear the clean shutdown flag
+      try (RandomAccessFile file = new RandomAccessFile(indexFile(), "rw")) {
+         file.seek(4);
+         file.writeInt(0);
+      }
+
+      startStore(store);
+      assertEntries(numEntries);
+   }
+
+   private void assertEntries(int numEntries) {
+      for (int i = 0; i < numEntries; i++) {
+         MarshallableEntry<Object, Object> entry = store.loadEntry("k" + i);
+         if (i % 3 == 0) {
+            assertNull(entry);
+         } else {
+            assertEquals("v" + i, entry.getValue());
+         }
+      }
+      int expectedSize = numEntries - (numEntries + 2) / 3;
+      assertEquals(expectedSize, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+      assertEquals(expectedSize, store.approximateSizeWait(IntSets.immutableRangeSet(segmentCount)));
+   }
+
+   private File indexFile() {
+      return SingleFileStore.getIndexFile(CommonsTestingUtil.tmpDirectory(getClass()), initializationContext.getCache().getName());
+   }
+}
@@ -0,0 +1,190 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that a sync write batch that cannot be forced to disk fails its requests and rewinds the log file, so that
+ * the records appended afterwards are written right after the last durable record.
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreGroupCommitTest")
+public class SoftIndexFileStoreGroupCommitTest extends SingleCacheManagerTest {
+   protected String tmpDirectory;
+
+   @BeforeClass(alwaysRun = true)
+   protected void setUpTempDir() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+   }
+
+   @AfterClass(alwaysRun = true, dependsOnMethods = "destroyAfterClass")
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cb = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      cb.persistence()
+            .addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .indexSegments(1)
+            .syncWrites(true)
+            .syncWritesBatchSize(16)
+            .purgeOnStartup(true);
+      return TestCacheManagerFactory.createCacheManager(cb);
+   }
+
+   public void testFailedForceRewindsLogFile() throws IOException {
+      WaitDelegatingNonBlockingStore<Object, Object> store = TestingUtil.getFirstStoreWait(cache);
+      LogAppender logAppender = TestingUtil.extractField(store.delegate(), "logAppender");
+      FileProvider fileProvider = TestingUtil.extractField(store.delegate(), "fileProvider");
+
+      cache.put("k1", "v1");
+      // The appender is idle, the next request publishes the replaced log file to its thread
+      FileProvider.Log logFile = TestingUtil.extractField(logAppender, "logFile");
+      FailingForceChannel channel = new FailingForceChannel(logFile.fileChannel);
+      TestingUtil.replaceField(fileProvider.new Log(logFile.fileId, channel), "logFile", logAppender, LogAppender.class);
+      long durableSize = channel.size();
+
+      channel.failNextForce = true;
+      Exceptions.expectRootCause(IOException.class, () -> cache.put("k2", "v2"));
+      assertEquals(durableSize, channel.size());
+      assertEquals(durableSize, channel.position());
+
+      cache.put("k3", "v3");
+      assertEntry(store, "k1", "v1");
+      assertEntry(store, "k3", "v3");
+      assertNull(store.loadEntry("k2"));
+   }
+
+   private static void assertEntry(WaitDelegatingNonBlockingStore<Object, Object> store, String key, String value) {
+      MarshallableEntry<Object, Object> entry = store.loadEntry(key);
+      assertNotNull("Missing " + key, entry);
+      assertEquals(value, entry.getValue());
+   }
+
+   static class FailingForceChannel extends FileChannel {
+      private final FileChannel delegate;
+      volatile boolean failNextForce;
+
+      FailingForceChannel(FileChannel delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      public void force(boolean metaData) throws IOException {
+         if (failNextForce) {
+            failNextForce = false;
+            throw new IOException("Injected force failure");
+         }
+         delegate.force(metaData);
+      }
+
+      @Override
+      public int read(ByteBuffer dst) throws IOException {
+         return delegate.read(dst);
+      }
+
+      @Override
+      public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+         return delegate.read(dsts, offset, length);
+      }
+
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+         return delegate.write(src);
+      }
+
+      @Override
+      public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+         return delegate.write(srcs, offset, length);
+      }
+
+      @Override
+      public long position() throws IOException {
+         return delegate.position();
+      }
+
+      @Override
+      public FileChannel position(long newPosition) throws IOException {
+         delegate.position(newPosition);
+         return this;
+      }
+
+      @Override
+      public long size() throws IOException {
+         return delegate.size();
+      }
+
+      @Override
+      public FileChannel truncate(long size) throws IOException {
+         delegate.truncate(size);
+         return this;
+      }
+
+      @Override
+      public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+         return delegate.transferTo(position, count, target);
+      }
+
+      @Override
+      public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+         return delegate.transferFrom(src, position, count);
+      }
+
+      @Override
+      public int read(ByteBuffer dst, long position) throws IOException {
+         return delegate.read(dst, position);
+      }
+
+      @Override
+      public int write(ByteBuffer src, long position) throws IOException {
+         return delegate.write(src, position);
+      }
+
+      @Override
+      public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+         return delegate.map(mode, position, size);
+      }
+
+      @Override
+      public FileLock lock(long position, long size, boolean shared) throws IOException {
+         return delegate.lock(position, size, shared);
+      }
+
+      @Override
+      public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+         return delegate.tryLock(position, size, shared);
+      }
+
+      @Override
+      protected void implCloseChannel() throws IOException {
+         delegate.close();
+      }
+   }
+}
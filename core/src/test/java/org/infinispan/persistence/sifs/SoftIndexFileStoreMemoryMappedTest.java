@@ -0,0 +1,98 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.nio.file.Paths;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the optimistic lookups of the memory mapped index never miss a key while other keys are updated
+ * concurrently, which splits, merges and frees the index nodes the lookups walk through.
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreMemoryMappedTest")
+public class SoftIndexFileStoreMemoryMappedTest extends SingleCacheManagerTest {
+   private static final int STABLE_KEYS = 200;
+   private static final int CHURN_KEYS = 500;
+
+   protected String tmpDirectory;
+
+   @BeforeClass(alwaysRun = true)
+   protected void setUpTempDir() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+   }
+
+   @AfterClass(alwaysRun = true, dependsOnMethods = "destroyAfterClass")
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cb = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      cb.persistence()
+            .addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .indexSegments(1)
+            // Small nodes so that the tree is deep and the updates keep replacing inner nodes
+            .maxNodeSize(200)
+            .minNodeSize(50)
+            .indexMemoryMapped(true)
+            .purgeOnStartup(true);
+      return TestCacheManagerFactory.createCacheManager(cb);
+   }
+
+   public void testLookupsDuringConcurrentUpdates() throws Exception {
+      for (int i = 0; i < STABLE_KEYS; ++i) {
+         cache.put("stable-" + i, "value-" + i);
+      }
+      WaitDelegatingNonBlockingStore<Object, Object> store = TestingUtil.getFirstStoreWait(cache);
+      Cache<Object, Object> writer = cache;
+
+      AtomicBoolean running = new AtomicBoolean(true);
+      Future<Void> updates = fork(() -> {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         while (running.get()) {
+            String key = "churn-" + random.nextInt(CHURN_KEYS);
+            if (random.nextBoolean()) {
+               writer.put(key, "churn-value-" + random.nextInt());
+            } else {
+               writer.remove(key);
+            }
+         }
+      });
+
+      try {
+         long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         while (System.nanoTime() < end && !updates.isDone()) {
+            int i = random.nextInt(STABLE_KEYS);
+            // Read the store directly, the data container would answer otherwise
+            MarshallableEntry<Object, Object> entry = store.loadEntry("stable-" + i);
+            assertNotNull("Missing stable-" + i, entry);
+            assertEquals("value-" + i, entry.getValue());
+         }
+      } finally {
+         running.set(false);
+      }
+      updates.get(10, TimeUnit.SECONDS);
+   }
+}
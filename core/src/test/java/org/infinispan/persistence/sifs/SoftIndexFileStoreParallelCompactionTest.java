@@ -0,0 +1,105 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that clearing the store while several data files are compacted concurrently waits for the running compactions
+ * and leaves the store usable.
+ */
+@Test(groups = "functional", testName = "persistence.sifs.SoftIndexFileStoreParallelCompactionTest")
+public class SoftIndexFileStoreParallelCompactionTest extends SingleCacheManagerTest {
+   private static final int PARALLELISM = 4;
+   private static final int NUM_KEYS = 50;
+
+   protected String tmpDirectory;
+
+   @BeforeClass(alwaysRun = true)
+   protected void setUpTempDir() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+   }
+
+   @AfterClass(alwaysRun = true, dependsOnMethods = "destroyAfterClass")
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder cb = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      cb.persistence()
+            .addSoftIndexFileStore()
+            .dataLocation(Paths.get(tmpDirectory, "data").toString())
+            .indexLocation(Paths.get(tmpDirectory, "index").toString())
+            .indexSegments(1)
+            .compactionParallelism(PARALLELISM)
+            // Small files so that the overwrites keep several files above the compaction threshold
+            .maxFileSize(1000)
+            .purgeOnStartup(true);
+      return TestCacheManagerFactory.createCacheManager(cb);
+   }
+
+   public void testClearDuringCompaction() throws Exception {
+      WaitDelegatingNonBlockingStore<Object, Object> store = TestingUtil.getFirstStoreWait(cache);
+      Compactor compactor = TestingUtil.extractField(store.delegate(), "compactor");
+      assertEquals(PARALLELISM, compactor.getStatistics().getCompactionParallelism());
+
+      AtomicBoolean running = new AtomicBoolean(true);
+      List<Future<Void>> writers = new ArrayList<>();
+      for (int w = 0; w < 2; w++) {
+         writers.add(fork(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+               int i = random.nextInt(NUM_KEYS);
+               cache.put("key-" + i, "value-" + i + "-" + "x".repeat(random.nextInt(200)));
+            }
+         }));
+      }
+
+      try {
+         long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+         while (System.nanoTime() < end && writers.stream().noneMatch(Future::isDone)) {
+            TestingUtil.sleepThread(ThreadLocalRandom.current().nextInt(20));
+            // Each clear has to wait for the compactions writing to the outputs it closes
+            cache.clear();
+         }
+      } finally {
+         running.set(false);
+      }
+      for (Future<Void> writer : writers) {
+         writer.get(10, TimeUnit.SECONDS);
+      }
+      eventuallyEquals(0, () -> compactor.getStatistics().getActiveCompactions());
+
+      // The compactor and the log appender still work after the clears
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         cache.put("key-" + i, "final-" + i);
+      }
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         MarshallableEntry<Object, Object> entry = store.loadEntry("key-" + i);
+         assertNotNull("Missing key-" + i, entry);
+         assertEquals("final-" + i, entry.getValue());
+      }
+   }
+}
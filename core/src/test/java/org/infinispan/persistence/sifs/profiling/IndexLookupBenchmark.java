@@ -0,0 +1,109 @@
+package org.infinispan.persistence.sifs.profiling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.support.WaitDelegatingNonBlockingStore;
+import org.infinispan.test.TestingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares SoftIndexFileStore lookups going through the memory mapped index with the file channel based ones.
+ * <p>
+ * Populating the larger stores takes a while and needs a few GB of disk, run with {@code -Dkeys=1000000} to restrict
+ * the key counts.
+ */
+public class IndexLookupBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+   private static final int WRITE_BATCH = 10_000;
+
+   public static void main(String[] args) throws Exception {
+      OptionsBuilder builder = new OptionsBuilder();
+      builder.include(IndexLookupBenchmark.class.getName() + ".State.*")
+            .mode(Mode.SampleTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .threads(Runtime.getRuntime().availableProcessors())
+            .forks(1)
+            .shouldFailOnError(true);
+      String keys = System.getProperty("keys");
+      if (keys != null) {
+         builder.param("numKeys", keys.split(","));
+      }
+      Options opt = builder.build();
+
+      new Runner(opt).run();
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class State {
+      @Param({"1000000", "10000000", "50000000"})
+      int numKeys;
+
+      @Param({"false", "true"})
+      boolean memoryMapped;
+
+      private String tmpDirectory;
+      private EmbeddedCacheManager cacheManager;
+      private WaitDelegatingNonBlockingStore<Object, Object> store;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         tmpDirectory = CommonsTestingUtil.tmpDirectory(IndexLookupBenchmark.class.getSimpleName(), numKeys + "-" + memoryMapped);
+         Util.recursiveFileRemove(tmpDirectory);
+         GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+         global.globalState().enable().persistentLocation(tmpDirectory);
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         // Keep the data container small so that the store holds nearly all the entries
+         builder.memory().maxCount(1000);
+         builder.persistence().addSoftIndexFileStore().indexMemoryMapped(memoryMapped);
+         cacheManager = new DefaultCacheManager(global.build());
+         cacheManager.defineConfiguration("sifs", builder.build());
+         Cache<Object, Object> cache = cacheManager.getCache("sifs");
+
+         Map<Object, Object> batch = new HashMap<>();
+         for (int i = 0; i < numKeys; ++i) {
+            batch.put(i, "value-" + i);
+            if (batch.size() == WRITE_BATCH) {
+               cache.putAll(batch);
+               batch.clear();
+            }
+         }
+         cache.putAll(batch);
+         store = TestingUtil.getFirstStoreWait(cache);
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         TestingUtil.killCacheManagers(cacheManager);
+         Util.recursiveFileRemove(tmpDirectory);
+      }
+
+      @Benchmark
+      public MarshallableEntry<Object, Object> lookup() {
+         return store.loadEntry(ThreadLocalRandom.current().nextInt(numKeys));
+      }
+   }
+}
@@ -10,6 +10,7 @@
 import static org.testng.AssertJUnit.fail;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
@@ -26,6 +27,7 @@
 import org.infinispan.marshall.TestObjectStreamMarshaller;
 import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.async.AsyncNonBlockingStore;
+import org.infinispan.persistence.async.AsyncStoreStatistics;
 import org.infinispan.persistence.dummy.DummyInMemoryStore;
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
 import org.infinispan.persistence.spi.InitializationContext;
@@ -282,6 +284,111 @@ public void testModificationQueueSize(final Method m) throws Exception {
       }
    }
 
+   public void testSlowSegmentDoesNotBlockOtherSegments(final Method m) throws Exception {
+      CompletableFuture<Void> segmentZeroDelay = new CompletableFuture<>();
+      DummyInMemoryStore underlying = new DummyInMemoryStore() {
+         @Override
+         public CompletionStage<Void> write(int segment, MarshallableEntry entry) {
+            if (segment == 0) {
+               return segmentZeroDelay.thenCompose(ignore -> super.write(segment, entry));
+            }
+            return super.write(segment, entry);
+         }
+      };
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+             .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+                .storeName(m.getName())
+                .segmented(true)
+             .async()
+                .enable()
+                .modificationQueueSize(2)
+                .flushParallelism(2);
+
+      store = new AsyncNonBlockingStore<>(underlying);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      CompletionStages.join(store.start(ctx));
+      AsyncStoreStatistics statistics = store.getStatistics();
+      try {
+         // The first batch of segment 0 is held by the underlying store
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, "a"), v(m, "a"), marshaller)));
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, "b"), v(m, "b"), marshaller)));
+         // Coalesced with the previous write of the same key
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, "b"), v(m, "b2"), marshaller)));
+         CompletionStage<Void> blockedWrite = store.write(0, MarshalledEntryUtil.create(k(m, "c"), v(m, "c"), marshaller));
+         assertFalse(blockedWrite.toCompletableFuture().isDone());
+
+         // The queue is full, but the write only waits for the batch of its own segment
+         store.write(1, MarshalledEntryUtil.create(k(m, "d"), v(m, "d"), marshaller))
+              .toCompletableFuture().get(10, TimeUnit.SECONDS);
+         eventuallyEquals(1L, underlying::size);
+         assertFalse(blockedWrite.toCompletableFuture().isDone());
+         assertEquals(1, statistics.getActiveFlushes());
+         assertEquals(3, statistics.getQueueDepth());
+
+         MarshallableEntry<Object, Object> entry = CompletionStages.join(store.load(0, k(m, "b")));
+         assertEquals(v(m, "b2"), entry.getValue());
+
+         segmentZeroDelay.complete(null);
+         blockedWrite.toCompletableFuture().get(10, TimeUnit.SECONDS);
+         eventuallyEquals(0, statistics::getQueueDepth);
+         assertEquals(4L, underlying.size());
+         assertEquals(5, statistics.getSubmittedModifications());
+         assertEquals(4, statistics.getFlushedModifications());
+         assertEquals(3, statistics.getFlushes());
+         assertEquals(0, statistics.getFailedFlushes());
+         assertEquals(0.2, statistics.getCoalescingRatio(), 0.0001);
+      } finally {
+         segmentZeroDelay.complete(null);
+         CompletionStages.join(store.stop());
+      }
+   }
+
+   public void testSegmentsMergedIntoBatches(final Method m) throws Exception {
+      CompletableFuture<Void> segmentZeroDelay = new CompletableFuture<>();
+      DummyInMemoryStore underlying = new DummyInMemoryStore() {
+         @Override
+         public CompletionStage<Void> write(int segment, MarshallableEntry entry) {
+            if (segment == 0) {
+               return segmentZeroDelay.thenCompose(ignore -> super.write(segment, entry));
+            }
+            return super.write(segment, entry);
+         }
+      };
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+             .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+                .storeName(m.getName())
+                .segmented(true)
+                .maxBatchSize(4)
+             .async()
+                .enable()
+                .flushParallelism(1);
+
+      store = new AsyncNonBlockingStore<>(underlying);
+      InitializationContext ctx = PersistenceMockUtil.createContext(getClass(), builder.build(), marshaller);
+      CompletionStages.join(store.start(ctx));
+      AsyncStoreStatistics statistics = store.getStatistics();
+      try {
+         // The only batch allowed to run is held by the underlying store, the other segments queue up meanwhile
+         CompletionStages.join(store.write(0, MarshalledEntryUtil.create(k(m, "0"), v(m, "0"), marshaller)));
+         for (int segment = 1; segment <= 10; segment++) {
+            CompletionStages.join(store.write(segment, MarshalledEntryUtil.create(k(m, segment), v(m, segment), marshaller)));
+         }
+         assertEquals(1, statistics.getActiveFlushes());
+
+         segmentZeroDelay.complete(null);
+         eventuallyEquals(0, statistics::getQueueDepth);
+         assertEquals(11L, underlying.size());
+         // The 10 queued segments are written in batches of 4, 4 and 2 modifications
+         assertEquals(4, statistics.getFlushes());
+         assertEquals(11, statistics.getFlushedModifications());
+      } finally {
+         segmentZeroDelay.complete(null);
+         CompletionStages.join(store.stop());
+      }
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final DelayStore store;
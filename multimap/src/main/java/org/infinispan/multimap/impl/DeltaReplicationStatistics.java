@@ -0,0 +1,179 @@
+package org.infinispan.multimap.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.distribution.DistributionInfo;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.JmxStatisticsExposer;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Parameter;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+
+/**
+ * Statistics of the multimap bucket changes replicated to the backup owners.
+ * <p>
+ * The bucket functions are replicated to the backup owners, which apply them to their own copy of the bucket, so only
+ * the changed elements travel instead of the whole bucket. Functions that rewrite the whole bucket, like the stores of
+ * a set operation result, ship the full bucket instead.
+ * <p>
+ * The changes are recorded by the primary owner only. The size of the bucket is estimated from the average size of
+ * the changed elements, so that recording a change does not iterate the whole bucket.
+ *
+ * @since 15.0
+ */
+@MBean(objectName = DeltaReplicationStatistics.OBJECT_NAME, description = "Replication of the multimap bucket changes")
+@Scope(Scopes.NAMED_CACHE)
+public class DeltaReplicationStatistics implements JmxStatisticsExposer {
+   public static final String OBJECT_NAME = "MultimapDeltaReplication";
+   // Estimated size of the elements that are neither strings nor byte arrays
+   static final int DEFAULT_ELEMENT_SIZE = 16;
+
+   @Inject Configuration configuration;
+   @Inject DistributionManager distributionManager;
+
+   private final LongAdder deltaReplications = new LongAdder();
+   private final LongAdder fullBucketReplications = new LongAdder();
+   private final LongAdder deltaBytes = new LongAdder();
+   private final LongAdder bytesSaved = new LongAdder();
+   private volatile boolean statisticsEnabled;
+
+   @Start
+   void start() {
+      statisticsEnabled = configuration.statistics().enabled();
+   }
+
+   /**
+    * Records a change of the given elements applied to a bucket, that holds {@code bucketSize} elements after the
+    * change.
+    */
+   public void recordDelta(Object key, Collection<?> delta, int bucketSize) {
+      if (!statisticsEnabled || delta.isEmpty()) {
+         return;
+      }
+      int backups = backupsIfPrimary(key);
+      if (backups <= 0) {
+         return;
+      }
+      long size = 0;
+      for (Object element : delta) {
+         size += estimateSize(element);
+      }
+      long bucketBytes = size * bucketSize / delta.size();
+      deltaReplications.increment();
+      deltaBytes.add(size * backups);
+      if (bucketBytes > size) {
+         bytesSaved.add((bucketBytes - size) * backups);
+      }
+   }
+
+   /**
+    * Records a change that replaced the whole bucket.
+    */
+   public void recordFullBucket(Object key) {
+      if (statisticsEnabled && backupsIfPrimary(key) > 0) {
+         fullBucketReplications.increment();
+      }
+   }
+
+   private int backupsIfPrimary(Object key) {
+      DistributionInfo info = distributionManager.getCacheTopology().getDistribution(key);
+      return info.isPrimary() ? info.writeBackups().size() : 0;
+   }
+
+   static long estimateSize(Object element) {
+      if (element instanceof byte[]) {
+         return ((byte[]) element).length;
+      } else if (element instanceof WrappedBytes) {
+         return ((WrappedBytes) element).getLength();
+      } else if (element instanceof String) {
+         return ((String) element).length();
+      } else if (element instanceof MultimapObjectWrapper) {
+         return estimateSize(((MultimapObjectWrapper<?>) element).get());
+      } else if (element instanceof ScoredValue) {
+         return Double.BYTES + estimateSize(((ScoredValue<?>) element).getValue());
+      } else if (element instanceof Map.Entry) {
+         Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+         return estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return DEFAULT_ELEMENT_SIZE;
+   }
+
+   @ManagedAttribute(
+         description = "Number of bucket changes replicated to the backup owners as a delta",
+         displayName = "Delta replications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getDeltaReplications() {
+      return deltaReplications.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Number of bucket changes that replaced the whole bucket on the backup owners",
+         displayName = "Full bucket replications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getFullBucketReplications() {
+      return fullBucketReplications.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Estimated size of the deltas replicated to the backup owners",
+         displayName = "Delta bytes",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getDeltaBytes() {
+      return deltaBytes.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Estimated number of bytes not replicated to the backup owners, because the bucket changes were shipped as deltas",
+         displayName = "Bytes saved",
+         units = Units.BYTES,
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBytesSaved() {
+      return bytesSaved.sum();
+   }
+
+   @Override
+   @ManagedAttribute(
+         displayName = "Statistics enabled",
+         description = "Enables or disables the gathering of statistics by this component",
+         dataType = DataType.TRAIT,
+         writable = true
+   )
+   public boolean getStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @Override
+   public void setStatisticsEnabled(@Parameter(name = "enabled", description = "Whether statistics should be enabled or disabled (true/false)") boolean enabled) {
+      this.statisticsEnabled = enabled;
+   }
+
+   @Override
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset statistics"
+   )
+   public void resetStatistics() {
+      deltaReplications.reset();
+      fullBucketReplications.reset();
+      deltaBytes.reset();
+      bytesSaved.reset();
+   }
+}
@@ -0,0 +1,208 @@
+package org.infinispan.multimap.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.functional.FunctionalMap;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.infinispan.multimap.impl.function.stream.StreamAckFunction;
+import org.infinispan.multimap.impl.function.stream.StreamAddFunction;
+import org.infinispan.multimap.impl.function.stream.StreamGroupFunction;
+import org.infinispan.multimap.impl.function.stream.StreamReadGroupFunction;
+
+/**
+ * Multimap with Stream methods implementation.
+ * <p>
+ * A stream is an append-only log of entries with increasing identifiers, each entry holding field-value pairs. The
+ * consumer groups deliver each entry to a single consumer of the group and keep track of the entries not acknowledged
+ * yet.
+ * </p>
+ * Note that the structure is not distributed, it is under a single key, and the distribution happens per key.
+ *
+ * @param <K>: The type of key to identify the stream.
+ * @param <V>: The type of fields, values and names.
+ * @since 15.0
+ */
+public class EmbeddedMultimapStreamCache<K, V> {
+   public static final String ERR_KEY_CAN_T_BE_NULL = "key can't be null";
+   public static final String ERR_VALUES_CAN_T_BE_EMPTY = "fields and values can't be empty";
+   public static final String ERR_GROUP_CAN_T_BE_NULL = "group can't be null";
+   public static final String ERR_CONSUMER_CAN_T_BE_NULL = "consumer can't be null";
+   public static final String ERR_ID_CAN_T_BE_NULL = "id can't be null";
+
+   protected final FunctionalMap.ReadWriteMap<K, StreamBucket<V>> readWriteMap;
+   protected final AdvancedCache<K, StreamBucket<V>> cache;
+
+   public EmbeddedMultimapStreamCache(Cache<K, StreamBucket<V>> cache) {
+      this.cache = cache.getAdvancedCache();
+      FunctionalMapImpl<K, StreamBucket<V>> functionalMap = FunctionalMapImpl.create(this.cache);
+      this.readWriteMap = ReadWriteMapImpl.create(functionalMap);
+   }
+
+   /**
+    * Appends an entry to the stream.
+    *
+    * @param key: The name of the stream.
+    * @param ms: The time part of the identifier, or -1 to use the current time.
+    * @param seq: The sequence number of the identifier, or -1 to generate it.
+    * @param fieldsAndValues: The field-value pairs, flattened.
+    * @param args: The options to not create the stream and to trim it.
+    * @return {@link CompletionStage} with the identifier of the new entry, <code>null</code> if the stream does not
+    * exist and it must not be created, or {@link StreamId#MIN} if the identifier is not greater than the last
+    * identifier of the stream.
+    */
+   public CompletionStage<StreamId> add(K key, long ms, long seq, List<V> fieldsAndValues, StreamAddArgs args) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      if (fieldsAndValues == null || fieldsAndValues.isEmpty() || fieldsAndValues.size() % 2 != 0) {
+         throw new IllegalArgumentException(ERR_VALUES_CAN_T_BE_EMPTY);
+      }
+      return readWriteMap.eval(key, new StreamAddFunction<>(ms, seq, System.currentTimeMillis(), fieldsAndValues, args));
+   }
+
+   /**
+    * @return {@link CompletionStage} with the number of entries of the stream, or 0 if it does not exist.
+    */
+   public CompletionStage<Long> length(K key) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      return cache.getAsync(key).thenApply(b -> b == null ? 0 : b.size());
+   }
+
+   /**
+    * @return {@link CompletionStage} with the last identifier added to the stream, or <code>null</code> if it does not
+    * exist.
+    */
+   public CompletionStage<StreamId> lastId(K key) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      return cache.getAsync(key).thenApply(b -> b == null ? null : b.lastId());
+   }
+
+   /**
+    * Returns the entries with an identifier between <code>start</code> and <code>end</code>, both inclusive.
+    *
+    * @param count: The maximum number of entries, or 0 for all of them.
+    * @param reverse: Whether to return the entries from <code>end</code> to <code>start</code>.
+    * @return {@link CompletionStage} with the entries, empty if the stream does not exist.
+    */
+   public CompletionStage<List<StreamEntry<V>>> range(K key, StreamId start, StreamId end, long count, boolean reverse) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(start, ERR_ID_CAN_T_BE_NULL);
+      requireNonNull(end, ERR_ID_CAN_T_BE_NULL);
+      return cache.getAsync(key).thenApply(b -> b == null ? List.of() : b.range(start, end, count, reverse));
+   }
+
+   /**
+    * @return {@link CompletionStage} with the entries with an identifier greater than <code>id</code>, empty if the
+    * stream does not exist.
+    */
+   public CompletionStage<List<StreamEntry<V>>> read(K key, StreamId id, long count) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(id, ERR_ID_CAN_T_BE_NULL);
+      return cache.getAsync(key).thenApply(b -> b == null ? List.of() : b.after(id, count));
+   }
+
+   /**
+    * Creates a consumer group.
+    *
+    * @param id: The last delivered identifier of the group, or <code>null</code> for the last identifier of the stream.
+    * @param mkStream: Whether to create an empty stream if it does not exist.
+    * @return {@link CompletionStage} with 1 if the group was created, 0 if it already exists, or
+    * {@link StreamGroupFunction#NO_STREAM}.
+    */
+   public CompletionStage<Long> createGroup(K key, V group, StreamId id, boolean mkStream) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      return groupOperation(key, StreamGroupFunction.Operation.CREATE, group, null, id, mkStream);
+   }
+
+   /**
+    * @return {@link CompletionStage} with 1 if the group was destroyed, 0 if it does not exist, or
+    * {@link StreamGroupFunction#NO_STREAM}.
+    */
+   public CompletionStage<Long> destroyGroup(K key, V group) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      return groupOperation(key, StreamGroupFunction.Operation.DESTROY, group, null, null, false);
+   }
+
+   /**
+    * @param id: The last delivered identifier of the group, or <code>null</code> for the last identifier of the stream.
+    * @return {@link CompletionStage} with 1, {@link StreamGroupFunction#NO_STREAM} or {@link StreamGroupFunction#NO_GROUP}.
+    */
+   public CompletionStage<Long> setGroupId(K key, V group, StreamId id) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      return groupOperation(key, StreamGroupFunction.Operation.SET_ID, group, null, id, false);
+   }
+
+   /**
+    * @return {@link CompletionStage} with 1 if the consumer was created, 0 if it already exists,
+    * {@link StreamGroupFunction#NO_STREAM} or {@link StreamGroupFunction#NO_GROUP}.
+    */
+   public CompletionStage<Long> createConsumer(K key, V group, V consumer) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      requireNonNull(consumer, ERR_CONSUMER_CAN_T_BE_NULL);
+      return groupOperation(key, StreamGroupFunction.Operation.CREATE_CONSUMER, group, consumer, null, false);
+   }
+
+   /**
+    * @return {@link CompletionStage} with the number of pending entries the consumer had,
+    * {@link StreamGroupFunction#NO_STREAM} or {@link StreamGroupFunction#NO_GROUP}.
+    */
+   public CompletionStage<Long> deleteConsumer(K key, V group, V consumer) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      requireNonNull(consumer, ERR_CONSUMER_CAN_T_BE_NULL);
+      return groupOperation(key, StreamGroupFunction.Operation.DELETE_CONSUMER, group, consumer, null, false);
+   }
+
+   private CompletionStage<Long> groupOperation(K key, StreamGroupFunction.Operation operation, V group, V consumer,
+                                                StreamId id, boolean mkStream) {
+      return readWriteMap.eval(key, new StreamGroupFunction<>(operation, group, consumer, id, mkStream, System.currentTimeMillis()));
+   }
+
+   /**
+    * Reads the stream as a consumer of the group.
+    *
+    * @param id: The identifier to read the pending entries of the consumer after, or <code>null</code> to read the
+    *          entries never delivered to the group.
+    * @param count: The maximum number of entries, or 0 for all of them.
+    * @param noAck: Whether the new entries are delivered without adding them to the pending entries list.
+    * @return {@link CompletionStage} with the entries, or <code>null</code> if the stream or the group do not exist.
+    */
+   public CompletionStage<List<StreamEntry<V>>> readGroup(K key, V group, V consumer, StreamId id, long count, boolean noAck) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      requireNonNull(consumer, ERR_CONSUMER_CAN_T_BE_NULL);
+      return readWriteMap.eval(key, new StreamReadGroupFunction<>(group, consumer, id, count, noAck, System.currentTimeMillis()));
+   }
+
+   /**
+    * Acknowledges entries of the group.
+    *
+    * @return {@link CompletionStage} with the number of entries removed from the pending entries list.
+    */
+   public CompletionStage<Long> ack(K key, V group, Collection<StreamId> ids) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      if (ids.isEmpty()) return CompletableFuture.completedFuture(0L);
+      return readWriteMap.eval(key, new StreamAckFunction<>(group, ids));
+   }
+
+   /**
+    * @return {@link CompletionStage} with the consumer group, or <code>null</code> if the stream or the group do not
+    * exist.
+    */
+   public CompletionStage<StreamBucket.ConsumerGroup<V>> group(K key, V group) {
+      requireNonNull(key, ERR_KEY_CAN_T_BE_NULL);
+      requireNonNull(group, ERR_GROUP_CAN_T_BE_NULL);
+      return cache.getAsync(key).thenApply(b -> b == null ? null : b.group(group));
+   }
+}
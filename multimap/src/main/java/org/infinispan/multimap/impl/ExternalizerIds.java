@@ -45,4 +45,8 @@ public interface ExternalizerIds {
    Integer SET_REMOVE_FUNCTION = 2083;
    Integer SET_POP_FUNCTION = 2084;
    Integer REPLACE_LIST_FUNCTION = 2085;
+   Integer STREAM_ADD_FUNCTION = 2086;
+   Integer STREAM_GROUP_FUNCTION = 2087;
+   Integer STREAM_READ_GROUP_FUNCTION = 2088;
+   Integer STREAM_ACK_FUNCTION = 2089;
 }
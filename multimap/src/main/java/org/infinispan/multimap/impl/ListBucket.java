@@ -4,6 +4,7 @@
 import org.infinispan.commons.util.Util;
 import org.infinispan.marshall.protostream.impl.MarshallableUserObject;
 import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.multimap.impl.internal.QuickList;
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoField;
 import org.infinispan.protostream.annotations.ProtoTypeId;
@@ -21,6 +22,9 @@
 
 /**
  * Bucket used to store ListMultimap values.
+ * <p>
+ * The values are kept in a {@link QuickList}, so pushing and popping only touch the chunk at the affected end and
+ * positional updates shift a single chunk, instead of copying the whole list.
  *
  * @author Katia Aresti
  * @since 15.0
@@ -28,35 +32,38 @@
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_LIST_BUCKET)
 public class ListBucket<V> implements SortableBucket<V> {
 
-   final Deque<V> values;
+   final QuickList<V> values;
 
    public ListBucket() {
-      this.values = new ArrayDeque<>(0);
+      this.values = new QuickList<>();
    }
 
    public ListBucket(V value) {
-      Deque<V> deque = new ArrayDeque<>(1);
-      deque.add(value);
-      this.values = deque;
+      this.values = new QuickList<>();
+      this.values.addLast(value);
    }
 
-   private ListBucket(Deque<V> values) {
+   private ListBucket(QuickList<V> values) {
       this.values = values;
    }
 
    public static <V> ListBucket<V> create(Collection<V> value) {
-      return new ListBucket<>(new ArrayDeque<V>(value));
+      return new ListBucket<>(new QuickList<>(value));
    }
 
    @ProtoFactory
    ListBucket(Collection<MarshallableUserObject<V>> wrappedValues) {
-      this((Deque<V>) wrappedValues.stream().map(MarshallableUserObject::get)
-            .collect(Collectors.toCollection(ArrayDeque::new)));
+      this((QuickList<V>) wrappedValues.stream().map(MarshallableUserObject::get)
+            .collect(Collectors.toCollection(QuickList::new)));
    }
 
    @ProtoField(number = 1, collectionImplementation = ArrayList.class)
    Collection<MarshallableUserObject<V>> getWrappedValues() {
-      return this.values.stream().map(MarshallableUserObject::new).collect(Collectors.toCollection(ArrayDeque::new));
+      List<MarshallableUserObject<V>> wrappedValues = new ArrayList<>(values.size());
+      for (V value : values) {
+         wrappedValues.add(new MarshallableUserObject<>(value));
+      }
+      return wrappedValues;
    }
 
    public boolean contains(V value) {
@@ -91,64 +98,23 @@ public String toString() {
    public ListBucket<V> offer(Collection<V> value, boolean first) {
       if (first) {
          for (V v : value) {
-            values.offerFirst(v);
+            values.addFirst(v);
          }
       } else {
          for (V v : value) {
-            values.offerLast(v);
+            values.addLast(v);
          }
       }
       return new ListBucket<>(values);
    }
 
    public ListBucket<V> set(long index, V value) {
-      if ((index >= 0 && (values.size() - 1 < index)) || (index < 0 && (values.size() + index < 0))) {
+      long position = index < 0 ? values.size() + index : index;
+      if (position < 0 || position >= values.size()) {
          return null;
       }
-
-      // set head
-      if (index == 0) {
-         values.pollFirst();
-         values.offerFirst(value);
-         return new ListBucket<>(values);
-      }
-
-      // set tail
-      if (index == -1 || index == values.size() - 1) {
-         values.pollLast();
-         values.offerLast(value);
-         return new ListBucket<>(values);
-      }
-
-      ArrayDeque<V> newBucket = new ArrayDeque<>(values.size());
-      if (index > 0) {
-         Iterator<V> ite = values.iterator();
-         int currentIndex = 0;
-         while (ite.hasNext()) {
-            V element = ite.next();
-            if (index == currentIndex) {
-               newBucket.offerLast(value);
-            } else {
-               newBucket.offerLast(element);
-            }
-            currentIndex++;
-         }
-      }
-
-      if (index < -1) {
-         Iterator<V> ite = values.descendingIterator();
-         int currentIndex = -1;
-         while (ite.hasNext()) {
-            V element = ite.next();
-            if (index == currentIndex) {
-               newBucket.offerFirst(value);
-            } else {
-               newBucket.offerFirst(element);
-            }
-            currentIndex--;
-         }
-      }
-      return new ListBucket<>(newBucket);
+      values.set(position, value);
+      return new ListBucket<>(values);
    }
 
    public Collection<V> sublist(long from, long to) {
@@ -169,24 +135,16 @@ public Collection<V> sublist(long from, long to) {
          return Collections.emptyList();
       }
 
-      List<V> result = new ArrayList<>();
-      long fromIte = from < 0 ? values.size() + from : from;
-      long toIte = to < 0 ? values.size() + to : to;
-
-      Iterator<V> ite = values.iterator();
-      int offset = 0;
-      while (ite.hasNext()) {
-         V element = ite.next();
-         if (offset < fromIte) {
-            offset++;
-            continue;
-         }
-         if (offset > toIte) {
-            break;
-         }
+      long fromIte = Math.max(0, from < 0 ? values.size() + from : from);
+      long toIte = Math.min(values.size() - 1, to < 0 ? values.size() + to : to);
+      if (fromIte > toIte) {
+         return Collections.emptyList();
+      }
 
-         result.add(element);
-         offset++;
+      List<V> result = new ArrayList<>((int) (toIte - fromIte + 1));
+      Iterator<V> ite = values.iterator(fromIte);
+      for (long i = fromIte; i <= toIte; i++) {
+         result.add(ite.next());
       }
       return result;
    }
@@ -214,23 +172,14 @@ public void trim(long from, long to) {
       long startRemoveCount = from < 0 ? values.size() + from : from;
       long keepCount = (to < 0 ? values.size() + to : to) - startRemoveCount;
 
-      Iterator<V> ite = values.iterator();
-      while (ite.hasNext() && startRemoveCount > 0) {
-         ite.next();
-         ite.remove();
-         startRemoveCount--;
-      }
-
-      // keep elements
-      while (ite.hasNext() && keepCount >= 0) {
-         ite.next();
-         keepCount--;
+      if (startRemoveCount > 0) {
+         values.removeFirst(startRemoveCount);
       }
 
-      // remove remaining elements
-      while (ite.hasNext()) {
-         ite.next();
-         ite.remove();
+      // keep keepCount + 1 elements and remove the remaining ones
+      long keep = Math.max(0, keepCount + 1);
+      if (values.size() > keep) {
+         values.removeLast(values.size() - keep);
       }
    }
 
@@ -269,33 +218,15 @@ public Collection<Long> indexOf(V element, long count, long rank, long maxLen) {
    }
 
    public ListBucket<V> insert(boolean before, V pivot, V element) {
-      Deque<V> newValues = new ArrayDeque<>(values.size() + 1);
-
-      Iterator<V> iterator = values.iterator();
-      boolean found = false;
-      while (iterator.hasNext()) {
-         V next = iterator.next();
-         if (found) {
-            newValues.offerLast(next);
-         } else {
-            if (Objects.deepEquals(pivot, next)) {
-               found = true;
-               if (before) {
-                  newValues.offerLast(element);
-                  newValues.offerLast(next);
-               } else {
-                  newValues.offerLast(next);
-                  newValues.offerLast(element);
-               }
-            } else {
-               newValues.offerLast(next);
-            }
+      long position = 0;
+      for (V value : values) {
+         if (Objects.deepEquals(pivot, value)) {
+            values.add(before ? position : position + 1, element);
+            return new ListBucket<>(values);
          }
+         position++;
       }
-      if (!found) {
-         return null;
-      }
-      return new ListBucket<>(newValues);
+      return null;
    }
 
    public long remove(long count, V element) {
@@ -324,15 +255,18 @@ public long remove(long count, V element) {
    }
 
    public V rotate(boolean rotateRight) {
+      if (values.isEmpty()) {
+         return null;
+      }
       V element;
       if (rotateRight) {
          // from head to tail
          element = values.pollFirst();
-         values.offerLast(element);
+         values.addLast(element);
       } else {
          // from tail to head
          element = values.pollLast();
-         values.offerFirst(element);
+         values.addFirst(element);
       }
       return element;
    }
@@ -410,36 +344,11 @@ public ListBucketResult poll(boolean first, long count) {
    }
 
    public V index(long index) {
-      if (index == 0) {
-         return values.element();
-      }
-      if (index == values.size() - 1 || index == -1) {
-         return values.getLast();
-      }
-      V result = null;
-      if (index > 0) {
-         if (index >= values.size()) {
-            return null;
-         }
-
-         Iterator<V> iterator = values.iterator();
-         int currentIndex = 0;
-         while (currentIndex++ <= index) {
-            result = iterator.next();
-         }
-      } else {
-         long currentIndex = Math.abs(index);
-         if (currentIndex > values.size()) {
-            return null;
-         }
-
-         Iterator<V> iterator = values.descendingIterator();
-         while (currentIndex-- > 0) {
-            result = iterator.next();
-         }
+      long position = index < 0 ? values.size() + index : index;
+      if (position < 0 || position >= values.size()) {
+         return null;
       }
-
-      return result;
+      return values.get(position);
    }
 
 }
@@ -1,7 +1,9 @@
 package org.infinispan.multimap.impl;
 
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.annotations.InfinispanModule;
 import org.infinispan.lifecycle.ModuleLifecycle;
@@ -28,6 +30,7 @@
 import org.infinispan.multimap.impl.function.multimap.RemoveFunction;
 import org.infinispan.multimap.impl.function.set.SAddFunction;
 import org.infinispan.multimap.impl.function.set.SGetFunction;
+import org.infinispan.multimap.impl.function.set.SPopFunction;
 import org.infinispan.multimap.impl.function.set.SRemoveFunction;
 import org.infinispan.multimap.impl.function.set.SSetFunction;
 import org.infinispan.multimap.impl.function.sortedset.AddManyFunction;
@@ -40,6 +43,10 @@
 import org.infinispan.multimap.impl.function.sortedset.SortedSetAggregateFunction;
 import org.infinispan.multimap.impl.function.sortedset.SortedSetRandomFunction;
 import org.infinispan.multimap.impl.function.sortedset.SubsetFunction;
+import org.infinispan.multimap.impl.function.stream.StreamAckFunction;
+import org.infinispan.multimap.impl.function.stream.StreamAddFunction;
+import org.infinispan.multimap.impl.function.stream.StreamGroupFunction;
+import org.infinispan.multimap.impl.function.stream.StreamReadGroupFunction;
 
 import java.util.Map;
 
@@ -67,6 +74,14 @@ public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguratio
       addSetExternalizers(externalizerMap);
       addHashMapExternalizers(externalizerMap);
       addSortedSetExternalizers(externalizerMap);
+      addStreamExternalizers(externalizerMap);
+   }
+
+   @Override
+   public void cacheStarting(ComponentRegistry cr, Configuration configuration, String cacheName) {
+      if (configuration.clustering().cacheMode().isClustered()) {
+         cr.registerComponent(new DeltaReplicationStatistics(), DeltaReplicationStatistics.class);
+      }
    }
 
    /**
@@ -123,6 +138,7 @@ private static void addSetExternalizers(Map<Integer, AdvancedExternalizer<?>> ex
       addAdvancedExternalizer(externalizerMap, SGetFunction.EXTERNALIZER);
       addAdvancedExternalizer(externalizerMap, SSetFunction.EXTERNALIZER);
       addAdvancedExternalizer(externalizerMap, SRemoveFunction.EXTERNALIZER);
+      addAdvancedExternalizer(externalizerMap, SPopFunction.EXTERNALIZER);
    }
 
    /**
@@ -143,6 +159,18 @@ private static void addSortedSetExternalizers(Map<Integer, AdvancedExternalizer<
       addAdvancedExternalizer(externalizerMap, SortedSetRandomFunction.EXTERNALIZER);
    }
 
+   /**
+    * Stream functions
+    *
+    * @param externalizerMap
+    */
+   private static void addStreamExternalizers(Map<Integer, AdvancedExternalizer<?>> externalizerMap) {
+      addAdvancedExternalizer(externalizerMap, StreamAddFunction.EXTERNALIZER);
+      addAdvancedExternalizer(externalizerMap, StreamGroupFunction.EXTERNALIZER);
+      addAdvancedExternalizer(externalizerMap, StreamReadGroupFunction.EXTERNALIZER);
+      addAdvancedExternalizer(externalizerMap, StreamAckFunction.EXTERNALIZER);
+   }
+
    private static void addAdvancedExternalizer(Map<Integer, AdvancedExternalizer<?>> map, AdvancedExternalizer<?> ext) {
       map.put(ext.getId(), ext);
    }
@@ -14,7 +14,13 @@
             MultimapObjectWrapper.class,
             SetBucket.class,
             SortedSetBucket.class,
-            ScoredValue.class
+            ScoredValue.class,
+            StreamBucket.class,
+            StreamBucket.ConsumerGroup.class,
+            StreamBucket.Consumer.class,
+            StreamBucket.PendingEntry.class,
+            StreamEntry.class,
+            StreamId.class
       },
       schemaFileName = "persistence.multimap.proto",
       schemaFilePath = "proto/generated",
@@ -1,7 +1,9 @@
 package org.infinispan.multimap.impl;
 
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.multimap.impl.internal.MemberScoreMap;
 import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.multimap.impl.internal.ScoredMemberTree;
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoField;
 import org.infinispan.protostream.annotations.ProtoTypeId;
@@ -10,27 +12,36 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.Spliterators;
 import java.util.TreeSet;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Bucket used to store Sorted Set data type.
+ * <p>
+ * The members are kept in a {@link ScoredMemberTree}, which answers rank and range queries in O(log n). Small sets
+ * are a pair of packed arrays and find the score of a member with a scan. Once a set grows beyond
+ * {@link #PACKED_MAX_SIZE} members, a {@link MemberScoreMap} indexes the scores by member.
  *
  * @author Katia Aresti
  * @since 15.0
  */
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_SORTED_SET_BUCKET)
 public class SortedSetBucket<V> implements SortableBucket<V> {
-   private final TreeSet<ScoredValue<V>> scoredEntries;
-   private final Map<MultimapObjectWrapper<V>, Double> entries;
+   static final int PACKED_MAX_SIZE = 128;
+
+   private final ScoredMemberTree<V> scoredEntries;
+   // Only present when the set has more than PACKED_MAX_SIZE members
+   private MemberScoreMap<V> entries;
 
    /**
     *
@@ -75,7 +86,7 @@ public Collection<ScoredValue<V>> union(Collection<ScoredValue<V>> inputValues,
          ite = inputValues.iterator();
          while (ite.hasNext()) {
             ScoredValue<V> element = ite.next();
-            Double existingScore = entries.get(element.wrappedValue());
+            Double existingScore = score(element.wrappedValue());
             Double unionScore;
             if (existingScore == null) {
                unionScore = element.score();
@@ -102,7 +113,7 @@ public Collection<ScoredValue<V>> inter(Collection<ScoredValue<V>> inputValues,
                                           double weight,
                                           AggregateFunction function) {
       if (inputValues == null) {
-         return scoredEntries.stream()
+         return scoredValues()
                .map(s -> new ScoredValue<>(s.score() * weight, s.wrappedValue()))
                .collect(Collectors.toList());
       }
@@ -111,7 +122,7 @@ public Collection<ScoredValue<V>> inter(Collection<ScoredValue<V>> inputValues,
       Iterator<ScoredValue<V>> ite = inputValues.iterator();
       while (ite.hasNext()) {
          ScoredValue<V> element = ite.next();
-         Double existingScore = entries.get(element.wrappedValue());
+         Double existingScore = score(element.wrappedValue());
          if (existingScore != null) {
             double score = function.apply(element.score(), existingScore * weight);
             sortedMergeScoredValues.add(new ScoredValue<>(score, element.wrappedValue()));
@@ -121,32 +132,32 @@ public Collection<ScoredValue<V>> inter(Collection<ScoredValue<V>> inputValues,
    }
 
    public List<ScoredValue<V>> randomMembers(int count) {
+      int size = scoredEntries.size();
       if (count == 1 || count == -1) {
-         int rank = ThreadLocalRandom.current().nextInt(scoredEntries.size());
-         return this.subsetByIndex(rank, rank, false);
+         int rank = ThreadLocalRandom.current().nextInt(size);
+         return Collections.singletonList(scoredEntries.get(rank));
       }
 
       if (count < 0) {
          // we allow duplicates and returns count size random entries
          int totalCount = Math.abs(count);
          List<ScoredValue<V>> randomEntries = new ArrayList<>(totalCount);
-         ThreadLocalRandom.current().ints(totalCount, 0, entries.size())
-               .forEach(randomPos -> randomEntries.add(this.subsetByIndex(randomPos, randomPos, false).get(0)));
+         ThreadLocalRandom.current().ints(totalCount, 0, size)
+               .forEach(randomPos -> randomEntries.add(scoredEntries.get(randomPos)));
          return randomEntries;
       }
 
       // duplicates are not allowed.
-      List<Integer> positions = new ArrayList<>(entries.size());
-      while (positions.size() < entries.size()) {
+      List<Integer> positions = new ArrayList<>(size);
+      while (positions.size() < size) {
          positions.add(positions.size());
       }
       Collections.shuffle(positions);
 
       List<ScoredValue<V>> randomEntries = new ArrayList<>();
       Iterator<Integer> ite = positions.iterator();
-      while (randomEntries.size() < count && randomEntries.size() < entries.size()) {
-         Integer pos = ite.next();
-         randomEntries.add(this.subsetByIndex(pos, pos, false).get(0));
+      while (randomEntries.size() < count && randomEntries.size() < size) {
+         randomEntries.add(scoredEntries.get(ite.next()));
       }
 
       return randomEntries;
@@ -155,15 +166,15 @@ public List<ScoredValue<V>> randomMembers(int count) {
 
    @ProtoFactory
    SortedSetBucket(Collection<ScoredValue<V>> wrappedValues) {
-      scoredEntries = new TreeSet<>();
-      scoredEntries.addAll(wrappedValues);
-      entries = new HashMap<>();
-      wrappedValues.forEach(e -> entries.put(e.wrappedValue(), e.score()));
+      this();
+      for (ScoredValue<V> scoredValue : wrappedValues) {
+         addScoredValue(scoredValue);
+      }
    }
 
    @ProtoField(number = 1, collectionImplementation = ArrayList.class)
    Collection<ScoredValue<V>> getWrappedValues() {
-      return new ArrayList<>(scoredEntries);
+      return getScoredEntriesAsList();
    }
 
    /**
@@ -171,7 +182,9 @@ Collection<ScoredValue<V>> getWrappedValues() {
     * @return entries copy
     */
    public SortedSet<ScoredValue<V>> getScoredEntries() {
-      return new TreeSet<>(scoredEntries);
+      SortedSet<ScoredValue<V>> copy = new TreeSet<>();
+      scoredEntries.forEach(copy::add);
+      return copy;
    }
 
    /**
@@ -179,49 +192,52 @@ public SortedSet<ScoredValue<V>> getScoredEntries() {
     * @return entries copy
     */
    public List<ScoredValue<V>> getScoredEntriesAsList() {
-      return new ArrayList<>(scoredEntries);
+      List<ScoredValue<V>> copy = new ArrayList<>(scoredEntries.size());
+      scoredEntries.forEach(copy::add);
+      return copy;
    }
 
    public SortedSetBucket() {
-      this.scoredEntries = new TreeSet<>();
-      this.entries = new HashMap<>();
+      this.scoredEntries = new ScoredMemberTree<>();
    }
 
    public Collection<ScoredValue<V>> pop(boolean min, long count) {
       List<ScoredValue<V>> popValuesList = new ArrayList<>();
       for (long i = 0; i < count && !scoredEntries.isEmpty(); i++) {
-         ScoredValue<V> popedScoredValue = min ? scoredEntries.pollFirst() : scoredEntries.pollLast();
-         entries.remove(popedScoredValue.wrappedValue());
+         ScoredValue<V> popedScoredValue = scoredEntries.get(min ? 0 : scoredEntries.size() - 1);
+         removeScoredValue(popedScoredValue.score(), popedScoredValue.wrappedValue());
          popValuesList.add(popedScoredValue);
       }
       return popValuesList;
    }
 
    public List<Double> scores(List<V> members) {
-     return members.stream().map(m -> entries.get(new MultimapObjectWrapper<>(m))).collect(Collectors.toList());
+     return members.stream().map(m -> score(new MultimapObjectWrapper<>(m))).collect(Collectors.toList());
    }
 
    public IndexValue indexOf(V member, boolean isRev) {
       MultimapObjectWrapper<V> wrapMember = new MultimapObjectWrapper<>(member);
-      Double score = entries.get(wrapMember);
+      Double score = score(wrapMember);
       if (score == null) {
          return null;
       }
-      SortedSet<ScoredValue<V>> tailedHead = scoredEntries.headSet(new ScoredValue<>(score, wrapMember));
-      return isRev? IndexValue.of(score, scoredEntries.size() - tailedHead.size() - 1)
-            : IndexValue.of(score, tailedHead.size());
+      int rank = scoredEntries.countBelow(score, wrapMember, false);
+      return isRev? IndexValue.of(score, scoredEntries.size() - rank - 1)
+            : IndexValue.of(score, rank);
    }
 
    public void replace(Collection<ScoredValue<V>> scoredValues) {
-      entries.clear();
       scoredEntries.clear();
+      entries = null;
       for (ScoredValue<V> scoredValue : scoredValues) {
-         addScoredValue(scoredValue);
+         addOrUpdate(new AddOrUpdatesCounters(), scoredValue);
       }
    }
 
    public Set<MultimapObjectWrapper<V>> getScoredEntriesAsValuesSet() {
-      return entries.keySet().stream().collect(Collectors.toSet());
+      Set<MultimapObjectWrapper<V>> values = new HashSet<>();
+      scoredEntries.forEach(scoredValue -> values.add(scoredValue.wrappedValue()));
+      return values;
    }
 
    public static class AddOrUpdatesCounters {
@@ -237,7 +253,7 @@ public AddOrUpdatesCounters addMany(Collection<ScoredValue<V>> scoredValues,
                                        boolean updateGreaterScoresOnly) {
 
       AddOrUpdatesCounters addResult = new AddOrUpdatesCounters();
-      int startSize = entries.size();
+      int startSize = scoredEntries.size();
 
       for (ScoredValue<V> scoredValue : scoredValues) {
          if (addOnly) {
@@ -252,13 +268,13 @@ public AddOrUpdatesCounters addMany(Collection<ScoredValue<V>> scoredValues,
             addOrUpdate(addResult, scoredValue);
          }
       }
-      addResult.created = entries.size() - startSize;
+      addResult.created = scoredEntries.size() - startSize;
       return addResult;
    }
 
    public Double incrScore(double incr, V member, boolean addOnly, boolean updateOnly, boolean updateLessScoresOnly, boolean updateGreaterScoresOnly) {
       MultimapObjectWrapper<V> wrappedValue = new MultimapObjectWrapper<>(member);
-      Double existingScore = entries.get(wrappedValue);
+      Double existingScore = score(wrappedValue);
       if ((existingScore != null && addOnly) || (existingScore == null && updateOnly)) {
          // do nothing
          return null;
@@ -274,14 +290,14 @@ public Double incrScore(double incr, V member, boolean addOnly, boolean updateOn
    }
 
    private void addOnly(ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = score(scoredValue.wrappedValue());
       if (existingScore == null){
          addScoredValue(scoredValue);
       }
    }
 
    private void updateOnly(AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = score(scoredValue.wrappedValue());
       if (existingScore != null && !existingScore.equals(scoredValue.score())) {
          updateScoredValue(scoredValue, existingScore);
          addResult.updated++;
@@ -289,7 +305,7 @@ private void updateOnly(AddOrUpdatesCounters addResult, ScoredValue<V> scoredVal
    }
 
    private void addOrUpdateGreaterScores(AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = score(scoredValue.wrappedValue());
       if (existingScore == null) {
          addScoredValue(scoredValue);
       } else if (scoredValue.score() > existingScore) {
@@ -299,7 +315,7 @@ private void addOrUpdateGreaterScores(AddOrUpdatesCounters addResult, ScoredValu
    }
 
    private void addOrUpdateLessScores(AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = score(scoredValue.wrappedValue());
       if (existingScore == null) {
          addScoredValue(scoredValue);
       } else if (scoredValue.score() < existingScore) {
@@ -309,7 +325,7 @@ private void addOrUpdateLessScores(AddOrUpdatesCounters addResult, ScoredValue<V
    }
 
    private void addOrUpdate(AddOrUpdatesCounters addResult, ScoredValue<V> scoredValue) {
-      Double existingScore = entries.get(scoredValue.wrappedValue());
+      Double existingScore = score(scoredValue.wrappedValue());
       if (existingScore == null) {
          addScoredValue(scoredValue);
       } else if (!scoredValue.score().equals(existingScore)) {
@@ -319,26 +335,43 @@ private void addOrUpdate(AddOrUpdatesCounters addResult, ScoredValue<V> scoredVa
       }
    }
 
+   private Double score(MultimapObjectWrapper<V> member) {
+      return entries == null ? scoredEntries.score(member) : entries.get(member);
+   }
+
    private void updateScoredValue(ScoredValue<V> newScoredValue, Double existingScore) {
-      ScoredValue<V> oldScoredValue = new ScoredValue<>(existingScore, newScoredValue.wrappedValue());
-      scoredEntries.remove(oldScoredValue);
-      scoredEntries.add(newScoredValue);
-      entries.put(newScoredValue.wrappedValue(), newScoredValue.score());
+      scoredEntries.remove(existingScore, newScoredValue.wrappedValue());
+      scoredEntries.add(newScoredValue.score(), newScoredValue.wrappedValue());
+      if (entries != null) {
+         entries.put(newScoredValue.wrappedValue(), newScoredValue.score());
+      }
    }
 
    private void addScoredValue(ScoredValue<V> scoredValue) {
-      scoredEntries.add(scoredValue);
-      entries.put(scoredValue.wrappedValue(), scoredValue.score());
+      scoredEntries.add(scoredValue.score(), scoredValue.wrappedValue());
+      if (entries != null) {
+         entries.put(scoredValue.wrappedValue(), scoredValue.score());
+      } else if (scoredEntries.size() > PACKED_MAX_SIZE) {
+         // The set outgrew the packed encoding, index the scores by member
+         entries = new MemberScoreMap<>(scoredEntries.size());
+         scoredEntries.forEach(sv -> entries.put(sv.wrappedValue(), sv.score()));
+      }
+   }
+
+   private void removeScoredValue(double score, MultimapObjectWrapper<V> member) {
+      scoredEntries.remove(score, member);
+      if (entries != null) {
+         entries.remove(member);
+      }
    }
 
    public <V> long removeAll(Collection<V> values) {
       long removeCount = 0;
       for (V value: values) {
-         MultimapObjectWrapper<V> wrappedValue = new MultimapObjectWrapper(value);
-         Double score = entries.get(wrappedValue);
+         MultimapObjectWrapper wrappedValue = new MultimapObjectWrapper(value);
+         Double score = score(wrappedValue);
          if (score != null) {
-            entries.remove(wrappedValue);
-            scoredEntries.remove(new ScoredValue<>(score, wrappedValue));
+            removeScoredValue(score, wrappedValue);
             removeCount++;
          }
       }
@@ -346,28 +379,20 @@ public <V> long removeAll(Collection<V> values) {
    }
 
    public long removeAll(V min, boolean includeMin, V max, boolean includeMax) {
-      List<ScoredValue<V>> subset = subset(min, includeMin, max, includeMax, false, null, null);
-      for (ScoredValue<V> value : subset) {
-         entries.remove(value.wrappedValue());
-         scoredEntries.remove(value);
-      }
-      return subset.size();
+      return removeSubset(subset(min, includeMin, max, includeMax, false, null, null));
    }
 
    public long removeAll(Double min, boolean includeMin, Double max, boolean includeMax) {
-      List<ScoredValue<V>> subset = subset(min, includeMin, max, includeMax, false, null, null);
-      for (ScoredValue<V> value : subset) {
-         entries.remove(value.wrappedValue());
-         scoredEntries.remove(value);
-      }
-      return subset.size();
+      return removeSubset(subset(min, includeMin, max, includeMax, false, null, null));
    }
 
    public long removeAll(Long min, Long max) {
-      List<ScoredValue<V>> subset = subsetByIndex(min, max, false);
+      return removeSubset(subsetByIndex(min, max, false));
+   }
+
+   private long removeSubset(List<ScoredValue<V>> subset) {
       for (ScoredValue<V> value : subset) {
-         entries.remove(value.wrappedValue());
-         scoredEntries.remove(value);
+         removeScoredValue(value.score(), value.wrappedValue());
       }
       return subset.size();
    }
@@ -381,38 +406,21 @@ public List<ScoredValue<V>> subsetByIndex(long from, long to, boolean rev) {
          return Collections.emptyList();
       }
 
-      long fromIte = from < 0 ? scoredEntries.size() + from : from;
-      long toIte = to < 0 ? scoredEntries.size() + to : to;
+      int size = scoredEntries.size();
+      long fromIte = Math.max(0, from < 0 ? size + from : from);
+      long toIte = Math.min(size - 1, to < 0 ? size + to : to);
 
       if (fromIte > toIte) {
          return Collections.emptyList();
       }
 
-      List<ScoredValue<V>> results = new ArrayList<>();
-      Iterator<ScoredValue<V>> ite;
-      if (rev) {
-         ite = scoredEntries.descendingIterator();
-      } else {
-         ite = scoredEntries.iterator();
-      }
-
-      long pos = 0;
-      while ((pos < fromIte) && ite.hasNext()) {
-         ite.next();
-         pos++;
-      }
-
-      while ((pos <= toIte) && ite.hasNext()) {
-         results.add(ite.next());
-         pos++;
-      }
-
-      return results;
+      // indexes count from the highest score when reversed
+      return rev ? range(size - 1 - toIte, size - 1 - fromIte, true, null, null)
+            : range(fromIte, toIte, false, null, null);
    }
 
-   @SuppressWarnings({ "unchecked", "rawtypes" })
    public List<ScoredValue<V>> subset(Double startScore, boolean includeStart, Double stopScore, boolean includeStop, boolean isRev, Long offset, Long count) {
-      if ((stopScore != null && stopScore.equals(startScore) && (!includeStart || !includeStop)) || (count != null && count == 0) || (offset != null && offset.equals(entries.size()))) {
+      if ((stopScore != null && stopScore.equals(startScore) && (!includeStart || !includeStop)) || (count != null && count == 0) || (offset != null && offset == scoredEntries.size())) {
          return Collections.emptyList();
       }
 
@@ -423,51 +431,9 @@ public List<ScoredValue<V>> subset(Double startScore, boolean includeStart, Doub
       boolean unboundedMin = min == null || min == Double.MIN_VALUE;
       boolean unboundedMax = max == null || max == Double.MAX_VALUE;
 
-      if (unboundedMin && unboundedMax) {
-         return applyLimit(scoredEntries, offset, count, isRev);
-      }
-
-      ScoredValue<V> startSv;
-      ScoredValue<V> stopSv;
-      if (unboundedMin) {
-         startSv = scoredEntries.first();
-      } else {
-         if (includeMin) {
-            startSv = scoredEntries.lower(ScoredValue.of(min));
-         } else {
-            startSv = scoredEntries.higher(ScoredValue.of(min));
-         }
-
-         if (startSv == null) {
-            startSv = scoredEntries.first();
-         }
-      }
-
-      if (unboundedMax) {
-         stopSv = scoredEntries.last();
-      } else {
-         if (includeMax) {
-            stopSv = scoredEntries.higher(ScoredValue.of(max));
-         } else {
-            stopSv = scoredEntries.lower(ScoredValue.of(max));
-         }
-
-         if (stopSv == null) {
-            stopSv = scoredEntries.last();
-         }
-      }
-
-      if (startSv.score() > stopSv.score()) {
-         return Collections.emptyList();
-      }
-
-      NavigableSet<ScoredValue<V>> subset = scoredEntries.subSet(
-            startSv,
-            unboundedMin || (startSv.score() > min || (includeMin && startSv.score().equals(min))),
-            stopSv,
-            unboundedMax || (stopSv.score() < max || (includeMax && stopSv.score().equals(max))));
-
-      return applyLimit(subset, offset, count, isRev);
+      long fromRank = unboundedMin ? 0 : scoredEntries.countBelow(min, null, !includeMin);
+      long toRank = (unboundedMax ? scoredEntries.size() : scoredEntries.countBelow(max, null, includeMax)) - 1;
+      return range(fromRank, toRank, isRev, offset, count);
    }
 
    public List<ScoredValue<V>> subset(V startValue, boolean includeStart, V stopValue, boolean includeStop, boolean isRev, Long offset, Long count) {
@@ -476,72 +442,55 @@ public List<ScoredValue<V>> subset(V startValue, boolean includeStart, V stopVal
       boolean includeMin = isRev ? includeStop : includeStart;
       boolean includeMax = isRev ? includeStart : includeStop;
 
-      if (maxValue != null && maxValue.equals(minValue) && (!includeMin || !includeMax) || (offset != null && offset.equals(entries.size()) || (count!= null && count == 0))) {
+      if (maxValue != null && maxValue.equals(minValue) && (!includeMin || !includeMax) || (offset != null && offset == scoredEntries.size() || (count!= null && count == 0))) {
          return Collections.emptyList();
       }
-      boolean unboundedMin = minValue == null;
-      boolean unboundedMax = maxValue == null;
-
-      if (unboundedMin && unboundedMax) {
-         return applyLimit(scoredEntries, offset, count, isRev);
+      if (scoredEntries.isEmpty()) {
+         return Collections.emptyList();
       }
       // if all the scoredEntries have the same score, then we can pick up first score for lex
       // when all the entries don't have the same score, this method can't work. This is the expected behaviour.
-      double score = scoredEntries.first().score();
-
-      ScoredValue<V> minScoredValue = ScoredValue.of(score, minValue);
-      ScoredValue<V> maxScoredValue = ScoredValue.of(score, maxValue);
+      double score = scoredEntries.get(0).score();
 
-      if (unboundedMin) {
-         NavigableSet<ScoredValue<V>> entries = scoredEntries.headSet(maxScoredValue, includeMax);
-         return applyLimit(entries, offset, count, isRev);
-      }
-
-      if (unboundedMax) {
-         NavigableSet<ScoredValue<V>> entries = scoredEntries.tailSet(minScoredValue, includeMin);
-         return applyLimit(entries, offset, count, isRev);
-      }
-
-      try {
-         NavigableSet<ScoredValue<V>> entries = scoredEntries.subSet(minScoredValue, includeMin, maxScoredValue, includeMax);
-         return applyLimit(entries, offset, count, isRev);
-      } catch (IllegalArgumentException e) {
-         return Collections.emptyList();
-      }
+      long fromRank = minValue == null ? 0
+            : scoredEntries.countBelow(score, new MultimapObjectWrapper<>(minValue), !includeMin);
+      long toRank = (maxValue == null ? scoredEntries.size()
+            : scoredEntries.countBelow(score, new MultimapObjectWrapper<>(maxValue), includeMax)) - 1;
+      return range(fromRank, toRank, isRev, offset, count);
    }
 
-   private List<ScoredValue<V>> applyLimit(NavigableSet<ScoredValue<V>> subset, final Long offset, final Long count, boolean isRev) {
-      if (!isLimited(offset, count)) {
-         List<ScoredValue<V>> result = new ArrayList<>(entries.size());
-         Iterator<ScoredValue<V>> ite = isRev ? subset.descendingIterator() : subset.iterator();
-         while (ite.hasNext()) {
-            result.add(ite.next());
-         }
-         return result;
-      }
-
-      List<ScoredValue<V>> result = new ArrayList<>();
-      Iterator<ScoredValue<V>> ite = isRev ? subset.descendingIterator() : subset.iterator();
-      if (count < 0) {
-         skipOffset(offset, ite);
-         while (ite.hasNext()) {
-            result.add(ite.next());
+   /**
+    * Returns the members between the two ranks (inclusive), from the highest score when {@code isRev}, after skipping
+    * {@code offset} members and limited to {@code count} members when both are set and {@code count} is not negative.
+    */
+   private List<ScoredValue<V>> range(long fromRank, long toRank, boolean isRev, Long offset, Long count) {
+      if (isLimited(offset, count)) {
+         if (offset > 0) {
+            if (isRev) {
+               toRank -= offset;
+            } else {
+               fromRank += offset;
+            }
          }
-      } else {
-         skipOffset(offset, ite);
-         long localCount = 0;
-         while (ite.hasNext() && localCount++ < count) {
-            result.add(ite.next());
+         if (count >= 0) {
+            if (isRev) {
+               fromRank = Math.max(fromRank, toRank - count + 1);
+            } else {
+               toRank = Math.min(toRank, fromRank + count - 1);
+            }
          }
       }
-      return result;
-   }
+      if (fromRank > toRank) {
+         return Collections.emptyList();
+      }
 
-   private void skipOffset(Long offset, Iterator<ScoredValue<V>> ite) {
-      long localOffset = 0;
-      while (localOffset++ < offset && ite.hasNext()) {
-         ite.next();
+      int resultSize = (int) (toRank - fromRank + 1);
+      List<ScoredValue<V>> result = new ArrayList<>(resultSize);
+      Iterator<ScoredValue<V>> ite = scoredEntries.iterator((int) (isRev ? toRank : fromRank), isRev);
+      while (result.size() < resultSize) {
+         result.add(ite.next());
       }
+      return result;
    }
 
    private static boolean isLimited(Long offset, Long count) {
@@ -549,7 +498,7 @@ private static boolean isLimited(Long offset, Long count) {
    }
 
    public Collection<ScoredValue<V>> toTreeSet() {
-      return new TreeSet<>(scoredEntries);
+      return getScoredEntries();
    }
 
    public long size() {
@@ -578,19 +527,23 @@ public double getScore() {
       }
    }
 
+   private Stream<ScoredValue<V>> scoredValues() {
+      return StreamSupport.stream(Spliterators.spliterator(scoredEntries.iterator(), scoredEntries.size(), 0), false);
+   }
+
    @Override
    public Stream<MultimapObjectWrapper<V>> stream() {
-      return scoredEntries.stream().map(v -> v.wrappedValue());
+      return scoredValues().map(v -> v.wrappedValue());
    }
 
    @Override
    public List<ScoredValue<V>> sort(SortOptions sortOptions) {
       Stream<ScoredValue<V>> scoredValueStream;
       if (sortOptions.alpha) {
-         scoredValueStream = scoredEntries.stream()
+         scoredValueStream = scoredValues()
                .map(v -> new ScoredValue<>(1d, v.wrappedValue()));
       } else {
-         scoredValueStream = scoredEntries.stream()
+         scoredValueStream = scoredValues()
                .map(v -> new ScoredValue<>(v.wrappedValue().asDouble(), v.wrappedValue()));
       }
       return sort(scoredValueStream, sortOptions);
@@ -0,0 +1,54 @@
+package org.infinispan.multimap.impl;
+
+/**
+ * Utility class to hold multiple options for stream additions
+ * @since 15.0
+ */
+public class StreamAddArgs {
+   public final boolean noMkStream;
+   public final long maxLen;
+   public final boolean approximate;
+
+   private StreamAddArgs(StreamAddArgs.Builder builder) {
+      this.noMkStream = builder.noMkStream;
+      this.maxLen = builder.maxLen;
+      this.approximate = builder.approximate;
+   }
+
+   public static Builder create() {
+      return new Builder();
+   }
+
+   public static class Builder {
+      private boolean noMkStream;
+      private long maxLen = -1;
+      private boolean approximate;
+
+      private Builder() {
+      }
+
+      /**
+       * Does not create the stream if it does not exist.
+       */
+      public StreamAddArgs.Builder noMkStream() {
+         this.noMkStream = true;
+         return this;
+      }
+
+      /**
+       * Trims the stream to the given length after the addition. An approximate trim only removes whole chunks.
+       */
+      public StreamAddArgs.Builder maxLen(long maxLen, boolean approximate) {
+         if (maxLen < 0) {
+            throw new IllegalArgumentException("maxLen can't be negative");
+         }
+         this.maxLen = maxLen;
+         this.approximate = approximate;
+         return this;
+      }
+
+      public StreamAddArgs build() {
+         return new StreamAddArgs(this);
+      }
+   }
+}
@@ -0,0 +1,497 @@
+package org.infinispan.multimap.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * Bucket used to store the Stream data type.
+ * <p>
+ * The entries are appended with strictly increasing identifiers. They are kept in chunks of up to {@link #CHUNK_SIZE}
+ * entries, indexed by the identifier of their first entry. Like the radix tree of listpacks in Redis, appending only
+ * touches the last chunk, a range lookup finds its first chunk in O(log n) and scans from there, and an approximate
+ * trim drops whole chunks from the head.
+ * <p>
+ * The bucket also holds the consumer groups of the stream, each with the last delivered identifier, the consumers and
+ * the pending entries list, the entries delivered to a consumer and not acknowledged yet.
+ * <p>
+ * The functions updating a stream are applied on every owner, so the current time is an argument of the operations
+ * that need it and never read from the clock here.
+ *
+ * @param <V>: The type of fields, values and names.
+ * @since 15.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_STREAM_BUCKET)
+public class StreamBucket<V> {
+   static final int CHUNK_SIZE = 128;
+
+   private final TreeMap<StreamId, List<StreamEntry<V>>> chunks = new TreeMap<>();
+   private final Map<MultimapObjectWrapper<V>, ConsumerGroup<V>> groups = new LinkedHashMap<>();
+   private StreamId lastId = StreamId.MIN;
+   private long size;
+
+   public StreamBucket() { }
+
+   @ProtoFactory
+   StreamBucket(StreamId lastId, Collection<StreamEntry<V>> entries, Collection<ConsumerGroup<V>> consumerGroups) {
+      for (StreamEntry<V> entry : entries) {
+         append(entry);
+      }
+      for (ConsumerGroup<V> group : consumerGroups) {
+         groups.put(group.name, group);
+      }
+      this.lastId = lastId;
+   }
+
+   @ProtoField(number = 1)
+   public StreamId lastId() {
+      return lastId;
+   }
+
+   @ProtoField(number = 2, collectionImplementation = ArrayList.class)
+   Collection<StreamEntry<V>> entries() {
+      return range(StreamId.MIN, StreamId.MAX, 0, false);
+   }
+
+   @ProtoField(number = 3, collectionImplementation = ArrayList.class)
+   Collection<ConsumerGroup<V>> consumerGroups() {
+      return new ArrayList<>(groups.values());
+   }
+
+   public long size() {
+      return size;
+   }
+
+   /**
+    * Computes the identifier of a new entry.
+    *
+    * @param ms: The time part, or -1 to use the current time.
+    * @param seq: The sequence number, or -1 to generate it.
+    * @param now: The current time in milliseconds.
+    * @return The identifier, or <code>null</code> if it is not greater than the last identifier of the stream.
+    */
+   public StreamId nextId(long ms, long seq, long now) {
+      if (ms < 0) {
+         if (Long.compareUnsigned(now, lastId.ms()) > 0) return new StreamId(now, 0);
+         StreamId next = lastId.next();
+         return next.equals(lastId) ? null : next;
+      }
+
+      StreamId id;
+      if (seq < 0) {
+         int compare = Long.compareUnsigned(ms, lastId.ms());
+         if (compare < 0 || (compare == 0 && lastId.seq() == -1L)) return null;
+         // On an empty stream the first identifier is 0-1, as 0-0 is never valid
+         id = compare == 0 ? new StreamId(ms, lastId.seq() + 1) : new StreamId(ms, 0);
+      } else {
+         id = new StreamId(ms, seq);
+      }
+      return id.compareTo(lastId) > 0 ? id : null;
+   }
+
+   /**
+    * Appends an entry, the identifier must be the one returned by {@link #nextId(long, long, long)}.
+    */
+   public StreamEntry<V> add(StreamId id, List<V> fieldsAndValues) {
+      StreamEntry<V> entry = new StreamEntry<>(id, fieldsAndValues);
+      append(entry);
+      return entry;
+   }
+
+   private void append(StreamEntry<V> entry) {
+      Map.Entry<StreamId, List<StreamEntry<V>>> last = chunks.lastEntry();
+      List<StreamEntry<V>> chunk;
+      if (last == null || last.getValue().size() >= CHUNK_SIZE) {
+         chunk = new ArrayList<>();
+         chunks.put(entry.id(), chunk);
+      } else {
+         chunk = last.getValue();
+      }
+      chunk.add(entry);
+      lastId = entry.id();
+      size++;
+   }
+
+   /**
+    * Removes the oldest entries until the stream has at most <code>maxLen</code> entries.
+    * <p>
+    * An approximate trim only removes whole chunks, so the stream may keep more entries than requested, but it never
+    * copies a chunk.
+    *
+    * @return The number of removed entries.
+    */
+   public long trim(long maxLen, boolean approximate) {
+      long removed = 0;
+      while (size > maxLen) {
+         Map.Entry<StreamId, List<StreamEntry<V>>> first = chunks.firstEntry();
+         List<StreamEntry<V>> chunk = first.getValue();
+         long excess = size - maxLen;
+         if (chunk.size() <= excess) {
+            chunks.pollFirstEntry();
+            size -= chunk.size();
+            removed += chunk.size();
+            continue;
+         }
+
+         if (approximate) break;
+
+         chunk.subList(0, (int) excess).clear();
+         chunks.pollFirstEntry();
+         chunks.put(chunk.get(0).id(), chunk);
+         size -= excess;
+         removed += excess;
+      }
+      return removed;
+   }
+
+   /**
+    * Returns the entries with an identifier between <code>start</code> and <code>end</code>, both inclusive.
+    *
+    * @param count: The maximum number of entries, or 0 for all of them.
+    * @param reverse: Whether to return the entries from <code>end</code> to <code>start</code>.
+    */
+   public List<StreamEntry<V>> range(StreamId start, StreamId end, long count, boolean reverse) {
+      List<StreamEntry<V>> result = new ArrayList<>();
+      if (start.compareTo(end) > 0) return result;
+
+      if (reverse) {
+         for (List<StreamEntry<V>> chunk : chunks.headMap(end, true).descendingMap().values()) {
+            for (int i = upperBound(chunk, end) - 1; i >= 0; i--) {
+               StreamEntry<V> entry = chunk.get(i);
+               if (entry.id().compareTo(start) < 0 || (count > 0 && result.size() >= count)) return result;
+               result.add(entry);
+            }
+         }
+         return result;
+      }
+
+      StreamId from = chunks.floorKey(start);
+      NavigableMap<StreamId, List<StreamEntry<V>>> tail = from == null ? chunks : chunks.tailMap(from, true);
+      for (List<StreamEntry<V>> chunk : tail.values()) {
+         for (int i = lowerBound(chunk, start); i < chunk.size(); i++) {
+            StreamEntry<V> entry = chunk.get(i);
+            if (entry.id().compareTo(end) > 0 || (count > 0 && result.size() >= count)) return result;
+            result.add(entry);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * @return The entries with an identifier greater than <code>id</code>.
+    */
+   public List<StreamEntry<V>> after(StreamId id, long count) {
+      if (id.equals(StreamId.MAX)) return new ArrayList<>();
+      return range(id.next(), StreamId.MAX, count, false);
+   }
+
+   public StreamEntry<V> get(StreamId id) {
+      Map.Entry<StreamId, List<StreamEntry<V>>> chunk = chunks.floorEntry(id);
+      if (chunk == null) return null;
+      List<StreamEntry<V>> entries = chunk.getValue();
+      int i = lowerBound(entries, id);
+      return i < entries.size() && entries.get(i).id().equals(id) ? entries.get(i) : null;
+   }
+
+   public StreamEntry<V> first() {
+      Map.Entry<StreamId, List<StreamEntry<V>>> chunk = chunks.firstEntry();
+      return chunk == null ? null : chunk.getValue().get(0);
+   }
+
+   public StreamEntry<V> last() {
+      Map.Entry<StreamId, List<StreamEntry<V>>> chunk = chunks.lastEntry();
+      return chunk == null ? null : chunk.getValue().get(chunk.getValue().size() - 1);
+   }
+
+   /**
+    * @return The position of the first entry with an identifier greater or equal to <code>id</code>.
+    */
+   private static <V> int lowerBound(List<StreamEntry<V>> chunk, StreamId id) {
+      return search(chunk, id, false);
+   }
+
+   /**
+    * @return The position of the first entry with an identifier greater than <code>id</code>.
+    */
+   private static <V> int upperBound(List<StreamEntry<V>> chunk, StreamId id) {
+      return search(chunk, id, true);
+   }
+
+   private static <V> int search(List<StreamEntry<V>> chunk, StreamId id, boolean skipEqual) {
+      int low = 0;
+      int high = chunk.size();
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         int compare = chunk.get(mid).id().compareTo(id);
+         if (compare < 0 || (skipEqual && compare == 0)) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   public ConsumerGroup<V> group(V name) {
+      return groups.get(new MultimapObjectWrapper<>(name));
+   }
+
+   public Collection<ConsumerGroup<V>> groups() {
+      return groups.values();
+   }
+
+   /**
+    * @return <code>false</code> if the group already exists.
+    */
+   public boolean createGroup(V name, StreamId lastDelivered) {
+      MultimapObjectWrapper<V> key = new MultimapObjectWrapper<>(name);
+      if (groups.containsKey(key)) return false;
+      groups.put(key, new ConsumerGroup<>(key, lastDelivered));
+      return true;
+   }
+
+   public boolean destroyGroup(V name) {
+      return groups.remove(new MultimapObjectWrapper<>(name)) != null;
+   }
+
+   @Override
+   public String toString() {
+      return "StreamBucket{size=" + size + ", lastId=" + lastId + ", chunks=" + chunks.size() + ", groups=" + groups.size() + '}';
+   }
+
+   /**
+    * A consumer group of the stream.
+    */
+   @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_STREAM_CONSUMER_GROUP)
+   public static class ConsumerGroup<V> {
+      private final MultimapObjectWrapper<V> name;
+      private final TreeMap<StreamId, PendingEntry<V>> pending = new TreeMap<>();
+      private final Map<MultimapObjectWrapper<V>, Consumer<V>> consumers = new LinkedHashMap<>();
+      private StreamId lastDelivered;
+
+      ConsumerGroup(MultimapObjectWrapper<V> name, StreamId lastDelivered) {
+         this.name = name;
+         this.lastDelivered = lastDelivered;
+      }
+
+      @ProtoFactory
+      ConsumerGroup(MultimapObjectWrapper<V> name, StreamId lastDelivered, Collection<PendingEntry<V>> pendingEntries,
+                    Collection<Consumer<V>> groupConsumers) {
+         this(name, lastDelivered);
+         for (PendingEntry<V> entry : pendingEntries) {
+            pending.put(entry.id, entry);
+         }
+         for (Consumer<V> consumer : groupConsumers) {
+            consumers.put(consumer.name, consumer);
+         }
+      }
+
+      @ProtoField(number = 1)
+      MultimapObjectWrapper<V> name() {
+         return name;
+      }
+
+      @ProtoField(number = 2)
+      public StreamId lastDelivered() {
+         return lastDelivered;
+      }
+
+      @ProtoField(number = 3, collectionImplementation = ArrayList.class)
+      Collection<PendingEntry<V>> pendingEntries() {
+         return new ArrayList<>(pending.values());
+      }
+
+      @ProtoField(number = 4, collectionImplementation = ArrayList.class)
+      Collection<Consumer<V>> groupConsumers() {
+         return new ArrayList<>(consumers.values());
+      }
+
+      public V getName() {
+         return name.get();
+      }
+
+      public void lastDelivered(StreamId lastDelivered) {
+         this.lastDelivered = lastDelivered;
+      }
+
+      /**
+       * @return The pending entries, sorted by identifier.
+       */
+      public NavigableMap<StreamId, PendingEntry<V>> pending() {
+         return pending;
+      }
+
+      public Collection<Consumer<V>> consumers() {
+         return consumers.values();
+      }
+
+      /**
+       * Delivers the entries after the last delivered identifier to the consumer, and adds them to the pending entries
+       * list unless <code>noAck</code> is set.
+       */
+      public List<StreamEntry<V>> readNew(StreamBucket<V> stream, V consumer, long count, boolean noAck, long now) {
+         MultimapObjectWrapper<V> owner = seen(consumer, now).name;
+         List<StreamEntry<V>> entries = stream.after(lastDelivered, count);
+         for (StreamEntry<V> entry : entries) {
+            lastDelivered = entry.id();
+            if (noAck) continue;
+
+            PendingEntry<V> existing = pending.get(entry.id());
+            if (existing == null) {
+               pending.put(entry.id(), new PendingEntry<>(entry.id(), owner, now, 1));
+            } else {
+               existing.consumer = owner;
+               existing.deliveryTime = now;
+               existing.deliveryCount++;
+            }
+         }
+         return entries;
+      }
+
+      /**
+       * Returns the pending entries of the consumer with an identifier greater than <code>id</code>. The entries no
+       * longer in the stream have <code>null</code> fields and values.
+       */
+      public List<StreamEntry<V>> readPending(StreamBucket<V> stream, V consumer, StreamId id, long count, long now) {
+         MultimapObjectWrapper<V> owner = seen(consumer, now).name;
+         List<StreamEntry<V>> entries = new ArrayList<>();
+         if (id.equals(StreamId.MAX)) return entries;
+         for (PendingEntry<V> entry : pending.tailMap(id, false).values()) {
+            if (count > 0 && entries.size() >= count) break;
+            if (!entry.consumer.equals(owner)) continue;
+
+            StreamEntry<V> streamEntry = stream.get(entry.id);
+            entries.add(streamEntry != null ? streamEntry : new StreamEntry<>(entry.id, null));
+         }
+         return entries;
+      }
+
+      /**
+       * @return The number of identifiers removed from the pending entries list.
+       */
+      public long ack(Collection<StreamId> ids) {
+         long acked = 0;
+         for (StreamId id : ids) {
+            if (pending.remove(id) != null) acked++;
+         }
+         return acked;
+      }
+
+      /**
+       * @return <code>false</code> if the consumer already exists.
+       */
+      public boolean createConsumer(V consumer, long now) {
+         MultimapObjectWrapper<V> key = new MultimapObjectWrapper<>(consumer);
+         if (consumers.containsKey(key)) return false;
+         consumers.put(key, new Consumer<>(key, now));
+         return true;
+      }
+
+      /**
+       * Removes the consumer and its pending entries.
+       *
+       * @return The number of pending entries the consumer had, or -1 if the consumer does not exist.
+       */
+      public long deleteConsumer(V consumer) {
+         MultimapObjectWrapper<V> key = new MultimapObjectWrapper<>(consumer);
+         if (consumers.remove(key) == null) return -1;
+         long removed = 0;
+         for (Iterator<PendingEntry<V>> it = pending.values().iterator(); it.hasNext(); ) {
+            if (it.next().consumer.equals(key)) {
+               it.remove();
+               removed++;
+            }
+         }
+         return removed;
+      }
+
+      private Consumer<V> seen(V consumer, long now) {
+         Consumer<V> c = consumers.computeIfAbsent(new MultimapObjectWrapper<>(consumer), k -> new Consumer<>(k, now));
+         c.seenTime = now;
+         return c;
+      }
+   }
+
+   /**
+    * An entry delivered to a consumer and not acknowledged yet.
+    */
+   @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_STREAM_PENDING_ENTRY)
+   public static class PendingEntry<V> {
+      private final StreamId id;
+      private MultimapObjectWrapper<V> consumer;
+      private long deliveryTime;
+      private long deliveryCount;
+
+      @ProtoFactory
+      PendingEntry(StreamId id, MultimapObjectWrapper<V> consumer, long deliveryTime, long deliveryCount) {
+         this.id = id;
+         this.consumer = consumer;
+         this.deliveryTime = deliveryTime;
+         this.deliveryCount = deliveryCount;
+      }
+
+      @ProtoField(number = 1)
+      public StreamId id() {
+         return id;
+      }
+
+      @ProtoField(number = 2)
+      MultimapObjectWrapper<V> consumer() {
+         return consumer;
+      }
+
+      @ProtoField(number = 3, defaultValue = "0")
+      public long deliveryTime() {
+         return deliveryTime;
+      }
+
+      @ProtoField(number = 4, defaultValue = "0")
+      public long deliveryCount() {
+         return deliveryCount;
+      }
+
+      public V getConsumer() {
+         return consumer.get();
+      }
+   }
+
+   /**
+    * A consumer of a group, with the last time it read from the group.
+    */
+   @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_STREAM_CONSUMER)
+   public static class Consumer<V> {
+      private final MultimapObjectWrapper<V> name;
+      private long seenTime;
+
+      @ProtoFactory
+      Consumer(MultimapObjectWrapper<V> name, long seenTime) {
+         this.name = name;
+         this.seenTime = seenTime;
+      }
+
+      @ProtoField(number = 1)
+      MultimapObjectWrapper<V> name() {
+         return name;
+      }
+
+      @ProtoField(number = 2, defaultValue = "0")
+      public long seenTime() {
+         return seenTime;
+      }
+
+      public V getName() {
+         return name.get();
+      }
+   }
+}
@@ -0,0 +1,56 @@
+package org.infinispan.multimap.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+
+/**
+ * An entry of a stream, the identifier and the field-value pairs.
+ * <p>
+ * The pairs are flattened in a single list, fields at even positions and values at odd positions, which is also the
+ * RESP representation.
+ *
+ * @param <V>: The type of fields and values.
+ * @since 15.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_STREAM_ENTRY)
+public class StreamEntry<V> {
+   private final StreamId id;
+   private final List<V> fieldsAndValues;
+
+   public StreamEntry(StreamId id, List<V> fieldsAndValues) {
+      this.id = id;
+      this.fieldsAndValues = fieldsAndValues;
+   }
+
+   @ProtoFactory
+   StreamEntry(StreamId id, Collection<MultimapObjectWrapper<V>> wrappedValues) {
+      this(id, wrappedValues.stream().map(MultimapObjectWrapper::get).collect(Collectors.toList()));
+   }
+
+   @ProtoField(number = 1)
+   public StreamId id() {
+      return id;
+   }
+
+   @ProtoField(number = 2, collectionImplementation = ArrayList.class)
+   Collection<MultimapObjectWrapper<V>> getWrappedValues() {
+      return fieldsAndValues.stream().map(MultimapObjectWrapper::new).collect(Collectors.toList());
+   }
+
+   public List<V> fieldsAndValues() {
+      return fieldsAndValues;
+   }
+
+   @Override
+   public String toString() {
+      return "StreamEntry{id=" + id + ", size=" + fieldsAndValues.size() / 2 + '}';
+   }
+}
@@ -0,0 +1,96 @@
+package org.infinispan.multimap.impl;
+
+import org.infinispan.commons.marshall.ProtoStreamTypeIds;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.annotations.ProtoTypeId;
+import org.infinispan.protostream.descriptors.Type;
+
+/**
+ * The identifier of a stream entry.
+ * <p>
+ * An identifier has a milliseconds time part and a sequence number, both unsigned 64 bits numbers. The string form is
+ * <code>ms-seq</code>. The identifiers in a stream are strictly increasing.
+ *
+ * @since 15.0
+ */
+@ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_STREAM_ID)
+public final class StreamId implements Comparable<StreamId> {
+   public static final StreamId MIN = new StreamId(0, 0);
+   public static final StreamId MAX = new StreamId(-1L, -1L);
+
+   private final long ms;
+   private final long seq;
+
+   @ProtoFactory
+   public StreamId(long ms, long seq) {
+      this.ms = ms;
+      this.seq = seq;
+   }
+
+   /**
+    * Parses the <code>ms-seq</code> form. A missing sequence number is replaced by the given default.
+    *
+    * @throws NumberFormatException if the value is not a valid identifier.
+    */
+   public static StreamId parse(CharSequence value, long defaultSeq) {
+      String str = value.toString();
+      int dash = str.indexOf('-');
+      if (dash < 0) {
+         return new StreamId(Long.parseUnsignedLong(str), defaultSeq);
+      }
+      return new StreamId(Long.parseUnsignedLong(str.substring(0, dash)), Long.parseUnsignedLong(str.substring(dash + 1)));
+   }
+
+   @ProtoField(number = 1, type = Type.UINT64, defaultValue = "0")
+   public long ms() {
+      return ms;
+   }
+
+   @ProtoField(number = 2, type = Type.UINT64, defaultValue = "0")
+   public long seq() {
+      return seq;
+   }
+
+   /**
+    * @return the smallest identifier greater than this one, or this one if it is {@link #MAX}.
+    */
+   public StreamId next() {
+      if (seq != -1L) return new StreamId(ms, seq + 1);
+      if (ms != -1L) return new StreamId(ms + 1, 0);
+      return this;
+   }
+
+   /**
+    * @return the greatest identifier smaller than this one, or this one if it is {@link #MIN}.
+    */
+   public StreamId previous() {
+      if (seq != 0) return new StreamId(ms, seq - 1);
+      if (ms != 0) return new StreamId(ms - 1, -1L);
+      return this;
+   }
+
+   @Override
+   public int compareTo(StreamId other) {
+      int compare = Long.compareUnsigned(ms, other.ms);
+      return compare != 0 ? compare : Long.compareUnsigned(seq, other.seq);
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof StreamId)) return false;
+      StreamId other = (StreamId) o;
+      return ms == other.ms && seq == other.seq;
+   }
+
+   @Override
+   public int hashCode() {
+      return 31 * Long.hashCode(ms) + Long.hashCode(seq);
+   }
+
+   @Override
+   public String toString() {
+      return Long.toUnsignedString(ms) + "-" + Long.toUnsignedString(seq);
+   }
+}
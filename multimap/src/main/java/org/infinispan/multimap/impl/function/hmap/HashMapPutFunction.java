@@ -11,8 +11,11 @@
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.HashMapBucket;
 
@@ -25,15 +28,21 @@
  * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
  * @since 15.0
  */
-public class HashMapPutFunction<K, HK, HV> extends HashMapBucketBaseFunction<K, HK, HV, Integer> {
+public class HashMapPutFunction<K, HK, HV> extends HashMapBucketBaseFunction<K, HK, HV, Integer> implements InjectableComponent {
    public static final AdvancedExternalizer<HashMapPutFunction> EXTERNALIZER = new Externalizer();
 
    private final Collection<Map.Entry<HK, HV>> entries;
+   private transient DeltaReplicationStatistics statistics;
 
    public HashMapPutFunction(Collection<Map.Entry<HK, HV>> entries) {
       this.entries = entries;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Integer apply(EntryView.ReadWriteEntryView<K, HashMapBucket<HK, HV>> view) {
       Map<HK, HV> values = entries.stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
@@ -49,6 +58,9 @@ public Integer apply(EntryView.ReadWriteEntryView<K, HashMapBucket<HK, HV>> view
          res = values.size();
       }
       view.set(bucket);
+      if (statistics != null) {
+         statistics.recordDelta(view.key(), entries, bucket.size());
+      }
 
       return res;
    }
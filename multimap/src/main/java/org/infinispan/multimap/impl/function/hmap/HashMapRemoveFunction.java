@@ -10,19 +10,28 @@
 import java.util.Optional;
 import java.util.Set;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.HashMapBucket;
 
-public class HashMapRemoveFunction<K, HK, HV> extends HashMapBucketBaseFunction<K, HK, HV, Integer> {
+public class HashMapRemoveFunction<K, HK, HV> extends HashMapBucketBaseFunction<K, HK, HV, Integer> implements InjectableComponent {
    public static final Externalizer EXTERNALIZER = new Externalizer();
 
    private final Collection<HK> keys;
+   private transient DeltaReplicationStatistics statistics;
 
    public HashMapRemoveFunction(Collection<HK> keys) {
       this.keys = keys;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Integer apply(EntryView.ReadWriteEntryView<K, HashMapBucket<HK, HV>> view) {
       int res = 0;
@@ -36,6 +45,9 @@ public Integer apply(EntryView.ReadWriteEntryView<K, HashMapBucket<HK, HV>> view
             view.remove();
          } else {
             view.set(bucket);
+            if (statistics != null && res > 0) {
+               statistics.recordDelta(view.key(), keys, bucket.size());
+            }
          }
       }
       return res;
@@ -7,9 +7,12 @@
 import java.util.Optional;
 import java.util.Set;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
 import org.infinispan.multimap.impl.Bucket;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 
 /**
@@ -20,10 +23,11 @@
  * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
  * @since 9.2
  */
-public final class PutFunction<K, V> implements BaseFunction<K, V, Void> {
+public final class PutFunction<K, V> implements BaseFunction<K, V, Void>, InjectableComponent {
 
    public static final AdvancedExternalizer<PutFunction> EXTERNALIZER = new Externalizer();
    private final V value;
+   private transient DeltaReplicationStatistics statistics;
    private final boolean supportsDuplicates;
 
    public PutFunction(V value, boolean supportsDuplicates) {
@@ -31,6 +35,11 @@ public PutFunction(V value, boolean supportsDuplicates) {
       this.supportsDuplicates = supportsDuplicates;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Void apply(EntryView.ReadWriteEntryView<K, Bucket<V>> entryView) {
       Optional<Bucket<V>> existing = entryView.peek();
@@ -39,6 +48,9 @@ public Void apply(EntryView.ReadWriteEntryView<K, Bucket<V>> entryView) {
          //don't change the cache is the value already exists. it avoids replicating a no-op
          if (newBucket != null) {
             entryView.set(newBucket);
+            if (statistics != null) {
+               statistics.recordDelta(entryView.key(), Collections.singletonList(value), newBucket.size());
+            }
          }
       } else {
          entryView.set(new Bucket<>(value));
@@ -3,6 +3,7 @@
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -11,8 +12,12 @@
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.SetBucket;
 
@@ -26,14 +31,27 @@
  *      Functions</a>
  * @since 15.0
  */
-public final class SPopFunction<K, V> implements SetBucketBaseFunction<K, V, Collection<V>> {
+public final class SPopFunction<K, V> implements SetBucketBaseFunction<K, V, Collection<V>>, InjectableComponent {
    public static final AdvancedExternalizer<SPopFunction> EXTERNALIZER = new Externalizer();
    private final long count;
+   // Members removed by the primary owner, so that the backup owners remove the same ones
+   private Collection<V> popped;
+   private transient DeltaReplicationStatistics statistics;
    private final boolean remove;
 
    public SPopFunction(long count, boolean remove) {
+      this(count, remove, null);
+   }
+
+   private SPopFunction(long count, boolean remove, Collection<V> popped) {
       this.count = count;
       this.remove = remove;
+      this.popped = popped;
+   }
+
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
    }
 
    @Override
@@ -44,9 +62,22 @@ public Collection<V> apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryVi
       }
       var s = existing.get();
       if (count > 0) {
-         var popped = getRandomSubset(s.toList(), count);
-         if (remove) {
-            s.removeAll(popped);
+         if (!remove) {
+            return getRandomSubset(s.toList(), count);
+         }
+         // The members are picked once, the function is replicated with them and removes the same ones everywhere
+         if (popped == null) {
+            popped = new ArrayList<>(getRandomSubset(s.toList(), count));
+         }
+         if (s.removeAll(popped)) {
+            if (s.isEmpty()) {
+               entryView.remove();
+            } else {
+               entryView.set(s);
+               if (statistics != null) {
+                  statistics.recordDelta(entryView.key(), popped, s.size());
+               }
+            }
          }
          return popped;
       }
@@ -79,13 +110,15 @@ public Integer getId() {
       public void writeObject(ObjectOutput output, SPopFunction object) throws IOException {
          output.writeLong(object.count);
          output.writeBoolean(object.remove);
+         MarshallUtil.marshallCollection(object.popped, output);
       }
 
       @Override
       public SPopFunction<?, ?> readObject(ObjectInput input) throws IOException, ClassNotFoundException {
          var count = input.readLong();
          var remove = input.readBoolean();
-         return new SPopFunction<>(count, remove);
+         List<Object> popped = MarshallUtil.unmarshallCollection(input, ArrayList::new);
+         return new SPopFunction<>(count, remove, popped);
       }
    }
 }
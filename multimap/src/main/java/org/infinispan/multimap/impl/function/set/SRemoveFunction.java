@@ -9,8 +9,11 @@
 import java.util.Optional;
 import java.util.Set;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.SetBucket;
 
@@ -24,14 +27,20 @@
  *      Functions</a>
  * @since 15.0
  */
-public final class SRemoveFunction<K, V> implements SetBucketBaseFunction<K, V, Long> {
+public final class SRemoveFunction<K, V> implements SetBucketBaseFunction<K, V, Long>, InjectableComponent {
    public static final AdvancedExternalizer<SRemoveFunction> EXTERNALIZER = new Externalizer();
    private final Collection<V> values;
+   private transient DeltaReplicationStatistics statistics;
 
    public SRemoveFunction(Collection<V> values) {
       this.values = values;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Long apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryView) {
       Optional<SetBucket<V>> existing = entryView.peek();
@@ -49,6 +58,9 @@ public Long apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryView) {
       if (removed > 0) {
          if (s.size() > 0) {
             entryView.set(s);
+            if (statistics != null) {
+               statistics.recordDelta(entryView.key(), values, s.size());
+            }
          } else {
             entryView.remove();
          }
@@ -8,8 +8,11 @@
 import java.util.HashSet;
 import java.util.Set;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.SetBucket;
 
@@ -23,18 +26,27 @@
  *      Functions</a>
  * @since 15.0
  */
-public final class SSetFunction<K, V> implements SetBucketBaseFunction<K, V, Long> {
+public final class SSetFunction<K, V> implements SetBucketBaseFunction<K, V, Long>, InjectableComponent {
    public static final AdvancedExternalizer<SSetFunction> EXTERNALIZER = new Externalizer();
    private final Collection<V> values;
+   private transient DeltaReplicationStatistics statistics;
 
    public SSetFunction(Collection<V> values) {
       this.values = values;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Long apply(EntryView.ReadWriteEntryView<K, SetBucket<V>> entryView) {
       var set = new SetBucket<V>(new HashSet<>(values));
       entryView.set(set);
+      if (statistics != null) {
+         statistics.recordFullBucket(entryView.key());
+      }
       return (long) set.size();
    }
 
@@ -1,8 +1,11 @@
 package org.infinispan.multimap.impl.function.sortedset;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.ScoredValue;
 import org.infinispan.multimap.impl.SortedSetAddArgs;
@@ -27,7 +30,7 @@
  * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
  * @since 15.0
  */
-public final class AddManyFunction<K, V> implements SortedSetBucketBaseFunction<K, V, Long> {
+public final class AddManyFunction<K, V> implements SortedSetBucketBaseFunction<K, V, Long>, InjectableComponent {
    public static final AdvancedExternalizer<AddManyFunction> EXTERNALIZER = new Externalizer();
    private final Collection<ScoredValue<V>> scoredValues;
    private final boolean addOnly;
@@ -36,6 +39,7 @@
    private final boolean updateGreaterScoresOnly;
    private final boolean returnChangedCount;
    private final boolean replace;
+   private transient DeltaReplicationStatistics statistics;
 
    public AddManyFunction(Collection<ScoredValue<V>> scoredValues, SortedSetAddArgs args) {
       this.scoredValues = scoredValues;
@@ -62,6 +66,11 @@ public AddManyFunction(Collection<ScoredValue<V>> scoredValues,
       this.replace = replace;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView) {
       Optional<SortedSetBucket<V>> existing = entryView.peek();
@@ -79,6 +88,9 @@ public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView)
                entryView.remove();
             } else {
                entryView.set(bucket);
+               if (statistics != null) {
+                  statistics.recordFullBucket(entryView.key());
+               }
             }
             return bucket.size();
          }
@@ -87,6 +99,9 @@ public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView)
          //don't change if nothing was added or updated. it avoids replicating a no-op
          if (addResult.updated > 0 || addResult.created > 0) {
             entryView.set(bucket);
+            if (statistics != null) {
+               statistics.recordDelta(entryView.key(), scoredValues, bucket.size());
+            }
          }
          // Return created only or created and updated count
          return returnChangedCount? addResult.created + addResult.updated : addResult.created;
@@ -1,7 +1,10 @@
 package org.infinispan.multimap.impl.function.sortedset;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.SortedSetAddArgs;
 import org.infinispan.multimap.impl.SortedSetBucket;
@@ -21,13 +24,14 @@
  * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
  * @since 15.0
  */
-public final class IncrFunction<K, V> implements SortedSetBucketBaseFunction<K, V, Double> {
+public final class IncrFunction<K, V> implements SortedSetBucketBaseFunction<K, V, Double>, InjectableComponent {
    public static final AdvancedExternalizer<IncrFunction> EXTERNALIZER = new Externalizer();
    private final Double score;
    private final V member;
    private final boolean addOnly;
    private final boolean updateOnly;
    private final boolean updateLessScoresOnly;
+   private transient DeltaReplicationStatistics statistics;
    private final boolean updateGreaterScoresOnly;
 
    public IncrFunction(double score, V member, SortedSetAddArgs args) {
@@ -52,6 +56,11 @@ public IncrFunction(double score, V value,
       this.updateGreaterScoresOnly = updateGreaterScoresOnly;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Double apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView) {
       Optional<SortedSetBucket<V>> existing = entryView.peek();
@@ -67,6 +76,9 @@ public Double apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryVie
          //don't change if nothing was added or updated. it avoids replicating a no-op
          if (result != null) {
             entryView.set(bucket);
+            if (statistics != null) {
+               statistics.recordDelta(entryView.key(), Collections.singletonList(member), bucket.size());
+            }
          }
       }
 
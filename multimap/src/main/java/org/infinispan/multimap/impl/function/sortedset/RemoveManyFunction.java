@@ -1,8 +1,11 @@
 package org.infinispan.multimap.impl.function.sortedset;
 
+import org.infinispan.commands.functional.functions.InjectableComponent;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
 import org.infinispan.multimap.impl.ExternalizerIds;
 import org.infinispan.multimap.impl.SortedSetBucket;
 
@@ -25,11 +28,12 @@
  * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
  * @since 15.0
  */
-public final class RemoveManyFunction<K, V, T> implements SortedSetBucketBaseFunction<K, V, Long> {
+public final class RemoveManyFunction<K, V, T> implements SortedSetBucketBaseFunction<K, V, Long>, InjectableComponent {
    public static final AdvancedExternalizer<RemoveManyFunction> EXTERNALIZER = new Externalizer();
    private final List<T> values;
    private final boolean includeMin;
    private final boolean includeMax;
+   private transient DeltaReplicationStatistics statistics;
    private final SortedSetOperationType type;
 
    public RemoveManyFunction(List<T> values, SortedSetOperationType type) {
@@ -46,6 +50,11 @@ public RemoveManyFunction(List<T> values, boolean includeMin, boolean includeMax
       this.type = type;
    }
 
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
    @Override
    public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView) {
       Optional<SortedSetBucket<V>> existing = entryView.peek();
@@ -70,6 +79,9 @@ public Long apply(EntryView.ReadWriteEntryView<K, SortedSetBucket<V>> entryView)
             entryView.remove();
          } else {
             entryView.set(bucket);
+            if (statistics != null && removeCount > 0) {
+               statistics.recordDelta(entryView.key(), values, bucket.size());
+            }
          }
          return removeCount;
       }
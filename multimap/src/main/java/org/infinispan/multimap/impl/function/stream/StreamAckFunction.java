@@ -0,0 +1,83 @@
+package org.infinispan.multimap.impl.function.stream;
+
+import static org.infinispan.commons.marshall.MarshallUtil.marshallCollection;
+import static org.infinispan.commons.marshall.MarshallUtil.unmarshallCollection;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.ExternalizerIds;
+import org.infinispan.multimap.impl.StreamBucket;
+import org.infinispan.multimap.impl.StreamId;
+
+/**
+ * Serializable function used by
+ * {@link org.infinispan.multimap.impl.EmbeddedMultimapStreamCache#ack(Object, Object, Collection)}.
+ * <p>
+ * Removes the identifiers from the pending entries list of the group.
+ *
+ * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
+ * @since 15.0
+ */
+public final class StreamAckFunction<K, V> implements StreamBucketBaseFunction<K, V, Long> {
+   public static final AdvancedExternalizer<StreamAckFunction> EXTERNALIZER = new Externalizer();
+
+   private final V group;
+   private final Collection<StreamId> ids;
+
+   public StreamAckFunction(V group, Collection<StreamId> ids) {
+      this.group = group;
+      this.ids = ids;
+   }
+
+   @Override
+   public Long apply(EntryView.ReadWriteEntryView<K, StreamBucket<V>> entryView) {
+      Optional<StreamBucket<V>> existing = entryView.peek();
+      if (existing.isEmpty()) return 0L;
+
+      StreamBucket<V> bucket = existing.get();
+      StreamBucket.ConsumerGroup<V> consumerGroup = bucket.group(group);
+      if (consumerGroup == null) return 0L;
+
+      long acked = consumerGroup.ack(ids);
+      //don't change if nothing was acknowledged. it avoids replicating a no-op
+      if (acked > 0) {
+         entryView.set(bucket);
+      }
+      return acked;
+   }
+
+   private static class Externalizer implements AdvancedExternalizer<StreamAckFunction> {
+
+      @Override
+      public Set<Class<? extends StreamAckFunction>> getTypeClasses() {
+         return Collections.singleton(StreamAckFunction.class);
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.STREAM_ACK_FUNCTION;
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, StreamAckFunction object) throws IOException {
+         output.writeObject(object.group);
+         marshallCollection(object.ids, output);
+      }
+
+      @Override
+      public StreamAckFunction readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         Object group = input.readObject();
+         Collection<StreamId> ids = unmarshallCollection(input, ArrayList::new);
+         return new StreamAckFunction<>(group, ids);
+      }
+   }
+}
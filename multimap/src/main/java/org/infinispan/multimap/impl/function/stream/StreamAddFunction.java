@@ -0,0 +1,128 @@
+package org.infinispan.multimap.impl.function.stream;
+
+import static org.infinispan.commons.marshall.MarshallUtil.marshallCollection;
+import static org.infinispan.commons.marshall.MarshallUtil.unmarshallCollection;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.infinispan.commands.functional.functions.InjectableComponent;
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.DeltaReplicationStatistics;
+import org.infinispan.multimap.impl.ExternalizerIds;
+import org.infinispan.multimap.impl.StreamAddArgs;
+import org.infinispan.multimap.impl.StreamBucket;
+import org.infinispan.multimap.impl.StreamId;
+
+/**
+ * Serializable function used by
+ * {@link org.infinispan.multimap.impl.EmbeddedMultimapStreamCache#add(Object, long, long, List, StreamAddArgs)}.
+ * <p>
+ * Appends an entry to the stream, creating the stream unless <code>noMkStream</code> is set, and trims the stream
+ * when a maximum length is given. The identifier is computed here from the time of the caller, so all the owners
+ * compute the same identifier.
+ *
+ * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
+ * @since 15.0
+ */
+public final class StreamAddFunction<K, V> implements StreamBucketBaseFunction<K, V, StreamId>, InjectableComponent {
+   public static final AdvancedExternalizer<StreamAddFunction> EXTERNALIZER = new Externalizer();
+
+   private final long ms;
+   private final long seq;
+   private final long now;
+   private final List<V> fieldsAndValues;
+   private final boolean noMkStream;
+   private final long maxLen;
+   private final boolean approximate;
+   private transient DeltaReplicationStatistics statistics;
+
+   public StreamAddFunction(long ms, long seq, long now, List<V> fieldsAndValues, StreamAddArgs args) {
+      this(ms, seq, now, fieldsAndValues, args.noMkStream, args.maxLen, args.approximate);
+   }
+
+   private StreamAddFunction(long ms, long seq, long now, List<V> fieldsAndValues, boolean noMkStream, long maxLen,
+                             boolean approximate) {
+      this.ms = ms;
+      this.seq = seq;
+      this.now = now;
+      this.fieldsAndValues = fieldsAndValues;
+      this.noMkStream = noMkStream;
+      this.maxLen = maxLen;
+      this.approximate = approximate;
+   }
+
+   @Override
+   public void inject(ComponentRegistry registry) {
+      statistics = registry.getComponent(DeltaReplicationStatistics.class);
+   }
+
+   /**
+    * @return The identifier of the new entry, <code>null</code> if the stream does not exist and
+    * <code>noMkStream</code> is set, or {@link StreamId#MIN} if the identifier is not greater than the last
+    * identifier of the stream.
+    */
+   @Override
+   public StreamId apply(EntryView.ReadWriteEntryView<K, StreamBucket<V>> entryView) {
+      Optional<StreamBucket<V>> existing = entryView.peek();
+      if (existing.isEmpty() && noMkStream) return null;
+
+      StreamBucket<V> bucket = existing.orElseGet(StreamBucket::new);
+      StreamId id = bucket.nextId(ms, seq, now);
+      if (id == null) return StreamId.MIN;
+
+      bucket.add(id, fieldsAndValues);
+      long trimmed = maxLen >= 0 ? bucket.trim(maxLen, approximate) : 0;
+      entryView.set(bucket);
+      if (statistics != null) {
+         if (existing.isPresent() && trimmed == 0) {
+            statistics.recordDelta(entryView.key(), fieldsAndValues, (int) Math.min(bucket.size(), Integer.MAX_VALUE));
+         } else {
+            statistics.recordFullBucket(entryView.key());
+         }
+      }
+      return id;
+   }
+
+   private static class Externalizer implements AdvancedExternalizer<StreamAddFunction> {
+
+      @Override
+      public Set<Class<? extends StreamAddFunction>> getTypeClasses() {
+         return Collections.singleton(StreamAddFunction.class);
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.STREAM_ADD_FUNCTION;
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, StreamAddFunction object) throws IOException {
+         output.writeLong(object.ms);
+         output.writeLong(object.seq);
+         output.writeLong(object.now);
+         marshallCollection(object.fieldsAndValues, output);
+         output.writeBoolean(object.noMkStream);
+         output.writeLong(object.maxLen);
+         output.writeBoolean(object.approximate);
+      }
+
+      @Override
+      public StreamAddFunction readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         long ms = input.readLong();
+         long seq = input.readLong();
+         long now = input.readLong();
+         List<Object> fieldsAndValues = unmarshallCollection(input, ArrayList::new);
+         return new StreamAddFunction<>(ms, seq, now, fieldsAndValues, input.readBoolean(), input.readLong(),
+               input.readBoolean());
+      }
+   }
+}
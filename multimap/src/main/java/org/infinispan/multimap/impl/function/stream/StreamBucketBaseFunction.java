@@ -0,0 +1,12 @@
+package org.infinispan.multimap.impl.function.stream;
+
+import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.StreamBucket;
+import org.infinispan.util.function.SerializableFunction;
+
+/**
+ * A base function for the stream multimap updates
+ *
+ * @since 15.0
+ */
+public interface StreamBucketBaseFunction<K, V, R> extends SerializableFunction<EntryView.ReadWriteEntryView<K, StreamBucket<V>>, R> {}
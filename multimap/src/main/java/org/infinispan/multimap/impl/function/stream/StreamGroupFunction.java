@@ -0,0 +1,149 @@
+package org.infinispan.multimap.impl.function.stream;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.ExternalizerIds;
+import org.infinispan.multimap.impl.StreamBucket;
+import org.infinispan.multimap.impl.StreamId;
+
+/**
+ * Serializable function used by the consumer group operations of
+ * {@link org.infinispan.multimap.impl.EmbeddedMultimapStreamCache}.
+ *
+ * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
+ * @since 15.0
+ */
+public final class StreamGroupFunction<K, V> implements StreamBucketBaseFunction<K, V, Long> {
+   public static final AdvancedExternalizer<StreamGroupFunction> EXTERNALIZER = new Externalizer();
+   /**
+    * The result when the stream does not exist.
+    */
+   public static final long NO_STREAM = -1;
+   /**
+    * The result when the group does not exist.
+    */
+   public static final long NO_GROUP = -2;
+
+   public enum Operation {
+      CREATE,
+      DESTROY,
+      SET_ID,
+      CREATE_CONSUMER,
+      DELETE_CONSUMER;
+
+      private static final Operation[] CACHED_VALUES = values();
+
+      public static Operation valueOf(int ordinal) {
+         return CACHED_VALUES[ordinal];
+      }
+   }
+
+   private final Operation operation;
+   private final V group;
+   private final V consumer;
+   private final StreamId id;
+   private final boolean mkStream;
+   private final long now;
+
+   /**
+    * @param id: The last delivered identifier for {@link Operation#CREATE} and {@link Operation#SET_ID}, or
+    *          <code>null</code> for the last identifier of the stream.
+    * @param mkStream: Whether {@link Operation#CREATE} creates an empty stream when it does not exist.
+    */
+   public StreamGroupFunction(Operation operation, V group, V consumer, StreamId id, boolean mkStream, long now) {
+      this.operation = operation;
+      this.group = group;
+      this.consumer = consumer;
+      this.id = id;
+      this.mkStream = mkStream;
+      this.now = now;
+   }
+
+   /**
+    * @return {@link #NO_STREAM}, {@link #NO_GROUP}, the number of pending entries of a deleted consumer, or else 1 if
+    * the operation changed the stream and 0 otherwise.
+    */
+   @Override
+   public Long apply(EntryView.ReadWriteEntryView<K, StreamBucket<V>> entryView) {
+      Optional<StreamBucket<V>> existing = entryView.peek();
+      StreamBucket<V> bucket;
+      if (existing.isPresent()) {
+         bucket = existing.get();
+      } else if (operation == Operation.CREATE && mkStream) {
+         bucket = new StreamBucket<>();
+      } else {
+         return NO_STREAM;
+      }
+
+      if (operation == Operation.CREATE) {
+         if (!bucket.createGroup(group, id == null ? bucket.lastId() : id)) return 0L;
+         entryView.set(bucket);
+         return 1L;
+      }
+
+      if (operation == Operation.DESTROY) {
+         if (!bucket.destroyGroup(group)) return 0L;
+         entryView.set(bucket);
+         return 1L;
+      }
+
+      StreamBucket.ConsumerGroup<V> consumerGroup = bucket.group(group);
+      if (consumerGroup == null) return NO_GROUP;
+
+      long result;
+      switch (operation) {
+         case SET_ID:
+            consumerGroup.lastDelivered(id == null ? bucket.lastId() : id);
+            result = 1;
+            break;
+         case CREATE_CONSUMER:
+            result = consumerGroup.createConsumer(consumer, now) ? 1 : 0;
+            break;
+         case DELETE_CONSUMER:
+            result = Math.max(consumerGroup.deleteConsumer(consumer), 0);
+            break;
+         default:
+            throw new IllegalStateException("Unknown operation " + operation);
+      }
+      entryView.set(bucket);
+      return result;
+   }
+
+   private static class Externalizer implements AdvancedExternalizer<StreamGroupFunction> {
+
+      @Override
+      public Set<Class<? extends StreamGroupFunction>> getTypeClasses() {
+         return Collections.singleton(StreamGroupFunction.class);
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.STREAM_GROUP_FUNCTION;
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, StreamGroupFunction object) throws IOException {
+         MarshallUtil.marshallEnum(object.operation, output);
+         output.writeObject(object.group);
+         output.writeObject(object.consumer);
+         output.writeObject(object.id);
+         output.writeBoolean(object.mkStream);
+         output.writeLong(object.now);
+      }
+
+      @Override
+      public StreamGroupFunction readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         Operation operation = MarshallUtil.unmarshallEnum(input, Operation::valueOf);
+         return new StreamGroupFunction<>(operation, input.readObject(), input.readObject(), (StreamId) input.readObject(),
+               input.readBoolean(), input.readLong());
+      }
+   }
+}
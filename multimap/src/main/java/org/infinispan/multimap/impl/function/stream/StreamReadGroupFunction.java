@@ -0,0 +1,97 @@
+package org.infinispan.multimap.impl.function.stream;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.functional.EntryView;
+import org.infinispan.multimap.impl.ExternalizerIds;
+import org.infinispan.multimap.impl.StreamBucket;
+import org.infinispan.multimap.impl.StreamEntry;
+import org.infinispan.multimap.impl.StreamId;
+
+/**
+ * Serializable function used by
+ * {@link org.infinispan.multimap.impl.EmbeddedMultimapStreamCache#readGroup(Object, Object, Object, StreamId, long, boolean)}.
+ * <p>
+ * Reads the entries never delivered to the group, or the pending entries of the consumer after the given identifier.
+ *
+ * @see <a href="http://infinispan.org/documentation/">Marshalling of Functions</a>
+ * @since 15.0
+ */
+public final class StreamReadGroupFunction<K, V> implements StreamBucketBaseFunction<K, V, List<StreamEntry<V>>> {
+   public static final AdvancedExternalizer<StreamReadGroupFunction> EXTERNALIZER = new Externalizer();
+
+   private final V group;
+   private final V consumer;
+   private final StreamId id;
+   private final long count;
+   private final boolean noAck;
+   private final long now;
+
+   /**
+    * @param id: The identifier to read the pending entries after, or <code>null</code> to read new entries.
+    */
+   public StreamReadGroupFunction(V group, V consumer, StreamId id, long count, boolean noAck, long now) {
+      this.group = group;
+      this.consumer = consumer;
+      this.id = id;
+      this.count = count;
+      this.noAck = noAck;
+      this.now = now;
+   }
+
+   /**
+    * @return The entries, or <code>null</code> if the stream or the group do not exist.
+    */
+   @Override
+   public List<StreamEntry<V>> apply(EntryView.ReadWriteEntryView<K, StreamBucket<V>> entryView) {
+      Optional<StreamBucket<V>> existing = entryView.peek();
+      if (existing.isEmpty()) return null;
+
+      StreamBucket<V> bucket = existing.get();
+      StreamBucket.ConsumerGroup<V> consumerGroup = bucket.group(group);
+      if (consumerGroup == null) return null;
+
+      List<StreamEntry<V>> entries = id == null
+            ? consumerGroup.readNew(bucket, consumer, count, noAck, now)
+            : consumerGroup.readPending(bucket, consumer, id, count, now);
+      // The consumer and its seen time are updated even if there are no entries
+      entryView.set(bucket);
+      return entries;
+   }
+
+   private static class Externalizer implements AdvancedExternalizer<StreamReadGroupFunction> {
+
+      @Override
+      public Set<Class<? extends StreamReadGroupFunction>> getTypeClasses() {
+         return Collections.singleton(StreamReadGroupFunction.class);
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.STREAM_READ_GROUP_FUNCTION;
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, StreamReadGroupFunction object) throws IOException {
+         output.writeObject(object.group);
+         output.writeObject(object.consumer);
+         output.writeObject(object.id);
+         output.writeLong(object.count);
+         output.writeBoolean(object.noAck);
+         output.writeLong(object.now);
+      }
+
+      @Override
+      public StreamReadGroupFunction readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         return new StreamReadGroupFunction<>(input.readObject(), input.readObject(), (StreamId) input.readObject(),
+               input.readLong(), input.readBoolean(), input.readLong());
+      }
+   }
+}
@@ -0,0 +1,130 @@
+package org.infinispan.multimap.impl.internal;
+
+/**
+ * Open addressing hash map from the members of a sorted set to their scores.
+ * <p>
+ * Members and primitive scores are kept in two parallel arrays with linear probing, so an entry costs no more than an
+ * array slot per field instead of a map node and a boxed score. Removals shift the following entries back instead of
+ * leaving tombstones. This class is not thread-safe.
+ *
+ * @since 15.0
+ */
+public final class MemberScoreMap<V> {
+   private static final int MIN_CAPACITY = 16;
+
+   private MultimapObjectWrapper<?>[] members;
+   private double[] scores;
+   private int size;
+
+   public MemberScoreMap(int expectedSize) {
+      allocate(capacityFor(expectedSize));
+   }
+
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return the score of the member or {@code null} if it is not present
+    */
+   public Double get(MultimapObjectWrapper<V> member) {
+      int slot = slot(member);
+      return members[slot] == null ? null : scores[slot];
+   }
+
+   public void put(MultimapObjectWrapper<V> member, double score) {
+      int slot = slot(member);
+      if (members[slot] == null) {
+         if (size + 1 > maxSize(members.length)) {
+            resize(members.length << 1);
+            slot = slot(member);
+         }
+         members[slot] = member;
+         size++;
+      }
+      scores[slot] = score;
+   }
+
+   public boolean remove(MultimapObjectWrapper<V> member) {
+      int slot = slot(member);
+      if (members[slot] == null) {
+         return false;
+      }
+      int mask = members.length - 1;
+      // Shift back the entries of the probe sequence that would not be found anymore
+      int free = slot;
+      int next = slot;
+      while (true) {
+         next = (next + 1) & mask;
+         MultimapObjectWrapper<?> candidate = members[next];
+         if (candidate == null) {
+            break;
+         }
+         int home = hash(candidate) & mask;
+         if (((next - home) & mask) >= ((next - free) & mask)) {
+            members[free] = candidate;
+            scores[free] = scores[next];
+            free = next;
+         }
+      }
+      members[free] = null;
+      size--;
+      return true;
+   }
+
+   public void clear() {
+      allocate(MIN_CAPACITY);
+      size = 0;
+   }
+
+   private int slot(MultimapObjectWrapper<?> member) {
+      int mask = members.length - 1;
+      int slot = hash(member) & mask;
+      MultimapObjectWrapper<?> candidate;
+      while ((candidate = members[slot]) != null && !candidate.equals(member)) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   private void resize(int capacity) {
+      MultimapObjectWrapper<?>[] oldMembers = members;
+      double[] oldScores = scores;
+      allocate(capacity);
+      int mask = capacity - 1;
+      for (int i = 0; i < oldMembers.length; ++i) {
+         MultimapObjectWrapper<?> member = oldMembers[i];
+         if (member != null) {
+            int slot = hash(member) & mask;
+            while (members[slot] != null) {
+               slot = (slot + 1) & mask;
+            }
+            members[slot] = member;
+            scores[slot] = oldScores[i];
+         }
+      }
+   }
+
+   private void allocate(int capacity) {
+      members = new MultimapObjectWrapper[capacity];
+      scores = new double[capacity];
+   }
+
+   private static int hash(MultimapObjectWrapper<?> member) {
+      int h = member.hashCode() * 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+   private static int maxSize(int capacity) {
+      // 75% load factor
+      return capacity - (capacity >> 2);
+   }
+
+   private static int capacityFor(int expectedSize) {
+      int capacity = MIN_CAPACITY;
+      while (maxSize(capacity) < expectedSize) {
+         capacity <<= 1;
+      }
+      return capacity;
+   }
+}
@@ -0,0 +1,450 @@
+package org.infinispan.multimap.impl.internal;
+
+import java.util.AbstractCollection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * List made of a doubly linked list of fixed size chunks, like the Redis quicklist.
+ * <p>
+ * Pushing and popping at either end only touches the first or the last chunk. Positional operations skip whole
+ * chunks and then shift at most one chunk, so they cost O(n / {@link #CHUNK_CAPACITY} + {@link #CHUNK_CAPACITY})
+ * instead of copying the whole list. Chunks that become empty are unlinked and sparse neighbours are merged.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @since 15.0
+ */
+public final class QuickList<V> extends AbstractCollection<V> {
+   static final int CHUNK_CAPACITY = 128;
+
+   private Chunk head;
+   private Chunk tail;
+   private int size;
+   private int modCount;
+
+   public QuickList() {
+   }
+
+   public QuickList(Iterable<? extends V> values) {
+      for (V value : values) {
+         addLast(value);
+      }
+   }
+
+   @Override
+   public int size() {
+      return size;
+   }
+
+   @Override
+   public boolean add(V value) {
+      addLast(value);
+      return true;
+   }
+
+   public void addFirst(V value) {
+      if (head == null || head.count == CHUNK_CAPACITY) {
+         // Leave the room at the start of the chunk, for the next elements pushed at the head
+         linkFirst(new Chunk(CHUNK_CAPACITY));
+      }
+      head.insert(0, value);
+      size++;
+      modCount++;
+   }
+
+   public void addLast(V value) {
+      if (tail == null || tail.count == CHUNK_CAPACITY) {
+         linkLast(new Chunk(0));
+      }
+      tail.insert(tail.count, value);
+      size++;
+      modCount++;
+   }
+
+   public V peekFirst() {
+      return head == null ? null : head.get(0);
+   }
+
+   public V peekLast() {
+      return tail == null ? null : tail.get(tail.count - 1);
+   }
+
+   public V pollFirst() {
+      if (head == null) {
+         return null;
+      }
+      Chunk chunk = head;
+      V value = chunk.get(0);
+      removeFrom(chunk, 0);
+      return value;
+   }
+
+   public V pollLast() {
+      if (tail == null) {
+         return null;
+      }
+      Chunk chunk = tail;
+      V value = chunk.get(chunk.count - 1);
+      removeFrom(chunk, chunk.count - 1);
+      return value;
+   }
+
+   /**
+    * @return the element at the given position, counting from the head
+    * @throws IndexOutOfBoundsException if the position is not in the list
+    */
+   public V get(long index) {
+      checkIndex(index, size);
+      Chunk chunk = chunkAt(index);
+      return chunk.get(chunk.offset);
+   }
+
+   /**
+    * Replaces the element at the given position.
+    *
+    * @return the previous element
+    * @throws IndexOutOfBoundsException if the position is not in the list
+    */
+   public V set(long index, V value) {
+      checkIndex(index, size);
+      Chunk chunk = chunkAt(index);
+      V previous = chunk.get(chunk.offset);
+      chunk.items[chunk.start + chunk.offset] = value;
+      return previous;
+   }
+
+   /**
+    * Inserts an element at the given position, the elements after it move one position towards the tail.
+    *
+    * @throws IndexOutOfBoundsException if the position is not between 0 and the size
+    */
+   public void add(long index, V value) {
+      checkIndex(index, size + 1);
+      if (index == 0) {
+         addFirst(value);
+      } else if (index == size) {
+         addLast(value);
+      } else {
+         Chunk chunk = chunkAt(index);
+         int offset = chunk.offset;
+         if (chunk.count == CHUNK_CAPACITY) {
+            // Split the chunk and insert in the half holding the position
+            Chunk right = new Chunk(0);
+            chunk.moveTo(CHUNK_CAPACITY >> 1, right);
+            linkAfter(chunk, right);
+            if (offset >= chunk.count) {
+               offset -= chunk.count;
+               chunk = right;
+            }
+         }
+         chunk.insert(offset, value);
+         size++;
+         modCount++;
+      }
+   }
+
+   /**
+    * Removes the given number of elements from the head of the list.
+    */
+   public void removeFirst(long count) {
+      while (count > 0 && head != null) {
+         if (count >= head.count) {
+            count -= head.count;
+            size -= head.count;
+            unlink(head);
+         } else {
+            head.removeRange(0, (int) count);
+            size -= count;
+            count = 0;
+         }
+      }
+      modCount++;
+   }
+
+   /**
+    * Removes the given number of elements from the tail of the list.
+    */
+   public void removeLast(long count) {
+      while (count > 0 && tail != null) {
+         if (count >= tail.count) {
+            count -= tail.count;
+            size -= tail.count;
+            unlink(tail);
+         } else {
+            tail.removeRange(tail.count - (int) count, tail.count);
+            size -= count;
+            count = 0;
+         }
+      }
+      modCount++;
+   }
+
+   @Override
+   public void clear() {
+      head = null;
+      tail = null;
+      size = 0;
+      modCount++;
+   }
+
+   @Override
+   public Iterator<V> iterator() {
+      return iterator(0);
+   }
+
+   /**
+    * Iterates towards the tail, starting from the given position.
+    */
+   public Iterator<V> iterator(long index) {
+      if (index >= size) {
+         return new Itr(null, 0, false);
+      }
+      Chunk chunk = chunkAt(Math.max(0, index));
+      return new Itr(chunk, chunk.offset, false);
+   }
+
+   /**
+    * Iterates from the tail towards the head.
+    */
+   public Iterator<V> descendingIterator() {
+      return new Itr(tail, tail == null ? 0 : tail.count - 1, true);
+   }
+
+   /**
+    * Finds the chunk holding the given position, starting from the nearest end, and stores the position of the element
+    * inside the chunk in {@link Chunk#offset}.
+    */
+   private Chunk chunkAt(long index) {
+      Chunk chunk;
+      if (index < size >> 1) {
+         chunk = head;
+         while (index >= chunk.count) {
+            index -= chunk.count;
+            chunk = chunk.next;
+         }
+      } else {
+         chunk = tail;
+         long fromTail = size - 1 - index;
+         while (fromTail >= chunk.count) {
+            fromTail -= chunk.count;
+            chunk = chunk.prev;
+         }
+         index = chunk.count - 1 - fromTail;
+      }
+      chunk.offset = (int) index;
+      return chunk;
+   }
+
+   private void removeFrom(Chunk chunk, int offset) {
+      chunk.remove(offset);
+      size--;
+      modCount++;
+      if (chunk.count == 0) {
+         unlink(chunk);
+      } else if (chunk.count < CHUNK_CAPACITY >> 2) {
+         // Merge with a neighbour, so that removals in the middle do not leave many sparse chunks behind
+         if (chunk.next != null && chunk.count + chunk.next.count <= CHUNK_CAPACITY >> 1) {
+            chunk.append(chunk.next);
+            unlink(chunk.next);
+         } else if (chunk.prev != null && chunk.prev.count + chunk.count <= CHUNK_CAPACITY >> 1) {
+            chunk.prev.append(chunk);
+            unlink(chunk);
+         }
+      }
+   }
+
+   private void linkFirst(Chunk chunk) {
+      chunk.next = head;
+      if (head == null) {
+         tail = chunk;
+      } else {
+         head.prev = chunk;
+      }
+      head = chunk;
+   }
+
+   private void linkLast(Chunk chunk) {
+      chunk.prev = tail;
+      if (tail == null) {
+         head = chunk;
+      } else {
+         tail.next = chunk;
+      }
+      tail = chunk;
+   }
+
+   private void linkAfter(Chunk chunk, Chunk newChunk) {
+      newChunk.prev = chunk;
+      newChunk.next = chunk.next;
+      if (chunk.next == null) {
+         tail = newChunk;
+      } else {
+         chunk.next.prev = newChunk;
+      }
+      chunk.next = newChunk;
+   }
+
+   private void unlink(Chunk chunk) {
+      if (chunk.prev == null) {
+         head = chunk.next;
+      } else {
+         chunk.prev.next = chunk.next;
+      }
+      if (chunk.next == null) {
+         tail = chunk.prev;
+      } else {
+         chunk.next.prev = chunk.prev;
+      }
+   }
+
+   private static void checkIndex(long index, long bound) {
+      if (index < 0 || index >= bound) {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+      }
+   }
+
+   private static final class Chunk {
+      final Object[] items = new Object[CHUNK_CAPACITY];
+      // The elements are in items[start, start + count)
+      int start;
+      int count;
+      // Scratch value set by chunkAt
+      int offset;
+      Chunk prev;
+      Chunk next;
+
+      Chunk(int start) {
+         this.start = start;
+      }
+
+      @SuppressWarnings("unchecked")
+      <V> V get(int index) {
+         return (V) items[start + index];
+      }
+
+      void insert(int index, Object value) {
+         if (index == 0 && start > 0) {
+            start--;
+         } else if (start + count < CHUNK_CAPACITY) {
+            System.arraycopy(items, start + index, items, start + index + 1, count - index);
+         } else {
+            System.arraycopy(items, start, items, start - 1, index);
+            start--;
+         }
+         items[start + index] = value;
+         count++;
+      }
+
+      void remove(int index) {
+         if (index < count >> 1) {
+            System.arraycopy(items, start, items, start + 1, index);
+            items[start] = null;
+            start++;
+         } else {
+            System.arraycopy(items, start + index + 1, items, start + index, count - index - 1);
+            items[start + count - 1] = null;
+         }
+         count--;
+      }
+
+      void removeRange(int from, int to) {
+         int removed = to - from;
+         System.arraycopy(items, start + to, items, start + from, count - to);
+         for (int i = start + count - removed; i < start + count; ++i) {
+            items[i] = null;
+         }
+         count -= removed;
+      }
+
+      void moveTo(int from, Chunk right) {
+         int moved = count - from;
+         System.arraycopy(items, start + from, right.items, 0, moved);
+         for (int i = start + from; i < start + count; ++i) {
+            items[i] = null;
+         }
+         right.start = 0;
+         right.count = moved;
+         count = from;
+      }
+
+      void append(Chunk other) {
+         if (start + count + other.count > CHUNK_CAPACITY) {
+            System.arraycopy(items, start, items, 0, count);
+            for (int i = count; i < start + count; ++i) {
+               items[i] = null;
+            }
+            start = 0;
+         }
+         System.arraycopy(other.items, other.start, items, start + count, other.count);
+         count += other.count;
+      }
+   }
+
+   private final class Itr implements Iterator<V> {
+      private final boolean descending;
+      private Chunk chunk;
+      private int index;
+      private Chunk lastChunk;
+      private int lastIndex = -1;
+      private int expectedModCount = modCount;
+
+      Itr(Chunk chunk, int index, boolean descending) {
+         this.chunk = chunk;
+         this.index = index;
+         this.descending = descending;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return chunk != null;
+      }
+
+      @Override
+      public V next() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+         if (chunk == null) {
+            throw new NoSuchElementException();
+         }
+         lastChunk = chunk;
+         lastIndex = index;
+         V value = chunk.get(index);
+         if (descending) {
+            if (--index < 0) {
+               chunk = chunk.prev;
+               index = chunk == null ? 0 : chunk.count - 1;
+            }
+         } else if (++index == chunk.count) {
+            chunk = chunk.next;
+            index = 0;
+         }
+         return value;
+      }
+
+      @Override
+      public void remove() {
+         if (lastIndex < 0) {
+            throw new IllegalStateException();
+         }
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+         Chunk removedFrom = lastChunk;
+         int removedIndex = lastIndex;
+         lastIndex = -1;
+         removedFrom.remove(removedIndex);
+         size--;
+         if (removedFrom.count == 0) {
+            unlink(removedFrom);
+         } else if (!descending && chunk == removedFrom) {
+            // The following elements of the chunk moved one position back
+            index--;
+         }
+         modCount++;
+         expectedModCount = modCount;
+      }
+   }
+}
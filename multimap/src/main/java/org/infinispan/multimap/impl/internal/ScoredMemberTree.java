@@ -0,0 +1,528 @@
+package org.infinispan.multimap.impl.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.infinispan.multimap.impl.ScoredValue;
+
+/**
+ * Order statistic B+ tree holding the members of a sorted set, ordered by score and then by member.
+ * <p>
+ * Scores are kept as primitive doubles in arrays in the leaves, next to the members, and every node keeps the number
+ * of members in its subtree. This makes the rank of a member, the member at a rank and the bounds of a score or
+ * lexicographical range O(log n), while iterating a range just walks the linked leaves.
+ * <p>
+ * Small trees are a single leaf whose arrays grow on demand, so small sorted sets are stored as two packed arrays.
+ * <p>
+ * The members are not indexed, {@link #score(MultimapObjectWrapper)} scans the leaves. This class is not thread-safe.
+ *
+ * @since 15.0
+ */
+public final class ScoredMemberTree<V> implements Iterable<ScoredValue<V>> {
+   static final int LEAF_CAPACITY = 64;
+   static final int BRANCH_CAPACITY = 32;
+   private static final int INITIAL_LEAF_CAPACITY = 4;
+
+   private Node root;
+   private Leaf head;
+
+   public ScoredMemberTree() {
+      clear();
+   }
+
+   public int size() {
+      return root.size;
+   }
+
+   public boolean isEmpty() {
+      return root.size == 0;
+   }
+
+   public void clear() {
+      Leaf leaf = new Leaf(INITIAL_LEAF_CAPACITY);
+      root = leaf;
+      head = leaf;
+   }
+
+   /**
+    * Adds a member that is not already present in the tree.
+    */
+   public void add(double score, MultimapObjectWrapper<V> member) {
+      Node split = insert(root, score, member);
+      if (split != null) {
+         Branch branch = new Branch();
+         branch.children[0] = root;
+         branch.children[1] = split;
+         branch.setKey(1, split.firstScore(), split.firstMember());
+         branch.count = 2;
+         branch.size = root.size + split.size;
+         root = branch;
+      }
+   }
+
+   /**
+    * Removes the member with the given score.
+    *
+    * @return {@code true} if the member was present with that score
+    */
+   public boolean remove(double score, MultimapObjectWrapper<V> member) {
+      if (!remove(root, score, member)) {
+         return false;
+      }
+      while (root instanceof Branch && ((Branch) root).count == 1) {
+         root = ((Branch) root).children[0];
+      }
+      return true;
+   }
+
+   /**
+    * Counts the members that sort before the given score and member, or before and equal when {@code inclusive}.
+    * <p>
+    * When {@code member} is {@code null}, only the scores are compared. The result is the rank of the member if it is
+    * present with that score.
+    */
+   public int countBelow(double score, MultimapObjectWrapper<V> member, boolean inclusive) {
+      int rank = 0;
+      Node node = root;
+      while (node instanceof Branch) {
+         Branch branch = (Branch) node;
+         int index = branch.childIndex(score, member, inclusive);
+         for (int i = 0; i < index; ++i) {
+            rank += branch.children[i].size;
+         }
+         node = branch.children[index];
+      }
+      return rank + ((Leaf) node).indexOf(score, member, inclusive);
+   }
+
+   /**
+    * @return the member at the given rank, counting from the lowest score
+    */
+   public ScoredValue<V> get(int rank) {
+      if (rank < 0 || rank >= root.size) {
+         throw new IndexOutOfBoundsException(String.valueOf(rank));
+      }
+      Node node = root;
+      while (node instanceof Branch) {
+         Branch branch = (Branch) node;
+         int i = 0;
+         while (rank >= branch.children[i].size) {
+            rank -= branch.children[i].size;
+            i++;
+         }
+         node = branch.children[i];
+      }
+      return ((Leaf) node).scoredValue(rank);
+   }
+
+   /**
+    * Scans the tree for the score of the member.
+    *
+    * @return the score or {@code null} if the member is not present
+    */
+   public Double score(MultimapObjectWrapper<V> member) {
+      for (Leaf leaf = head; leaf != null; leaf = leaf.next) {
+         for (int i = 0; i < leaf.size; ++i) {
+            if (leaf.members[i].equals(member)) {
+               return leaf.scores[i];
+            }
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public Iterator<ScoredValue<V>> iterator() {
+      return iterator(0, false);
+   }
+
+   /**
+    * Iterates the members starting from the given rank, towards the highest scores or towards the lowest scores when
+    * {@code descending}.
+    */
+   public Iterator<ScoredValue<V>> iterator(int rank, boolean descending) {
+      if (rank < 0 || rank >= root.size) {
+         return new TreeIterator(null, 0, descending);
+      }
+      Node node = root;
+      while (node instanceof Branch) {
+         Branch branch = (Branch) node;
+         int i = 0;
+         while (rank >= branch.children[i].size) {
+            rank -= branch.children[i].size;
+            i++;
+         }
+         node = branch.children[i];
+      }
+      return new TreeIterator((Leaf) node, rank, descending);
+   }
+
+   private Node insert(Node node, double score, MultimapObjectWrapper<V> member) {
+      if (node instanceof Leaf) {
+         return insertIntoLeaf((Leaf) node, score, member);
+      }
+      Branch branch = (Branch) node;
+      branch.size++;
+      int index = branch.childIndex(score, member, true);
+      Node split = insert(branch.children[index], score, member);
+      return split == null ? null : insertChild(branch, index + 1, split, split.firstScore(), split.firstMember());
+   }
+
+   private Leaf insertIntoLeaf(Leaf leaf, double score, MultimapObjectWrapper<V> member) {
+      int index = leaf.indexOf(score, member, true);
+      if (leaf.size < LEAF_CAPACITY) {
+         leaf.insert(index, score, member);
+         return null;
+      }
+      // Move the upper half to a new leaf
+      Leaf right = new Leaf(LEAF_CAPACITY);
+      int half = LEAF_CAPACITY >> 1;
+      leaf.moveTo(half, right);
+      right.prev = leaf;
+      right.next = leaf.next;
+      if (leaf.next != null) {
+         leaf.next.prev = right;
+      }
+      leaf.next = right;
+      if (index <= half) {
+         leaf.insert(index, score, member);
+      } else {
+         right.insert(index - half, score, member);
+      }
+      return right;
+   }
+
+   private Branch insertChild(Branch branch, int index, Node child, double keyScore, MultimapObjectWrapper<?> keyMember) {
+      if (branch.count < BRANCH_CAPACITY) {
+         branch.insert(index, child, keyScore, keyMember);
+         return null;
+      }
+      Branch right = new Branch();
+      int half = BRANCH_CAPACITY >> 1;
+      branch.moveTo(half, right);
+      if (index <= half) {
+         branch.insert(index, child, keyScore, keyMember);
+      } else {
+         right.insert(index - half, child, keyScore, keyMember);
+      }
+      branch.size = branch.childrenSize();
+      right.size = right.childrenSize();
+      return right;
+   }
+
+   private boolean remove(Node node, double score, MultimapObjectWrapper<V> member) {
+      if (node instanceof Leaf) {
+         Leaf leaf = (Leaf) node;
+         int index = leaf.indexOf(score, member, false);
+         if (index == leaf.size || compare(leaf.scores[index], leaf.members[index], score, member) != 0) {
+            return false;
+         }
+         leaf.remove(index);
+         return true;
+      }
+      Branch branch = (Branch) node;
+      int index = branch.childIndex(score, member, true);
+      Node child = branch.children[index];
+      if (!remove(child, score, member)) {
+         return false;
+      }
+      branch.size--;
+      if (child.size == 0) {
+         removeChild(branch, index);
+      } else if (child.isSparse()) {
+         mergeWithSibling(branch, index);
+      }
+      return true;
+   }
+
+   private void mergeWithSibling(Branch branch, int index) {
+      Node child = branch.children[index];
+      if (index + 1 < branch.count && child.canMerge(branch.children[index + 1])) {
+         child.merge(branch.children[index + 1], branch.keyScores[index + 1], branch.keyMembers[index + 1]);
+         removeChild(branch, index + 1);
+      } else if (index > 0 && branch.children[index - 1].canMerge(child)) {
+         branch.children[index - 1].merge(child, branch.keyScores[index], branch.keyMembers[index]);
+         removeChild(branch, index);
+      }
+   }
+
+   private void removeChild(Branch branch, int index) {
+      Node child = branch.children[index];
+      if (child instanceof Leaf) {
+         Leaf leaf = (Leaf) child;
+         if (leaf.prev != null) {
+            leaf.prev.next = leaf.next;
+         } else {
+            head = leaf.next;
+         }
+         if (leaf.next != null) {
+            leaf.next.prev = leaf.prev;
+         }
+      }
+      branch.remove(index);
+   }
+
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   static int compare(double score, MultimapObjectWrapper member, double otherScore, MultimapObjectWrapper otherMember) {
+      int compare = Double.compare(score, otherScore);
+      if (compare != 0 || otherMember == null) {
+         return compare;
+      }
+      return member.compareTo(otherMember);
+   }
+
+   private abstract static class Node {
+      // Number of members in the subtree
+      int size;
+
+      abstract double firstScore();
+
+      abstract MultimapObjectWrapper<?> firstMember();
+
+      abstract boolean isSparse();
+
+      abstract boolean canMerge(Node right);
+
+      /**
+       * Appends the content of the right sibling, whose separator in the parent is given.
+       */
+      abstract void merge(Node right, double keyScore, MultimapObjectWrapper<?> keyMember);
+   }
+
+   private static final class Leaf extends Node {
+      double[] scores;
+      MultimapObjectWrapper<?>[] members;
+      Leaf prev;
+      Leaf next;
+
+      Leaf(int capacity) {
+         scores = new double[capacity];
+         members = new MultimapObjectWrapper[capacity];
+      }
+
+      @Override
+      double firstScore() {
+         return scores[0];
+      }
+
+      @Override
+      MultimapObjectWrapper<?> firstMember() {
+         return members[0];
+      }
+
+      @Override
+      boolean isSparse() {
+         return size < LEAF_CAPACITY >> 2;
+      }
+
+      @Override
+      boolean canMerge(Node right) {
+         return size + right.size <= LEAF_CAPACITY >> 1;
+      }
+
+      @Override
+      void merge(Node node, double keyScore, MultimapObjectWrapper<?> keyMember) {
+         Leaf right = (Leaf) node;
+         ensureCapacity(size + right.size);
+         System.arraycopy(right.scores, 0, scores, size, right.size);
+         System.arraycopy(right.members, 0, members, size, right.size);
+         size += right.size;
+      }
+
+      @SuppressWarnings("unchecked")
+      <V> ScoredValue<V> scoredValue(int index) {
+         return new ScoredValue<>(scores[index], (MultimapObjectWrapper<V>) members[index]);
+      }
+
+      int indexOf(double score, MultimapObjectWrapper<?> member, boolean inclusive) {
+         int low = 0;
+         int high = size;
+         while (low < high) {
+            int mid = (low + high) >>> 1;
+            int compare = compare(scores[mid], members[mid], score, member);
+            if (compare < 0 || (inclusive && compare == 0)) {
+               low = mid + 1;
+            } else {
+               high = mid;
+            }
+         }
+         return low;
+      }
+
+      void insert(int index, double score, MultimapObjectWrapper<?> member) {
+         ensureCapacity(size + 1);
+         System.arraycopy(scores, index, scores, index + 1, size - index);
+         System.arraycopy(members, index, members, index + 1, size - index);
+         scores[index] = score;
+         members[index] = member;
+         size++;
+      }
+
+      void remove(int index) {
+         System.arraycopy(scores, index + 1, scores, index, size - index - 1);
+         System.arraycopy(members, index + 1, members, index, size - index - 1);
+         size--;
+         members[size] = null;
+      }
+
+      void moveTo(int from, Leaf right) {
+         int moved = size - from;
+         System.arraycopy(scores, from, right.scores, 0, moved);
+         System.arraycopy(members, from, right.members, 0, moved);
+         for (int i = from; i < size; ++i) {
+            members[i] = null;
+         }
+         right.size = moved;
+         size = from;
+      }
+
+      private void ensureCapacity(int capacity) {
+         if (capacity > scores.length) {
+            int newCapacity = Math.min(LEAF_CAPACITY, Math.max(capacity, scores.length << 1));
+            double[] newScores = new double[newCapacity];
+            System.arraycopy(scores, 0, newScores, 0, size);
+            MultimapObjectWrapper<?>[] newMembers = new MultimapObjectWrapper[newCapacity];
+            System.arraycopy(members, 0, newMembers, 0, size);
+            scores = newScores;
+            members = newMembers;
+         }
+      }
+   }
+
+   private static final class Branch extends Node {
+      final Node[] children = new Node[BRANCH_CAPACITY];
+      // The key at index i is lower than or equal to all the members of child i and higher than all the members of
+      // child i - 1. The key at index 0 is only meaningful right after a split.
+      final double[] keyScores = new double[BRANCH_CAPACITY];
+      final MultimapObjectWrapper<?>[] keyMembers = new MultimapObjectWrapper[BRANCH_CAPACITY];
+      int count;
+
+      @Override
+      double firstScore() {
+         return keyScores[0];
+      }
+
+      @Override
+      MultimapObjectWrapper<?> firstMember() {
+         return keyMembers[0];
+      }
+
+      @Override
+      boolean isSparse() {
+         return count < BRANCH_CAPACITY >> 2;
+      }
+
+      @Override
+      boolean canMerge(Node right) {
+         return count + ((Branch) right).count <= BRANCH_CAPACITY >> 1;
+      }
+
+      @Override
+      void merge(Node node, double keyScore, MultimapObjectWrapper<?> keyMember) {
+         Branch right = (Branch) node;
+         System.arraycopy(right.children, 0, children, count, right.count);
+         System.arraycopy(right.keyScores, 0, keyScores, count, right.count);
+         System.arraycopy(right.keyMembers, 0, keyMembers, count, right.count);
+         setKey(count, keyScore, keyMember);
+         count += right.count;
+         size += right.size;
+      }
+
+      void setKey(int index, double score, MultimapObjectWrapper<?> member) {
+         keyScores[index] = score;
+         keyMembers[index] = member;
+      }
+
+      /**
+       * @return the last child whose key is lower than the given one, or lower or equal when {@code inclusive}
+       */
+      int childIndex(double score, MultimapObjectWrapper<?> member, boolean inclusive) {
+         int low = 1;
+         int high = count;
+         while (low < high) {
+            int mid = (low + high) >>> 1;
+            int compare = compare(keyScores[mid], keyMembers[mid], score, member);
+            if (compare < 0 || (inclusive && compare == 0)) {
+               low = mid + 1;
+            } else {
+               high = mid;
+            }
+         }
+         return low - 1;
+      }
+
+      void insert(int index, Node child, double keyScore, MultimapObjectWrapper<?> keyMember) {
+         System.arraycopy(children, index, children, index + 1, count - index);
+         System.arraycopy(keyScores, index, keyScores, index + 1, count - index);
+         System.arraycopy(keyMembers, index, keyMembers, index + 1, count - index);
+         children[index] = child;
+         setKey(index, keyScore, keyMember);
+         count++;
+      }
+
+      void remove(int index) {
+         System.arraycopy(children, index + 1, children, index, count - index - 1);
+         System.arraycopy(keyScores, index + 1, keyScores, index, count - index - 1);
+         System.arraycopy(keyMembers, index + 1, keyMembers, index, count - index - 1);
+         count--;
+         children[count] = null;
+         keyMembers[count] = null;
+      }
+
+      void moveTo(int from, Branch right) {
+         int moved = count - from;
+         System.arraycopy(children, from, right.children, 0, moved);
+         System.arraycopy(keyScores, from, right.keyScores, 0, moved);
+         System.arraycopy(keyMembers, from, right.keyMembers, 0, moved);
+         for (int i = from; i < count; ++i) {
+            children[i] = null;
+            keyMembers[i] = null;
+         }
+         right.count = moved;
+         count = from;
+      }
+
+      int childrenSize() {
+         int total = 0;
+         for (int i = 0; i < count; ++i) {
+            total += children[i].size;
+         }
+         return total;
+      }
+   }
+
+   private final class TreeIterator implements Iterator<ScoredValue<V>> {
+      private final boolean descending;
+      private Leaf leaf;
+      private int index;
+
+      TreeIterator(Leaf leaf, int index, boolean descending) {
+         this.leaf = leaf;
+         this.index = index;
+         this.descending = descending;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return leaf != null;
+      }
+
+      @Override
+      public ScoredValue<V> next() {
+         if (leaf == null) {
+            throw new NoSuchElementException();
+         }
+         ScoredValue<V> value = leaf.scoredValue(index);
+         if (descending) {
+            if (--index < 0) {
+               leaf = leaf.prev;
+               index = leaf == null ? 0 : leaf.size - 1;
+            }
+         } else if (++index == leaf.size) {
+            leaf = leaf.next;
+            index = 0;
+         }
+         return value;
+      }
+   }
+}
@@ -16,6 +16,7 @@
 import java.util.Map;
 import java.util.Set;
 
+import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.distribution.BaseDistFunctionalTest;
 import org.infinispan.manager.EmbeddedCacheManager;
@@ -142,6 +143,20 @@ public void testPutAll() {
       assertValuesAndOwnership(name_key2, RAMON);
    }
 
+   @Test
+   public void testPopRemovesSameMembersOnAllOwners() {
+      initAndTest();
+      EmbeddedSetCache<String, Person> set = getSetCacheMember();
+      await(set.set(NAMES_KEY, Set.of(OIHANA, ELAIA, FELIX, RAMON)));
+
+      Collection<Person> popped = await(set.pop(NAMES_KEY, 2L, true));
+      assertThat(popped).hasSize(2);
+      for (Cache<String, Collection<Person>> owner : getOwners(NAMES_KEY)) {
+         SetBucket<Person> bucket = (SetBucket<Person>) owner.getAdvancedCache().getDataContainer().peek(NAMES_KEY).getValue();
+         assertThat(bucket.toSet()).hasSize(2).doesNotContainAnyElementsOf(popped);
+      }
+   }
+
    protected void assertValuesAndOwnership(String key, Person value) {
       assertOwnershipAndNonOwnership(key, l1CacheEnabled);
       assertOnAllCaches(key, value);
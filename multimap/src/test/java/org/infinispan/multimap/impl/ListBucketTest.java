@@ -0,0 +1,167 @@
+package org.infinispan.multimap.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the {@link ListBucket} against an {@link ArrayList} with random operations, over lists spanning many chunks.
+ */
+@Test(groups = "unit", testName = "multimap.ListBucketTest")
+public class ListBucketTest extends AbstractInfinispanTest {
+
+   public void testSmallList() {
+      runRandomOperations(50, 5_000, 1);
+   }
+
+   public void testLargeList() {
+      runRandomOperations(5_000, 50_000, 2);
+   }
+
+   public void testPushAndPopBothEnds() {
+      ListBucket<String> bucket = new ListBucket<>();
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < 10_000; i++) {
+         bucket.offer(List.of("h" + i), true);
+         expected.add(0, "h" + i);
+         bucket.offer(List.of("t" + i), false);
+         expected.add("t" + i);
+      }
+      assertEquals(expected, new ArrayList<>(bucket.toDeque()));
+      assertEquals(expected.subList(0, 300), bucket.poll(true, 300).opResult());
+      List<String> tail = new ArrayList<>(expected.subList(expected.size() - 300, expected.size()));
+      Collections.reverse(tail);
+      assertEquals(tail, bucket.poll(false, 300).opResult());
+      assertEquals(expected.subList(300, expected.size() - 300), new ArrayList<>(bucket.toDeque()));
+   }
+
+   public void testSerializedCopy() {
+      ListBucket<String> bucket = new ListBucket<>();
+      for (int i = 0; i < 1_000; i++) {
+         bucket.offer(List.of("v" + i), i % 2 == 0);
+      }
+      ListBucket<String> copy = new ListBucket<>(bucket.getWrappedValues());
+      assertEquals(new ArrayList<>(bucket.toDeque()), new ArrayList<>(copy.toDeque()));
+   }
+
+   private void runRandomOperations(int maxSize, int operations, long seed) {
+      Random random = new Random(seed);
+      ListBucket<String> bucket = new ListBucket<>();
+      List<String> expected = new ArrayList<>();
+
+      for (int i = 0; i < operations; i++) {
+         String value = "v" + random.nextInt(maxSize / 4 + 1);
+         int size = expected.size();
+         int operation = random.nextInt(12);
+         if (operation < 4 || size == 0) {
+            boolean first = random.nextBoolean();
+            int count = random.nextInt(maxSize / 10 + 1) + 1;
+            List<String> values = new ArrayList<>();
+            for (int j = 0; j < count; j++) {
+               values.add(value + "_" + j);
+               if (first) {
+                  expected.add(0, value + "_" + j);
+               } else {
+                  expected.add(value + "_" + j);
+               }
+            }
+            bucket.offer(values, first);
+            if (expected.size() > maxSize) {
+               bucket.trim(0, maxSize / 2);
+               expected.subList(maxSize / 2 + 1, expected.size()).clear();
+            }
+         } else if (operation < 5) {
+            boolean first = random.nextBoolean();
+            int count = random.nextInt(size + 1);
+            List<String> polled = new ArrayList<>();
+            for (int j = 0; j < Math.min(count, size); j++) {
+               polled.add(first ? expected.remove(0) : expected.remove(expected.size() - 1));
+            }
+            ListBucket<String>.ListBucketResult result = bucket.poll(first, count);
+            assertEquals(polled, result.opResult());
+            bucket = result.bucketValue();
+         } else if (operation < 6) {
+            int index = random.nextInt(size * 2 + 1) - size;
+            ListBucket<String> result = bucket.set(index, value);
+            if (index >= size) {
+               assertNull(result);
+            } else {
+               expected.set(index < 0 ? size + index : index, value);
+            }
+            int position = random.nextInt(size * 2 + 2) - size;
+            assertEquals(position < size ? expected.get(position < 0 ? size + position : position) : null,
+                  bucket.index(position));
+         } else if (operation < 7) {
+            boolean before = random.nextBoolean();
+            String pivot = expected.get(random.nextInt(size));
+            int position = expected.indexOf(pivot);
+            bucket.insert(before, pivot, value);
+            expected.add(before ? position : position + 1, value);
+         } else if (operation < 8) {
+            int count = random.nextInt(5) - 2;
+            String element = expected.get(random.nextInt(size));
+            long removed = bucket.remove(count, element);
+            long expectedRemoved = 0;
+            if (count >= 0) {
+               for (int j = 0; j < expected.size() && (count == 0 || expectedRemoved < count); ) {
+                  if (expected.get(j).equals(element)) {
+                     expected.remove(j);
+                     expectedRemoved++;
+                  } else {
+                     j++;
+                  }
+               }
+            } else {
+               for (int j = expected.size() - 1; j >= 0 && expectedRemoved < -count; j--) {
+                  if (expected.get(j).equals(element)) {
+                     expected.remove(j);
+                     expectedRemoved++;
+                  }
+               }
+            }
+            assertEquals(expectedRemoved, removed);
+         } else if (operation < 9) {
+            boolean right = random.nextBoolean();
+            String element = right ? expected.remove(0) : expected.remove(size - 1);
+            if (right) {
+               expected.add(element);
+            } else {
+               expected.add(0, element);
+            }
+            assertEquals(element, bucket.rotate(right));
+         } else if (operation < 10) {
+            int from = random.nextInt(size);
+            int to = from + random.nextInt(300);
+            assertEquals(expected.subList(from, Math.min(size, to + 1)), bucket.sublist(from, to));
+            assertEquals(expected.subList(Math.max(0, size - 10), size), bucket.sublist(-10, -1));
+         } else if (operation < 11) {
+            int from = random.nextInt(size / 4 + 1);
+            int to = size - 1 - random.nextInt(size / 4 + 1);
+            bucket.trim(from, to);
+            if (from > to) {
+               expected.clear();
+            } else {
+               expected = new ArrayList<>(expected.subList(from, to + 1));
+            }
+         } else {
+            String element = expected.get(random.nextInt(size));
+            List<Long> positions = new ArrayList<>();
+            for (int j = 0; j < size; j++) {
+               if (expected.get(j).equals(element)) {
+                  positions.add((long) j);
+               }
+            }
+            assertEquals(positions, bucket.indexOf(element, 0, 1, 0));
+         }
+         assertEquals(expected.size(), bucket.size());
+      }
+      assertEquals(expected, new ArrayList<>(bucket.toDeque()));
+   }
+}
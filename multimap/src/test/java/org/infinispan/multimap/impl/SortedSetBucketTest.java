@@ -0,0 +1,148 @@
+package org.infinispan.multimap.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the {@link SortedSetBucket} against a {@link TreeSet} with random operations, across the packed encoding
+ * and tree sizes with several levels.
+ */
+@Test(groups = "unit", testName = "multimap.SortedSetBucketTest")
+public class SortedSetBucketTest extends AbstractInfinispanTest {
+
+   public void testPackedSet() {
+      runRandomOperations(SortedSetBucket.PACKED_MAX_SIZE / 2, 2_000, 1);
+   }
+
+   public void testSmallTree() {
+      runRandomOperations(1_000, 10_000, 2);
+   }
+
+   public void testLargeTree() {
+      runRandomOperations(20_000, 40_000, 3);
+   }
+
+   public void testGrowAndShrink() {
+      SortedSetBucket<String> bucket = new SortedSetBucket<>();
+      int count = 20_000;
+      List<ScoredValue<String>> values = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+         values.add(ScoredValue.of(i % 100, "member" + i));
+      }
+      bucket.addMany(values, false, false, false, false);
+      assertEquals(count, bucket.size());
+      assertEquals(count / 2, bucket.removeAll(0L, (long) count / 2 - 1));
+      assertEquals(count / 2, bucket.size());
+      assertEquals(count / 2, bucket.pop(true, count).size());
+      assertEquals(0, bucket.size());
+      assertEquals(0, bucket.subsetByIndex(0, -1, false).size());
+      assertNull(bucket.indexOf("member1", false));
+
+      bucket.addMany(values, false, false, false, false);
+      assertEquals(count, bucket.getScoredEntriesAsList().size());
+      assertEquals(bucket.getScoredEntries().first(), bucket.subsetByIndex(0, 0, false).get(0));
+   }
+
+   public void testSerializedCopy() {
+      SortedSetBucket<String> bucket = new SortedSetBucket<>();
+      List<ScoredValue<String>> values = new ArrayList<>();
+      for (int i = 0; i < 1_000; i++) {
+         values.add(ScoredValue.of(i % 7, "member" + i));
+      }
+      bucket.addMany(values, false, false, false, false);
+      SortedSetBucket<String> copy = new SortedSetBucket<>(bucket.getWrappedValues());
+      assertEquals(bucket.getScoredEntriesAsList(), copy.getScoredEntriesAsList());
+      assertEquals(bucket.indexOf("member500", true).getValue(), copy.indexOf("member500", true).getValue());
+   }
+
+   private void runRandomOperations(int maxMembers, int operations, long seed) {
+      Random random = new Random(seed);
+      SortedSetBucket<String> bucket = new SortedSetBucket<>();
+      TreeSet<ScoredValue<String>> expected = new TreeSet<>();
+      Map<String, Double> scores = new HashMap<>();
+
+      for (int i = 0; i < operations; i++) {
+         String member = "m" + random.nextInt(maxMembers);
+         // few distinct scores so that members are compared too
+         double score = random.nextInt(maxMembers / 8 + 1);
+         int operation = random.nextInt(10);
+         if (operation < 6) {
+            bucket.addMany(List.of(ScoredValue.of(score, member)), false, false, false, false);
+            Double previous = scores.put(member, score);
+            if (previous != null) {
+               expected.remove(ScoredValue.of(previous, member));
+            }
+            expected.add(ScoredValue.of(score, member));
+         } else if (operation < 8) {
+            assertEquals(scores.containsKey(member) ? 1 : 0, bucket.removeAll(List.of(member)));
+            Double previous = scores.remove(member);
+            if (previous != null) {
+               expected.remove(ScoredValue.of(previous, member));
+            }
+         } else if (operation < 9) {
+            Double previous = scores.get(member);
+            SortedSetBucket.IndexValue index = bucket.indexOf(member, false);
+            if (previous == null) {
+               assertNull(index);
+            } else {
+               assertEquals(expected.headSet(ScoredValue.of(previous, member)).size(), index.getValue());
+               assertEquals(expected.size() - index.getValue() - 1, bucket.indexOf(member, true).getValue());
+            }
+         } else {
+            assertRanges(random, bucket, expected);
+         }
+         assertEquals(expected.size(), bucket.size());
+      }
+      assertEquals(new ArrayList<>(expected), bucket.getScoredEntriesAsList());
+   }
+
+   private void assertRanges(Random random, SortedSetBucket<String> bucket, TreeSet<ScoredValue<String>> expected) {
+      List<ScoredValue<String>> all = new ArrayList<>(expected);
+      List<ScoredValue<String>> reversed = new ArrayList<>(expected.descendingSet());
+      int size = all.size();
+      int from = size == 0 ? 0 : random.nextInt(size);
+      int to = from + random.nextInt(100);
+      assertEquals(all.subList(from, Math.min(size, to + 1)), bucket.subsetByIndex(from, to, false));
+      assertEquals(reversed.subList(from, Math.min(size, to + 1)), bucket.subsetByIndex(from, to, true));
+      assertEquals(all.subList(Math.max(0, size - 10), size), bucket.subsetByIndex(-10, -1, false));
+
+      if (size > 0) {
+         double min = all.get(from).score();
+         double max = all.get(Math.min(size - 1, to)).score();
+         List<ScoredValue<String>> byScore = new ArrayList<>();
+         for (ScoredValue<String> value : all) {
+            if (value.score() > min && value.score() <= max) {
+               byScore.add(value);
+            }
+         }
+         assertEquals(byScore, bucket.subset(min, false, max, true, false, null, null));
+         List<ScoredValue<String>> limited = byScore.subList(Math.min(byScore.size(), 2), Math.min(byScore.size(), 7));
+         assertEquals(limited, bucket.subset(min, false, max, true, false, 2L, 5L));
+
+         List<ScoredValue<String>> byScoreReversed = new ArrayList<>(byScore);
+         Collections.reverse(byScoreReversed);
+         assertEquals(byScoreReversed, bucket.subset(max, true, min, false, true, null, null));
+      }
+      assertEquals(expected.stream().map(ScoredValue::wrappedValue).collect(Collectors.toList()),
+            bucket.stream().collect(Collectors.toList()));
+      if (size > 0) {
+         MultimapObjectWrapper<String> first = all.get(0).wrappedValue();
+         assertEquals(all.get(0), bucket.subsetByIndex(0, 0, false).get(0));
+         assertEquals(first, bucket.pop(true, 1).iterator().next().wrappedValue());
+         bucket.addMany(List.of(all.get(0)), false, false, false, false);
+      }
+   }
+}
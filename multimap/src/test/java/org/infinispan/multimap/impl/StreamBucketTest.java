@@ -0,0 +1,113 @@
+package org.infinispan.multimap.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.List;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Checks the {@link StreamBucket} identifiers, the chunked ranges, the trimming and the consumer groups.
+ */
+@Test(groups = "unit", testName = "multimap.StreamBucketTest")
+public class StreamBucketTest extends AbstractInfinispanTest {
+
+   public void testNextId() {
+      StreamBucket<String> bucket = new StreamBucket<>();
+      assertEquals(new StreamId(0, 1), bucket.nextId(0, -1, 100));
+      assertEquals(new StreamId(100, 0), bucket.nextId(-1, -1, 100));
+      assertNull(bucket.nextId(0, 0, 100));
+
+      bucket.add(new StreamId(100, 5), List.of("f", "v"));
+      assertEquals(new StreamId(100, 6), bucket.nextId(-1, -1, 50));
+      assertEquals(new StreamId(100, 6), bucket.nextId(100, -1, 50));
+      assertEquals(new StreamId(101, 0), bucket.nextId(-1, -1, 101));
+      assertNull(bucket.nextId(99, -1, 101));
+      assertNull(bucket.nextId(100, 5, 101));
+   }
+
+   public void testRangeAcrossChunks() {
+      StreamBucket<String> bucket = fill(1_000);
+      assertEquals(1_000, bucket.size());
+      assertEquals(new StreamId(1_000, 0), bucket.lastId());
+
+      List<StreamEntry<String>> entries = bucket.range(new StreamId(100, 0), new StreamId(400, 0), 0, false);
+      assertEquals(301, entries.size());
+      assertEquals(new StreamId(100, 0), entries.get(0).id());
+      assertEquals(new StreamId(400, 0), entries.get(300).id());
+
+      entries = bucket.range(StreamId.MIN, StreamId.MAX, 10, true);
+      assertEquals(10, entries.size());
+      assertEquals(new StreamId(1_000, 0), entries.get(0).id());
+      assertEquals(new StreamId(991, 0), entries.get(9).id());
+
+      entries = bucket.after(new StreamId(998, 0), 0);
+      assertEquals(2, entries.size());
+      assertEquals(List.of("f999", "v999"), entries.get(0).fieldsAndValues());
+      assertEquals(0, bucket.after(bucket.lastId(), 0).size());
+      assertEquals("f500", bucket.get(new StreamId(500, 0)).fieldsAndValues().get(0));
+      assertNull(bucket.get(new StreamId(500, 1)));
+   }
+
+   public void testTrim() {
+      StreamBucket<String> bucket = fill(1_000);
+      assertEquals(500, bucket.trim(500, false));
+      assertEquals(500, bucket.size());
+      assertEquals(new StreamId(501, 0), bucket.first().id());
+
+      // The approximate trim only removes whole chunks
+      long removed = bucket.trim(100, true);
+      assertTrue(bucket.size() >= 100);
+      assertTrue(bucket.size() < 100 + StreamBucket.CHUNK_SIZE);
+      assertEquals(500, removed + bucket.size());
+      assertEquals(bucket.size(), bucket.range(StreamId.MIN, StreamId.MAX, 0, false).size());
+
+      assertEquals(bucket.size(), bucket.trim(0, false));
+      assertEquals(0, bucket.size());
+      assertNull(bucket.first());
+      assertEquals(new StreamId(1_000, 0), bucket.lastId());
+   }
+
+   public void testConsumerGroup() {
+      StreamBucket<String> bucket = fill(10);
+      assertTrue(bucket.createGroup("g", StreamId.MIN));
+      assertFalse(bucket.createGroup("g", StreamId.MIN));
+      StreamBucket.ConsumerGroup<String> group = bucket.group("g");
+
+      List<StreamEntry<String>> entries = group.readNew(bucket, "alice", 4, false, 1);
+      assertEquals(4, entries.size());
+      assertEquals(new StreamId(4, 0), group.lastDelivered());
+      assertEquals(6, group.readNew(bucket, "bob", 0, false, 2).size());
+      assertEquals(0, group.readNew(bucket, "bob", 0, false, 3).size());
+      assertEquals(10, group.pending().size());
+
+      entries = group.readPending(bucket, "alice", StreamId.MIN, 0, 4);
+      assertEquals(4, entries.size());
+      assertEquals(2, group.ack(List.of(new StreamId(1, 0), new StreamId(2, 0), new StreamId(20, 0))));
+      assertEquals(2, group.readPending(bucket, "alice", StreamId.MIN, 0, 5).size());
+
+      // A pending entry removed from the stream has no fields
+      bucket.trim(5, false);
+      entries = group.readPending(bucket, "alice", StreamId.MIN, 0, 6);
+      assertEquals(2, entries.size());
+      assertNull(entries.get(0).fieldsAndValues());
+
+      assertEquals(6, group.deleteConsumer("bob"));
+      assertEquals(-1, group.deleteConsumer("bob"));
+      assertEquals(2, group.pending().size());
+      assertTrue(bucket.destroyGroup("g"));
+      assertNull(bucket.group("g"));
+   }
+
+   private static StreamBucket<String> fill(int count) {
+      StreamBucket<String> bucket = new StreamBucket<>();
+      for (int i = 1; i <= count; i++) {
+         bucket.add(new StreamId(i, 0), List.of("f" + i, "v" + i));
+      }
+      return bucket;
+   }
+}
@@ -0,0 +1,119 @@
+package org.infinispan.multimap.impl.profiling;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.multimap.impl.ScoredValue;
+import org.infinispan.multimap.impl.SortedSetBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Samples the latency of the rank, range by index and score update operations of {@link SortedSetBucket} against
+ * the {@link TreeSetSortedSet} baseline, for sets of {@code size} members.
+ * <p>
+ * Run with {@code -Dsizes=5000000} to restrict the set sizes.
+ */
+public class SortedSetBucketBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 10;
+   private static final int WARMUP_ITERATIONS_COUNT = 5;
+   private static final int RANGE_LENGTH = 10;
+
+   public static void main(String[] args) throws Exception {
+      OptionsBuilder builder = new OptionsBuilder();
+      builder.include(SortedSetBucketBenchmark.class.getName() + ".*")
+            .mode(Mode.SampleTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .forks(1)
+            .shouldFailOnError(true);
+      String sizes = System.getProperty("sizes");
+      if (sizes != null) {
+         builder.param("size", sizes.split(","));
+      }
+      Options opt = builder.build();
+
+      new Runner(opt).run();
+   }
+
+   static String member(int i) {
+      return "member" + i;
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class BucketState {
+      @Param({"100", "100000", "1000000"})
+      int size;
+
+      SortedSetBucket<String> bucket;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         bucket = new SortedSetBucket<>();
+         for (int i = 0; i < size; i++) {
+            bucket.addMany(List.of(ScoredValue.of(ThreadLocalRandom.current().nextInt(size), member(i))), false, false, false, false);
+         }
+      }
+   }
+
+   @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+   public static class TreeSetState {
+      @Param({"100", "100000", "1000000"})
+      int size;
+
+      TreeSetSortedSet<String> set;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         set = new TreeSetSortedSet<>();
+         for (int i = 0; i < size; i++) {
+            set.add(ThreadLocalRandom.current().nextInt(size), member(i));
+         }
+      }
+   }
+
+   @Benchmark
+   public Object bucketRank(BucketState state) {
+      return state.bucket.indexOf(member(ThreadLocalRandom.current().nextInt(state.size)), false);
+   }
+
+   @Benchmark
+   public Object treeSetRank(TreeSetState state) {
+      return state.set.rank(member(ThreadLocalRandom.current().nextInt(state.size)));
+   }
+
+   @Benchmark
+   public Object bucketRangeByIndex(BucketState state) {
+      long from = ThreadLocalRandom.current().nextInt(state.size);
+      return state.bucket.subsetByIndex(from, from + RANGE_LENGTH - 1, false);
+   }
+
+   @Benchmark
+   public Object treeSetRangeByIndex(TreeSetState state) {
+      long from = ThreadLocalRandom.current().nextInt(state.size);
+      return state.set.rangeByIndex(from, from + RANGE_LENGTH - 1);
+   }
+
+   @Benchmark
+   public Object bucketUpdateScore(BucketState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      return state.bucket.addMany(List.of(ScoredValue.of(random.nextInt(state.size), member(random.nextInt(state.size)))),
+            false, false, false, false);
+   }
+
+   @Benchmark
+   public void treeSetUpdateScore(TreeSetState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      state.set.add(random.nextInt(state.size), member(random.nextInt(state.size)));
+   }
+}
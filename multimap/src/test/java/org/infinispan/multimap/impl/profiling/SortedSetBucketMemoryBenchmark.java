@@ -0,0 +1,69 @@
+package org.infinispan.multimap.impl.profiling;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.infinispan.multimap.impl.ScoredValue;
+import org.infinispan.multimap.impl.SortedSetBucket;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Estimates the heap used per member by {@link SortedSetBucket} and by the {@link TreeSetSortedSet} baseline, from the
+ * used heap before and after filling a set. The member strings are created up front, so only the structure is
+ * measured.
+ * <p>
+ * Run with {@code -Dsizes=5000000} to change the set sizes and with a heap large enough for the biggest one. The
+ * results are logged at INFO level.
+ */
+public class SortedSetBucketMemoryBenchmark {
+   private static final Log log = LogFactory.getLog(SortedSetBucketMemoryBenchmark.class);
+
+   public static void main(String[] args) {
+      String[] sizes = System.getProperty("sizes", "10,100,1000,100000,1000000").split(",");
+      for (String sizeString : sizes) {
+         int size = Integer.parseInt(sizeString);
+         String[] members = new String[size];
+         for (int i = 0; i < size; i++) {
+            members[i] = SortedSetBucketBenchmark.member(i);
+         }
+         log.infof("%d members: bucket %.1f bytes/member, tree set %.1f bytes/member", size,
+               measure(members, true), measure(members, false));
+      }
+   }
+
+   private static double measure(String[] members, boolean bucket) {
+      // Many small sets are measured together, so that the estimate is not lost in the noise
+      int sets = Math.max(1, 1_000_000 / members.length);
+      Object[] holder = new Object[sets];
+      long before = usedHeap();
+      for (int s = 0; s < sets; s++) {
+         if (bucket) {
+            SortedSetBucket<String> set = new SortedSetBucket<>();
+            for (String member : members) {
+               set.addMany(List.of(ScoredValue.of(ThreadLocalRandom.current().nextDouble(), member)), false, false, false, false);
+            }
+            holder[s] = set;
+         } else {
+            TreeSetSortedSet<String> set = new TreeSetSortedSet<>();
+            for (String member : members) {
+               set.add(ThreadLocalRandom.current().nextDouble(), member);
+            }
+            holder[s] = set;
+         }
+      }
+      long after = usedHeap();
+      if (holder[sets - 1] == null) {
+         throw new IllegalStateException();
+      }
+      return (double) (after - before) / ((long) sets * members.length);
+   }
+
+   private static long usedHeap() {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+}
@@ -0,0 +1,54 @@
+package org.infinispan.multimap.impl.profiling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.infinispan.multimap.impl.ScoredValue;
+import org.infinispan.multimap.impl.internal.MultimapObjectWrapper;
+
+/**
+ * The layout used by the sorted set bucket before 15.0: every member is kept in a {@link TreeSet} ordered by score and
+ * in a {@link HashMap} to its boxed score. Used as the baseline in the benchmarks.
+ */
+class TreeSetSortedSet<V> {
+   private final TreeSet<ScoredValue<V>> scoredEntries = new TreeSet<>();
+   private final Map<MultimapObjectWrapper<V>, Double> entries = new HashMap<>();
+
+   void add(double score, V member) {
+      MultimapObjectWrapper<V> wrapped = new MultimapObjectWrapper<>(member);
+      Double existing = entries.put(wrapped, score);
+      if (existing != null) {
+         scoredEntries.remove(new ScoredValue<>(existing, wrapped));
+      }
+      scoredEntries.add(new ScoredValue<>(score, wrapped));
+   }
+
+   long rank(V member) {
+      MultimapObjectWrapper<V> wrapped = new MultimapObjectWrapper<>(member);
+      Double score = entries.get(wrapped);
+      return score == null ? -1 : scoredEntries.headSet(new ScoredValue<>(score, wrapped)).size();
+   }
+
+   List<ScoredValue<V>> rangeByIndex(long from, long to) {
+      List<ScoredValue<V>> results = new ArrayList<>();
+      Iterator<ScoredValue<V>> ite = scoredEntries.iterator();
+      long pos = 0;
+      while (pos < from && ite.hasNext()) {
+         ite.next();
+         pos++;
+      }
+      while (pos <= to && ite.hasNext()) {
+         results.add(ite.next());
+         pos++;
+      }
+      return results;
+   }
+
+   int size() {
+      return scoredEntries.size();
+   }
+}
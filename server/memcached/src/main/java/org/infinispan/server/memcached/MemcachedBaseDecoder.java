@@ -13,7 +13,10 @@
 import java.time.temporal.Temporal;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
@@ -27,12 +30,16 @@
 import org.infinispan.container.versioning.VersionGenerator;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.security.AuthorizationManager;
+import org.infinispan.security.AuthorizationPermission;
 import org.infinispan.security.Security;
 import org.infinispan.server.core.transport.NettyTransport;
 import org.infinispan.server.memcached.logging.Header;
 import org.infinispan.server.memcached.logging.Log;
 import org.infinispan.server.memcached.logging.MemcachedAccessLogging;
 import org.infinispan.stats.Stats;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.LogFactory;
 
 import io.netty.buffer.Unpooled;
@@ -193,4 +200,28 @@ protected Metadata metadata(int flags, int expiration) {
             .lifespan(expiration > 0 ? toMillis(expiration) : -1)
             .build();
    }
+
+   /**
+    * Retrieves the entries of several keys with a single invocation. The bulk read requires the
+    * {@link AuthorizationPermission#BULK_READ} permission, so the subjects with only the
+    * {@link AuthorizationPermission#READ} permission retrieve the keys one by one, as with the single key gets.
+    */
+   protected CompletableFuture<Map<byte[], CacheEntry<byte[], byte[]>>> getAll(Set<byte[]> keys) {
+      AuthorizationManager authorizationManager = cache.getAuthorizationManager();
+      if (authorizationManager == null || authorizationManager.isPermissive() ||
+            authorizationManager.getPermissions(subject).contains(AuthorizationPermission.BULK_READ)) {
+         return cache.getAllCacheEntriesAsync(keys);
+      }
+      Map<byte[], CacheEntry<byte[], byte[]>> entries = new ConcurrentHashMap<>(keys.size());
+      AggregateCompletionStage<Map<byte[], CacheEntry<byte[], byte[]>>> stage =
+            CompletionStages.aggregateCompletionStage(entries);
+      for (byte[] key : keys) {
+         stage.dependsOn(cache.getCacheEntryAsync(key).thenAccept(entry -> {
+            if (entry != null) {
+               entries.put(key, entry);
+            }
+         }));
+      }
+      return stage.freeze().toCompletableFuture();
+   }
 }
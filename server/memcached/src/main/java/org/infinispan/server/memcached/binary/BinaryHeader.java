@@ -53,6 +53,13 @@ public BinaryHeader replace(Temporal requestStart, int requestBytes, String prin
       return this;
    }
 
+   /**
+    * @return A copy of this header, for operations that complete after the next request replaced it.
+    */
+   BinaryHeader copy() {
+      return new BinaryHeader(requestStart, requestBytes, principalName, key, op, opaque, cas);
+   }
+
    public BinaryCommand getCommand() {
       return op;
    }
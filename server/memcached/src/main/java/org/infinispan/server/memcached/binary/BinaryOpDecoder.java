@@ -12,16 +12,24 @@
 import static org.infinispan.server.memcached.MemcachedStatus.KEY_EXISTS;
 import static org.infinispan.server.memcached.MemcachedStatus.KEY_NOT_FOUND;
 import static org.infinispan.server.memcached.MemcachedStatus.NO_ERROR;
+import static org.infinispan.server.memcached.binary.BinaryConstants.MAGIC_REQ;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.Subject;
 
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.util.SimpleImmutableEntry;
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.util.Version;
@@ -36,13 +44,25 @@
 import org.infinispan.util.concurrent.CompletionStages;
 import org.jgroups.util.CompletableFutures;
 
+import io.netty.buffer.ByteBuf;
+
 abstract class BinaryOpDecoder extends BinaryDecoder {
+   // The size of the header and of the flags and expiration extras of a set
+   private static final int SET_PREFIX_LENGTH = 32;
+   private static final int MAX_BATCH_SIZE = 1024;
+
+   // The consecutive quiet gets or quiet sets waiting to run as a single cache operation
+   private final List<QuietOperation> batch = new ArrayList<>();
+   private Metadata batchMetadata;
 
    protected BinaryOpDecoder(MemcachedServer server, Subject subject) {
       super(server, subject);
    }
 
    protected MemcachedResponse get(BinaryHeader header, byte[] key, boolean quiet) {
+      if (quiet) {
+         return batchGet(header, key);
+      }
       CompletableFuture<CacheEntry<byte[], byte[]>> cs = cache.getCacheEntryAsync(key);
       if (CompletionStages.isCompletedSuccessfully(cs)) {
          handleGet(CompletionStages.join(cs), header, key, quiet);
@@ -64,7 +84,103 @@ private void handleGet(CacheEntry<byte[], byte[]> e, BinaryHeader header, byte[]
       }
    }
 
+   /**
+    * Queues a quiet get while the next request already received is another quiet get. The queued keys are then
+    * retrieved with {@link #getAll(Set)} and the responses are written in the order of the requests.
+    */
+   private MemcachedResponse batchGet(BinaryHeader header, byte[] key) {
+      BinaryHeader h = header.copy();
+      batch.add(new QuietOperation(h, key, null));
+      if (nextInBatch(BinaryCommand.GETQ, BinaryCommand.GETKQ, 0)) {
+         return send(h, CompletableFutures.completedNull());
+      }
+
+      List<QuietOperation> operations = new ArrayList<>(batch);
+      batch.clear();
+      Set<WrappedByteArray> keys = new HashSet<>(operations.size());
+      for (QuietOperation op : operations) {
+         keys.add(new WrappedByteArray(op.key));
+      }
+      Set<byte[]> distinct = new HashSet<>(keys.size());
+      for (WrappedByteArray k : keys) {
+         distinct.add(k.getBytes());
+      }
+      CompletableFuture<Map<byte[], CacheEntry<byte[], byte[]>>> cs = getAll(distinct);
+      if (CompletionStages.isCompletedSuccessfully(cs)) {
+         handleGetAll(CompletionStages.join(cs), operations);
+         return send(h, CompletableFutures.completedNull());
+      }
+      return send(h, cs.thenAccept(entries -> handleGetAll(entries, operations)));
+   }
+
+   private void handleGetAll(Map<byte[], CacheEntry<byte[], byte[]>> found, List<QuietOperation> operations) {
+      // The returned keys are not the requested instances
+      Map<WrappedByteArray, CacheEntry<byte[], byte[]>> entries = new HashMap<>(found.size());
+      for (CacheEntry<byte[], byte[]> entry : found.values()) {
+         entries.put(new WrappedByteArray(entry.getKey()), entry);
+      }
+      for (QuietOperation op : operations) {
+         CacheEntry<byte[], byte[]> entry = entries.get(new WrappedByteArray(op.key));
+         if (entry != null) {
+            handleGet(entry, op.header, op.key, true);
+         }
+      }
+   }
+
+   /**
+    * Queues a quiet set without CAS while the next request already received is a quiet set with the same flags and
+    * expiration. The queued entries are then stored with a single
+    * {@link org.infinispan.AdvancedCache#putAllAsync(Map, Metadata)}, and the last value wins for a repeated key.
+    */
+   private MemcachedResponse batchSet(BinaryHeader header, byte[] key, byte[] value, int flags, int expiration) {
+      BinaryHeader h = header.copy();
+      if (batch.isEmpty()) {
+         batchMetadata = metadata(flags, expiration);
+      }
+      batch.add(new QuietOperation(h, key, value));
+      if (nextInBatch(BinaryCommand.SETQ, BinaryCommand.SETQ, ((long) flags << 32) | (expiration & 0xFFFFFFFFL))) {
+         return send(h, CompletableFutures.completedNull());
+      }
+
+      Map<WrappedByteArray, byte[]> values = new LinkedHashMap<>(batch.size());
+      for (QuietOperation op : batch) {
+         values.put(new WrappedByteArray(op.key), op.value);
+      }
+      batch.clear();
+      Map<byte[], byte[]> entries = new LinkedHashMap<>(values.size());
+      for (Map.Entry<WrappedByteArray, byte[]> e : values.entrySet()) {
+         entries.put(e.getKey().getBytes(), e.getValue());
+      }
+      return send(h, cache.withFlags(Flag.IGNORE_RETURN_VALUES).putAllAsync(entries, batchMetadata));
+   }
+
+   /**
+    * Peeks the header of the next request in the input buffer, without consuming it.
+    *
+    * @param extras The flags and expiration extras the next request must have, if it is a set.
+    * @return <code>true</code> if the next request is complete enough to read its header and extends the batch.
+    */
+   private boolean nextInBatch(BinaryCommand first, BinaryCommand second, long extras) {
+      ByteBuf buf = internalBuffer();
+      if (batch.size() >= MAX_BATCH_SIZE || buf.readableBytes() < SET_PREFIX_LENGTH) {
+         return false;
+      }
+      int idx = buf.readerIndex();
+      byte op = buf.getByte(idx + 1);
+      if (buf.getByte(idx) != MAGIC_REQ || (op != first.opCode() && op != second.opCode())) {
+         return false;
+      }
+      // The operations with CAS are not batched
+      if (buf.getLong(idx + 16) != 0) {
+         return false;
+      }
+      return op != BinaryCommand.SETQ.opCode() || (buf.getByte(idx + 4) == 8 && buf.getLong(idx + 24) == extras);
+   }
+
    protected MemcachedResponse set(BinaryHeader header, byte[] key, byte[] value, int flags, int expiration, boolean quiet) {
+      if (quiet && header.getCas() == 0) {
+         return batchSet(header, key, value, flags, expiration);
+      }
       Metadata metadata = metadata(flags, expiration);
 
       if (header.getCas() == 0) {
@@ -355,4 +471,16 @@ protected MemcachedResponse verbosityLevel(BinaryHeader header, int verbosity) {
       response(header, NO_ERROR);
       return send(header, CompletableFutures.completedNull());
    }
+
+   private static final class QuietOperation {
+      final BinaryHeader header;
+      final byte[] key;
+      final byte[] value;
+
+      QuietOperation(BinaryHeader header, byte[] key, byte[] value) {
+         this.header = header;
+         this.key = key;
+         this.value = value;
+      }
+   }
 }
@@ -1,7 +1,6 @@
 package org.infinispan.server.memcached.text;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
-import static java.util.concurrent.CompletableFuture.failedFuture;
 import static org.infinispan.commons.util.concurrent.CompletableFutures.asCompletionException;
 import static org.infinispan.server.core.transport.ExtendedByteBuf.buffer;
 import static org.infinispan.server.core.transport.ExtendedByteBuf.wrappedBuffer;
@@ -36,6 +35,8 @@
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -45,6 +46,7 @@
 import javax.security.auth.Subject;
 
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.util.Version;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.container.entries.CacheEntry;
@@ -56,7 +58,6 @@
 import org.infinispan.server.memcached.MemcachedResponse;
 import org.infinispan.server.memcached.MemcachedServer;
 import org.infinispan.server.memcached.ParseUtil;
-import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletionStages;
 
 import io.netty.buffer.ByteBuf;
@@ -73,19 +74,13 @@ protected TextOpDecoder(MemcachedServer server, Subject subject) {
    protected MemcachedResponse get(TextHeader header, List<byte[]> keys, boolean withVersions) {
       int numberOfKeys = keys.size();
       if (numberOfKeys > 1) {
-         CacheEntry<byte[], byte[]>[] arr = new CacheEntry[numberOfKeys];
-         List<CacheEntry<byte[], byte[]>> entries = Collections.synchronizedList(Arrays.asList(arr));
-         AggregateCompletionStage<List<CacheEntry<byte[], byte[]>>> acs = CompletionStages.aggregateCompletionStage(entries);
-         for (int i = 0; i < numberOfKeys; ++i) {
-            acs.dependsOn(doGetMultipleKeys(keys, entries, i));
-         }
-
-         var cs = acs.freeze();
+         // A single invocation for all the keys, the entries are grouped by owner in clustered caches
+         CompletableFuture<Map<byte[], CacheEntry<byte[], byte[]>>> cs = getAll(new HashSet<>(keys));
          if (CompletionStages.isCompletedSuccessfully(cs)) {
-            return send(header, CompletableFuture.completedFuture(createMultiGetResponse(entries)));
+            return send(header, CompletableFuture.completedFuture(createMultiGetResponse(keys, CompletionStages.join(cs), withVersions)));
          }
 
-         return send(header, cs.thenApply(this::createMultiGetResponse));
+         return send(header, cs.thenApply(entries -> createMultiGetResponse(keys, entries, withVersions)));
       }
 
       byte[] key = keys.get(0);
@@ -229,13 +224,43 @@ private Object createMultiGetResponse(List<CacheEntry<byte[], byte[]>> entries)
       return elements;
    }
 
-   private CompletionStage<Void> doGetMultipleKeys(List<byte[]> keys, List<CacheEntry<byte[], byte[]>> entries, int i) {
-      try {
-         return cache.getCacheEntryAsync(keys.get(i))
-               .thenAccept(entry -> entries.set(i, entry));
-      } catch (Throwable t) {
-         return failedFuture(t);
+   /**
+    * Writes the entries found in the order of the requested keys, followed by the end marker, into a single buffer.
+    */
+   private static ByteBuf createMultiGetResponse(List<byte[]> keys, Map<byte[], CacheEntry<byte[], byte[]>> found,
+                                                 boolean withVersions) {
+      // The returned keys are not the requested instances
+      Map<WrappedByteArray, CacheEntry<byte[], byte[]>> entries = new HashMap<>(found.size());
+      int size = END_SIZE;
+      for (CacheEntry<byte[], byte[]> entry : found.values()) {
+         entries.put(new WrappedByteArray(entry.getKey()), entry);
+         // The flags, size and version use at most 60 bytes
+         size += VALUE_SIZE + entry.getKey().length + entry.getValue().length + 64;
+      }
+      ByteBuf buf = buffer(size);
+      for (byte[] key : keys) {
+         CacheEntry<byte[], byte[]> entry = entries.get(new WrappedByteArray(key));
+         if (entry != null) {
+            writeGetEntry(entry, withVersions, buf);
+         }
       }
+      return writeGetHeaderEnd(buf);
+   }
+
+   private static void writeGetEntry(CacheEntry<byte[], byte[]> entry, boolean withVersions, ByteBuf buf) {
+      Metadata metadata = entry.getMetadata();
+      long flags = metadata instanceof MemcachedMetadata ? ((MemcachedMetadata) metadata).flags : 0;
+      buf.writeBytes(VALUE);
+      buf.writeBytes(entry.getKey());
+      buf.writeByte(SPACE);
+      buf.writeBytes(ParseUtil.writeAsciiLong(flags));
+      buf.writeByte(SPACE);
+      buf.writeBytes(ParseUtil.writeAsciiLong(entry.getValue().length));
+      if (withVersions) {
+         buf.writeByte(SPACE);
+         buf.writeBytes(ParseUtil.writeAsciiLong(((NumericVersion) metadata.version()).getVersion()));
+      }
+      writeGetHeaderData(entry.getValue(), buf);
    }
 
    private CompletionStage<Void> doGatMultipleKeys(List<byte[]> keys, List<CacheEntry<byte[], byte[]>> entries, int expiration, int idx) {
@@ -353,19 +378,6 @@ private static void stat(ByteBuf buf, byte[] name, byte[] value) {
       }
    }
 
-   private CompletionStage<Void> doGetMultipleKeys(byte[] key, Map<byte[], CacheEntry<byte[], byte[]>> responses) {
-      try {
-         return cache.getCacheEntryAsync(key)
-               .thenAccept(entry -> {
-                  if (entry != null) {
-                     responses.put(key, entry);
-                  }
-               });
-      } catch (Throwable t) {
-         return failedFuture(t);
-      }
-   }
-
    private Object createSuccessResponse(TextCommand cmd, boolean quiet) {
       if (statsEnabled && cmd == TextCommand.cas) {
          CAS_HITS.incrementAndGet(statistics);
@@ -12,6 +12,7 @@
 
 import java.lang.reflect.Method;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -90,6 +91,22 @@ public void testGetMultipleKeys(Method m) throws InterruptedException, Execution
       assertEquals(v(m, "v3-"), ret.get(k(m, "k3-")));
    }
 
+   public void testGetBulkManyKeys(Method m) throws InterruptedException, ExecutionException, TimeoutException {
+      List<String> keys = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+         keys.add(k(m, i + "-"));
+         // Every third key is missing
+         if (i % 3 != 0) {
+            assertTrue(client.set(k(m, i + "-"), 0, v(m, i + "-")).get(timeout, TimeUnit.SECONDS));
+         }
+      }
+      Map<String, Object> ret = client.getBulk(keys);
+      assertEquals(66, ret.size());
+      for (int i = 0; i < 100; i++) {
+         assertEquals(i % 3 == 0 ? null : v(m, i + "-"), ret.get(k(m, i + "-")));
+      }
+   }
+
    public void testAddBasic(Method m) throws InterruptedException, ExecutionException, TimeoutException {
       addAndGet(m);
    }
@@ -98,6 +98,21 @@ public void testPipelinedGetAfterInvalidCas() throws IOException {
       assertEquals("END", responses.get(1));
    }
 
+   public void testMultiGetInRequestOrder(Method m) throws IOException {
+      String k1 = k(m, "k1-");
+      String k2 = k(m, "k2-");
+      assertStored(send(String.format("set %s 0 0 1\r\na\r\n", k1)));
+      assertStored(send(String.format("set %s 3 0 1\r\nb\r\n", k2)));
+      List<String> responses = sendMulti(String.format("gets %s missing %s %s\r\n", k2, k1, k2), 7, true);
+      assertTrue(responses.get(0), responses.get(0).matches("VALUE " + k2 + " 3 1 \\d+"));
+      assertEquals("b", responses.get(1));
+      assertTrue(responses.get(2), responses.get(2).matches("VALUE " + k1 + " 0 1 \\d+"));
+      assertEquals("a", responses.get(3));
+      assertEquals(responses.get(0), responses.get(4));
+      assertEquals("b", responses.get(5));
+      assertEquals("END", responses.get(6));
+   }
+
    public void testFlushAllPipeline() throws IOException {
       List<String> responses = sendMulti("flush_all\r\nget a\r\n", 2, true);
       assertEquals(responses.size(), 2);
@@ -0,0 +1,16 @@
+package org.infinispan.server.resp;
+
+import org.infinispan.commands.ReplicableCommand;
+
+/**
+ * The ids of the {@link ReplicableCommand} used by this module.
+ * <p>
+ * range: 150-159
+ *
+ * @since 15.0
+ */
+public interface ModuleCommandIds {
+
+   byte PUBLISH = (byte) (150 & 0xFF);
+   byte EVAL_SCRIPT = (byte) (151 & 0xFF);
+}
@@ -9,17 +9,24 @@
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.security.auth.Subject;
+
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
 import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.context.Flag;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
 import org.infinispan.multimap.impl.EmbeddedMultimapListCache;
 import org.infinispan.multimap.impl.EmbeddedMultimapPairCache;
 import org.infinispan.multimap.impl.EmbeddedMultimapSortedSetCache;
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
 import org.infinispan.multimap.impl.EmbeddedSetCache;
 import org.infinispan.security.AuthorizationManager;
 import org.infinispan.security.AuthorizationPermission;
+import org.infinispan.server.core.transport.ConnectionMetadata;
 import org.infinispan.server.resp.commands.Resp3Command;
+import org.infinispan.server.resp.tracking.TrackingState;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
@@ -32,8 +39,11 @@ public class Resp3Handler extends Resp3AuthHandler {
    protected EmbeddedMultimapPairCache<byte[], byte[], byte[]> mapMultimap;
    protected EmbeddedSetCache<byte[], byte[]> embeddedSetCache;
    protected EmbeddedMultimapSortedSetCache<byte[], byte[]> sortedSetMultimap;
+   protected EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap;
+   protected ReadWriteMapImpl<byte[], Object> readWriteMap;
 
    private final MediaType valueMediaType;
+   private TrackingState trackingState;
 
    Resp3Handler(RespServer respServer, MediaType valueMediaType) {
       super(respServer);
@@ -49,6 +59,19 @@ public void setCache(AdvancedCache<byte[], byte[]> cache) {
       mapMultimap = new EmbeddedMultimapPairCache<>(toMultimap);
       embeddedSetCache = new EmbeddedSetCache<>(toMultimap);
       sortedSetMultimap = new EmbeddedMultimapSortedSetCache<>(toMultimap);
+      streamMultimap = new EmbeddedMultimapStreamCache<>(toMultimap);
+      readWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(typedCache(null)));
+   }
+
+   /**
+    * @return the client tracking options of the connection, or {@code null} if tracking is disabled
+    */
+   public TrackingState trackingState() {
+      return trackingState;
+   }
+
+   public void trackingState(TrackingState trackingState) {
+      this.trackingState = trackingState;
    }
 
    public EmbeddedMultimapListCache<byte[], byte[]> getListMultimap() {
@@ -67,10 +90,17 @@ public EmbeddedMultimapSortedSetCache<byte[], byte[]> getSortedSeMultimap() {
       return sortedSetMultimap;
    }
 
+   public EmbeddedMultimapStreamCache<byte[], byte[]> getStreamMultimap() {
+      return streamMultimap;
+   }
+
    @Override
    protected CompletionStage<RespRequestHandler> actualHandleRequest(ChannelHandlerContext ctx, RespCommand type,
          List<byte[]> arguments) {
       if (type instanceof Resp3Command) {
+         if (trackingState != null) {
+            respServer.clientTracking().beforeCommand(cache, trackingState, type, arguments);
+         }
          Resp3Command resp3Command = (Resp3Command) type;
          return resp3Command.perform(this, ctx, arguments);
       }
@@ -188,6 +218,10 @@ public AdvancedCache<byte[], byte[]> ignorePreviousValuesCache() {
       return ignorePreviousValueCache;
    }
 
+   public ReadWriteMapImpl<byte[], Object> readWriteMap() {
+      return readWriteMap;
+   }
+
    public CompletionStage<RespRequestHandler> delegate(ChannelHandlerContext ctx,
          RespCommand command,
          List<byte[]> arguments) {
@@ -201,6 +235,31 @@ public void checkPermission(AuthorizationPermission authorizationPermission) {
       }
    }
 
+   /**
+    * @return {@code true} if the subject of the connection has the permission on the cache, or if the cache is not
+    * secured
+    */
+   public boolean isPermitted(ChannelHandlerContext ctx, AuthorizationPermission authorizationPermission) {
+      AuthorizationManager authorizationManager = cache.getAuthorizationManager();
+      if (authorizationManager == null || authorizationManager.isPermissive()) {
+         return true;
+      }
+      Subject subject = ConnectionMetadata.getInstance(ctx.channel()).subject();
+      return authorizationManager.getPermissions(subject).contains(authorizationPermission);
+   }
+
+   /**
+    * Verifies that the subject of the connection can write to the cache, for the writes that do not go through the
+    * cache. A {@link SecurityException} is thrown otherwise.
+    */
+   public void checkWritePermission(ChannelHandlerContext ctx) {
+      AuthorizationManager authorizationManager = cache.getAuthorizationManager();
+      if (authorizationManager != null) {
+         Subject subject = ConnectionMetadata.getInstance(ctx.channel()).subject();
+         authorizationManager.checkPermission(subject, authorizationManager.getWritePermission());
+      }
+   }
+
    public static void writeArrayPrefix(int size, ByteBufPool alloc) {
       allocAndWriteLengthPrefix('*', size, alloc, 0);
    }
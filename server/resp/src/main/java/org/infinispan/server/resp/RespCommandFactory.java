@@ -0,0 +1,42 @@
+package org.infinispan.server.resp;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.module.ModuleCommandFactory;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.server.resp.pubsub.PublishCommand;
+import org.infinispan.server.resp.scripting.EvalScriptCommand;
+import org.infinispan.util.ByteString;
+
+/**
+ * A {@link ModuleCommandFactory} that builds the {@link ReplicableCommand} used by this module.
+ *
+ * @since 15.0
+ */
+final class RespCommandFactory implements ModuleCommandFactory {
+
+   @Override
+   public Map<Byte, Class<? extends ReplicableCommand>> getModuleCommands() {
+      return Map.of(ModuleCommandIds.PUBLISH, PublishCommand.class,
+            ModuleCommandIds.EVAL_SCRIPT, EvalScriptCommand.class);
+   }
+
+   @Override
+   public ReplicableCommand fromStream(byte commandId) {
+      if (commandId == ModuleCommandIds.PUBLISH) {
+         return new PublishCommand();
+      }
+      throw new IllegalArgumentException(format("Not registered to handle command id %s", commandId));
+   }
+
+   @Override
+   public CacheRpcCommand fromStream(byte commandId, ByteString cacheName) {
+      if (commandId == ModuleCommandIds.EVAL_SCRIPT) {
+         return new EvalScriptCommand(cacheName);
+      }
+      throw new IllegalArgumentException(format("Not registered to handle command id %s", commandId));
+   }
+}
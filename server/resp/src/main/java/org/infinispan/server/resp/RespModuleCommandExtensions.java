@@ -0,0 +1,17 @@
+package org.infinispan.server.resp;
+
+import org.infinispan.commands.module.ModuleCommandExtensions;
+import org.infinispan.commands.module.ModuleCommandFactory;
+
+/**
+ * Registers the {@link RespCommandFactory} to handle the commands used by this module.
+ *
+ * @since 15.0
+ */
+public final class RespModuleCommandExtensions implements ModuleCommandExtensions {
+
+   @Override
+   public ModuleCommandFactory getModuleCommandFactory() {
+      return new RespCommandFactory();
+   }
+}
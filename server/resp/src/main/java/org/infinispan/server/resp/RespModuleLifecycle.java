@@ -8,8 +8,11 @@
 import org.infinispan.factories.annotations.InfinispanModule;
 import org.infinispan.lifecycle.ModuleLifecycle;
 import org.infinispan.marshall.protostream.impl.SerializationContextRegistry;
-import org.infinispan.server.resp.commands.tx.WATCH;
+import org.infinispan.remoting.transport.Transport;
 import org.infinispan.server.resp.filter.EventListenerKeysFilter;
+import org.infinispan.server.resp.filter.IgnoreValueConverter;
+import org.infinispan.server.resp.pubsub.PubSubRegistry;
+import org.infinispan.server.resp.scripting.RespScripting;
 
 @InfinispanModule(name = "resp", requiredModules = "core")
 public class RespModuleLifecycle implements ModuleLifecycle {
@@ -20,10 +23,22 @@ public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguratio
             .advancedExternalizers();
 
       externalizerMap.put(EventListenerKeysFilter.EXTERNALIZER.getId(), EventListenerKeysFilter.EXTERNALIZER);
-      externalizerMap.put(WATCH.EXTERNALIZER.getId(), WATCH.EXTERNALIZER);
+      externalizerMap.put(IgnoreValueConverter.EXTERNALIZER.getId(), IgnoreValueConverter.EXTERNALIZER);
 
       SerializationContextRegistry ctxRegistry = gcr.getComponent(SerializationContextRegistry.class);
       ctxRegistry.addContextInitializer(SerializationContextRegistry.MarshallerType.GLOBAL, new PersistenceContextInitializerImpl());
       ctxRegistry.addContextInitializer(SerializationContextRegistry.MarshallerType.PERSISTENCE, new PersistenceContextInitializerImpl());
+
+      gcr.registerComponent(new PubSubRegistry(), PubSubRegistry.class);
+      gcr.registerComponent(new RespScripting(), RespScripting.class);
+   }
+
+   @Override
+   public void cacheManagerStarted(GlobalComponentRegistry gcr) {
+      Transport transport = gcr.getComponent(Transport.class);
+      if (transport != null) {
+         long timeout = gcr.getGlobalConfiguration().transport().distributedSyncTimeout();
+         gcr.getComponent(PubSubRegistry.class).start(transport, timeout);
+      }
    }
 }
@@ -23,6 +23,10 @@
 import org.infinispan.server.resp.filter.ComposedFilterConverterFactory;
 import org.infinispan.server.resp.filter.GlobMatchFilterConverterFactory;
 import org.infinispan.server.resp.filter.RespTypeFilterConverterFactory;
+import org.infinispan.server.resp.pubsub.PubSubRegistry;
+import org.infinispan.server.resp.blocking.BlockingManager;
+import org.infinispan.server.resp.scripting.RespScripting;
+import org.infinispan.server.resp.tracking.ClientTracking;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInboundHandler;
@@ -45,6 +49,10 @@ public class RespServer extends AbstractProtocolServer<RespServerConfiguration>
    private ExternalSourceIterationManager dataStructureIterationManager;
    private TimeService timeService;
    private SegmentSlotRelation segmentSlots;
+   private PubSubRegistry pubSubRegistry;
+   private RespScripting scripting;
+   private ClientTracking clientTracking;
+   private BlockingManager blockingManager;
 
    public RespServer() {
       super("Resp");
@@ -54,6 +62,10 @@ public RespServer() {
    protected void startInternal() {
       GlobalComponentRegistry gcr = SecurityActions.getGlobalComponentRegistry(cacheManager);
       this.timeService = gcr.getTimeService();
+      this.pubSubRegistry = gcr.getComponent(PubSubRegistry.class);
+      this.scripting = gcr.getComponent(RespScripting.class);
+      this.clientTracking = new ClientTracking(configuration.trackingTableMaxKeys());
+      this.blockingManager = new BlockingManager();
       this.iterationManager = new DefaultIterationManager(gcr.getTimeService());
       this.dataStructureIterationManager = new ExternalSourceIterationManager(gcr.getTimeService());
       iterationManager.addKeyValueFilterConverterFactory(GlobMatchFilterConverterFactory.class.getName(), new GlobMatchFilterConverterFactory());
@@ -129,6 +141,12 @@ public ChannelMatcher getChannelMatcher() {
 
    @Override
    public void stop() {
+      if (clientTracking != null) {
+         clientTracking.stop();
+      }
+      if (blockingManager != null) {
+         blockingManager.stop();
+      }
       super.stop();
    }
 
@@ -163,4 +181,20 @@ public TimeService getTimeService() {
    public SegmentSlotRelation segmentSlotRelation() {
       return segmentSlots;
    }
+
+   public PubSubRegistry pubSubRegistry() {
+      return pubSubRegistry;
+   }
+
+   public RespScripting scripting() {
+      return scripting;
+   }
+
+   public ClientTracking clientTracking() {
+      return clientTracking;
+   }
+
+   public BlockingManager blockingManager() {
+      return blockingManager;
+   }
 }
@@ -4,6 +4,7 @@
 import org.infinispan.multimap.impl.ListBucket;
 import org.infinispan.multimap.impl.SetBucket;
 import org.infinispan.multimap.impl.SortedSetBucket;
+import org.infinispan.multimap.impl.StreamBucket;
 
 /**
  * @since 15.0
@@ -32,6 +33,8 @@ public static RespTypes fromValueClass(Class<?> c) {
          return RespTypes.set;
       } else if (c == SortedSetBucket.class) {
          return RespTypes.zset;
+      } else if (c == StreamBucket.class) {
+         return RespTypes.stream;
       } else if (c == byte[].class) {
          return RespTypes.string;
       } else {
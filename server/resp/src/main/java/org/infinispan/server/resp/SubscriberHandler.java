@@ -3,36 +3,24 @@
 import static org.infinispan.server.resp.RespConstants.CRLF;
 import static org.infinispan.server.resp.RespConstants.CRLF_STRING;
 
-import java.lang.invoke.MethodHandles;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
 
-import org.infinispan.commons.logging.LogFactory;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
-import org.infinispan.notifications.Listener;
-import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
-import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
-import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
 import org.infinispan.server.resp.commands.PubSubResp3Command;
-import org.infinispan.server.resp.commands.pubsub.KeyChannelUtils;
-import org.infinispan.server.resp.logging.Log;
-import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.server.resp.pubsub.PubSubRegistry;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.AttributeKey;
 import io.netty.util.CharsetUtil;
 
 public class SubscriberHandler extends CacheRespRequestHandler {
-   private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass(), Log.class);
    private static final AttributeKey<Long> SUBSCRIPTIONS_COUNTER = AttributeKey.newInstance("channel-subscriptions");
    private final Resp3Handler resp3Handler;
 
@@ -41,49 +29,10 @@ public SubscriberHandler(RespServer respServer, Resp3Handler prevHandler) {
       this.resp3Handler = prevHandler;
    }
 
-   @Listener(clustered = true)
-   public static class PubSubListener {
-      private final Channel channel;
+   // The channels this connection is subscribed to
+   private final Set<WrappedByteArray> specificChannelSubscribers = new HashSet<>();
 
-      public PubSubListener(Channel channel) {
-         this.channel = channel;
-      }
-
-      @CacheEntryCreated
-      @CacheEntryModified
-      public CompletionStage<Void> onEvent(CacheEntryEvent<Object, byte[]> entryEvent) {
-         byte[] key = KeyChannelUtils.channelToKey(unwrap(entryEvent.getKey()));
-         byte[] value = entryEvent.getValue();
-         if (key.length > 0 && value != null && value.length > 0) {
-            // *3 + \r\n + $7 + \r\n + message + \r\n + $ + keylength (log10 + 1) + \r\n + key + \r\n +
-            // $ + valuelength (log 10 + 1) + \r\n + value + \r\n
-            int byteSize = 2 + 2 + 2 + 2 + 7 + 2 + 1 + (int) Math.log10(key.length) + 1
-                  + 2 + key.length + 2 + 1 + (int) Math.log10(value.length) + 1 + 2 + value.length + 2;
-            // TODO: this is technically an issue with concurrent events before/after register/unregister message
-            ByteBuf byteBuf = channel.alloc().buffer(byteSize, byteSize);
-            byteBuf.writeCharSequence("*3\r\n$7\r\nmessage\r\n$" + key.length + CRLF_STRING, CharsetUtil.US_ASCII);
-            byteBuf.writeBytes(key);
-            byteBuf.writeCharSequence("\r\n$" + value.length + CRLF_STRING, CharsetUtil.US_ASCII);
-            byteBuf.writeBytes(value);
-            byteBuf.writeByte('\r');
-            byteBuf.writeByte('\n');
-            assert byteBuf.writerIndex() == byteSize;
-            // TODO: add some back pressure? - something like ClientListenerRegistry?
-            channel.writeAndFlush(byteBuf, channel.voidPromise());
-         }
-         return CompletableFutures.completedNull();
-      }
-
-      private byte[] unwrap(Object key) {
-         return key instanceof WrappedByteArray
-               ? ((WrappedByteArray) key).getBytes()
-               : (byte[]) key;
-      }
-   }
-
-   private final Map<WrappedByteArray, PubSubListener> specificChannelSubscribers = new HashMap<>();
-
-   public Map<WrappedByteArray, PubSubListener> specificChannelSubscribers() {
+   public Set<WrappedByteArray> specificChannelSubscribers() {
       return specificChannelSubscribers;
    }
 
@@ -93,7 +42,7 @@ public Resp3Handler resp3Handler() {
 
    @Override
    public void handleChannelDisconnect(ChannelHandlerContext ctx) {
-      removeAllListeners();
+      removeAllSubscriptions(ctx);
    }
 
    @Override
@@ -106,40 +55,21 @@ protected CompletionStage<RespRequestHandler> actualHandleRequest(ChannelHandler
       return super.actualHandleRequest(ctx, command, arguments);
    }
 
-   public CompletionStage<Void> handleStageListenerError(CompletionStage<Void> stage, byte[] keyChannel, boolean subscribeOrUnsubscribe) {
-      return stage.whenComplete((__, t) -> {
-         if (t != null) {
-            if (subscribeOrUnsubscribe) {
-               log.exceptionWhileRegisteringListener(t, CharsetUtil.UTF_8.decode(ByteBuffer.wrap(keyChannel)));
-            } else {
-               log.exceptionWhileRemovingListener(t, CharsetUtil.UTF_8.decode(ByteBuffer.wrap(keyChannel)));
-            }
-         }
-      });
-   }
-
-   public void removeAllListeners() {
-      for (Iterator<Map.Entry<WrappedByteArray, PubSubListener>> iterator = specificChannelSubscribers.entrySet().iterator(); iterator.hasNext(); ) {
-         Map.Entry<WrappedByteArray, PubSubListener> entry = iterator.next();
-         PubSubListener listener = entry.getValue();
-         cache.removeListenerAsync(listener);
-         iterator.remove();
+   public void removeAllSubscriptions(ChannelHandlerContext ctx) {
+      PubSubRegistry registry = respServer.pubSubRegistry();
+      for (WrappedByteArray channel : specificChannelSubscribers) {
+         registry.unsubscribe(channel, ctx.channel());
       }
+      specificChannelSubscribers.clear();
    }
 
    public CompletionStage<RespRequestHandler> unsubscribeAll(ChannelHandlerContext ctx) {
-      var aggregateCompletionStage = CompletionStages.aggregateCompletionStage();
       List<byte[]> channels = new ArrayList<>(specificChannelSubscribers.size());
-      for (Iterator<Map.Entry<WrappedByteArray, PubSubListener>> iterator = specificChannelSubscribers.entrySet().iterator(); iterator.hasNext(); ) {
-         Map.Entry<WrappedByteArray, PubSubListener> entry = iterator.next();
-         PubSubListener listener = entry.getValue();
-         CompletionStage<Void> stage = cache.removeListenerAsync(listener);
-         byte[] keyChannel = entry.getKey().getBytes();
-         channels.add(keyChannel);
-         aggregateCompletionStage.dependsOn(handleStageListenerError(stage, keyChannel, false));
-         iterator.remove();
+      for (WrappedByteArray channel : specificChannelSubscribers) {
+         channels.add(channel.getBytes());
       }
-      return sendSubscriptions(ctx, aggregateCompletionStage.freeze(), channels, false);
+      removeAllSubscriptions(ctx);
+      return sendSubscriptions(ctx, CompletableFutures.completedNull(), channels, false);
    }
 
    public CompletionStage<RespRequestHandler> sendSubscriptions(ChannelHandlerContext ctx, CompletionStage<Void> stageToWaitFor,
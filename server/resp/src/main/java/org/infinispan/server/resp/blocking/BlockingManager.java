@@ -0,0 +1,194 @@
+package org.infinispan.server.resp.blocking;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.infinispan.AdvancedCache;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+
+/**
+ * Blocks the commands waiting for data on keys, such as {@code XREAD BLOCK} or {@code BLPOP}.
+ * <p>
+ * A blocked command registers its keys and runs an attempt. If the attempt finds nothing, the command waits until one
+ * of its keys is created or modified on any node, and then runs the attempt again. The connections are woken up by a
+ * single listener per blocked key instead of polling the cache. An attempt that is running when the timeout expires is not
+ * discarded, so a command never loses the data it removed from the cache.
+ * <p>
+ * The commands that remove the data they read, such as {@code BLPOP}, are served in FIFO order: a modification only
+ * wakes up the oldest of them, which hands off to the next one when it is done, since more data may be left.
+ * <p>
+ * There is one instance per RESP server.
+ *
+ * @since 15.0
+ */
+public class BlockingManager {
+   private final ConcurrentMap<String, KeyWaiters> caches = new ConcurrentHashMap<>();
+
+   /**
+    * Runs the attempt until it returns a value, waiting for a modification of the keys between the attempts.
+    *
+    * @param channel: The connection of the command, the wait ends when it is closed.
+    * @param keys: The keys to wait for.
+    * @param timeoutMillis: The maximum time to wait, or 0 to wait forever.
+    * @param attempt: Returns a stage with the value, or <code>null</code> if there is no data yet.
+    * @return A stage with the value of the attempt, or <code>null</code> if the timeout expires first.
+    */
+   public <T> CompletionStage<T> block(AdvancedCache<byte[], byte[]> cache, Channel channel, List<byte[]> keys,
+                                       long timeoutMillis, Supplier<CompletionStage<T>> attempt) {
+      return block(cache, channel, keys, timeoutMillis, false, attempt);
+   }
+
+   /**
+    * Same as {@link #block(AdvancedCache, Channel, List, long, Supplier)}, but when <code>consumes</code> is set the
+    * attempt removes the data it returns, and the commands blocked on the same keys are served in FIFO order.
+    */
+   public <T> CompletionStage<T> block(AdvancedCache<byte[], byte[]> cache, Channel channel, List<byte[]> keys,
+                                       long timeoutMillis, boolean consumes, Supplier<CompletionStage<T>> attempt) {
+      KeyWaiters waiters = caches.computeIfAbsent(cache.getName(), ignore -> new KeyWaiters(cache));
+      Blocked<T> blocked = new Blocked<>(keys, consumes, attempt);
+      // Register before the first attempt, so a modification in between is not missed
+      CompletionStage<Void> started = waiters.register(blocked);
+      blocked.result.whenComplete((ignore, t) -> {
+         waiters.unregister(blocked);
+         if (consumes) {
+            // The keys may have more data for the next waiters, or a modification was received just before expiring
+            waiters.handOff(keys);
+         }
+      });
+
+      if (timeoutMillis > 0) {
+         ScheduledFuture<?> timer = channel.eventLoop().schedule(blocked::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+         blocked.result.whenComplete((ignore, t) -> timer.cancel(false));
+      }
+      ChannelFutureListener onClose = ignore -> blocked.expire();
+      channel.closeFuture().addListener(onClose);
+      blocked.result.whenComplete((ignore, t) -> channel.closeFuture().removeListener(onClose));
+
+      started.whenComplete((ignore, t) -> {
+         if (t != null) {
+            blocked.result.completeExceptionally(t);
+         } else {
+            blocked.wakeUp();
+         }
+      });
+      return blocked.result;
+   }
+
+   /**
+    * @return the number of keys of the cache with blocked connections
+    */
+   public int blockedKeys(AdvancedCache<byte[], byte[]> cache) {
+      KeyWaiters waiters = caches.get(cache.getName());
+      return waiters == null ? 0 : waiters.size();
+   }
+
+   public CompletionStage<Void> stop() {
+      CompletableFuture<?>[] stages = caches.values().stream()
+            .map(waiters -> waiters.stop().toCompletableFuture())
+            .toArray(CompletableFuture[]::new);
+      caches.clear();
+      return CompletableFuture.allOf(stages);
+   }
+
+   static final class Blocked<T> {
+      private final List<byte[]> keys;
+      private final boolean consumes;
+      private final Supplier<CompletionStage<T>> attempt;
+      final CompletableFuture<T> result = new CompletableFuture<>();
+      // Guarded by this
+      private boolean running;
+      private boolean modified;
+      private boolean expired;
+
+      Blocked(List<byte[]> keys, boolean consumes, Supplier<CompletionStage<T>> attempt) {
+         this.keys = keys;
+         this.consumes = consumes;
+         this.attempt = attempt;
+      }
+
+      List<byte[]> keys() {
+         return keys;
+      }
+
+      boolean consumes() {
+         return consumes;
+      }
+
+      /**
+       * Runs the attempt, or runs it again after the current one if a key was modified meanwhile.
+       *
+       * @return <code>false</code> if the command is no longer waiting.
+       */
+      boolean wakeUp() {
+         synchronized (this) {
+            if (expired || result.isDone()) return false;
+            if (running) {
+               modified = true;
+               return true;
+            }
+            running = true;
+            modified = false;
+         }
+         run();
+         return true;
+      }
+
+      void expire() {
+         synchronized (this) {
+            if (expired) return;
+            expired = true;
+            // The running attempt completes the result
+            if (running) return;
+         }
+         result.complete(null);
+      }
+
+      private void run() {
+         CompletionStage<T> stage;
+         try {
+            stage = attempt.get();
+         } catch (Throwable t) {
+            result.completeExceptionally(t);
+            return;
+         }
+         stage.whenComplete((value, t) -> {
+            if (t != null) {
+               result.completeExceptionally(t);
+               return;
+            }
+            if (value != null) {
+               result.complete(value);
+               return;
+            }
+            boolean again;
+            synchronized (this) {
+               running = false;
+               if (expired) {
+                  again = false;
+               } else {
+                  again = modified;
+                  modified = false;
+                  running = again;
+               }
+            }
+            if (again) {
+               run();
+            } else if (expired()) {
+               result.complete(null);
+            }
+         });
+      }
+
+      private synchronized boolean expired() {
+         return expired;
+      }
+   }
+}
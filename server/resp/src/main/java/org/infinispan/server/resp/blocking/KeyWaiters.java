@@ -0,0 +1,176 @@
+package org.infinispan.server.resp.blocking;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.server.resp.filter.EventListenerKeysFilter;
+import org.infinispan.server.resp.filter.IgnoreValueConverter;
+
+/**
+ * The connections blocked on keys of a cache.
+ * <p>
+ * Each key with blocked connections has a single clustered listener, filtered on the key, that receives its creations
+ * and modifications from all the nodes and wakes up the connections blocked on it. The connections do not poll the
+ * cache and do not install a listener each, and the listener of a key is removed when its last connection leaves, so
+ * the writes of the other keys are not sent to this node.
+ * <p>
+ * The waiters of a key are kept in arrival order. A modification wakes up all the waiters that only read, and the
+ * oldest waiter that consumes the data.
+ *
+ * @since 15.0
+ */
+class KeyWaiters {
+   private final AdvancedCache<byte[], byte[]> cache;
+   // The waiters are only modified in the compute methods of the map
+   private final ConcurrentMap<WrappedByteArray, Waiters> waiters = new ConcurrentHashMap<>();
+
+   KeyWaiters(AdvancedCache<byte[], byte[]> cache) {
+      this.cache = cache;
+   }
+
+   CompletionStage<Void> stop() {
+      CompletableFuture<?>[] stages = waiters.values().stream()
+            .map(w -> w.stop().toCompletableFuture())
+            .toArray(CompletableFuture[]::new);
+      waiters.clear();
+      return CompletableFuture.allOf(stages);
+   }
+
+   /**
+    * @return a stage that completes when the listeners of all the keys are installed
+    */
+   CompletionStage<Void> register(BlockingManager.Blocked<?> blocked) {
+      List<Waiters> created = new ArrayList<>(1);
+      CompletableFuture<?>[] started = new CompletableFuture[blocked.keys().size()];
+      int i = 0;
+      for (byte[] key : blocked.keys()) {
+         Waiters w = waiters.compute(new WrappedByteArray(key), (ignore, current) -> {
+            if (current == null) {
+               current = new Waiters(key);
+               created.add(current);
+            }
+            current.blocked.add(blocked);
+            return current;
+         });
+         started[i++] = w.started;
+      }
+      // Installing a clustered listener sends commands to the other nodes, it must not run in the compute methods
+      for (Waiters w : created) {
+         w.start();
+      }
+      return CompletableFuture.allOf(started);
+   }
+
+   void unregister(BlockingManager.Blocked<?> blocked) {
+      for (byte[] key : blocked.keys()) {
+         Waiters[] removed = new Waiters[1];
+         waiters.computeIfPresent(new WrappedByteArray(key), (ignore, w) -> {
+            w.blocked.remove(blocked);
+            if (w.blocked.isEmpty()) {
+               removed[0] = w;
+               return null;
+            }
+            return w;
+         });
+         if (removed[0] != null) {
+            removed[0].stop();
+         }
+      }
+   }
+
+   /**
+    * @return the number of keys with blocked connections
+    */
+   int size() {
+      return waiters.size();
+   }
+
+   /**
+    * Wakes up the next waiters of the keys, after a waiter consumed data from them.
+    */
+   void handOff(List<byte[]> keys) {
+      for (byte[] key : keys) {
+         wakeUp(new WrappedByteArray(key));
+      }
+   }
+
+   private void wakeUp(WrappedByteArray key) {
+      List<BlockingManager.Blocked<?>> snapshot = new ArrayList<>();
+      waiters.computeIfPresent(key, (ignore, w) -> {
+         snapshot.addAll(w.blocked);
+         return w;
+      });
+      boolean consumerWoken = false;
+      for (BlockingManager.Blocked<?> b : snapshot) {
+         if (!b.consumes()) {
+            b.wakeUp();
+         } else if (!consumerWoken) {
+            // A waiter that is no longer waiting passes the turn to the next one
+            consumerWoken = b.wakeUp();
+         }
+      }
+   }
+
+   /**
+    * The connections blocked on a key, and the listener of the key.
+    */
+   private class Waiters {
+      private final byte[] key;
+      private final Set<BlockingManager.Blocked<?>> blocked = new LinkedHashSet<>();
+      private final WakeUpListener listener;
+      private final CompletableFuture<Void> started = new CompletableFuture<>();
+
+      Waiters(byte[] key) {
+         this.key = key;
+         this.listener = new WakeUpListener(new WrappedByteArray(key));
+      }
+
+      void start() {
+         cache.addListenerAsync(listener, new EventListenerKeysFilter(key), new IgnoreValueConverter())
+               .whenComplete((ignore, t) -> {
+                  if (t != null) {
+                     started.completeExceptionally(t);
+                  } else {
+                     started.complete(null);
+                  }
+               });
+      }
+
+      CompletionStage<Void> stop() {
+         // The listener may still be installing
+         return started.handle((ignore, t) -> t).thenCompose(t -> t != null ?
+               CompletableFutures.completedNull() :
+               cache.removeListenerAsync(listener));
+      }
+   }
+
+   @Listener(clustered = true)
+   public class WakeUpListener {
+      private final WrappedByteArray key;
+
+      WakeUpListener(WrappedByteArray key) {
+         this.key = key;
+      }
+
+      @CacheEntryCreated
+      @CacheEntryModified
+      public CompletionStage<Void> onEvent(CacheEntryEvent<Object, Object> event) {
+         // The filter only accepts the events of the key
+         wakeUp(key);
+         return CompletableFutures.completedNull();
+      }
+   }
+}
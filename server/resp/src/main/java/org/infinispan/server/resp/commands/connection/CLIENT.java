@@ -5,6 +5,7 @@
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 
@@ -12,13 +13,19 @@
 import org.infinispan.security.Security;
 import org.infinispan.server.core.transport.ConnectionMetadata;
 import org.infinispan.server.core.transport.NettyTransport;
+import org.infinispan.server.resp.ByteBufPool;
 import org.infinispan.server.resp.ByteBufferUtils;
 import org.infinispan.server.resp.Consumers;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
 import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
 import org.infinispan.server.resp.commands.Resp3Command;
+import org.infinispan.server.resp.tracking.ClientTracking;
+import org.infinispan.server.resp.tracking.TrackingState;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.ChannelMatcher;
@@ -39,13 +46,11 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, Channel
       String subcommand = utf8(arguments.get(0)).toUpperCase();
       ConnectionMetadata metadata = ConnectionMetadata.getInstance(ctx.channel());
       switch (subcommand) {
-         case "CACHING":
          case "UNPAUSE":
          case "PAUSE":
          case "NO-EVICT":
          case "KILL":
          case "NO-TOUCH":
-         case "GETREDIR":
          case "UNBLOCK":
          case "REPLY":
             ByteBufferUtils.stringToByteBufAscii("-ERR unsupported command\r\n", handler.allocator());
@@ -88,12 +93,7 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, Channel
             handler.checkPermission(AuthorizationPermission.ADMIN);
             StringBuilder sb = new StringBuilder();
             ChannelMatcher matcher = handler.respServer().getChannelMatcher();
-            NettyTransport transport = handler.respServer().getTransport();
-            if (transport == null) {
-               transport = (NettyTransport) handler.respServer().getEnclosingProtocolServer().getTransport();
-            }
-            ChannelGroup channels = transport.getAcceptedChannels();
-            channels.forEach(ch -> {
+            acceptedChannels(handler).forEach(ch -> {
                if (matcher.matches(ch)) {
                   addInfo(sb, ConnectionMetadata.getInstance(ch));
                }
@@ -102,15 +102,175 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, Channel
             break;
          }
          case "TRACKING":
-            ByteBufferUtils.stringToByteBufAscii("-ERR client tracking not supported\r\n", handler.allocator());
-            break;
+            return tracking(handler, ctx, arguments);
          case "TRACKINGINFO":
-            ByteBufferUtils.stringToByteBufAscii("*0\r\n", handler.allocator());
+            trackingInfo(handler.trackingState(), handler.allocator());
+            break;
+         case "CACHING": {
+            TrackingState state = handler.trackingState();
+            if (state == null || (!state.isOptIn() && !state.isOptOut())) {
+               ByteBufferUtils.stringToByteBufAscii("-ERR CLIENT CACHING can be called only when the client is in tracking mode with OPTIN or OPTOUT mode enabled\r\n", handler.allocator());
+               break;
+            }
+            String value = arguments.size() == 2 ? utf8(arguments.get(1)).toUpperCase() : "";
+            if ("YES".equals(value) && state.isOptIn()) {
+               state.caching(Boolean.TRUE);
+            } else if ("NO".equals(value) && state.isOptOut()) {
+               state.caching(Boolean.FALSE);
+            } else {
+               RespErrorUtil.syntaxError(handler.allocator());
+               break;
+            }
+            Consumers.OK_BICONSUMER.accept(null, handler.allocator());
+            break;
+         }
+         case "GETREDIR": {
+            TrackingState state = handler.trackingState();
+            long redirect = state == null ? -1 : state.redirect() == null ? 0 : ConnectionMetadata.getInstance(state.redirect()).id();
+            Consumers.LONG_BICONSUMER.accept(redirect, handler.allocator());
             break;
+         }
       }
       return handler.myStage();
    }
 
+   private static ChannelGroup acceptedChannels(Resp3Handler handler) {
+      NettyTransport transport = handler.respServer().getTransport();
+      if (transport == null) {
+         transport = (NettyTransport) handler.respServer().getEnclosingProtocolServer().getTransport();
+      }
+      return transport.getAcceptedChannels();
+   }
+
+   private CompletionStage<RespRequestHandler> tracking(Resp3Handler handler, ChannelHandlerContext ctx,
+                                                        List<byte[]> arguments) {
+      if (arguments.size() < 2) {
+         RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
+         return handler.myStage();
+      }
+      ClientTracking clientTracking = handler.respServer().clientTracking();
+      String onOff = utf8(arguments.get(1)).toUpperCase();
+      if ("OFF".equals(onOff)) {
+         TrackingState previous = handler.trackingState();
+         if (previous != null) {
+            clientTracking.disable(previous);
+            handler.trackingState(null);
+         }
+         Consumers.OK_BICONSUMER.accept(null, handler.allocator());
+         return handler.myStage();
+      }
+      if (!"ON".equals(onOff)) {
+         RespErrorUtil.syntaxError(handler.allocator());
+         return handler.myStage();
+      }
+      Channel redirect = null;
+      boolean broadcast = false;
+      boolean optIn = false;
+      boolean optOut = false;
+      List<byte[]> prefixes = new ArrayList<>();
+      for (int i = 2; i < arguments.size(); i++) {
+         String option = utf8(arguments.get(i)).toUpperCase();
+         switch (option) {
+            case "REDIRECT": {
+               if (++i == arguments.size()) {
+                  RespErrorUtil.syntaxError(handler.allocator());
+                  return handler.myStage();
+               }
+               long id = ArgumentUtils.toLong(arguments.get(i));
+               redirect = findChannel(handler, id);
+               if (redirect == null) {
+                  RespErrorUtil.customError("The client ID you want redirect to does not exist", handler.allocator());
+                  return handler.myStage();
+               }
+               if (redirect == ctx.channel()) {
+                  redirect = null;
+               }
+               break;
+            }
+            case "PREFIX":
+               if (++i == arguments.size()) {
+                  RespErrorUtil.syntaxError(handler.allocator());
+                  return handler.myStage();
+               }
+               prefixes.add(arguments.get(i));
+               break;
+            case "BCAST":
+               broadcast = true;
+               break;
+            case "OPTIN":
+               optIn = true;
+               break;
+            case "OPTOUT":
+               optOut = true;
+               break;
+            case "NOLOOP":
+               // The events do not carry the connection that modified the key
+               RespErrorUtil.customError("NOLOOP is not supported", handler.allocator());
+               return handler.myStage();
+            default:
+               RespErrorUtil.syntaxError(handler.allocator());
+               return handler.myStage();
+         }
+      }
+      if (optIn && optOut) {
+         RespErrorUtil.customError("You can't use both OPTIN and OPTOUT", handler.allocator());
+         return handler.myStage();
+      }
+      if (broadcast && (optIn || optOut)) {
+         RespErrorUtil.customError("OPTIN and OPTOUT are not compatible with BCAST", handler.allocator());
+         return handler.myStage();
+      }
+      if (!broadcast && !prefixes.isEmpty()) {
+         RespErrorUtil.customError("PREFIX option requires BCAST mode to be enabled", handler.allocator());
+         return handler.myStage();
+      }
+      TrackingState previous = handler.trackingState();
+      if (previous != null) {
+         clientTracking.disable(previous);
+      }
+      TrackingState state = new TrackingState(ctx.channel(), redirect, broadcast, prefixes, optIn, optOut);
+      handler.trackingState(state);
+      return handler.stageToReturn(clientTracking.enable(handler.cache(), state), ctx, Consumers.OK_BICONSUMER);
+   }
+
+   private static Channel findChannel(Resp3Handler handler, long id) {
+      ChannelMatcher matcher = handler.respServer().getChannelMatcher();
+      for (Channel ch : acceptedChannels(handler)) {
+         if (matcher.matches(ch) && ConnectionMetadata.getInstance(ch).id() == id) {
+            return ch;
+         }
+      }
+      return null;
+   }
+
+   private static void trackingInfo(TrackingState state, ByteBufPool alloc) {
+      StringBuilder sb = new StringBuilder("%3\r\n$5\r\nflags\r\n");
+      if (state == null) {
+         sb.append("*1\r\n+off\r\n$8\r\nredirect\r\n:-1\r\n$8\r\nprefixes\r\n*0\r\n");
+         ByteBufferUtils.stringToByteBufAscii(sb, alloc);
+         return;
+      }
+      List<String> flags = new ArrayList<>();
+      flags.add("on");
+      if (state.isBroadcast()) flags.add("bcast");
+      if (state.isOptIn()) flags.add("optin");
+      if (state.isOptOut()) flags.add("optout");
+      if (Boolean.TRUE.equals(state.caching())) flags.add("caching-yes");
+      if (Boolean.FALSE.equals(state.caching())) flags.add("caching-no");
+      if (state.isRedirectBroken()) flags.add("broken_redirect");
+      sb.append('*').append(flags.size()).append("\r\n");
+      for (String flag : flags) {
+         sb.append('+').append(flag).append("\r\n");
+      }
+      long redirect = state.redirect() == null ? 0 : ConnectionMetadata.getInstance(state.redirect()).id();
+      sb.append("$8\r\nredirect\r\n:").append(redirect).append("\r\n");
+      sb.append("$8\r\nprefixes\r\n*").append(state.prefixes().size()).append("\r\n");
+      for (byte[] prefix : state.prefixes()) {
+         sb.append('$').append(prefix.length).append("\r\n").append(utf8(prefix)).append("\r\n");
+      }
+      ByteBufferUtils.stringToByteBuf(sb, alloc);
+   }
+
    private void addInfo(StringBuilder sb, ConnectionMetadata metadata) {
       sb.append("id=");
       sb.append(metadata.id());
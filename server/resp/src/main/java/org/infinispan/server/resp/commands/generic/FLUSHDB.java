@@ -1,6 +1,7 @@
 package org.infinispan.server.resp.commands.generic;
 
 import io.netty.channel.ChannelHandlerContext;
+import org.infinispan.AdvancedCache;
 import org.infinispan.server.resp.Consumers;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
@@ -33,9 +34,9 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
       if (arguments.size() == 1) {
          byte[] mode = arguments.get(0);
          if (Util.isAsciiBytesEquals(SYNC_BYTES, mode)) {
-            return handler.stageToReturn(handler.cache().clearAsync(), ctx, Consumers.OK_BICONSUMER);
+            return handler.stageToReturn(clear(handler), ctx, Consumers.OK_BICONSUMER);
          } else if (Util.isAsciiBytesEquals(ASYNC_BYTES, mode)) {
-            handler.cache().clearAsync();
+            clear(handler);
             Consumers.OK_BICONSUMER.accept(null, handler.allocator());
             return handler.myStage();
          } else {
@@ -43,6 +44,12 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
             return handler.myStage();
          }
       }
-      return handler.stageToReturn(handler.cache().clearAsync(), ctx, Consumers.OK_BICONSUMER);
+      return handler.stageToReturn(clear(handler), ctx, Consumers.OK_BICONSUMER);
+   }
+
+   private static CompletionStage<Void> clear(Resp3Handler handler) {
+      AdvancedCache<byte[], byte[]> cache = handler.cache();
+      // The clear does not send the events of the keys, the tracking clients are invalidated at once
+      return cache.clearAsync().thenRun(() -> handler.respServer().clientTracking().flush(cache));
    }
 }
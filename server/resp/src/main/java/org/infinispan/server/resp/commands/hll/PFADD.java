@@ -14,6 +14,7 @@
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.commands.Resp3Command;
 import org.infinispan.server.resp.hll.HyperLogLog;
+import org.infinispan.server.resp.hll.internal.RedisEncoding;
 
 import io.netty.channel.ChannelHandlerContext;
 
@@ -75,13 +76,22 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, Channel
       });
    }
 
-   private static HyperLogLog parseHLL(Object stored) {
+   static HyperLogLog parseHLL(Object stored) {
       if (stored == null)
          return new HyperLogLog();
 
       if (stored instanceof HyperLogLog)
          return (HyperLogLog) stored;
 
+      // A string with the Redis representation, restored or written with SET.
+      if (stored instanceof byte[] && RedisEncoding.isEncoded((byte[]) stored)) {
+         try {
+            return HyperLogLog.fromRedisEncoding((byte[]) stored);
+         } catch (IllegalArgumentException ignore) {
+            return null;
+         }
+      }
+
       return null;
    }
 
@@ -0,0 +1,78 @@
+package org.infinispan.server.resp.commands.hll;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+import org.infinispan.server.resp.hll.HyperLogLog;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>PFCOUNT key [key ...]</code>` command.
+ * <p>
+ * Returns the estimated cardinality of the HyperLogLog stored at <code>key</code>. With multiple keys, returns the
+ * estimated cardinality of the union, merging the structures into a temporary HyperLogLog. A key that does not exist
+ * counts as an empty structure.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/pfcount/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class PFCOUNT extends RespCommand implements Resp3Command {
+
+   public PFCOUNT() {
+      super(-2, 1, -1, 1);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      AdvancedCache<byte[], Object> cache = handler.typedCache(null);
+      if (arguments.size() == 1) {
+         CompletionStage<Long> cs = cache.getAsync(arguments.get(0)).thenApply(PFCOUNT::cardinality);
+         return handler.stageToReturn(cs, ctx, (res, alloc) -> writeResult(res, handler));
+      }
+
+      Set<byte[]> keys = new LinkedHashSet<>(arguments);
+      CompletionStage<Long> cs = cache.getAllAsync(keys).thenApply(PFCOUNT::unionCardinality);
+      return handler.stageToReturn(cs, ctx, (res, alloc) -> writeResult(res, handler));
+   }
+
+   private static Long cardinality(Object stored) {
+      if (stored == null) return 0L;
+
+      HyperLogLog hll = PFADD.parseHLL(stored);
+      return hll == null ? null : hll.cardinality();
+   }
+
+   private static Long unionCardinality(Map<byte[], Object> entries) {
+      HyperLogLog union = new HyperLogLog();
+      for (Object stored : entries.values()) {
+         if (stored == null) continue;
+
+         HyperLogLog hll = PFADD.parseHLL(stored);
+         if (hll == null) return null;
+
+         union.merge(hll);
+      }
+      return union.cardinality();
+   }
+
+   private static void writeResult(Long res, Resp3Handler handler) {
+      // A null result means one of the keys is not a HyperLogLog.
+      if (res == null) {
+         RespErrorUtil.wrongType(handler.allocator());
+      } else {
+         Consumers.LONG_BICONSUMER.accept(res, handler.allocator());
+      }
+   }
+}
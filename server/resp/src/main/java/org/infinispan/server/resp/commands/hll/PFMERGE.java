@@ -0,0 +1,87 @@
+package org.infinispan.server.resp.commands.hll;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.functional.FunctionalMap;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+import org.infinispan.server.resp.hll.HyperLogLog;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>PFMERGE destkey [sourcekey [sourcekey ...]]</code>` command.
+ * <p>
+ * Merges the HyperLogLog structures of the source keys into the <code>destkey</code>, creating it if necessary. The
+ * sources are merged in a temporary structure, which is merged in place with the destination in a single operation.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/pfmerge/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class PFMERGE extends RespCommand implements Resp3Command {
+
+   public PFMERGE() {
+      super(-2, 1, -1, 1);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      byte[] destination = arguments.get(0);
+      AdvancedCache<byte[], Object> typed = handler.typedCache(null);
+
+      Set<byte[]> sources = new LinkedHashSet<>(arguments.subList(1, arguments.size()));
+      CompletionStage<HyperLogLog> union = sources.isEmpty()
+            ? CompletableFuture.completedFuture(new HyperLogLog())
+            : typed.getAllAsync(sources).thenApply(PFMERGE::union);
+
+      FunctionalMap.ReadWriteMap<byte[], Object> cache = ReadWriteMapImpl.create(FunctionalMapImpl.create(typed));
+      CompletionStage<Boolean> cs = union.thenCompose(merged -> {
+         if (merged == null) return CompletableFuture.completedFuture(Boolean.FALSE);
+
+         return cache.eval(destination, view -> {
+            HyperLogLog hll = PFADD.parseHLL(view.find().orElse(null));
+            if (hll == null) return Boolean.FALSE;
+
+            // Redis creates the destination even if the sources are empty.
+            if (hll.merge(merged) || view.peek().isEmpty() || !(view.peek().get() instanceof HyperLogLog)) {
+               view.set(hll);
+            }
+            return Boolean.TRUE;
+         });
+      });
+
+      return handler.stageToReturn(cs, ctx, (res, alloc) -> {
+         if (res) {
+            Consumers.OK_BICONSUMER.accept(null, alloc);
+         } else {
+            RespErrorUtil.wrongType(alloc);
+         }
+      });
+   }
+
+   private static HyperLogLog union(Map<byte[], Object> entries) {
+      HyperLogLog union = new HyperLogLog();
+      for (Object stored : entries.values()) {
+         if (stored == null) continue;
+
+         HyperLogLog hll = PFADD.parseHLL(stored);
+         if (hll == null) return null;
+
+         union.merge(hll);
+      }
+      return union;
+   }
+}
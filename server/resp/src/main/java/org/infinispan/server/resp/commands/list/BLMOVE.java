@@ -0,0 +1,61 @@
+package org.infinispan.server.resp.commands.list;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapListCache;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.list.internal.BPOP;
+import org.infinispan.server.resp.logging.Log;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * @link https://redis.io/commands/blmove/
+ *
+ * Blocking version of {@link LMOVE}. When the source list is empty, blocks the connection until an element is
+ * pushed to it or the timeout in seconds expires. A timeout of zero blocks indefinitely.
+ *
+ * @since 15.0
+ */
+public class BLMOVE extends LMOVE {
+
+   public BLMOVE() {
+      super(6);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      byte[] source = arguments.get(0);
+      byte[] destination = arguments.get(1);
+      if (!Arrays.equals(source, destination)) {
+         // warn when different lists
+         Log.SERVER.lmoveConsistencyMessage();
+      }
+      final String sourceWhereFrom = new String(arguments.get(2)).toUpperCase();
+      final String destinationWhereFrom = new String(arguments.get(3)).toUpperCase();
+      final boolean isSourceLeft = LEFT.equals(sourceWhereFrom);
+      final boolean isDestinationLeft = LEFT.equals(destinationWhereFrom);
+      if ((!isSourceLeft && !RIGHT.equals(sourceWhereFrom)) || (!isDestinationLeft && !RIGHT.equals(
+            destinationWhereFrom))) {
+         RespErrorUtil.syntaxError(handler.allocator());
+         return handler.myStage();
+      }
+      long timeout = BPOP.timeoutMillis(arguments.get(4), handler.allocator());
+      if (timeout < 0) {
+         return handler.myStage();
+      }
+
+      EmbeddedMultimapListCache<byte[], byte[]> listMultimap = handler.getListMultimap();
+      CompletionStage<byte[]> cs = handler.respServer().blockingManager()
+            .block(handler.cache(), ctx.channel(), List.of(source), timeout, true,
+                  () -> move(listMultimap, source, destination, isSourceLeft, isDestinationLeft));
+      return handler.stageToReturn(cs, ctx, Consumers.GET_BICONSUMER);
+   }
+}
@@ -0,0 +1,18 @@
+package org.infinispan.server.resp.commands.list;
+
+import org.infinispan.server.resp.commands.list.internal.BPOP;
+
+/**
+ * @link https://redis.io/commands/blpop/
+ *
+ * Blocking version of {@link LPOP}. Pops the first element of the first non-empty list among the given keys, or
+ * blocks the connection until an element is pushed to one of them or the timeout in seconds expires.
+ * A timeout of zero blocks indefinitely.
+ *
+ * @since 15.0
+ */
+public class BLPOP extends BPOP {
+   public BLPOP() {
+      super(true);
+   }
+}
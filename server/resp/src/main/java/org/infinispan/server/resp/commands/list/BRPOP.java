@@ -0,0 +1,18 @@
+package org.infinispan.server.resp.commands.list;
+
+import org.infinispan.server.resp.commands.list.internal.BPOP;
+
+/**
+ * @link https://redis.io/commands/brpop/
+ *
+ * Blocking version of {@link RPOP}. Pops the last element of the first non-empty list among the given keys, or
+ * blocks the connection until an element is pushed to one of them or the timeout in seconds expires.
+ * A timeout of zero blocks indefinitely.
+ *
+ * @since 15.0
+ */
+public class BRPOP extends BPOP {
+   public BRPOP() {
+      super(false);
+   }
+}
@@ -89,19 +89,27 @@ protected CompletionStage<RespRequestHandler> lmoveAndReturn(Resp3Handler handle
       }
 
       EmbeddedMultimapListCache<byte[], byte[]> listMultimap = handler.getListMultimap();
-      if (sameList) {
-         CompletionStage<byte[]> performedCall;
+      CompletionStage<byte[]> moved = move(listMultimap, source, destination, isSourceLeft, isDestinationLeft);
+      return handler.stageToReturn(moved, ctx, Consumers.GET_BICONSUMER);
+   }
+
+   /**
+    * Moves an element from the source list to the destination list.
+    *
+    * @return the moved element, or null if the source list does not exist
+    */
+   static CompletionStage<byte[]> move(EmbeddedMultimapListCache<byte[], byte[]> listMultimap, byte[] source,
+                                       byte[] destination, boolean isSourceLeft, boolean isDestinationLeft) {
+      if (Arrays.equals(source, destination)) {
          if (isSourceLeft && isDestinationLeft) {
             // peek first element and do nothing else
-            performedCall = listMultimap.index(source, 0);
+            return listMultimap.index(source, 0);
          } else if (!isSourceLeft && !isDestinationLeft) {
             // peek last element and do nothing else
-            performedCall = listMultimap.index(source, -1);
-         } else {
-            // rotate from left (head->tail) to right or from right to left (tail->left)
-            performedCall = listMultimap.rotate(source, isSourceLeft);
+            return listMultimap.index(source, -1);
          }
-         return handler.stageToReturn(performedCall, ctx, Consumers.GET_BICONSUMER);
+         // rotate from left (head->tail) to right or from right to left (tail->left)
+         return listMultimap.rotate(source, isSourceLeft);
       }
 
       CompletionStage<Collection<byte[]>> pollCall;
@@ -111,21 +119,20 @@ protected CompletionStage<RespRequestHandler> lmoveAndReturn(Resp3Handler handle
          pollCall = listMultimap.pollLast(source, 1);
       }
 
-      return pollCall.thenCompose( pollResult -> {
-               if (pollResult == null) {
-                  return handler.stageToReturn(CompletableFutures.completedNull(), ctx, Consumers.GET_BICONSUMER);
-               }
-
-               final byte[] element = pollResult.iterator().next();
+      return pollCall.thenCompose(pollResult -> {
+         if (pollResult == null || pollResult.isEmpty()) {
+            return CompletableFutures.completedNull();
+         }
 
-               CompletionStage<Void> offerCall;
-               if (isDestinationLeft) {
-                  offerCall = listMultimap.offerFirst(destination, element);
-               } else {
-                  offerCall = listMultimap.offerLast(destination, element);
-               }
+         final byte[] element = pollResult.iterator().next();
 
-               return handler.stageToReturn(offerCall.thenApply(r -> element), ctx, Consumers.GET_BICONSUMER);
-            });
+         CompletionStage<Void> offerCall;
+         if (isDestinationLeft) {
+            offerCall = listMultimap.offerFirst(destination, element);
+         } else {
+            offerCall = listMultimap.offerLast(destination, element);
+         }
+         return offerCall.thenApply(r -> element);
+      });
    }
 }
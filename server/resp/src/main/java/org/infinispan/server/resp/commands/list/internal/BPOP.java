@@ -0,0 +1,97 @@
+package org.infinispan.server.resp.commands.list.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.multimap.impl.EmbeddedMultimapListCache;
+import org.infinispan.server.resp.ByteBufPool;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Abstract class for common code on blocking POP operations.
+ * <p>
+ * The keys are checked in order, and the reply is the key and the element popped from the first non-empty list. If all
+ * the lists are empty, the connection waits for a push on one of the keys, without polling. The connections blocked
+ * on the same key are served in FIFO order.
+ *
+ * @since 15.0
+ */
+public abstract class BPOP extends RespCommand implements Resp3Command {
+   protected boolean first;
+
+   public BPOP(boolean first) {
+      super(-3, 1, -2, 1);
+      this.first = first;
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      long timeout = timeoutMillis(arguments.get(arguments.size() - 1), handler.allocator());
+      if (timeout < 0) {
+         return handler.myStage();
+      }
+
+      // The arguments list is reused by the decoder, the keys must be copied
+      List<byte[]> keys = new ArrayList<>(arguments.subList(0, arguments.size() - 1));
+      EmbeddedMultimapListCache<byte[], byte[]> listMultimap = handler.getListMultimap();
+      CompletionStage<Collection<byte[]>> cs = handler.respServer().blockingManager()
+            .block(handler.cache(), ctx.channel(), keys, timeout, true, () -> pollFirstNonEmpty(listMultimap, keys, 0));
+      return handler.stageToReturn(cs, ctx, Consumers.GET_ARRAY_BICONSUMER);
+   }
+
+   private CompletionStage<Collection<byte[]>> pollFirstNonEmpty(EmbeddedMultimapListCache<byte[], byte[]> listMultimap,
+                                                                 List<byte[]> keys, int index) {
+      if (index >= keys.size()) {
+         return CompletableFutures.completedNull();
+      }
+      byte[] key = keys.get(index);
+      CompletionStage<Collection<byte[]>> poll = first ?
+            listMultimap.pollFirst(key, 1) :
+            listMultimap.pollLast(key, 1);
+      return poll.thenCompose(values -> {
+         if (values == null || values.isEmpty()) {
+            return pollFirstNonEmpty(listMultimap, keys, index + 1);
+         }
+         return CompletableFuture.<Collection<byte[]>>completedFuture(List.of(key, values.iterator().next()));
+      });
+   }
+
+   /**
+    * Parses the timeout in seconds of a blocking command, writing the error if it is not valid.
+    *
+    * @return the timeout in milliseconds, 0 to wait forever, or -1 if the timeout is not valid
+    */
+   public static long timeoutMillis(byte[] argument, ByteBufPool alloc) {
+      double seconds;
+      try {
+         seconds = ArgumentUtils.toDouble(argument);
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError("timeout is not a float or out of range", alloc);
+         return -1;
+      }
+      if (Double.isNaN(seconds) || Double.isInfinite(seconds)) {
+         RespErrorUtil.customError("timeout is not a float or out of range", alloc);
+         return -1;
+      }
+      if (seconds < 0) {
+         RespErrorUtil.customError("timeout is negative", alloc);
+         return -1;
+      }
+      // A timeout below one millisecond still expires
+      return seconds == 0 ? 0 : Math.max(1, (long) (seconds * 1000));
+   }
+}
@@ -1,17 +1,21 @@
 package org.infinispan.server.resp.commands.pubsub;
 
 import io.netty.channel.ChannelHandlerContext;
-import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Consumers;
 import org.infinispan.server.resp.commands.Resp3Command;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
 import org.infinispan.server.resp.RespRequestHandler;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.TimeUnit;
 
 /**
+ * Sends the message to the subscribers of the channel in the whole cluster, see {@link
+ * org.infinispan.server.resp.pubsub.PubSubRegistry}, and replies with the number of subscribers that received it.
+ * Publishing requires the write permission of the cache, as when the messages were written into it.
+ *
  * @link https://redis.io/commands/publish/
  * @since 14.0
  */
@@ -24,12 +28,15 @@ public PUBLISH() {
    public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
                                                       ChannelHandlerContext ctx,
                                                       List<byte[]> arguments) {
-      // TODO: should we return the # of subscribers on this node?
-      // We use expiration to remove the event values eventually while preventing them during high periods of
-      // updates
-      return handler.stageToReturn(handler.ignorePreviousValuesCache()
-            .putAsync(KeyChannelUtils.keyToChannel(arguments.get(0)), arguments.get(1), 3, TimeUnit.SECONDS), ctx,
-            (ignore, alloc) -> ByteBufferUtils.stringToByteBufAscii(":0\r\n", alloc)
-      );
+      CompletionStage<Long> receivers;
+      try {
+         // The message does not go through the cache, so the permission it would check is checked here
+         handler.checkWritePermission(ctx);
+         receivers = handler.respServer().pubSubRegistry().publish(arguments.get(0), arguments.get(1));
+      } catch (SecurityException e) {
+         // Replies with the error like a denied write, the connection stays open
+         receivers = CompletableFuture.failedFuture(e);
+      }
+      return handler.stageToReturn(receivers, ctx, Consumers.LONG_BICONSUMER);
    }
 }
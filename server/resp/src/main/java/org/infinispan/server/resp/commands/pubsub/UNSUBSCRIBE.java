@@ -2,14 +2,14 @@
 
 import io.netty.channel.ChannelHandlerContext;
 import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.commands.PubSubResp3Command;
 import org.infinispan.server.resp.RespCommand;
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.SubscriberHandler;
 import org.infinispan.server.resp.commands.Resp3Command;
-import org.infinispan.util.concurrent.AggregateCompletionStage;
-import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.server.resp.pubsub.PubSubRegistry;
 
 import java.util.List;
 import java.util.concurrent.CompletionStage;
@@ -29,19 +29,17 @@ public UNSUBSCRIBE() {
    public CompletionStage<RespRequestHandler> perform(SubscriberHandler handler,
                                                       ChannelHandlerContext ctx,
                                                       List<byte[]> arguments) {
-      AggregateCompletionStage<Void> aggregateCompletionStage = CompletionStages.aggregateCompletionStage();
       if (arguments.size() == 0) {
          return handler.unsubscribeAll(ctx);
-      } else {
-         for (byte[] keyChannel : arguments) {
-            WrappedByteArray wrappedByteArray = new WrappedByteArray(keyChannel);
-            SubscriberHandler.PubSubListener listener = handler.specificChannelSubscribers().remove(wrappedByteArray);
-            if (listener != null) {
-               aggregateCompletionStage.dependsOn(handler.handleStageListenerError(handler.cache().removeListenerAsync(listener), keyChannel, false));
-            }
+      }
+      PubSubRegistry registry = handler.respServer().pubSubRegistry();
+      for (byte[] keyChannel : arguments) {
+         WrappedByteArray wrappedByteArray = new WrappedByteArray(keyChannel);
+         if (handler.specificChannelSubscribers().remove(wrappedByteArray)) {
+            registry.unsubscribe(wrappedByteArray, ctx.channel());
          }
       }
-      return handler.sendSubscriptions(ctx, aggregateCompletionStage.freeze(), arguments, false);
+      return handler.sendSubscriptions(ctx, CompletableFutures.completedNull(), arguments, false);
    }
 
    @Override
@@ -0,0 +1,74 @@
+package org.infinispan.server.resp.commands.scripting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+import javax.security.auth.Subject;
+
+import org.infinispan.security.AuthorizationPermission;
+import org.infinispan.server.core.transport.ConnectionMetadata;
+import org.infinispan.server.resp.ByteBufPool;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Runs a Lua script.
+ * <p>
+ * The script runs atomically on the primary owner of its keys, see
+ * {@link org.infinispan.server.resp.scripting.RespScripting}.
+ *
+ * @link https://redis.io/commands/eval/
+ * @since 15.0
+ */
+public class EVAL extends RespCommand implements Resp3Command {
+   static final BiConsumer<byte[], ByteBufPool> REPLY_BICONSUMER = (reply, alloc) -> alloc.acquire(reply.length)
+         .writeBytes(reply);
+
+   public EVAL() {
+      super(-3, 0, 0, 0);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      handler.checkPermission(AuthorizationPermission.EXEC);
+      String script = new String(arguments.get(0), StandardCharsets.UTF_8);
+      handler.respServer().scripting().loadEval(script);
+      return evaluate(handler, ctx, script, arguments);
+   }
+
+   /**
+    * Runs the script with the keys and arguments that follow the script or its SHA1.
+    */
+   static CompletionStage<RespRequestHandler> evaluate(Resp3Handler handler, ChannelHandlerContext ctx, String script,
+                                                       List<byte[]> arguments) {
+      int numKeys;
+      try {
+         numKeys = Integer.parseInt(new String(arguments.get(1), StandardCharsets.US_ASCII));
+      } catch (NumberFormatException e) {
+         RespErrorUtil.valueNotInteger(handler.allocator());
+         return handler.myStage();
+      }
+      if (numKeys < 0) {
+         RespErrorUtil.customError("Number of keys can't be negative", handler.allocator());
+         return handler.myStage();
+      }
+      if (numKeys > arguments.size() - 2) {
+         RespErrorUtil.customError("Number of keys can't be greater than number of args", handler.allocator());
+         return handler.myStage();
+      }
+      List<byte[]> keys = arguments.subList(2, 2 + numKeys);
+      List<byte[]> args = arguments.subList(2 + numKeys, arguments.size());
+      Subject subject = ConnectionMetadata.getInstance(ctx.channel()).subject();
+      return handler.stageToReturn(handler.respServer().scripting().eval(handler.cache(), subject, script, keys, args),
+            ctx, REPLY_BICONSUMER);
+   }
+}
@@ -0,0 +1,39 @@
+package org.infinispan.server.resp.commands.scripting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.security.AuthorizationPermission;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Runs a script of the script cache, loaded with {@code SCRIPT LOAD} or a previous {@code EVAL}.
+ *
+ * @link https://redis.io/commands/evalsha/
+ * @since 15.0
+ */
+public class EVALSHA extends RespCommand implements Resp3Command {
+   public EVALSHA() {
+      super(-3, 0, 0, 0);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      handler.checkPermission(AuthorizationPermission.EXEC);
+      String script = handler.respServer().scripting().get(new String(arguments.get(0), StandardCharsets.US_ASCII));
+      if (script == null) {
+         ByteBufferUtils.stringToByteBufAscii("-NOSCRIPT No matching script. Please use EVAL.\r\n", handler.allocator());
+         return handler.myStage();
+      }
+      return EVAL.evaluate(handler, ctx, script, arguments);
+   }
+}
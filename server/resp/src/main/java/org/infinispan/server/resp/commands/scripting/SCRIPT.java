@@ -0,0 +1,67 @@
+package org.infinispan.server.resp.commands.scripting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.security.AuthorizationPermission;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+import org.infinispan.server.resp.scripting.RespScripting;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The {@code LOAD}, {@code EXISTS} and {@code FLUSH} sub commands of the script cache.
+ * <p>
+ * The script cache is local to each node, like in Redis.
+ *
+ * @link https://redis.io/commands/script/
+ * @since 15.0
+ */
+public class SCRIPT extends RespCommand implements Resp3Command {
+   public SCRIPT() {
+      super(-2, 0, 0, 0);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      String subCommand = new String(arguments.get(0), StandardCharsets.US_ASCII);
+      RespScripting scripting = handler.respServer().scripting();
+      if ("LOAD".equalsIgnoreCase(subCommand)) {
+         if (arguments.size() != 2) {
+            RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
+            return handler.myStage();
+         }
+         handler.checkPermission(AuthorizationPermission.EXEC);
+         String sha = scripting.load(new String(arguments.get(1), StandardCharsets.UTF_8));
+         Consumers.BULK_BICONSUMER.accept(sha.getBytes(StandardCharsets.US_ASCII), handler.allocator());
+      } else if ("EXISTS".equalsIgnoreCase(subCommand)) {
+         if (arguments.size() < 2) {
+            RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
+            return handler.myStage();
+         }
+         List<Long> exists = new ArrayList<>(arguments.size() - 1);
+         for (int i = 1; i < arguments.size(); i++) {
+            exists.add(scripting.exists(new String(arguments.get(i), StandardCharsets.US_ASCII)) ? 1L : 0L);
+         }
+         Consumers.COLLECTION_LONG_BICONSUMER.accept(exists, handler.allocator());
+      } else if ("FLUSH".equalsIgnoreCase(subCommand)) {
+         // ASYNC and SYNC are accepted, the flush is always synchronous
+         handler.checkPermission(AuthorizationPermission.ADMIN);
+         scripting.flush();
+         Consumers.OK_BICONSUMER.accept(null, handler.allocator());
+      } else {
+         ByteBufferUtils.stringToByteBuf("-ERR SCRIPT " + subCommand + " not implemented\r\n", handler.allocator());
+      }
+      return handler.myStage();
+   }
+}
@@ -0,0 +1,93 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.multimap.impl.StreamEntry;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.ByteBufPool;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Resp3Handler;
+
+/**
+ * Parsing of the stream identifiers and writing of the stream replies shared by the stream commands.
+ *
+ * @since 15.0
+ */
+final class StreamReplies {
+   static final String INVALID_ID = "Invalid stream ID specified as stream command argument";
+   static final String NULL_ARRAY = "*-1\r\n";
+
+   private StreamReplies() { }
+
+   /**
+    * Parses the start of a range, where <code>-</code> is the smallest identifier, a missing sequence number is 0 and
+    * a <code>(</code> prefix excludes the identifier.
+    *
+    * @throws NumberFormatException if the value is not a valid identifier.
+    */
+   static StreamId parseStart(byte[] arg) {
+      String value = new String(arg, StandardCharsets.US_ASCII);
+      if ("-".equals(value)) return StreamId.MIN;
+      if ("+".equals(value)) return StreamId.MAX;
+      if (value.startsWith("(")) {
+         StreamId id = StreamId.parse(value.substring(1), 0);
+         if (id.equals(StreamId.MAX)) throw new NumberFormatException(value);
+         return id.next();
+      }
+      return StreamId.parse(value, 0);
+   }
+
+   /**
+    * Parses the end of a range, where <code>+</code> is the greatest identifier, a missing sequence number is the
+    * greatest sequence number and a <code>(</code> prefix excludes the identifier.
+    *
+    * @throws NumberFormatException if the value is not a valid identifier.
+    */
+   static StreamId parseEnd(byte[] arg) {
+      String value = new String(arg, StandardCharsets.US_ASCII);
+      if ("-".equals(value)) return StreamId.MIN;
+      if ("+".equals(value)) return StreamId.MAX;
+      if (value.startsWith("(")) {
+         StreamId id = StreamId.parse(value.substring(1), -1L);
+         if (id.equals(StreamId.MIN)) throw new NumberFormatException(value);
+         return id.previous();
+      }
+      return StreamId.parse(value, -1L);
+   }
+
+   /**
+    * Writes the entries as an array of <code>[id, [field, value, ...]]</code>. A deleted entry has a null array of
+    * fields.
+    */
+   static void writeEntries(List<StreamEntry<byte[]>> entries, ByteBufPool alloc) {
+      Resp3Handler.writeArrayPrefix(entries.size(), alloc);
+      for (StreamEntry<byte[]> entry : entries) {
+         Resp3Handler.writeArrayPrefix(2, alloc);
+         Resp3Handler.handleBulkAsciiResult(entry.id().toString(), alloc);
+         if (entry.fieldsAndValues() == null) {
+            ByteBufferUtils.stringToByteBufAscii(NULL_ARRAY, alloc);
+         } else {
+            ByteBufferUtils.bytesToResult(entry.fieldsAndValues(), alloc);
+         }
+      }
+   }
+
+   /**
+    * Writes the reply of <code>XREAD</code> and <code>XREADGROUP</code>, an array of <code>[key, entries]</code>, or
+    * a null array when there are no keys.
+    */
+   static void writeRead(Map<byte[], List<StreamEntry<byte[]>>> entries, ByteBufPool alloc) {
+      if (entries == null || entries.isEmpty()) {
+         ByteBufferUtils.stringToByteBufAscii(NULL_ARRAY, alloc);
+         return;
+      }
+      Resp3Handler.writeArrayPrefix(entries.size(), alloc);
+      for (Map.Entry<byte[], List<StreamEntry<byte[]>>> e : entries.entrySet()) {
+         Resp3Handler.writeArrayPrefix(2, alloc);
+         ByteBufferUtils.bytesToResult(e.getKey(), alloc);
+         writeEntries(e.getValue(), alloc);
+      }
+   }
+}
@@ -0,0 +1,51 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XACK key group id [id ...]</code>` command.
+ * <p>
+ * Removes the entries from the pending entries list of the consumer group. Returns the number of entries that were
+ * pending, 0 if the stream or the group do not exist.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xack/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XACK extends RespCommand implements Resp3Command {
+
+   public XACK() {
+      super(-4, 1, 1, 1);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      List<StreamId> ids = new ArrayList<>(arguments.size() - 2);
+      try {
+         for (byte[] id : arguments.subList(2, arguments.size())) {
+            ids.add(StreamId.parse(new String(id, StandardCharsets.US_ASCII), 0));
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+         return handler.myStage();
+      }
+
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      CompletionStage<Long> cs = streamMultimap.ack(arguments.get(0), arguments.get(1), ids);
+      return handler.stageToReturn(cs, ctx, Consumers.LONG_BICONSUMER);
+   }
+}
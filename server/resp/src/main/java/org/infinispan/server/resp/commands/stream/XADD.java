@@ -0,0 +1,122 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamAddArgs;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XADD key [NOMKSTREAM] [MAXLEN [=|~] threshold] &lt;* | id&gt; field value [field value ...]</code>` command.
+ * <p>
+ * Appends an entry to the stream stored at <code>key</code>, creating the stream unless <code>NOMKSTREAM</code> is
+ * given. With <code>*</code> the identifier is generated from the current time, and with <code>ms-*</code> only the
+ * sequence number is generated. The identifier must be greater than the last identifier of the stream.
+ * <code>MAXLEN</code> trims the stream after adding the entry, with <code>~</code> the trim only removes whole chunks.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xadd/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XADD extends RespCommand implements Resp3Command {
+   private static final String NOMKSTREAM = "NOMKSTREAM";
+   private static final String MAXLEN = "MAXLEN";
+
+   public XADD() {
+      super(-5, 1, 1, 1);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      byte[] key = arguments.get(0);
+      StreamAddArgs.Builder args = StreamAddArgs.create();
+      int pos = 1;
+      while (pos < arguments.size()) {
+         String option = new String(arguments.get(pos), StandardCharsets.US_ASCII).toUpperCase();
+         if (NOMKSTREAM.equals(option)) {
+            args.noMkStream();
+            pos++;
+         } else if (MAXLEN.equals(option)) {
+            pos++;
+            boolean approximate = false;
+            if (pos < arguments.size()) {
+               String modifier = new String(arguments.get(pos), StandardCharsets.US_ASCII);
+               if ("~".equals(modifier) || "=".equals(modifier)) {
+                  approximate = "~".equals(modifier);
+                  pos++;
+               }
+            }
+            if (pos >= arguments.size()) {
+               RespErrorUtil.syntaxError(handler.allocator());
+               return handler.myStage();
+            }
+            long maxLen;
+            try {
+               maxLen = ArgumentUtils.toLong(arguments.get(pos++));
+            } catch (NumberFormatException e) {
+               RespErrorUtil.valueNotInteger(handler.allocator());
+               return handler.myStage();
+            }
+            if (maxLen < 0) {
+               RespErrorUtil.customError("The MAXLEN argument must be >= 0.", handler.allocator());
+               return handler.myStage();
+            }
+            args.maxLen(maxLen, approximate);
+         } else {
+            break;
+         }
+      }
+
+      // The identifier and at least one field-value pair
+      int pairs = arguments.size() - pos - 1;
+      if (pairs <= 0 || pairs % 2 != 0) {
+         RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
+         return handler.myStage();
+      }
+
+      long ms;
+      long seq;
+      String id = new String(arguments.get(pos++), StandardCharsets.US_ASCII);
+      try {
+         if ("*".equals(id)) {
+            ms = -1;
+            seq = -1;
+         } else if (id.endsWith("-*")) {
+            ms = Long.parseUnsignedLong(id.substring(0, id.length() - 2));
+            seq = -1;
+         } else {
+            StreamId explicit = StreamId.parse(id, 0);
+            if (explicit.equals(StreamId.MIN)) {
+               RespErrorUtil.customError("The ID specified in XADD must be greater than 0-0", handler.allocator());
+               return handler.myStage();
+            }
+            ms = explicit.ms();
+            seq = explicit.seq();
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+         return handler.myStage();
+      }
+
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      CompletionStage<StreamId> cs = streamMultimap.add(key, ms, seq, new ArrayList<>(arguments.subList(pos, arguments.size())), args.build());
+      return handler.stageToReturn(cs, ctx, (res, alloc) -> {
+         if (StreamId.MIN.equals(res)) {
+            RespErrorUtil.customError("The ID specified in XADD is equal or smaller than the target stream top item", alloc);
+         } else {
+            Resp3Handler.handleBulkAsciiResult(res == null ? null : res.toString(), alloc);
+         }
+      });
+   }
+}
@@ -0,0 +1,151 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.multimap.impl.function.stream.StreamGroupFunction;
+import org.infinispan.server.resp.ByteBufPool;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Consumers;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The {@code CREATE}, {@code DESTROY}, {@code SETID}, {@code CREATECONSUMER} and {@code DELCONSUMER} sub commands of
+ * the stream consumer groups.
+ * <p>
+ * <code>XGROUP CREATE key group id|$ [MKSTREAM]</code> creates a group delivering the entries after the identifier,
+ * where <code>$</code> is the last identifier of the stream. <code>XGROUP DELCONSUMER</code> returns the number of
+ * pending entries the consumer had, which are no longer pending.
+ *
+ * @link https://redis.io/commands/xgroup/
+ * @since 15.0
+ */
+public class XGROUP extends RespCommand implements Resp3Command {
+   private static final String MKSTREAM = "MKSTREAM";
+
+   public XGROUP() {
+      super(-2, 0, 0, 0);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
+                                                      ChannelHandlerContext ctx,
+                                                      List<byte[]> arguments) {
+      String subCommand = new String(arguments.get(0), StandardCharsets.US_ASCII).toUpperCase();
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      switch (subCommand) {
+         case "CREATE": {
+            if (arguments.size() < 4) break;
+            boolean mkStream = false;
+            for (int i = 4; i < arguments.size(); i++) {
+               if (!MKSTREAM.equalsIgnoreCase(new String(arguments.get(i), StandardCharsets.US_ASCII))) {
+                  RespErrorUtil.syntaxError(handler.allocator());
+                  return handler.myStage();
+               }
+               mkStream = true;
+            }
+            StreamId id;
+            try {
+               id = parseId(arguments.get(3));
+            } catch (NumberFormatException e) {
+               RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+               return handler.myStage();
+            }
+            byte[] key = arguments.get(1);
+            byte[] group = arguments.get(2);
+            CompletionStage<Long> cs = streamMultimap.createGroup(key, group, id, mkStream);
+            return handler.stageToReturn(cs, ctx, (res, alloc) -> {
+               if (res == 0) {
+                  ByteBufferUtils.stringToByteBufAscii("-BUSYGROUP Consumer Group name already exists\r\n", alloc);
+               } else if (!writeMissing(res, key, group, alloc)) {
+                  Consumers.OK_BICONSUMER.accept(null, alloc);
+               }
+            });
+         }
+         case "SETID": {
+            if (arguments.size() != 4) break;
+            StreamId id;
+            try {
+               id = parseId(arguments.get(3));
+            } catch (NumberFormatException e) {
+               RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+               return handler.myStage();
+            }
+            byte[] key = arguments.get(1);
+            byte[] group = arguments.get(2);
+            CompletionStage<Long> cs = streamMultimap.setGroupId(key, group, id);
+            return handler.stageToReturn(cs, ctx, (res, alloc) -> {
+               if (!writeMissing(res, key, group, alloc)) {
+                  Consumers.OK_BICONSUMER.accept(null, alloc);
+               }
+            });
+         }
+         case "DESTROY": {
+            if (arguments.size() != 3) break;
+            byte[] key = arguments.get(1);
+            byte[] group = arguments.get(2);
+            CompletionStage<Long> cs = streamMultimap.destroyGroup(key, group);
+            return handler.stageToReturn(cs, ctx, (res, alloc) -> writeLong(res, key, group, alloc));
+         }
+         case "CREATECONSUMER": {
+            if (arguments.size() != 4) break;
+            byte[] key = arguments.get(1);
+            byte[] group = arguments.get(2);
+            CompletionStage<Long> cs = streamMultimap.createConsumer(key, group, arguments.get(3));
+            return handler.stageToReturn(cs, ctx, (res, alloc) -> writeLong(res, key, group, alloc));
+         }
+         case "DELCONSUMER": {
+            if (arguments.size() != 4) break;
+            byte[] key = arguments.get(1);
+            byte[] group = arguments.get(2);
+            CompletionStage<Long> cs = streamMultimap.deleteConsumer(key, group, arguments.get(3));
+            return handler.stageToReturn(cs, ctx, (res, alloc) -> writeLong(res, key, group, alloc));
+         }
+         default:
+            ByteBufferUtils.stringToByteBuf("-ERR XGROUP " + subCommand + " not implemented\r\n", handler.allocator());
+            return handler.myStage();
+      }
+      RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
+      return handler.myStage();
+   }
+
+   private static StreamId parseId(byte[] arg) {
+      String id = new String(arg, StandardCharsets.US_ASCII);
+      // null is the last identifier of the stream
+      return XREAD.LAST_ID.equals(id) ? null : StreamId.parse(id, 0);
+   }
+
+   private static void writeLong(Long res, byte[] key, byte[] group, ByteBufPool alloc) {
+      if (!writeMissing(res, key, group, alloc)) {
+         Consumers.LONG_BICONSUMER.accept(res, alloc);
+      }
+   }
+
+   /**
+    * Writes the error of a missing stream or group.
+    *
+    * @return <code>true</code> if an error was written.
+    */
+   static boolean writeMissing(long res, byte[] key, byte[] group, ByteBufPool alloc) {
+      if (res == StreamGroupFunction.NO_STREAM) {
+         RespErrorUtil.customError("The XGROUP subcommand requires the key to exist. Note that for CREATE you may want "
+               + "to use the MKSTREAM option to create an empty stream automatically.", alloc);
+         return true;
+      }
+      if (res == StreamGroupFunction.NO_GROUP) {
+         ByteBufferUtils.stringToByteBuf("-NOGROUP No such consumer group '" + new String(group, StandardCharsets.UTF_8)
+               + "' for key name '" + new String(key, StandardCharsets.UTF_8) + "'\r\n", alloc);
+         return true;
+      }
+      return false;
+   }
+}
@@ -0,0 +1,153 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamBucket;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.ByteBufPool;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XPENDING key group [[IDLE min-idle-time] start end count [consumer]]</code>` command.
+ * <p>
+ * Without a range, returns the summary of the pending entries list of the group: the number of pending entries, the
+ * smallest and greatest pending identifiers, and the number of pending entries of each consumer. With a range, returns
+ * the pending entries with the owner consumer, the milliseconds since the last delivery and the number of deliveries.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xpending/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XPENDING extends RespCommand implements Resp3Command {
+   private static final String IDLE = "IDLE";
+
+   public XPENDING() {
+      super(-3, 1, 1, 1);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      byte[] key = arguments.get(0);
+      byte[] group = arguments.get(1);
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      if (arguments.size() == 2) {
+         return handler.stageToReturn(streamMultimap.group(key, group), ctx, (res, alloc) -> {
+            if (res == null) {
+               writeNoGroup(key, group, alloc);
+            } else {
+               writeSummary(res, alloc);
+            }
+         });
+      }
+
+      int pos = 2;
+      long minIdle = 0;
+      StreamId start;
+      StreamId end;
+      long count;
+      byte[] consumer = null;
+      try {
+         if (IDLE.equalsIgnoreCase(new String(arguments.get(pos), StandardCharsets.US_ASCII))) {
+            if (arguments.size() < 4) {
+               RespErrorUtil.syntaxError(handler.allocator());
+               return handler.myStage();
+            }
+            minIdle = ArgumentUtils.toLong(arguments.get(pos + 1));
+            pos += 2;
+         }
+         int remaining = arguments.size() - pos;
+         if (remaining != 3 && remaining != 4) {
+            RespErrorUtil.syntaxError(handler.allocator());
+            return handler.myStage();
+         }
+         count = ArgumentUtils.toLong(arguments.get(pos + 2));
+         if (remaining == 4) {
+            consumer = arguments.get(pos + 3);
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.valueNotInteger(handler.allocator());
+         return handler.myStage();
+      }
+      try {
+         start = StreamReplies.parseStart(arguments.get(pos));
+         end = StreamReplies.parseEnd(arguments.get(pos + 1));
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+         return handler.myStage();
+      }
+
+      long idle = minIdle;
+      byte[] owner = consumer;
+      long now = System.currentTimeMillis();
+      return handler.stageToReturn(streamMultimap.group(key, group), ctx, (res, alloc) -> {
+         if (res == null) {
+            writeNoGroup(key, group, alloc);
+            return;
+         }
+         List<StreamBucket.PendingEntry<byte[]>> entries = new ArrayList<>();
+         if (count > 0 && start.compareTo(end) <= 0) {
+            for (StreamBucket.PendingEntry<byte[]> entry : res.pending().subMap(start, true, end, true).values()) {
+               if (entries.size() >= count) break;
+               if (owner != null && !Arrays.equals(owner, entry.getConsumer())) continue;
+               if (now - entry.deliveryTime() < idle) continue;
+               entries.add(entry);
+            }
+         }
+         Resp3Handler.writeArrayPrefix(entries.size(), alloc);
+         for (StreamBucket.PendingEntry<byte[]> entry : entries) {
+            Resp3Handler.writeArrayPrefix(4, alloc);
+            Resp3Handler.handleBulkAsciiResult(entry.id().toString(), alloc);
+            ByteBufferUtils.bytesToResult(entry.getConsumer(), alloc);
+            ByteBufferUtils.writeLong(Math.max(0, now - entry.deliveryTime()), alloc);
+            ByteBufferUtils.writeLong(entry.deliveryCount(), alloc);
+         }
+      });
+   }
+
+   private static void writeSummary(StreamBucket.ConsumerGroup<byte[]> group, ByteBufPool alloc) {
+      NavigableMap<StreamId, StreamBucket.PendingEntry<byte[]>> pending = group.pending();
+      Resp3Handler.writeArrayPrefix(4, alloc);
+      ByteBufferUtils.writeLong((long) pending.size(), alloc);
+      if (pending.isEmpty()) {
+         Resp3Handler.handleBulkAsciiResult(null, alloc);
+         Resp3Handler.handleBulkAsciiResult(null, alloc);
+         ByteBufferUtils.stringToByteBufAscii(StreamReplies.NULL_ARRAY, alloc);
+         return;
+      }
+      Resp3Handler.handleBulkAsciiResult(pending.firstKey().toString(), alloc);
+      Resp3Handler.handleBulkAsciiResult(pending.lastKey().toString(), alloc);
+
+      Map<byte[], Long> consumers = new TreeMap<>(Arrays::compare);
+      for (StreamBucket.PendingEntry<byte[]> entry : pending.values()) {
+         consumers.merge(entry.getConsumer(), 1L, Long::sum);
+      }
+      Resp3Handler.writeArrayPrefix(consumers.size(), alloc);
+      for (Map.Entry<byte[], Long> e : consumers.entrySet()) {
+         Resp3Handler.writeArrayPrefix(2, alloc);
+         ByteBufferUtils.bytesToResult(e.getKey(), alloc);
+         // Redis replies with the count as a string
+         Resp3Handler.handleBulkAsciiResult(Long.toString(e.getValue()), alloc);
+      }
+   }
+
+   private static void writeNoGroup(byte[] key, byte[] group, ByteBufPool alloc) {
+      ByteBufferUtils.stringToByteBuf("-NOGROUP No such key '" + new String(key, StandardCharsets.UTF_8)
+            + "' or consumer group '" + new String(group, StandardCharsets.UTF_8) + "'\r\n", alloc);
+   }
+}
@@ -0,0 +1,79 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamEntry;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XRANGE key start end [COUNT count]</code>` command.
+ * <p>
+ * Returns the entries of the stream stored at <code>key</code> with an identifier between <code>start</code> and
+ * <code>end</code>. The special identifiers <code>-</code> and <code>+</code> are the smallest and the greatest
+ * identifiers, and a <code>(</code> prefix excludes the identifier from the range.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xrange/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XRANGE extends RespCommand implements Resp3Command {
+   private static final String COUNT = "COUNT";
+
+   public XRANGE() {
+      super(-4, 1, 1, 1);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      return range(handler, ctx, arguments, false);
+   }
+
+   protected CompletionStage<RespRequestHandler> range(Resp3Handler handler, ChannelHandlerContext ctx,
+                                                       List<byte[]> arguments, boolean reverse) {
+      byte[] key = arguments.get(0);
+      StreamId start;
+      StreamId end;
+      try {
+         // XREVRANGE receives the end first
+         start = StreamReplies.parseStart(arguments.get(reverse ? 2 : 1));
+         end = StreamReplies.parseEnd(arguments.get(reverse ? 1 : 2));
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+         return handler.myStage();
+      }
+
+      long count = 0;
+      if (arguments.size() > 3) {
+         if (arguments.size() != 5 || !COUNT.equalsIgnoreCase(new String(arguments.get(3), StandardCharsets.US_ASCII))) {
+            RespErrorUtil.syntaxError(handler.allocator());
+            return handler.myStage();
+         }
+         try {
+            count = ArgumentUtils.toLong(arguments.get(4));
+         } catch (NumberFormatException e) {
+            RespErrorUtil.valueNotInteger(handler.allocator());
+            return handler.myStage();
+         }
+         if (count <= 0) {
+            // A non positive count returns nothing
+            Resp3Handler.writeArrayPrefix(0, handler.allocator());
+            return handler.myStage();
+         }
+      }
+
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      CompletionStage<List<StreamEntry<byte[]>>> cs = streamMultimap.range(key, start, end, count, reverse);
+      return handler.stageToReturn(cs, ctx, StreamReplies::writeEntries);
+   }
+}
@@ -0,0 +1,159 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamEntry;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XREAD [COUNT count] [BLOCK milliseconds] STREAMS key [key ...] id [id ...]</code>` command.
+ * <p>
+ * Returns the entries with an identifier greater than the given one of each stream. The identifier <code>$</code> is
+ * the last identifier of the stream when the command is received. With <code>BLOCK</code>, the command waits until one
+ * of the streams has new entries or the timeout expires, where 0 waits forever. The connection is woken up by a
+ * listener on the keys, the streams are not polled.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xread/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XREAD extends RespCommand implements Resp3Command {
+   static final String COUNT = "COUNT";
+   static final String BLOCK = "BLOCK";
+   static final String STREAMS = "STREAMS";
+   static final String LAST_ID = "$";
+
+   public XREAD() {
+      super(-4, 0, 0, 0);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      long count = 0;
+      long block = -1;
+      int pos = 0;
+      try {
+         while (pos < arguments.size()) {
+            String option = new String(arguments.get(pos), StandardCharsets.US_ASCII).toUpperCase();
+            if (STREAMS.equals(option)) {
+               pos++;
+               break;
+            }
+            if (pos + 1 >= arguments.size()) {
+               RespErrorUtil.syntaxError(handler.allocator());
+               return handler.myStage();
+            }
+            switch (option) {
+               case COUNT:
+                  count = Math.max(0, ArgumentUtils.toLong(arguments.get(pos + 1)));
+                  break;
+               case BLOCK:
+                  block = ArgumentUtils.toLong(arguments.get(pos + 1));
+                  if (block < 0) {
+                     RespErrorUtil.customError("timeout is negative", handler.allocator());
+                     return handler.myStage();
+                  }
+                  break;
+               default:
+                  RespErrorUtil.syntaxError(handler.allocator());
+                  return handler.myStage();
+            }
+            pos += 2;
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.valueNotInteger(handler.allocator());
+         return handler.myStage();
+      }
+
+      int streams = arguments.size() - pos;
+      if (streams <= 0 || streams % 2 != 0) {
+         RespErrorUtil.customError("Unbalanced 'xread' list of streams: for each stream key an ID or '$' must be specified.", handler.allocator());
+         return handler.myStage();
+      }
+
+      // The arguments list is reused by the decoder, the keys must be copied
+      List<byte[]> keys = new ArrayList<>(arguments.subList(pos, pos + streams / 2));
+      List<String> ids = new ArrayList<>(streams / 2);
+      for (byte[] id : arguments.subList(pos + streams / 2, arguments.size())) {
+         ids.add(new String(id, StandardCharsets.US_ASCII));
+      }
+
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      List<CompletableFuture<StreamId>> resolved = new ArrayList<>(ids.size());
+      try {
+         for (int i = 0; i < ids.size(); i++) {
+            if (LAST_ID.equals(ids.get(i))) {
+               resolved.add(streamMultimap.lastId(keys.get(i))
+                     .thenApply(id -> id == null ? StreamId.MIN : id).toCompletableFuture());
+            } else {
+               resolved.add(CompletableFuture.completedFuture(StreamId.parse(ids.get(i), 0)));
+            }
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+         return handler.myStage();
+      }
+
+      long limit = count;
+      long timeout = block;
+      CompletionStage<Map<byte[], List<StreamEntry<byte[]>>>> cs = CompletableFuture.allOf(resolved.toArray(new CompletableFuture[0]))
+            .thenCompose(ignore -> {
+               List<StreamId> after = new ArrayList<>(resolved.size());
+               for (CompletableFuture<StreamId> id : resolved) {
+                  after.add(id.join());
+               }
+               Supplier<CompletionStage<Map<byte[], List<StreamEntry<byte[]>>>>> attempt =
+                     () -> readAll(keys, i -> streamMultimap.read(keys.get(i), after.get(i), limit));
+               return timeout < 0 ? attempt.get() : awaitEntries(handler, ctx, keys, timeout, attempt);
+            });
+      return handler.stageToReturn(cs, ctx, StreamReplies::writeRead);
+   }
+
+   /**
+    * Reads every key and collects the keys with entries.
+    *
+    * @return A stage with the entries of each key, or <code>null</code> if there are no entries.
+    */
+   static CompletionStage<Map<byte[], List<StreamEntry<byte[]>>>> readAll(List<byte[]> keys,
+                                                                          IntFunction<CompletionStage<List<StreamEntry<byte[]>>>> read) {
+      List<CompletableFuture<List<StreamEntry<byte[]>>>> reads = new ArrayList<>(keys.size());
+      for (int i = 0; i < keys.size(); i++) {
+         reads.add(read.apply(i).toCompletableFuture());
+      }
+      return CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).thenApply(ignore -> {
+         Map<byte[], List<StreamEntry<byte[]>>> result = new LinkedHashMap<>();
+         for (int i = 0; i < keys.size(); i++) {
+            List<StreamEntry<byte[]>> entries = reads.get(i).join();
+            if (entries != null && !entries.isEmpty()) {
+               result.put(keys.get(i), entries);
+            }
+         }
+         return result.isEmpty() ? null : result;
+      });
+   }
+
+   /**
+    * Runs the attempt until it finds entries, waiting for a modification of the keys in between.
+    */
+   static <T> CompletionStage<T> awaitEntries(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> keys,
+                                              long timeout, Supplier<CompletionStage<T>> attempt) {
+      return handler.respServer().blockingManager().block(handler.cache(), ctx.channel(), keys, timeout, attempt);
+   }
+}
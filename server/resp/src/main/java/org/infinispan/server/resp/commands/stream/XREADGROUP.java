@@ -0,0 +1,174 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import org.infinispan.multimap.impl.EmbeddedMultimapStreamCache;
+import org.infinispan.multimap.impl.StreamEntry;
+import org.infinispan.multimap.impl.StreamId;
+import org.infinispan.server.resp.ByteBufPool;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
+import org.infinispan.server.resp.RespRequestHandler;
+import org.infinispan.server.resp.commands.ArgumentUtils;
+import org.infinispan.server.resp.commands.Resp3Command;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XREADGROUP GROUP group consumer [COUNT count] [BLOCK milliseconds] [NOACK] STREAMS key [key ...] id [id ...]</code>`
+ * command.
+ * <p>
+ * Reads the streams as a consumer of a consumer group. The identifier <code>&gt;</code> delivers the entries never
+ * delivered to the group, and adds them to the pending entries list of the consumer unless <code>NOACK</code> is
+ * given. Any other identifier returns the pending entries of the consumer after it. The command only blocks when all
+ * the identifiers are <code>&gt;</code>.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xreadgroup/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XREADGROUP extends RespCommand implements Resp3Command {
+   private static final String GROUP = "GROUP";
+   private static final String NOACK = "NOACK";
+   private static final String NEW_ENTRIES = ">";
+
+   public XREADGROUP() {
+      super(-7, 0, 0, 0);
+   }
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      if (!GROUP.equalsIgnoreCase(new String(arguments.get(0), StandardCharsets.US_ASCII))) {
+         RespErrorUtil.syntaxError(handler.allocator());
+         return handler.myStage();
+      }
+      byte[] group = arguments.get(1);
+      byte[] consumer = arguments.get(2);
+
+      long count = 0;
+      long block = -1;
+      boolean noAck = false;
+      int pos = 3;
+      try {
+         while (pos < arguments.size()) {
+            String option = new String(arguments.get(pos), StandardCharsets.US_ASCII).toUpperCase();
+            if (XREAD.STREAMS.equals(option)) {
+               pos++;
+               break;
+            }
+            if (NOACK.equals(option)) {
+               noAck = true;
+               pos++;
+               continue;
+            }
+            if (pos + 1 >= arguments.size()) {
+               RespErrorUtil.syntaxError(handler.allocator());
+               return handler.myStage();
+            }
+            switch (option) {
+               case XREAD.COUNT:
+                  count = Math.max(0, ArgumentUtils.toLong(arguments.get(pos + 1)));
+                  break;
+               case XREAD.BLOCK:
+                  block = ArgumentUtils.toLong(arguments.get(pos + 1));
+                  if (block < 0) {
+                     RespErrorUtil.customError("timeout is negative", handler.allocator());
+                     return handler.myStage();
+                  }
+                  break;
+               default:
+                  RespErrorUtil.syntaxError(handler.allocator());
+                  return handler.myStage();
+            }
+            pos += 2;
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.valueNotInteger(handler.allocator());
+         return handler.myStage();
+      }
+
+      int streams = arguments.size() - pos;
+      if (streams <= 0 || streams % 2 != 0) {
+         RespErrorUtil.customError("Unbalanced 'xreadgroup' list of streams: for each stream key an ID or '>' must be specified.", handler.allocator());
+         return handler.myStage();
+      }
+
+      // The arguments list is reused by the decoder, the keys must be copied
+      List<byte[]> keys = new ArrayList<>(arguments.subList(pos, pos + streams / 2));
+      List<StreamId> ids = new ArrayList<>(streams / 2);
+      boolean onlyNew = true;
+      try {
+         for (byte[] arg : arguments.subList(pos + streams / 2, arguments.size())) {
+            String id = new String(arg, StandardCharsets.US_ASCII);
+            if (NEW_ENTRIES.equals(id)) {
+               ids.add(null);
+            } else {
+               ids.add(StreamId.parse(id, 0));
+               onlyNew = false;
+            }
+         }
+      } catch (NumberFormatException e) {
+         RespErrorUtil.customError(StreamReplies.INVALID_ID, handler.allocator());
+         return handler.myStage();
+      }
+
+      EmbeddedMultimapStreamCache<byte[], byte[]> streamMultimap = handler.getStreamMultimap();
+      long limit = count;
+      boolean deliverOnly = noAck;
+      Supplier<CompletionStage<GroupRead>> attempt = () -> {
+         List<CompletableFuture<List<StreamEntry<byte[]>>>> reads = new ArrayList<>(keys.size());
+         for (int i = 0; i < keys.size(); i++) {
+            reads.add(streamMultimap.readGroup(keys.get(i), group, consumer, ids.get(i), limit, deliverOnly).toCompletableFuture());
+         }
+         return CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).thenApply(ignore -> {
+            Map<byte[], List<StreamEntry<byte[]>>> result = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+               List<StreamEntry<byte[]>> entries = reads.get(i).join();
+               if (entries == null) return new GroupRead(keys.get(i), null);
+               // The history of the pending entries is returned even if it is empty
+               if (ids.get(i) != null || !entries.isEmpty()) {
+                  result.put(keys.get(i), entries);
+               }
+            }
+            return result.isEmpty() ? null : new GroupRead(null, result);
+         });
+      };
+
+      CompletionStage<GroupRead> cs = block < 0 || !onlyNew
+            ? attempt.get()
+            : XREAD.awaitEntries(handler, ctx, keys, block, attempt);
+      return handler.stageToReturn(cs, ctx, (res, alloc) -> writeResult(res, group, alloc));
+   }
+
+   private static void writeResult(GroupRead res, byte[] group, ByteBufPool alloc) {
+      if (res == null) {
+         StreamReplies.writeRead(null, alloc);
+      } else if (res.missingKey != null) {
+         ByteBufferUtils.stringToByteBuf("-NOGROUP No such key '" + new String(res.missingKey, StandardCharsets.UTF_8)
+               + "' or consumer group '" + new String(group, StandardCharsets.UTF_8)
+               + "' in XREADGROUP with GROUP option\r\n", alloc);
+      } else {
+         StreamReplies.writeRead(res.entries, alloc);
+      }
+   }
+
+   private static final class GroupRead {
+      // The key without the stream or the group
+      final byte[] missingKey;
+      final Map<byte[], List<StreamEntry<byte[]>>> entries;
+
+      GroupRead(byte[] missingKey, Map<byte[], List<StreamEntry<byte[]>>> entries) {
+         this.missingKey = missingKey;
+         this.entries = entries;
+      }
+   }
+}
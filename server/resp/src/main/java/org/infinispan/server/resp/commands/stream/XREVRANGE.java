@@ -0,0 +1,26 @@
+package org.infinispan.server.resp.commands.stream;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.server.resp.Resp3Handler;
+import org.infinispan.server.resp.RespRequestHandler;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * The `<code>XREVRANGE key end start [COUNT count]</code>` command.
+ * <p>
+ * Same as {@link XRANGE}, but returns the entries from <code>end</code> to <code>start</code>.
+ * </p>
+ *
+ * @see <a href="https://redis.io/commands/xrevrange/">Redis documentation.</a>
+ * @since 15.0
+ */
+public class XREVRANGE extends XRANGE {
+
+   @Override
+   public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, ChannelHandlerContext ctx, List<byte[]> arguments) {
+      return range(handler, ctx, arguments, true);
+   }
+}
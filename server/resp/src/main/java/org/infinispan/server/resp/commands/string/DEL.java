@@ -1,31 +1,30 @@
 package org.infinispan.server.resp.commands.string;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.BiConsumer;
 
-import org.infinispan.server.resp.ByteBufPool;
-import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.infinispan.marshall.core.MarshallableFunctions;
 import org.infinispan.server.resp.Consumers;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.commands.Resp3Command;
-import org.infinispan.util.concurrent.AggregateCompletionStage;
-import org.infinispan.util.concurrent.CompletionStages;
 
 import io.netty.channel.ChannelHandlerContext;
 
 /**
+ * Removes multiple keys with a single {@link ReadWriteMapImpl#evalManyAsync(Set, java.util.function.Function)},
+ * which sends one request to each owner instead of one request per key.
+ *
  * @link https://redis.io/commands/del/
  * @since 14.0
  */
 public class DEL extends RespCommand implements Resp3Command {
 
-   private static final BiConsumer<AtomicInteger, ByteBufPool> AI_CONSUMER = (ai, buf) ->
-         Consumers.LONG_BICONSUMER.accept(ai.longValue(), buf);
-
    public DEL() {
       super(-2, 1, -1, 1);
    }
@@ -41,20 +40,24 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
       }
 
       if (keysToRemove == 0) {
-         // TODO: is this an error?
-         ByteBufferUtils.stringToByteBufAscii(":0\r\n", handler.allocator());
+         RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
          return handler.myStage();
       }
-      AtomicInteger removes = new AtomicInteger();
-      AggregateCompletionStage<AtomicInteger> deleteStages = CompletionStages.aggregateCompletionStage(removes);
-      for (byte[] keyBytesLoop : arguments) {
-         deleteStages.dependsOn(handler.cache().removeAsync(keyBytesLoop)
-               .thenAccept(prev -> {
-                  if (prev != null) {
-                     removes.incrementAndGet();
-                  }
-               }));
+      // A key repeated with different byte[] instances is counted once, the repeated removals find no entry
+      Set<byte[]> keys = new HashSet<>(arguments);
+      CompletionStage<Long> removed = handler.readWriteMap()
+            .evalManyAsync(keys, MarshallableFunctions.<byte[], Object>removeReturnBoolean())
+            .thenApply(DEL::countRemoved);
+      return handler.stageToReturn(removed, ctx, Consumers.LONG_BICONSUMER);
+   }
+
+   private static long countRemoved(List<Boolean> results) {
+      long removed = 0;
+      for (Boolean result : results) {
+         if (result) {
+            removed++;
+         }
       }
-      return handler.stageToReturn(deleteStages.freeze(), ctx, AI_CONSUMER);
+      return removed;
    }
 }
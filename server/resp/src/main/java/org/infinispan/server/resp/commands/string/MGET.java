@@ -1,22 +1,37 @@
 package org.infinispan.server.resp.commands.string;
 
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.infinispan.AdvancedCache;
+import org.infinispan.security.AuthorizationPermission;
+import org.infinispan.server.resp.ByteBufPool;
 import org.infinispan.server.resp.ByteBufferUtils;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespConstants;
+import org.infinispan.server.resp.RespErrorUtil;
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.commands.Resp3Command;
 import org.infinispan.util.concurrent.AggregateCompletionStage;
 import org.infinispan.util.concurrent.CompletionStages;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.CharsetUtil;
 
 /**
+ * Retrieves all the keys with a single {@link org.infinispan.AdvancedCache#getAllAsync(Set)}, which sends one request
+ * per owner instead of one request per key. The array reply is written straight into the response buffer.
+ * <p>
+ * The bulk read requires the {@link AuthorizationPermission#BULK_READ} permission, the connections with only the
+ * {@link AuthorizationPermission#READ} permission retrieve the keys one by one, like {@code GET}.
+ *
  * @link https://redis.io/commands/mget/
  * @since 14.0
  */
@@ -31,38 +46,71 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
                                                       List<byte[]> arguments) {
       int keysToRetrieve = arguments.size();
       if (keysToRetrieve == 0) {
-         ByteBufferUtils.stringToByteBufAscii("*0\r\n", handler.allocator());
+         RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
          return handler.myStage();
       }
-      List<byte[]> results = Collections.synchronizedList(Arrays.asList(
-            new byte[keysToRetrieve][]));
-      AtomicInteger resultBytesSize = new AtomicInteger();
-      AggregateCompletionStage<Void> getStage = CompletionStages.aggregateCompletionStage();
-      for (int i = 0; i < keysToRetrieve; ++i) {
-         int innerCount = i;
-         byte[] keyBytes = arguments.get(i);
-         getStage.dependsOn(handler.cache().getAsync(keyBytes)
-               .whenComplete((returnValue, t) -> {
-                  if (returnValue != null) {
-                     results.set(innerCount, returnValue);
-                     int length = returnValue.length;
-                     if (length > 0) {
-                        // $ + digit length (log10 + 1) + /r/n + byte length
-                        resultBytesSize.addAndGet(1 + (int) Math.log10(length) + 1 + 2 + returnValue.length);
-                     } else {
-                        // $0 + /r/n
-                        resultBytesSize.addAndGet(2 + 2);
-                     }
-                  } else {
-                     // $-1
-                     resultBytesSize.addAndGet(3);
-                  }
-                  // /r/n
-                  resultBytesSize.addAndGet(2);
-               }));
+      CompletionStage<Map<byte[], byte[]>> entries = handler.isPermitted(ctx, AuthorizationPermission.BULK_READ) ?
+            handler.cache().getAllAsync(new LinkedHashSet<>(arguments)) :
+            getEach(handler.cache(), arguments);
+      return handler.stageToReturn(entries, ctx, (found, alloc) -> writeResults(arguments, found, alloc));
+   }
+
+   private static CompletionStage<Map<byte[], byte[]>> getEach(AdvancedCache<byte[], byte[]> cache, List<byte[]> keys) {
+      Map<byte[], byte[]> entries = new ConcurrentHashMap<>(keys.size());
+      AggregateCompletionStage<Map<byte[], byte[]>> stage = CompletionStages.aggregateCompletionStage(entries);
+      for (byte[] key : keys) {
+         stage.dependsOn(cache.getAsync(key).thenAccept(value -> {
+            if (value != null) {
+               entries.put(key, value);
+            }
+         }));
+      }
+      return stage.freeze();
+   }
+
+   private static void writeResults(List<byte[]> keys, Map<byte[], byte[]> entries, ByteBufPool alloc) {
+      int resultBytesSize = 0;
+      for (int i = 0; i < keys.size(); ++i) {
+         byte[] value = value(keys, i, entries);
+         // $-1 or $ + digit length + \r\n + byte length, and \r\n
+         resultBytesSize += (value == null ? 3 : 1 + ByteBufferUtils.stringSize(value.length) + 2 + value.length) + 2;
+      }
+      int elementsSize = ByteBufferUtils.stringSize(keys.size());
+      ByteBuf buffer = alloc.acquire(1 + elementsSize + 2 + resultBytesSize);
+      buffer.writeByte('*');
+      ByteBufferUtils.setIntChars(keys.size(), elementsSize, buffer);
+      buffer.writeBytes(RespConstants.CRLF);
+      for (int i = 0; i < keys.size(); ++i) {
+         byte[] value = value(keys, i, entries);
+         if (value == null) {
+            buffer.writeCharSequence("$-1", CharsetUtil.US_ASCII);
+         } else {
+            buffer.writeByte('$');
+            ByteBufferUtils.setIntChars(value.length, ByteBufferUtils.stringSize(value.length), buffer);
+            buffer.writeBytes(RespConstants.CRLF);
+            buffer.writeBytes(value);
+         }
+         buffer.writeBytes(RespConstants.CRLF);
+      }
+   }
+
+   /**
+    * The cache returns the requested {@code byte[]} instances as keys, but it keeps only the first of the keys with
+    * the same content. A key missing from the result is either absent from the cache or a repetition of an earlier
+    * key.
+    */
+   private static byte[] value(List<byte[]> keys, int index, Map<byte[], byte[]> entries) {
+      byte[] key = keys.get(index);
+      byte[] value = entries.get(key);
+      if (value != null || entries.containsKey(key)) {
+         return value;
+      }
+      for (int i = 0; i < index; ++i) {
+         byte[] previous = keys.get(i);
+         if (Arrays.equals(previous, key)) {
+            return entries.get(previous);
+         }
       }
-      return handler.stageToReturn(getStage.freeze(), ctx, (ignore, alloc) ->
-         ByteBufferUtils.bytesToResult(resultBytesSize.get(), results, alloc)
-      );
+      return null;
    }
 }
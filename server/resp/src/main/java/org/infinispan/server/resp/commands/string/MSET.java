@@ -1,23 +1,28 @@
 package org.infinispan.server.resp.commands.string;
 
 import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
 
 import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.server.core.logging.Log;
-import org.infinispan.server.resp.ByteBufferUtils;
 import org.infinispan.server.resp.Consumers;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
+import org.infinispan.server.resp.RespErrorUtil;
 import org.infinispan.server.resp.RespRequestHandler;
 import org.infinispan.server.resp.commands.Resp3Command;
-import org.infinispan.util.concurrent.AggregateCompletionStage;
-import org.infinispan.util.concurrent.CompletionStages;
 
 import io.netty.channel.ChannelHandlerContext;
 
 /**
+ * Stores all the pairs with a single {@link org.infinispan.AdvancedCache#putAllAsync(Map)}, which sends one request
+ * to the primary owner of each group of keys instead of one request per key.
+ *
  * @link https://redis.io/commands/mset/
  * @since 14.0
  */
@@ -35,15 +40,18 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler,
       int keyValuePairCount = arguments.size();
       if ((keyValuePairCount & 1) == 1) {
          log.tracef("Received: %s count for keys and values combined, should be even for MSET", keyValuePairCount);
-         ByteBufferUtils.stringToByteBufAscii("-ERR Missing a value for a key\r\n", handler.allocator());
+         RespErrorUtil.wrongArgumentNumber(this, handler.allocator());
          return handler.myStage();
       }
-      AggregateCompletionStage<Void> setStage = CompletionStages.aggregateCompletionStage();
+      // A key can be repeated with different byte[] instances, the last value wins
+      Map<WrappedByteArray, byte[]> pairs = new LinkedHashMap<>(keyValuePairCount);
       for (int i = 0; i < keyValuePairCount; i += 2) {
-         byte[] keyBytes = arguments.get(i);
-         byte[] valueBytes = arguments.get(i + 1);
-         setStage.dependsOn(handler.cache().putAsync(keyBytes, valueBytes));
+         pairs.put(new WrappedByteArray(arguments.get(i)), arguments.get(i + 1));
       }
-      return handler.stageToReturn(setStage.freeze(), ctx, Consumers.OK_BICONSUMER);
+      Map<byte[], byte[]> entries = new HashMap<>(pairs.size() * 2);
+      for (Map.Entry<WrappedByteArray, byte[]> pair : pairs.entrySet()) {
+         entries.put(pair.getKey().getBytes(), pair.getValue());
+      }
+      return handler.stageToReturn(handler.ignorePreviousValuesCache().putAllAsync(entries), ctx, Consumers.OK_BICONSUMER);
    }
 }
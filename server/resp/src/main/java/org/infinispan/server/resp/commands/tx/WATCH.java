@@ -1,29 +1,20 @@
 package org.infinispan.server.resp.commands.tx;
 
-import java.io.ObjectInput;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.infinispan.AdvancedCache;
-import org.infinispan.commons.marshall.AdvancedExternalizer;
-import org.infinispan.commons.marshall.exts.NoStateExternalizer;
 import org.infinispan.commons.util.concurrent.CompletableFutures;
-import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
 import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
-import org.infinispan.notifications.cachelistener.filter.CacheEventConverter;
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilter;
-import org.infinispan.notifications.cachelistener.filter.EventType;
 import org.infinispan.server.resp.Consumers;
-import org.infinispan.server.resp.ExternalizerIds;
 import org.infinispan.server.resp.Resp3Handler;
 import org.infinispan.server.resp.RespCommand;
 import org.infinispan.server.resp.RespErrorUtil;
@@ -31,6 +22,7 @@
 import org.infinispan.server.resp.commands.Resp3Command;
 import org.infinispan.server.resp.commands.TransactionResp3Command;
 import org.infinispan.server.resp.filter.EventListenerKeysFilter;
+import org.infinispan.server.resp.filter.IgnoreValueConverter;
 import org.infinispan.server.resp.tx.RespTransactionHandler;
 
 import io.netty.channel.ChannelHandlerContext;
@@ -54,8 +46,6 @@
  * @author José Bolina
  */
 public class WATCH extends RespCommand implements Resp3Command, TransactionResp3Command {
-   public static final AdvancedExternalizer<TxEventConverterEmpty> EXTERNALIZER = new TxEventConverterEmpty.Externalizer();
-
    static final AttributeKey<List<TxKeysListener>> WATCHER_KEY = AttributeKey.newInstance("watchers");
 
    public WATCH() {
@@ -69,7 +59,7 @@ public CompletionStage<RespRequestHandler> perform(Resp3Handler handler, Channel
       byte[][] keys = arguments.toArray(new byte[0][]);
 
       CacheEventFilter<Object, Object> filter = new EventListenerKeysFilter(keys);
-      CompletionStage<Void> cs = cache.addListenerAsync(listener, filter, new TxEventConverterEmpty())
+      CompletionStage<Void> cs = cache.addListenerAsync(listener, filter, new IgnoreValueConverter())
             .thenAccept(ignore -> register(ctx, listener));
       return handler.stageToReturn(cs, ctx, Consumers.OK_BICONSUMER);
    }
@@ -108,31 +98,4 @@ public boolean hasSeenEvents() {
          return hasEvent.get();
       }
    }
-
-   private static class TxEventConverterEmpty implements CacheEventConverter<Object, Object, Object> {
-
-      @Override
-      public Object convert(Object key, Object oldValue, Metadata oldMetadata, Object newValue, Metadata newMetadata, EventType eventType) {
-         // We don't care about the event value.
-         return null;
-      }
-
-      private static class Externalizer extends NoStateExternalizer<TxEventConverterEmpty> {
-
-         @Override
-         public Integer getId() {
-            return ExternalizerIds.EVENT_IGNORE_VALUE_CONVERTER;
-         }
-
-         @Override
-         public Set<Class<? extends TxEventConverterEmpty>> getTypeClasses() {
-            return Collections.singleton(TxEventConverterEmpty.class);
-         }
-
-         @Override
-         public TxEventConverterEmpty readObject(ObjectInput input) {
-            return new TxEventConverterEmpty();
-         }
-      }
-   }
 }
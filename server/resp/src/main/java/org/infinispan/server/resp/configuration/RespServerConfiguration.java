@@ -2,6 +2,7 @@
 
 import org.infinispan.commons.configuration.BuiltBy;
 import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.server.core.configuration.EncryptionConfiguration;
 import org.infinispan.server.core.configuration.IpFilterConfiguration;
@@ -21,9 +22,10 @@ public class RespServerConfiguration extends ProtocolServerConfiguration<RespSer
 
    public static final int DEFAULT_RESP_PORT = 6379;
    public static final String DEFAULT_RESP_CACHE = "respCache";
+   public static final AttributeDefinition<Integer> TRACKING_TABLE_MAX_KEYS = AttributeDefinition.builder("tracking-table-max-keys", 1_000_000).immutable().autoPersist(false).build();
 
    public static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(RespServerConfiguration.class, ProtocolServerConfiguration.attributeDefinitionSet());
+      return new AttributeSet(RespServerConfiguration.class, ProtocolServerConfiguration.attributeDefinitionSet(), TRACKING_TABLE_MAX_KEYS);
    }
 
    private final RespAuthenticationConfiguration authentication;
@@ -44,4 +46,11 @@ public RespAuthenticationConfiguration authentication() {
    public EncryptionConfiguration encryption() {
       return encryption;
    }
+
+   /**
+    * @return the maximum number of keys tracked for the client side caching of each cache
+    */
+   public int trackingTableMaxKeys() {
+      return attributes.attribute(TRACKING_TABLE_MAX_KEYS).get();
+   }
 }
@@ -58,6 +58,15 @@ public EncryptionConfigurationBuilder encryption() {
       return encryption;
    }
 
+   /**
+    * Sets the maximum number of keys tracked for the client side caching of each cache. When the limit is reached, the
+    * tracked keys are evicted and the clients receive their invalidation messages.
+    */
+   public RespServerConfigurationBuilder trackingTableMaxKeys(int maxKeys) {
+      attributes.attribute(RespServerConfiguration.TRACKING_TABLE_MAX_KEYS).set(maxKeys);
+      return this;
+   }
+
    @Override
    public RespServerConfiguration create() {
       return new RespServerConfiguration(attributes.protect(), ipFilter.create(), ssl.create(), authentication.create(), encryption.create());
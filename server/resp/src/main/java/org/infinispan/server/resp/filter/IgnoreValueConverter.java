@@ -0,0 +1,46 @@
+package org.infinispan.server.resp.filter;
+
+import java.io.ObjectInput;
+import java.util.Collections;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.exts.NoStateExternalizer;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.filter.CacheEventConverter;
+import org.infinispan.notifications.cachelistener.filter.EventType;
+import org.infinispan.server.resp.ExternalizerIds;
+
+/**
+ * A {@link CacheEventConverter} for the clustered listeners that only need the key of the events, the values are not
+ * sent to the listener node.
+ *
+ * @since 15.0
+ */
+public class IgnoreValueConverter implements CacheEventConverter<Object, Object, Object> {
+   public static final AdvancedExternalizer<IgnoreValueConverter> EXTERNALIZER = new Externalizer();
+
+   @Override
+   public Object convert(Object key, Object oldValue, Metadata oldMetadata, Object newValue, Metadata newMetadata, EventType eventType) {
+      // We don't care about the event value.
+      return null;
+   }
+
+   private static class Externalizer extends NoStateExternalizer<IgnoreValueConverter> {
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.EVENT_IGNORE_VALUE_CONVERTER;
+      }
+
+      @Override
+      public Set<Class<? extends IgnoreValueConverter>> getTypeClasses() {
+         return Collections.singleton(IgnoreValueConverter.class);
+      }
+
+      @Override
+      public IgnoreValueConverter readObject(ObjectInput input) {
+         return new IgnoreValueConverter();
+      }
+   }
+}
@@ -1,5 +1,7 @@
 package org.infinispan.server.resp.hll;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoField;
@@ -7,6 +9,8 @@
 import org.infinispan.server.resp.hll.internal.CompactSet;
 import org.infinispan.server.resp.hll.internal.ExplicitSet;
 import org.infinispan.server.resp.hll.internal.HLLRepresentation;
+import org.infinispan.server.resp.hll.internal.RedisEncoding;
+import org.infinispan.server.resp.hll.internal.Util;
 
 import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
@@ -51,6 +55,13 @@
  * changes from explicit to compact.
  * </p>
  *
+ * <p>
+ * The compact registers have the layout of the Redis dense representation. Two HyperLogLog merge in place by keeping
+ * the maximum of each register, and {@link #toRedisEncoding()} and {@link #fromRedisEncoding(byte[])} exchange the
+ * registers with Redis. The elements are hashed with a different function than Redis, so the same element added on
+ * both sides would count twice after a merge.
+ * </p>
+ *
  * @see <a href="https://algo.inria.fr/flajolet/Publications/FlFuGaMe07.pdf">[1] HyperLogLog: the analysis of a near-optimal cardinality estimation algorithm</a>
  * @see <a href="http://antirez.com/news/75">[2] Redis new data structure: the HyperLogLog</a>
  * @see <a href="http://static.googleusercontent.com/media/research.google.com/en//pubs/archive/40671.pdf">[3] HyperLogLog in Practice: Algorithmic Engineering of a State of The Art Cardinality Estimation Algorithm</a>
@@ -68,6 +79,11 @@ public class HyperLogLog {
    @GuardedBy("this")
    private CompactSet compact;
 
+   // Incremented after every change, to invalidate the cached estimation.
+   private final AtomicLong modifications = new AtomicLong();
+
+   private volatile Estimation estimation;
+
    public HyperLogLog() { }
 
    @ProtoFactory
@@ -76,33 +92,134 @@ public HyperLogLog() { }
       this.compact = compact;
    }
 
+   /**
+    * Creates the HyperLogLog from the Redis string representation, dense or sparse.
+    *
+    * @param encoded: The Redis representation, as returned by <code>GET</code> or included in <code>DUMP</code>.
+    * @return A new HyperLogLog with the dense representation.
+    * @throws IllegalArgumentException if the value is not a valid representation.
+    */
+   public static HyperLogLog fromRedisEncoding(byte[] encoded) {
+      HyperLogLog hll = new HyperLogLog(null, new CompactSet(RedisEncoding.readRegisters(encoded)));
+      long cached = RedisEncoding.cachedCardinality(encoded);
+      if (cached >= 0) hll.estimation = new Estimation(0, cached);
+      return hll;
+   }
+
    public boolean add(byte[] data) {
+      return addHash(Util.hash(data));
+   }
+
+   private boolean addHash(long hash) {
       ExplicitSet src = null;
-      boolean ret;
+      CompactSet dst = null;
+      boolean ret = false;
       synchronized (this) {
-         if (compact != null) return compact.set(data);
-         if (explicit == null) explicit = new ExplicitSet();
-
-         try {
-            ret = explicit.set(data);
-         } finally {
-            // Changes from the explicit to the compact representation once the threshold is reached.
-            if (explicit.needsMigration()) {
-               src = explicit;
-               explicit = null;
-               compact = new CompactSet();
+         if (compact != null) {
+            dst = compact;
+         } else {
+            if (explicit == null) explicit = new ExplicitSet();
+
+            try {
+               ret = explicit.setHash(hash);
+            } finally {
+               // Changes from the explicit to the compact representation once the threshold is reached.
+               if (explicit.needsMigration()) {
+                  src = explicit;
+                  explicit = null;
+                  compact = new CompactSet();
+                  dst = compact;
+               }
             }
+            if (src == null) return modified(ret);
          }
       }
 
-      // Migrate outside the synchronized block. Both representations are thread-safe.
-      if (src != null) src.migrate(compact);
-      return ret;
+      // Migrate and update the compact outside the synchronized block. Both representations are thread-safe.
+      if (src != null) {
+         src.migrate(dst);
+         return modified(ret);
+      }
+      return modified(dst.setHash(hash));
+   }
+
+   /**
+    * Merges the given HyperLogLog into this one.
+    * <p>
+    * The result estimates the cardinality of the union of both sets. The registers of a compact representation are
+    * merged in place, keeping the maximum of each register.
+    * </p>
+    *
+    * @param other: The HyperLogLog to merge into this one.
+    * @return true if this HyperLogLog changed, and false otherwise.
+    */
+   public boolean merge(HyperLogLog other) {
+      HLLRepresentation source = other.store();
+      if (source == null) return false;
+
+      if (source instanceof ExplicitSet) {
+         boolean changed = false;
+         for (long hash : ((ExplicitSet) source).hashes()) {
+            if (addHash(hash)) changed = true;
+         }
+         return changed;
+      }
+      return modified(toCompact().merge((CompactSet) source));
    }
 
+   /**
+    * The estimation is cached until the next change.
+    */
    public long cardinality() {
+      long version = modifications.get();
+      Estimation current = estimation;
+      if (current != null && current.version == version) return current.cardinality;
+
+      HLLRepresentation representation = store();
+      long cardinality = representation == null ? 0 : representation.cardinality();
+      estimation = new Estimation(version, cardinality);
+      return cardinality;
+   }
+
+   /**
+    * Writes the HyperLogLog with the Redis dense representation.
+    * <p>
+    * The explicit representation is converted to registers, so the output is the same that Redis would have after
+    * adding the same hashes.
+    * </p>
+    *
+    * @return The Redis string representation.
+    */
+   public byte[] toRedisEncoding() {
       HLLRepresentation representation = store();
-      return representation == null ? 0 : representation.cardinality();
+      CompactSet registers;
+      if (representation instanceof CompactSet) {
+         registers = (CompactSet) representation;
+      } else {
+         registers = new CompactSet();
+         if (representation != null) ((ExplicitSet) representation).migrate(registers);
+      }
+      return RedisEncoding.writeDense(registers.registers(), cardinality());
+   }
+
+   private CompactSet toCompact() {
+      ExplicitSet src;
+      CompactSet dst;
+      synchronized (this) {
+         if (compact != null) return compact;
+
+         src = explicit;
+         explicit = null;
+         compact = new CompactSet();
+         dst = compact;
+      }
+      if (src != null) src.migrate(dst);
+      return dst;
+   }
+
+   private boolean modified(boolean changed) {
+      if (changed) modifications.incrementAndGet();
+      return changed;
    }
 
    synchronized HLLRepresentation store() {
@@ -121,4 +238,14 @@ ExplicitSet explicit() {
    CompactSet compact() {
       return compact;
    }
+
+   private static final class Estimation {
+      private final long version;
+      private final long cardinality;
+
+      private Estimation(long version, long cardinality) {
+         this.version = version;
+         this.cardinality = cardinality;
+      }
+   }
 }
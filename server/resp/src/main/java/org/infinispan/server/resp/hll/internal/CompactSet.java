@@ -2,11 +2,9 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.LongStream;
 
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.protostream.annotations.ProtoFactory;
@@ -88,6 +86,9 @@ public class CompactSet implements HLLRepresentation {
    // In total, this will occupy roughly 12Kb.
    static final int STORE_SIZE = ((REGISTER_WIDTH * HLL_BUCKET_TOTAL) + SINGLE_REGISTER_MASK) >>> REGISTER_WIDTH;
 
+   // The size of the registers in bytes, once serialized. Exactly the 12Kb of the Redis dense representation.
+   public static final int REGISTERS_BYTES = STORE_SIZE * Long.BYTES;
+
    @GuardedBy("this")
    private final long[] store;
 
@@ -109,11 +110,41 @@ public CompactSet() {
       this.minimum = 0b0;
    }
 
+   /**
+    * The sets written before the registers field only have the store, fields 1 to 3. The store has the layout of the
+    * registers in longs, the multiplicity and the minimum are computed again from the registers.
+    */
    @ProtoFactory
-   CompactSet(Collection<Long> store, Collection<Integer> multiplicity, byte minimum) {
-      this.store = store.stream().mapToLong(Long::longValue).toArray();
-      this.multiplicity = multiplicity.stream().mapToInt(Integer::intValue).toArray();
-      this.minimum = minimum;
+   CompactSet(Collection<Long> store, Collection<Integer> multiplicity, byte minimum, byte[] registers) {
+      this(registers != null ? registers : fromStore(store));
+   }
+
+   public CompactSet(byte[] registers) {
+      this();
+      if (registers.length != REGISTERS_BYTES)
+         throw new IllegalArgumentException("Dense HyperLogLog registers must have " + REGISTERS_BYTES + " bytes");
+
+      for (int bucket = 0; bucket < HLL_BUCKET_TOTAL; bucket++) {
+         byte value = checkedRegister(registers, bucket);
+         if (value > 0) setRegister(bucket, value);
+      }
+   }
+
+   private static byte[] fromStore(Collection<Long> store) {
+      byte[] registers = new byte[REGISTERS_BYTES];
+      if (store == null || store.isEmpty()) return registers;
+
+      if (store.size() != STORE_SIZE)
+         throw new IllegalArgumentException("Dense HyperLogLog store must have " + STORE_SIZE + " longs");
+
+      int i = 0;
+      for (long v : store) {
+         int base = i++ * Long.BYTES;
+         for (int j = 0; j < Long.BYTES; j++) {
+            registers[base + j] = (byte) (v >>> (j * Byte.SIZE));
+         }
+      }
+      return registers;
    }
 
    void readSource(Set<Long> hashes) {
@@ -127,6 +158,11 @@ public boolean set(byte[] data) {
       return setRegister(Util.hash(data));
    }
 
+   @Override
+   public boolean setHash(long hash) {
+      return setRegister(hash);
+   }
+
    /**
     * The cardinality estimation is based on [2] (see class doc).
     * <p>
@@ -298,22 +334,116 @@ private boolean setRegister(int bucket, byte value) {
       return false;
    }
 
+   /**
+    * Merges the registers of the given set into this set, keeping the maximum of each register.
+    * <p>
+    * The result is the same as adding all the elements of both sets to this set.
+    * </p>
+    *
+    * @param other: The set to merge into this set.
+    * @return true if any register changed, and false otherwise.
+    */
+   public boolean merge(CompactSet other) {
+      return merge(other.registers());
+   }
+
+   /**
+    * Merges the registers in the dense format into this set.
+    *
+    * @param registers: The registers with the layout of {@link #registers()}.
+    * @return true if any register changed, and false otherwise.
+    * @see #merge(CompactSet)
+    */
+   public boolean merge(byte[] registers) {
+      if (registers.length != REGISTERS_BYTES)
+         throw new IllegalArgumentException("Dense HyperLogLog registers must have " + REGISTERS_BYTES + " bytes");
+
+      boolean changed = false;
+      for (int bucket = 0; bucket < HLL_BUCKET_TOTAL; bucket++) {
+         byte value = checkedRegister(registers, bucket);
+         // Registers smaller than the minimum cannot update anything.
+         if (value > minimum && setRegister(bucket, value)) changed = true;
+      }
+      return changed;
+   }
+
+   /**
+    * The packed registers.
+    * <p>
+    * Each register occupies {@link #REGISTER_WIDTH} bits, starting from the least-significant bit of the first byte.
+    * This is the same layout as the Redis dense representation, which allows exchanging the registers with Redis.
+    * Since the store keeps the registers with the same layout in longs, this is the store in little-endian order.
+    * </p>
+    *
+    * @return A copy of the registers with {@link #REGISTERS_BYTES} bytes.
+    */
+   @ProtoField(number = 4)
+   public byte[] registers() {
+      byte[] registers = new byte[REGISTERS_BYTES];
+      synchronized (this) {
+         for (int i = 0; i < store.length; i++) {
+            long v = store[i];
+            int base = i * Long.BYTES;
+            for (int j = 0; j < Long.BYTES; j++) {
+               registers[base + j] = (byte) (v >>> (j * Byte.SIZE));
+            }
+         }
+      }
+      return registers;
+   }
+
+   /**
+    * Replaced by the {@link #registers()}, only read from the sets written before.
+    */
    @ProtoField(number = 1, collectionImplementation = ArrayList.class)
    List<Long> store() {
-      return LongStream.of(store)
-            .boxed()
-            .collect(Collectors.toList());
+      return Collections.emptyList();
    }
 
+   /**
+    * Replaced by the {@link #registers()}, only read from the sets written before.
+    */
    @ProtoField(number = 2, collectionImplementation = ArrayList.class, type = Type.UINT32)
    Collection<Integer> multiplicity() {
-      return IntStream.of(multiplicity)
-            .boxed()
-            .collect(Collectors.toList());
+      return Collections.emptyList();
    }
 
    @ProtoField(number = 3, javaType = byte.class, defaultValue = "0", type = Type.UINT32)
    byte minimum() {
       return minimum;
    }
+
+   /**
+    * Reads the register of the bucket in the dense format.
+    */
+   static byte register(byte[] registers, int bucket) {
+      int index = bucket * REGISTER_WIDTH;
+      int first = index >>> 3;
+      int offset = index & 7;
+      int value = (registers[first] & 0xFF) >>> offset;
+      if (offset + REGISTER_WIDTH > Byte.SIZE) {
+         value |= (registers[first + 1] & 0xFF) << (Byte.SIZE - offset);
+      }
+      return (byte) (value & SINGLE_REGISTER_MASK);
+   }
+
+   private static byte checkedRegister(byte[] registers, int bucket) {
+      byte value = register(registers, bucket);
+      if (value > HLL_MAX_CONSECUTIVE_ZEROES + 1)
+         throw new IllegalArgumentException("Invalid HyperLogLog register value " + value);
+      return value;
+   }
+
+   /**
+    * Writes the register of the bucket in the dense format. The registers must be zeroed before.
+    */
+   static void register(byte[] registers, int bucket, byte value) {
+      int index = bucket * REGISTER_WIDTH;
+      int first = index >>> 3;
+      int offset = index & 7;
+      registers[first] |= (byte) (value << offset);
+      if (offset + REGISTER_WIDTH > Byte.SIZE) {
+         registers[first + 1] |= (byte) (value >>> (Byte.SIZE - offset));
+      }
+   }
 }
@@ -44,10 +44,21 @@ public ExplicitSet() {
 
    @Override
    public boolean set(byte[] data) {
-      long hash = Util.hash(data);
+      return setHash(Util.hash(data));
+   }
+
+   @Override
+   public boolean setHash(long hash) {
       return storage.add(hash);
    }
 
+   /**
+    * @return A view of the hashes of the elements in the set.
+    */
+   public Set<Long> hashes() {
+      return storage;
+   }
+
    @Override
    public long cardinality() {
       return storage.size();
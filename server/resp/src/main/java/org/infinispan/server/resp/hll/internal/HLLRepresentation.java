@@ -16,6 +16,14 @@ public interface HLLRepresentation {
 
    boolean set(byte[] data);
 
+   /**
+    * Add the element with the given {@param hash} to the representation set.
+    *
+    * @param hash: The hash of the element, see {@link Util#hash(byte[])}.
+    * @return true if the set changed, and false otherwise.
+    */
+   boolean setHash(long hash);
+
    /**
     * Estimates the cardinality of the set.
     *
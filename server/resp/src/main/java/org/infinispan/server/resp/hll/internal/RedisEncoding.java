@@ -0,0 +1,132 @@
+package org.infinispan.server.resp.hll.internal;
+
+import static org.infinispan.server.resp.hll.internal.CompactSet.HLL_BUCKET_TOTAL;
+import static org.infinispan.server.resp.hll.internal.CompactSet.REGISTERS_BYTES;
+
+/**
+ * The string representation Redis uses for the HyperLogLog, which is also the payload of <code>DUMP</code> and
+ * <code>RESTORE</code>.
+ * <p>
+ * The representation has a 16 bytes header: the "HYLL" magic, the encoding (0 dense, 1 sparse), three unused bytes,
+ * and the cached cardinality as a little-endian 64 bits number, where the most-significant bit flags a stale value.
+ * The dense encoding follows with the 12Kb of packed registers, which is the layout of {@link CompactSet#registers()}.
+ * The sparse encoding follows with a run-length encoding of the registers, which is only read.
+ * </p>
+ *
+ * @see <a href="https://github.com/redis/redis/blob/unstable/src/hyperloglog.c">Redis HyperLogLog implementation.</a>
+ * @since 15.0
+ */
+public final class RedisEncoding {
+
+   public static final int HEADER_SIZE = 16;
+   private static final byte DENSE = 0;
+   private static final byte SPARSE = 1;
+   private static final byte[] MAGIC = { 'H', 'Y', 'L', 'L' };
+
+   private RedisEncoding() { }
+
+   /**
+    * Writes the dense representation of the registers.
+    *
+    * @param registers: The registers with the layout of {@link CompactSet#registers()}.
+    * @param cardinality: The cached cardinality, or a negative number to flag the cardinality as stale.
+    * @return The Redis string representation.
+    */
+   public static byte[] writeDense(byte[] registers, long cardinality) {
+      byte[] encoded = new byte[HEADER_SIZE + REGISTERS_BYTES];
+      System.arraycopy(MAGIC, 0, encoded, 0, MAGIC.length);
+      encoded[4] = DENSE;
+      if (cardinality < 0) {
+         encoded[15] = (byte) 0x80;
+      } else {
+         for (int i = 0; i < Long.BYTES; i++) {
+            encoded[8 + i] = (byte) (cardinality >>> (i * Byte.SIZE));
+         }
+      }
+      System.arraycopy(registers, 0, encoded, HEADER_SIZE, REGISTERS_BYTES);
+      return encoded;
+   }
+
+   /**
+    * @return true if the value starts with the HyperLogLog header.
+    */
+   public static boolean isEncoded(byte[] value) {
+      if (value.length < HEADER_SIZE) return false;
+      for (int i = 0; i < MAGIC.length; i++) {
+         if (value[i] != MAGIC[i]) return false;
+      }
+      return true;
+   }
+
+   /**
+    * Reads the registers of a dense or sparse representation.
+    *
+    * @param encoded: The Redis string representation.
+    * @return The registers with the layout of {@link CompactSet#registers()}.
+    * @throws IllegalArgumentException if the value is not a valid representation.
+    */
+   public static byte[] readRegisters(byte[] encoded) {
+      if (!isEncoded(encoded))
+         throw new IllegalArgumentException("Not a HyperLogLog value");
+
+      switch (encoded[4]) {
+         case DENSE:
+            if (encoded.length != HEADER_SIZE + REGISTERS_BYTES)
+               throw new IllegalArgumentException("Invalid dense HyperLogLog size " + encoded.length);
+            byte[] registers = new byte[REGISTERS_BYTES];
+            System.arraycopy(encoded, HEADER_SIZE, registers, 0, REGISTERS_BYTES);
+            return registers;
+         case SPARSE:
+            return readSparse(encoded);
+         default:
+            throw new IllegalArgumentException("Unknown HyperLogLog encoding " + encoded[4]);
+      }
+   }
+
+   /**
+    * @return The cached cardinality of the header, or -1 if it is stale.
+    */
+   public static long cachedCardinality(byte[] encoded) {
+      if ((encoded[15] & 0x80) != 0) return -1;
+      long cardinality = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+         cardinality |= (encoded[8 + i] & 0xFFL) << (i * Byte.SIZE);
+      }
+      return cardinality;
+   }
+
+   private static byte[] readSparse(byte[] encoded) {
+      byte[] registers = new byte[REGISTERS_BYTES];
+      int bucket = 0;
+      int i = HEADER_SIZE;
+      while (i < encoded.length) {
+         int op = encoded[i] & 0xFF;
+         if ((op & 0xC0) == 0) {
+            // ZERO: 00xxxxxx, a run of (xxxxxx + 1) empty registers.
+            bucket += (op & 0x3F) + 1;
+            i++;
+         } else if ((op & 0xC0) == 0x40) {
+            // XZERO: 01xxxxxx yyyyyyyy, a run of (xxxxxxyyyyyyyy + 1) empty registers.
+            if (i + 1 >= encoded.length)
+               throw new IllegalArgumentException("Truncated sparse HyperLogLog");
+            bucket += (((op & 0x3F) << 8) | (encoded[i + 1] & 0xFF)) + 1;
+            i += 2;
+         } else {
+            // VAL: 1vvvvvxx, a run of (xx + 1) registers with the value (vvvvv + 1).
+            byte value = (byte) (((op >>> 2) & 0x1F) + 1);
+            int run = (op & 0x3) + 1;
+            if (bucket + run > HLL_BUCKET_TOTAL)
+               throw new IllegalArgumentException("Invalid sparse HyperLogLog");
+            for (int j = 0; j < run; j++) {
+               CompactSet.register(registers, bucket++, value);
+            }
+            i++;
+         }
+         if (bucket > HLL_BUCKET_TOTAL)
+            throw new IllegalArgumentException("Invalid sparse HyperLogLog");
+      }
+      if (bucket != HLL_BUCKET_TOTAL)
+         throw new IllegalArgumentException("Invalid sparse HyperLogLog");
+      return registers;
+   }
+}
@@ -0,0 +1,166 @@
+package org.infinispan.server.resp.pubsub;
+
+import static org.infinispan.server.resp.RespConstants.CRLF;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.remoting.transport.impl.MapResponseCollector;
+import org.infinispan.server.resp.ByteBufferUtils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * Registry of the RESP pub/sub subscriptions of the local node.
+ * <p>
+ * Published messages do not go through the cache, so the publishers check the write permission of the cache
+ * themselves. The message is written to the subscribers connected to the publishing node, and a {@link PublishCommand}
+ * is multicast to the other members of the cluster, which deliver it to their own subscribers. The commands are
+ * delivered in the order they were sent by each node, so the subscribers receive the messages of a publisher in order.
+ * <p>
+ * There is one registry per cache manager, shared by all the RESP endpoints, like the Redis pub/sub which is not
+ * related to the key space.
+ *
+ * @since 15.0
+ */
+public class PubSubRegistry {
+   private static final byte[] MESSAGE_PREFIX = "*3\r\n$7\r\nmessage\r\n$".getBytes(StandardCharsets.US_ASCII);
+
+   private final ConcurrentMap<WrappedByteArray, Set<Channel>> subscribers = new ConcurrentHashMap<>();
+   private volatile Transport transport;
+   private volatile long timeout;
+
+   /**
+    * Starts sending the published messages to the other members of the cluster.
+    */
+   public void start(Transport transport, long timeout) {
+      this.transport = transport;
+      this.timeout = timeout;
+   }
+
+   /**
+    * @return {@code true} if the connection was not subscribed to the channel already
+    */
+   public boolean subscribe(WrappedByteArray channel, Channel subscriber) {
+      boolean[] added = new boolean[1];
+      subscribers.compute(channel, (ignore, current) -> {
+         Set<Channel> set = current == null ? ConcurrentHashMap.newKeySet() : current;
+         added[0] = set.add(subscriber);
+         return set;
+      });
+      return added[0];
+   }
+
+   /**
+    * @return {@code true} if the connection was subscribed to the channel
+    */
+   public boolean unsubscribe(WrappedByteArray channel, Channel subscriber) {
+      boolean[] removed = new boolean[1];
+      subscribers.computeIfPresent(channel, (ignore, set) -> {
+         removed[0] = set.remove(subscriber);
+         return set.isEmpty() ? null : set;
+      });
+      return removed[0];
+   }
+
+   /**
+    * @return the number of subscriptions of the connections of this node
+    */
+   public int subscriptions() {
+      int count = 0;
+      for (Set<Channel> set : subscribers.values()) {
+         count += set.size();
+      }
+      return count;
+   }
+
+   /**
+    * Sends the message to the subscribers of the channel of all the nodes of the cluster.
+    *
+    * @return the number of subscribers that received the message
+    */
+   public CompletionStage<Long> publish(byte[] channel, byte[] message) {
+      long receivers = deliver(channel, message);
+      Transport transport = this.transport;
+      if (transport == null || transport.getMembers().size() < 2) {
+         return CompletableFuture.completedFuture(receivers);
+      }
+      return transport.invokeCommandOnAll(new PublishCommand(channel, message), MapResponseCollector.ignoreLeavers(),
+            DeliverOrder.PER_SENDER, timeout, TimeUnit.MILLISECONDS)
+            .thenApply(responses -> {
+               long total = receivers;
+               for (Map.Entry<Address, Response> response : responses.entrySet()) {
+                  if (response.getValue() instanceof SuccessfulResponse) {
+                     total += (Integer) ((SuccessfulResponse) response.getValue()).getResponseValue();
+                  }
+               }
+               return total;
+            });
+   }
+
+   /**
+    * Writes the message to the subscribers of the channel connected to this node.
+    *
+    * @return the number of subscribers that received the message
+    */
+   int deliver(byte[] channel, byte[] message) {
+      Set<Channel> channelSubscribers = subscribers.get(new WrappedByteArray(channel));
+      if (channelSubscribers == null) {
+         return 0;
+      }
+      int receivers = 0;
+      ByteBuf encoded = null;
+      try {
+         for (Channel subscriber : channelSubscribers) {
+            if (!subscriber.isActive()) {
+               continue;
+            }
+            if (encoded == null) {
+               encoded = encode(subscriber, channel, message);
+            }
+            // The subscribers share the encoded message, each one with its own reader index
+            subscriber.writeAndFlush(encoded.retainedDuplicate(), subscriber.voidPromise());
+            receivers++;
+         }
+      } finally {
+         if (encoded != null) {
+            encoded.release();
+         }
+      }
+      return receivers;
+   }
+
+   private static ByteBuf encode(Channel subscriber, byte[] channel, byte[] message) {
+      // *3\r\n$7\r\nmessage\r\n$ + channel length + \r\n + channel + \r\n + $ + message length + \r\n + message + \r\n
+      int channelSize = ByteBufferUtils.stringSize(channel.length);
+      int messageSize = ByteBufferUtils.stringSize(message.length);
+      int byteSize = MESSAGE_PREFIX.length + channelSize + 2 + channel.length + 2 + 1 + messageSize + 2
+            + message.length + 2;
+      ByteBuf buf = subscriber.alloc().buffer(byteSize, byteSize);
+      buf.writeBytes(MESSAGE_PREFIX);
+      ByteBufferUtils.setIntChars(channel.length, channelSize, buf);
+      buf.writeBytes(CRLF);
+      buf.writeBytes(channel);
+      buf.writeBytes(CRLF);
+      buf.writeByte('$');
+      ByteBufferUtils.setIntChars(message.length, messageSize, buf);
+      buf.writeBytes(CRLF);
+      buf.writeBytes(message);
+      buf.writeBytes(CRLF);
+      assert buf.writerIndex() == byteSize;
+      return buf;
+   }
+}
@@ -0,0 +1,69 @@
+package org.infinispan.server.resp.pubsub;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commands.GlobalRpcCommand;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.server.resp.ModuleCommandIds;
+
+/**
+ * Delivers a published message to the subscribers connected to the receiving node.
+ * <p>
+ * The response is the number of subscribers that received the message.
+ *
+ * @since 15.0
+ */
+public class PublishCommand implements GlobalRpcCommand {
+
+   private byte[] channel;
+   private byte[] message;
+
+   public PublishCommand() {
+   }
+
+   public PublishCommand(byte[] channel, byte[] message) {
+      this.channel = channel;
+      this.message = message;
+   }
+
+   @Override
+   public CompletionStage<?> invokeAsync(GlobalComponentRegistry globalComponentRegistry) {
+      PubSubRegistry registry = globalComponentRegistry.getComponent(PubSubRegistry.class);
+      return CompletableFuture.completedFuture(registry == null ? 0 : registry.deliver(channel, message));
+   }
+
+   @Override
+   public byte getCommandId() {
+      return ModuleCommandIds.PUBLISH;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      MarshallUtil.marshallByteArray(channel, output);
+      MarshallUtil.marshallByteArray(message, output);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException {
+      channel = MarshallUtil.unmarshallByteArray(input);
+      message = MarshallUtil.unmarshallByteArray(input);
+   }
+
+   @Override
+   public String toString() {
+      return "PublishCommand{" +
+            "channelLength=" + channel.length +
+            ", messageLength=" + message.length +
+            '}';
+   }
+}
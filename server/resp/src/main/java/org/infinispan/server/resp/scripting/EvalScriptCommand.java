@@ -0,0 +1,126 @@
+package org.infinispan.server.resp.scripting;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import javax.security.auth.Subject;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.security.actions.SecurityActions;
+import org.infinispan.server.resp.ModuleCommandIds;
+import org.infinispan.util.ByteString;
+
+/**
+ * Runs a script on the primary owner of its keys.
+ * <p>
+ * The script runs with the subject of the connection that received it, like the commands of the connection. The response
+ * is the RESP reply of the script.
+ *
+ * @since 15.0
+ */
+public class EvalScriptCommand extends BaseRpcCommand {
+
+   private Subject subject;
+   private String script;
+   private List<byte[]> keys;
+   private List<byte[]> args;
+
+   public EvalScriptCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public EvalScriptCommand(ByteString cacheName, Subject subject, String script, List<byte[]> keys, List<byte[]> args) {
+      super(cacheName);
+      this.subject = subject;
+      this.script = script;
+      this.keys = keys;
+      this.args = args;
+   }
+
+   @Override
+   public CompletionStage<?> invokeAsync(ComponentRegistry componentRegistry) throws Throwable {
+      RespScripting scripting = componentRegistry.getGlobalComponentRegistry().getComponent(RespScripting.class);
+      if (scripting == null) {
+         return CompletableFuture.completedFuture(ScriptReplies.error("ERR scripting is not available"));
+      }
+      AdvancedCache<byte[], byte[]> cache = authorizedCache(componentRegistry);
+      if (!keys.isEmpty()) {
+         // The topology may have changed since the command was sent
+         Object key = cache.getKeyDataConversion().toStorage(keys.get(0));
+         int segment = componentRegistry.getComponent(KeyPartitioner.class).getSegment(key);
+         DistributionManager distributionManager = componentRegistry.getComponent(DistributionManager.class);
+         if (!distributionManager.getCacheTopology().getSegmentDistribution(segment).isPrimary()) {
+            return CompletableFuture.completedFuture(ScriptReplies.error("TRYAGAIN the primary owner of the script keys changed"));
+         }
+      }
+      return CompletableFuture.completedFuture(scripting.run(componentRegistry, cache, script, keys, args));
+   }
+
+   /**
+    * The cache as seen by the connection of the client: secured with its subject, with the media types of the
+    * request handler.
+    */
+   private AdvancedCache<byte[], byte[]> authorizedCache(ComponentRegistry componentRegistry) {
+      EmbeddedCacheManager cacheManager = componentRegistry.getGlobalComponentRegistry()
+            .getComponent(EmbeddedCacheManager.class);
+      Cache<byte[], byte[]> secureCache = SecurityActions.getCache(cacheManager, cacheName.toString());
+      AdvancedCache<byte[], byte[]> cache = secureCache.getAdvancedCache();
+      if (subject != null) {
+         cache = cache.withSubject(subject);
+      }
+      return cache.withMediaType(MediaType.APPLICATION_OCTET_STREAM, MediaType.APPLICATION_OCTET_STREAM);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return ModuleCommandIds.EVAL_SCRIPT;
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeObject(subject);
+      MarshallUtil.marshallString(script, output);
+      MarshallUtil.marshallCollection(keys, output, (out, key) -> MarshallUtil.marshallByteArray(key, out));
+      MarshallUtil.marshallCollection(args, output, (out, arg) -> MarshallUtil.marshallByteArray(arg, out));
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      subject = (Subject) input.readObject();
+      script = MarshallUtil.unmarshallString(input);
+      keys = MarshallUtil.unmarshallCollection(input, ArrayList::new, MarshallUtil::unmarshallByteArray);
+      args = MarshallUtil.unmarshallCollection(input, ArrayList::new, MarshallUtil::unmarshallByteArray);
+   }
+
+   @Override
+   public String toString() {
+      return "EvalScriptCommand{" +
+            "cacheName=" + cacheName +
+            ", keys=" + keys.size() +
+            ", args=" + args.size() +
+            '}';
+   }
+}
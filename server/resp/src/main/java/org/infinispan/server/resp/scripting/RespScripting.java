@@ -0,0 +1,383 @@
+package org.infinispan.server.resp.scripting;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.Subject;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.Util;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionInfo;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.encoding.DataConversion;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.remoting.responses.ValidResponse;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.impl.SingleResponseCollector;
+import org.infinispan.security.actions.SecurityActions;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.locks.LockManager;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LoadState;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.lib.BaseLib;
+import org.luaj.vm2.lib.DebugLib;
+import org.luaj.vm2.lib.PackageLib;
+import org.luaj.vm2.lib.StringLib;
+import org.luaj.vm2.lib.TableLib;
+import org.luaj.vm2.lib.ZeroArgFunction;
+import org.luaj.vm2.lib.jse.JseMathLib;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Server side scripts of the RESP endpoint, for {@code EVAL}, {@code EVALSHA} and {@code SCRIPT}.
+ * <p>
+ * The scripts are cached by the hex SHA1 of their body, like Redis, and run on the LuaJ interpreter. The script sees
+ * the {@code KEYS} and {@code ARGV} tables, and a {@code redis} table whose {@code call} and {@code pcall} functions
+ * run a subset of the string commands, see {@link ScriptBridge}.
+ * <p>
+ * Every execution gets its own sandboxed globals, with only the base, table, string and math libraries. The functions
+ * that load code or reach the file system, the operating system or the Java classes are not available, and the
+ * library tables shared by the executions are read-only. A script that runs longer than {@link #TIME_LIMIT_MILLIS} is
+ * aborted.
+ * <p>
+ * A script runs atomically on the primary owner of its keys, so the keys must map to the same slot. The node that
+ * receives the request forwards the script to the primary owner when needed. The primary owner locks all the keys
+ * before running the script and releases them when it completes, the commands of the script skip the locking.
+ * <p>
+ * There is one instance per cache manager.
+ *
+ * @since 15.0
+ */
+public class RespScripting {
+   public static final long TIME_LIMIT_MILLIS = 5_000;
+   // The scripts of EVAL are only cached for EVALSHA, the oldest ones are evicted like in Redis
+   static final int MAX_EVAL_SCRIPTS = 500;
+   // The time limit is checked every HOOK_INSTRUCTIONS instructions
+   private static final int HOOK_INSTRUCTIONS = 10_000;
+   private static final String[] UNSAFE_GLOBALS = { "load", "loadstring", "loadfile", "dofile", "require", "module",
+         "package", "print", "debug", "collectgarbage" };
+
+   // Compiles the scripts, and holds the libraries that do not depend on the globals of the execution
+   private static final Globals COMPILER;
+   private static final LuaValue TABLE_LIB;
+   private static final LuaValue STRING_LIB;
+   private static final LuaValue MATH_LIB;
+
+   static {
+      Globals globals = new Globals();
+      globals.load(new BaseLib());
+      globals.load(new PackageLib());
+      globals.load(new TableLib());
+      globals.load(new StringLib());
+      globals.load(new JseMathLib());
+      LoadState.install(globals);
+      LuaC.install(globals);
+      COMPILER = globals;
+      TABLE_LIB = new ReadOnlyLuaTable(globals.get("table"));
+      STRING_LIB = new ReadOnlyLuaTable(globals.get("string"));
+      MATH_LIB = new ReadOnlyLuaTable(globals.get("math"));
+      // The methods of the strings, s:upper(), are shared by all the executions
+      LuaString.s_metatable = new ReadOnlyLuaTable(LuaValue.tableOf(new LuaValue[] { LuaValue.INDEX, STRING_LIB }));
+   }
+
+   private final ConcurrentMap<String, String> scripts = new ConcurrentHashMap<>();
+   private final Cache<String, String> evalScripts = Caffeine.newBuilder().maximumSize(MAX_EVAL_SCRIPTS).build();
+   private final Cache<String, Prototype> compiledScripts = Caffeine.newBuilder()
+         .maximumSize(MAX_EVAL_SCRIPTS).build();
+
+   /**
+    * Stores the script in the script cache, where it stays until the cache is flushed.
+    *
+    * @return the hex SHA1 of the script
+    */
+   public String load(String script) {
+      String sha = sha1(script);
+      scripts.putIfAbsent(sha, script);
+      return sha;
+   }
+
+   /**
+    * Stores the script of an {@code EVAL} in the bounded cache of the evaluated scripts.
+    *
+    * @return the hex SHA1 of the script
+    */
+   public String loadEval(String script) {
+      String sha = sha1(script);
+      if (!scripts.containsKey(sha)) {
+         evalScripts.put(sha, script);
+      }
+      return sha;
+   }
+
+   /**
+    * @return the script with the given hex SHA1, or {@code null} if it is not in the script cache
+    */
+   public String get(String sha) {
+      String key = sha.toLowerCase(Locale.ROOT);
+      String script = scripts.get(key);
+      return script != null ? script : evalScripts.getIfPresent(key);
+   }
+
+   public boolean exists(String sha) {
+      return get(sha) != null;
+   }
+
+   public void flush() {
+      scripts.clear();
+      evalScripts.invalidateAll();
+      compiledScripts.invalidateAll();
+   }
+
+   /**
+    * Runs the script on the primary owner of the keys.
+    *
+    * @param cache the cache of the connection, already authorized for the subject
+    * @param subject the subject of the connection, the primary owner runs the script with it, or {@code null}
+    * @return the RESP reply of the script
+    */
+   public CompletionStage<byte[]> eval(AdvancedCache<byte[], byte[]> cache, Subject subject, String script,
+                                       List<byte[]> keys, List<byte[]> args) {
+      ComponentRegistry cr = SecurityActions.getCacheComponentRegistry(cache);
+      if (keys.isEmpty()) {
+         return runBlocking(cr, cache, script, keys, args);
+      }
+      DataConversion keyConversion = cache.getKeyDataConversion();
+      Object firstKey = keyConversion.toStorage(keys.get(0));
+      DistributionManager distributionManager = cr.getComponent(DistributionManager.class);
+      if (distributionManager == null) {
+         return runBlocking(cr, cache, script, keys, args);
+      }
+      KeyPartitioner keyPartitioner = cr.getComponent(KeyPartitioner.class);
+      int segment = keyPartitioner.getSegment(firstKey);
+      for (int i = 1; i < keys.size(); i++) {
+         if (keyPartitioner.getSegment(keyConversion.toStorage(keys.get(i))) != segment) {
+            return CompletableFuture.completedFuture(ScriptReplies.error("CROSSSLOT Keys in request don't hash to the same slot"));
+         }
+      }
+      DistributionInfo info = distributionManager.getCacheTopology().getSegmentDistribution(segment);
+      if (info.isPrimary()) {
+         return runBlocking(cr, cache, script, keys, args);
+      }
+      RpcManager rpcManager = cr.getComponent(RpcManager.class);
+      EvalScriptCommand command = new EvalScriptCommand(ByteString.fromString(cache.getName()), subject, script, keys,
+            args);
+      return rpcManager.invokeCommand(info.primary(), command, SingleResponseCollector.validOnly(),
+            rpcManager.getSyncRpcOptions()).thenApply(response -> (byte[]) ((ValidResponse) response).getResponseValue());
+   }
+
+   private CompletionStage<byte[]> runBlocking(ComponentRegistry cr, AdvancedCache<byte[], byte[]> cache,
+                                               String script, List<byte[]> keys, List<byte[]> args) {
+      BlockingManager blockingManager = cr.getComponent(BlockingManager.class);
+      return blockingManager.supplyBlocking(() -> run(cr, cache, script, keys, args), "resp-eval");
+   }
+
+   /**
+    * Runs the script on this node, holding the locks of all the keys. Must not be invoked on a non-blocking thread.
+    */
+   byte[] run(ComponentRegistry cr, AdvancedCache<byte[], byte[]> cache, String script, List<byte[]> keys,
+              List<byte[]> args) {
+      Prototype prototype;
+      try {
+         prototype = compile(script);
+      } catch (LuaError e) {
+         return ScriptReplies.error("ERR Error compiling script: " + e.getMessage());
+      }
+      LockManager lockManager = cr.getComponent(LockManager.class);
+      DataConversion keyConversion = cache.getKeyDataConversion();
+      List<Object> lockedKeys = new ArrayList<>(keys.size());
+      Set<WrappedByteArray> declaredKeys = new HashSet<>(keys.size() * 2);
+      for (byte[] key : keys) {
+         lockedKeys.add(keyConversion.toStorage(key));
+         declaredKeys.add(new WrappedByteArray(key));
+      }
+      Object lockOwner = new Object();
+      if (!lockedKeys.isEmpty()) {
+         long timeout = cache.getCacheConfiguration().locking().lockAcquisitionTimeout();
+         try {
+            lockManager.lockAll(lockedKeys, lockOwner, timeout, TimeUnit.MILLISECONDS).lock();
+         } catch (InterruptedException e) {
+            // Some of the locks may be acquired already
+            lockManager.unlockAll(lockedKeys, lockOwner);
+            Thread.currentThread().interrupt();
+            return ScriptReplies.error("ERR interrupted while locking the script keys");
+         } catch (Exception e) {
+            lockManager.unlockAll(lockedKeys, lockOwner);
+            return ScriptReplies.error("BUSY unable to lock the script keys: " + e.getMessage());
+         }
+      }
+      try {
+         // The locks are held by this thread, the commands of the script must not try to acquire them again
+         ScriptBridge bridge = new ScriptBridge(cache.withFlags(Flag.SKIP_LOCKING), declaredKeys);
+         Globals globals = sandbox(bridge, keys, args);
+         Varargs result = new LuaClosure(prototype, globals).invoke();
+         return ScriptReplies.toResp(result.arg1());
+      } catch (ScriptBridge.ScriptCallException e) {
+         return ScriptReplies.error(e.reply());
+      } catch (TimeLimitExceeded e) {
+         return ScriptReplies.error("ERR Error running script: the script exceeded the time limit of "
+               + TIME_LIMIT_MILLIS + " ms");
+      } catch (LuaError e) {
+         return ScriptReplies.error("ERR Error running script: " + e.getMessage());
+      } catch (StackOverflowError e) {
+         return ScriptReplies.error("ERR Error running script: stack overflow");
+      } finally {
+         if (!lockedKeys.isEmpty()) {
+            lockManager.unlockAll(lockedKeys, lockOwner);
+         }
+      }
+   }
+
+   private Prototype compile(String script) {
+      return compiledScripts.get(sha1(script), sha -> {
+         byte[] bytes = script.getBytes(StandardCharsets.UTF_8);
+         try {
+            return COMPILER.compilePrototype(new ByteArrayInputStream(bytes), "@user_script");
+         } catch (IOException e) {
+            throw new LuaError(e);
+         }
+      });
+   }
+
+   /**
+    * Creates the globals of an execution, with only the functions that cannot escape the sandbox.
+    */
+   private static Globals sandbox(ScriptBridge bridge, List<byte[]> keys, List<byte[]> args) {
+      Globals globals = new Globals();
+      globals.load(new BaseLib());
+      // The debug library needs the package library, both are removed once the hook is installed
+      globals.load(new PackageLib());
+      globals.load(new DebugLib());
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIME_LIMIT_MILLIS);
+      globals.get("debug").get("sethook").invoke(LuaValue.varargsOf(new TimeLimitHook(deadline), LuaValue.EMPTYSTRING,
+            LuaValue.valueOf(HOOK_INSTRUCTIONS)));
+      for (String name : UNSAFE_GLOBALS) {
+         globals.set(name, LuaValue.NIL);
+      }
+      globals.set("table", TABLE_LIB);
+      globals.set("string", STRING_LIB);
+      globals.set("math", MATH_LIB);
+      globals.set("redis", bridge.toLuaTable());
+      globals.set("KEYS", toLuaTable(keys));
+      globals.set("ARGV", toLuaTable(args));
+      return globals;
+   }
+
+   private static LuaTable toLuaTable(List<byte[]> values) {
+      // Lua strings are binary safe, unlike the Java strings
+      LuaValue[] strings = new LuaValue[values.size()];
+      for (int i = 0; i < strings.length; i++) {
+         strings[i] = LuaValue.valueOf(values.get(i));
+      }
+      return LuaValue.listOf(strings);
+   }
+
+   public static String sha1(String script) {
+      try {
+         MessageDigest digest = MessageDigest.getInstance("SHA-1");
+         return Util.toHexString(digest.digest(script.getBytes(StandardCharsets.UTF_8))).toLowerCase(Locale.ROOT);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   /**
+    * Aborts the script once the deadline is reached. It throws an {@link Error} so that {@code pcall} in the script
+    * cannot catch it.
+    */
+   private static final class TimeLimitHook extends ZeroArgFunction {
+      private final long deadline;
+
+      TimeLimitHook(long deadline) {
+         this.deadline = deadline;
+      }
+
+      @Override
+      public LuaValue call() {
+         if (System.nanoTime() - deadline > 0) {
+            throw new TimeLimitExceeded();
+         }
+         return NIL;
+      }
+   }
+
+   private static final class TimeLimitExceeded extends Error {
+      TimeLimitExceeded() {
+         super(null, null, false, false);
+      }
+   }
+
+   /**
+    * A copy of a library table that the scripts cannot modify.
+    */
+   static final class ReadOnlyLuaTable extends LuaTable {
+      ReadOnlyLuaTable(LuaValue table) {
+         presize(table.length(), 0);
+         for (Varargs n = table.next(NIL); !n.arg1().isnil(); n = table.next(n.arg1())) {
+            LuaValue value = n.arg(2);
+            super.rawset(n.arg1(), value.istable() ? new ReadOnlyLuaTable(value) : value);
+         }
+      }
+
+      @Override
+      public LuaValue setmetatable(LuaValue metatable) {
+         return error("table is read-only");
+      }
+
+      @Override
+      public void set(int key, LuaValue value) {
+         error("table is read-only");
+      }
+
+      @Override
+      public void rawset(int key, LuaValue value) {
+         error("table is read-only");
+      }
+
+      @Override
+      public void rawset(LuaValue key, LuaValue value) {
+         error("table is read-only");
+      }
+
+      @Override
+      public LuaValue remove(int pos) {
+         return error("table is read-only");
+      }
+
+      @Override
+      public void insert(int pos, LuaValue value) {
+         error("table is read-only");
+      }
+
+      @Override
+      public void sort(LuaValue comparator) {
+         error("table is read-only");
+      }
+   }
+}
@@ -0,0 +1,228 @@
+package org.infinispan.server.resp.scripting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaInteger;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.OneArgFunction;
+import org.luaj.vm2.lib.VarArgFunction;
+
+/**
+ * The {@code redis} table seen by the scripts.
+ * <p>
+ * The commands run synchronously against the cache while the {@link RespScripting} holds the locks of the keys, so
+ * they can only use the keys declared in {@code KEYS}. Only a subset of the string commands is available. The table
+ * only holds Lua functions, the scripts cannot reach this object.
+ *
+ * @since 15.0
+ */
+class ScriptBridge {
+   private final AdvancedCache<byte[], byte[]> cache;
+   private final Set<WrappedByteArray> declaredKeys;
+
+   ScriptBridge(AdvancedCache<byte[], byte[]> cache, Set<WrappedByteArray> declaredKeys) {
+      this.cache = cache;
+      this.declaredKeys = declaredKeys;
+   }
+
+   LuaTable toLuaTable() {
+      LuaTable redis = new LuaTable();
+      // An error aborts the script
+      redis.set("call", new VarArgFunction() {
+         @Override
+         public Varargs invoke(Varargs arguments) {
+            return execute(arguments);
+         }
+      });
+      // An error is returned to the script as an error reply
+      redis.set("pcall", new VarArgFunction() {
+         @Override
+         public Varargs invoke(Varargs arguments) {
+            try {
+               return execute(arguments);
+            } catch (ScriptCallException e) {
+               return reply("err", e.reply());
+            }
+         }
+      });
+      redis.set("sha1hex", new OneArgFunction() {
+         @Override
+         public LuaValue call(LuaValue value) {
+            return valueOf(RespScripting.sha1(value.checkjstring()));
+         }
+      });
+      redis.set("error_reply", new OneArgFunction() {
+         @Override
+         public LuaValue call(LuaValue message) {
+            return reply("err", message.checkjstring());
+         }
+      });
+      redis.set("status_reply", new OneArgFunction() {
+         @Override
+         public LuaValue call(LuaValue message) {
+            return reply("ok", message.checkjstring());
+         }
+      });
+      return redis;
+   }
+
+   private static LuaTable reply(String type, String message) {
+      LuaTable reply = new LuaTable();
+      reply.set(type, message);
+      return reply;
+   }
+
+   private LuaValue execute(Varargs arguments) {
+      int count = arguments.narg();
+      if (count == 0) {
+         throw new ScriptCallException("ERR Please specify at least one argument for this redis lib call");
+      }
+      String command = new String(bytes(arguments.arg1()), StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+      switch (command) {
+         case "GET": {
+            checkArity(command, count, 2);
+            // Like Redis, a missing key is false and a value is a binary safe Lua string
+            byte[] value = cache.get(key(arguments.arg(2)));
+            return value == null ? LuaValue.FALSE : LuaValue.valueOf(value);
+         }
+         case "SET":
+            checkArity(command, count, 3);
+            cache.put(key(arguments.arg(2)), bytes(arguments.arg(3)));
+            return reply("ok", "OK");
+         case "DEL": {
+            checkMinArity(command, count, 2);
+            long removed = 0;
+            for (int i = 2; i <= count; i++) {
+               if (cache.remove(key(arguments.arg(i))) != null) {
+                  removed++;
+               }
+            }
+            return LuaInteger.valueOf(removed);
+         }
+         case "EXISTS": {
+            checkMinArity(command, count, 2);
+            long found = 0;
+            for (int i = 2; i <= count; i++) {
+               if (cache.containsKey(key(arguments.arg(i)))) {
+                  found++;
+               }
+            }
+            return LuaInteger.valueOf(found);
+         }
+         case "INCR":
+            checkArity(command, count, 2);
+            return LuaInteger.valueOf(incrementBy(key(arguments.arg(2)), 1));
+         case "DECR":
+            checkArity(command, count, 2);
+            return LuaInteger.valueOf(incrementBy(key(arguments.arg(2)), -1));
+         case "INCRBY":
+            checkArity(command, count, 3);
+            return LuaInteger.valueOf(incrementBy(key(arguments.arg(2)), parseLong(bytes(arguments.arg(3)))));
+         case "DECRBY":
+            checkArity(command, count, 3);
+            return LuaInteger.valueOf(incrementBy(key(arguments.arg(2)), -parseLong(bytes(arguments.arg(3)))));
+         case "APPEND": {
+            checkArity(command, count, 3);
+            byte[] key = key(arguments.arg(2));
+            byte[] appendix = bytes(arguments.arg(3));
+            byte[] current = cache.get(key);
+            byte[] value;
+            if (current == null) {
+               value = appendix;
+            } else {
+               value = new byte[current.length + appendix.length];
+               System.arraycopy(current, 0, value, 0, current.length);
+               System.arraycopy(appendix, 0, value, current.length, appendix.length);
+            }
+            cache.put(key, value);
+            return LuaInteger.valueOf(value.length);
+         }
+         default:
+            throw new ScriptCallException("ERR Unknown Redis command called from script: " + command);
+      }
+   }
+
+   private long incrementBy(byte[] key, long increment) {
+      byte[] current = cache.get(key);
+      long value = current == null ? 0 : parseLong(current);
+      value += increment;
+      cache.put(key, Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+      return value;
+   }
+
+   private byte[] key(LuaValue argument) {
+      byte[] key = bytes(argument);
+      if (!declaredKeys.contains(new WrappedByteArray(key))) {
+         throw new ScriptCallException("ERR Script attempted to access a key not declared in KEYS: "
+               + new String(key, StandardCharsets.UTF_8));
+      }
+      return key;
+   }
+
+   private static byte[] bytes(LuaValue argument) {
+      switch (argument.type()) {
+         case LuaValue.TSTRING:
+            // Lua strings are binary safe
+            LuaString string = argument.checkstring();
+            byte[] bytes = new byte[string.rawlen()];
+            string.copyInto(0, bytes, 0, bytes.length);
+            return bytes;
+         case LuaValue.TNUMBER:
+            // Integral numbers have no decimal part, like Redis
+            return argument.tojstring().getBytes(StandardCharsets.US_ASCII);
+         default:
+            throw new ScriptCallException("ERR Lua redis lib command arguments must be strings or integers");
+      }
+   }
+
+   private static long parseLong(byte[] value) {
+      try {
+         return Long.parseLong(new String(value, StandardCharsets.US_ASCII));
+      } catch (NumberFormatException e) {
+         throw new ScriptCallException("ERR value is not an integer or out of range");
+      }
+   }
+
+   private static void checkArity(String command, int count, int arity) {
+      if (count != arity) {
+         throw wrongArity(command);
+      }
+   }
+
+   private static void checkMinArity(String command, int count, int arity) {
+      if (count < arity) {
+         throw wrongArity(command);
+      }
+   }
+
+   private static ScriptCallException wrongArity(String command) {
+      return new ScriptCallException("ERR wrong number of arguments for '" + command.toLowerCase(Locale.ROOT) + "' command");
+   }
+
+   /**
+    * An error raised by a command invoked by the script. The script can catch it with {@code pcall}, like any Lua error.
+    */
+   static class ScriptCallException extends LuaError {
+      private final String reply;
+
+      ScriptCallException(String reply) {
+         super(reply);
+         this.reply = reply;
+      }
+
+      /**
+       * @return the RESP error, without the position in the script
+       */
+      String reply() {
+         return reply;
+      }
+   }
+}
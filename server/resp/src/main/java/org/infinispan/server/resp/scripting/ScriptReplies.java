@@ -0,0 +1,85 @@
+package org.infinispan.server.resp.scripting;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * Converts the values returned by the scripts to RESP replies.
+ * <p>
+ * The conversion follows the Lua to RESP conversion of Redis: numbers become integers (truncated), {@code true} is
+ * the integer 1 and {@code false} or {@code nil} the null bulk string, strings are bulk strings, tables are arrays of
+ * their elements up to the first nil, and the tables with an {@code err} or {@code ok} field are error and status
+ * replies.
+ *
+ * @since 15.0
+ */
+final class ScriptReplies {
+
+   private ScriptReplies() { }
+
+   static byte[] error(String message) {
+      return ("-" + message + "\r\n").getBytes(StandardCharsets.UTF_8);
+   }
+
+   static byte[] toResp(LuaValue value) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      write(value, out);
+      return out.toByteArray();
+   }
+
+   private static void write(LuaValue value, ByteArrayOutputStream out) {
+      switch (value.type()) {
+         case LuaValue.TBOOLEAN:
+            writeAscii(value.toboolean() ? ":1\r\n" : "$-1\r\n", out);
+            break;
+         case LuaValue.TNUMBER:
+            writeAscii(":" + value.tolong() + "\r\n", out);
+            break;
+         case LuaValue.TSTRING:
+            LuaString string = value.checkstring();
+            byte[] bytes = new byte[string.rawlen()];
+            string.copyInto(0, bytes, 0, bytes.length);
+            writeBulk(bytes, out);
+            break;
+         case LuaValue.TTABLE:
+            LuaValue err = value.get("err");
+            LuaValue ok = value.get("ok");
+            if (!err.isnil()) {
+               writeUtf8("-" + err.tojstring() + "\r\n", out);
+            } else if (!ok.isnil()) {
+               writeUtf8("+" + ok.tojstring() + "\r\n", out);
+            } else {
+               // The conversion stops at the first nil, like Redis
+               int size = 0;
+               while (!value.get(size + 1).isnil()) {
+                  size++;
+               }
+               writeAscii("*" + size + "\r\n", out);
+               for (int i = 1; i <= size; i++) {
+                  write(value.get(i), out);
+               }
+            }
+            break;
+         default:
+            // nil, and the values without a RESP equivalent, like the functions
+            writeAscii("$-1\r\n", out);
+      }
+   }
+
+   private static void writeBulk(byte[] value, ByteArrayOutputStream out) {
+      writeAscii("$" + value.length + "\r\n", out);
+      out.writeBytes(value);
+      writeAscii("\r\n", out);
+   }
+
+   private static void writeAscii(String value, ByteArrayOutputStream out) {
+      out.writeBytes(value.getBytes(StandardCharsets.US_ASCII));
+   }
+
+   private static void writeUtf8(String value, ByteArrayOutputStream out) {
+      out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+   }
+}
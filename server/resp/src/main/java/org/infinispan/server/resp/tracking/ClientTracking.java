@@ -0,0 +1,123 @@
+package org.infinispan.server.resp.tracking;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.server.resp.RespCommand;
+
+import io.netty.channel.Channel;
+
+/**
+ * Server assisted client side caching, the {@code CLIENT TRACKING} command.
+ * <p>
+ * In the default mode the keys read by a connection are recorded in the {@link TrackingTable} of the cache, and the
+ * connection receives an invalidation message when one of them is modified. In the broadcast mode the connection
+ * receives the invalidation messages of all the keys starting with one of its prefixes, and the table does not record
+ * the keys it reads. The messages are RESP3 {@code invalidate} pushes, or {@code __redis__:invalidate} messages to the
+ * redirect connection.
+ * <p>
+ * There is one instance per RESP server, and one table per cache used by the connections with tracking enabled. The
+ * table and its listener are removed when the last connection using the cache disables tracking.
+ *
+ * @since 15.0
+ */
+public class ClientTracking {
+   // The commands that only read their keys, the keys of the other commands are not tracked
+   private static final Set<String> READ_COMMANDS = Set.of(
+         "GET", "MGET", "GETRANGE", "STRLEN", "EXISTS", "TYPE", "TTL", "PTTL", "EXPIRETIME", "PEXPIRETIME",
+         "HGET", "HGETALL", "HMGET", "HKEYS", "HVALS", "HLEN", "HEXISTS", "HRANDFIELD",
+         "LINDEX", "LLEN", "LRANGE", "LPOS",
+         "SMEMBERS", "SISMEMBER", "SCARD", "SRANDMEMBER", "SINTER", "SUNION", "SDIFF",
+         "ZCARD", "ZCOUNT", "ZRANGE", "ZRANGEBYSCORE", "ZRANGEBYLEX", "ZREVRANGE", "ZREVRANGEBYSCORE",
+         "ZREVRANGEBYLEX", "ZRANK", "ZREVRANK", "ZSCORE", "ZMSCORE", "ZLEXCOUNT", "ZRANDMEMBER");
+
+   private final int maxKeys;
+   private final ConcurrentMap<String, TrackingTable> tables = new ConcurrentHashMap<>();
+
+   public ClientTracking(int maxKeys) {
+      this.maxKeys = maxKeys;
+   }
+
+   /**
+    * Enables the tracking of the connection on the cache. The stage completes when the modifications of the cache
+    * are listened to.
+    */
+   public CompletionStage<Void> enable(AdvancedCache<byte[], byte[]> cache, TrackingState state) {
+      TrackingTable table = tables.compute(cache.getName(), (ignore, current) -> {
+         TrackingTable t = current == null ? new TrackingTable(cache, maxKeys) : current;
+         t.add(state);
+         return t;
+      });
+      Channel channel = state.channel();
+      channel.closeFuture().addListener(ignore -> disable(state));
+      return table.started();
+   }
+
+   public void disable(TrackingState state) {
+      for (String name : tables.keySet()) {
+         tables.computeIfPresent(name, (ignore, table) -> {
+            if (table.remove(state)) {
+               table.stop();
+               return null;
+            }
+            return table;
+         });
+      }
+   }
+
+   /**
+    * Records the keys read by the command, before it runs.
+    */
+   public void beforeCommand(AdvancedCache<byte[], byte[]> cache, TrackingState state, RespCommand command,
+                             List<byte[]> arguments) {
+      if ("CLIENT".equals(command.getName())) {
+         // CLIENT CACHING applies to the command that follows
+         return;
+      }
+      boolean track = state.tracksNextCommand();
+      state.caching(null);
+      if (!track || !READ_COMMANDS.contains(command.getName())) {
+         return;
+      }
+      TrackingTable table = tables.get(cache.getName());
+      if (table == null) {
+         return;
+      }
+      int first = command.getFirstKeyPos();
+      int end = command.getLastKeyPos() < 0 ? arguments.size() : Math.min(command.getLastKeyPos(), arguments.size());
+      for (int i = first - 1; i < end; i += command.getSteps()) {
+         table.track(arguments.get(i), state);
+      }
+   }
+
+   /**
+    * Sends the invalidation of all the keys of the cache, when it is cleared.
+    */
+   public void flush(AdvancedCache<byte[], byte[]> cache) {
+      TrackingTable table = tables.get(cache.getName());
+      if (table != null) {
+         table.invalidateAll();
+      }
+   }
+
+   /**
+    * @return the number of keys tracked in the cache
+    */
+   public int trackedKeys(AdvancedCache<byte[], byte[]> cache) {
+      TrackingTable table = tables.get(cache.getName());
+      return table == null ? 0 : table.size();
+   }
+
+   public CompletionStage<Void> stop() {
+      CompletableFuture<?>[] stages = tables.values().stream()
+            .map(table -> table.stop().toCompletableFuture())
+            .toArray(CompletableFuture[]::new);
+      tables.clear();
+      return CompletableFuture.allOf(stages);
+   }
+}
@@ -0,0 +1,93 @@
+package org.infinispan.server.resp.tracking;
+
+import java.util.List;
+
+import io.netty.channel.Channel;
+
+/**
+ * The {@code CLIENT TRACKING} options of a connection.
+ *
+ * @since 15.0
+ */
+public final class TrackingState {
+   private final Channel channel;
+   private final Channel redirect;
+   private final boolean broadcast;
+   private final List<byte[]> prefixes;
+   private final boolean optIn;
+   private final boolean optOut;
+   private volatile Boolean caching;
+   private volatile boolean redirectBroken;
+
+   public TrackingState(Channel channel, Channel redirect, boolean broadcast, List<byte[]> prefixes, boolean optIn,
+                        boolean optOut) {
+      this.channel = channel;
+      this.redirect = redirect;
+      this.broadcast = broadcast;
+      this.prefixes = prefixes;
+      this.optIn = optIn;
+      this.optOut = optOut;
+   }
+
+   public Channel channel() {
+      return channel;
+   }
+
+   /**
+    * @return the connection receiving the invalidation messages, or {@code null} if they are pushed to this connection
+    */
+   public Channel redirect() {
+      return redirect;
+   }
+
+   public boolean isBroadcast() {
+      return broadcast;
+   }
+
+   public List<byte[]> prefixes() {
+      return prefixes;
+   }
+
+   public boolean isOptIn() {
+      return optIn;
+   }
+
+   public boolean isOptOut() {
+      return optOut;
+   }
+
+   /**
+    * @return the {@code CLIENT CACHING} value for the next command, or {@code null} if it was not set
+    */
+   public Boolean caching() {
+      return caching;
+   }
+
+   public void caching(Boolean caching) {
+      this.caching = caching;
+   }
+
+   public boolean isRedirectBroken() {
+      return redirectBroken;
+   }
+
+   void redirectBroken() {
+      this.redirectBroken = true;
+   }
+
+   /**
+    * @return {@code true} if the keys read by the next command must be tracked
+    */
+   boolean tracksNextCommand() {
+      if (broadcast) {
+         return false;
+      }
+      if (optIn) {
+         return Boolean.TRUE.equals(caching);
+      }
+      if (optOut) {
+         return !Boolean.FALSE.equals(caching);
+      }
+      return true;
+   }
+}
@@ -0,0 +1,239 @@
+package org.infinispan.server.resp.tracking;
+
+import static org.infinispan.server.resp.RespConstants.CRLF;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.server.core.transport.ConnectionMetadata;
+import org.infinispan.server.resp.ByteBufferUtils;
+import org.infinispan.server.resp.filter.IgnoreValueConverter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * The keys of a cache read by the connections with client tracking enabled, and the broadcast registrations.
+ * <p>
+ * A clustered listener receives the modifications of all the nodes. A modified key is removed from the table and an
+ * invalidation message is sent to the connections that read it, the key is tracked again when it is read again. The
+ * number of keys is bounded, when the limit is reached the table evicts keys and sends their invalidation messages,
+ * like the Redis tracking table.
+ * <p>
+ * The table records the connections with tracking enabled on the cache, and it is stopped with its listener once the
+ * last of them disables tracking or is closed.
+ *
+ * @since 15.0
+ */
+class TrackingTable {
+   private static final byte[] PUSH_PREFIX = ">2\r\n$10\r\ninvalidate\r\n".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] MESSAGE_PREFIX = "*3\r\n$7\r\nmessage\r\n$20\r\n__redis__:invalidate\r\n"
+         .getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] NULL = "_\r\n".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] NULL_ARRAY = "*-1\r\n".getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] REDIR_BROKEN = ">2\r\n$21\r\ntracking-redir-broken\r\n".getBytes(StandardCharsets.US_ASCII);
+
+   private final AdvancedCache<byte[], byte[]> cache;
+   private final int maxKeys;
+   private final ConcurrentMap<WrappedByteArray, Set<TrackingState>> keys = new ConcurrentHashMap<>();
+   private final Set<TrackingState> connections = ConcurrentHashMap.newKeySet();
+   private final Set<TrackingState> broadcasts = ConcurrentHashMap.newKeySet();
+   private final AtomicInteger size = new AtomicInteger();
+   private final InvalidationListener listener = new InvalidationListener();
+   private final CompletionStage<Void> started;
+
+   TrackingTable(AdvancedCache<byte[], byte[]> cache, int maxKeys) {
+      this.cache = cache;
+      this.maxKeys = maxKeys;
+      this.started = cache.addListenerAsync(listener, null, new IgnoreValueConverter());
+   }
+
+   /**
+    * @return a stage that completes when the listener is installed
+    */
+   CompletionStage<Void> started() {
+      return started;
+   }
+
+   CompletionStage<Void> stop() {
+      // The listener may still be installing when the last connection leaves
+      return started.handle((ignore, t) -> null).thenCompose(ignore -> cache.removeListenerAsync(listener));
+   }
+
+   void add(TrackingState state) {
+      connections.add(state);
+      if (state.isBroadcast()) {
+         broadcasts.add(state);
+      }
+   }
+
+   /**
+    * @return {@code true} if no connection has tracking enabled on the cache anymore
+    */
+   boolean remove(TrackingState state) {
+      // The keys read by the connection are removed lazily, when they are invalidated or evicted
+      connections.remove(state);
+      broadcasts.remove(state);
+      return connections.isEmpty();
+   }
+
+   int size() {
+      return size.get();
+   }
+
+   void track(byte[] key, TrackingState state) {
+      boolean[] added = new boolean[1];
+      keys.compute(new WrappedByteArray(key), (ignore, current) -> {
+         Set<TrackingState> set = current;
+         if (set == null) {
+            set = ConcurrentHashMap.newKeySet();
+            added[0] = true;
+         }
+         set.add(state);
+         return set;
+      });
+      if (added[0] && size.incrementAndGet() > maxKeys) {
+         evict();
+      }
+   }
+
+   private void evict() {
+      Iterator<WrappedByteArray> iterator = keys.keySet().iterator();
+      while (size.get() > maxKeys && iterator.hasNext()) {
+         invalidate(iterator.next());
+      }
+   }
+
+   void invalidate(WrappedByteArray key) {
+      Set<TrackingState> states = keys.remove(key);
+      if (states != null) {
+         size.decrementAndGet();
+         for (TrackingState state : states) {
+            send(state, key.getBytes());
+         }
+      }
+      if (!broadcasts.isEmpty()) {
+         byte[] bytes = key.getBytes();
+         for (TrackingState state : broadcasts) {
+            if (matchesPrefix(state, bytes)) {
+               send(state, bytes);
+            }
+         }
+      }
+   }
+
+   /**
+    * Sends the invalidation of all the keys, when the cache is cleared.
+    */
+   void invalidateAll() {
+      Set<TrackingState> states = ConcurrentHashMap.newKeySet();
+      for (Iterator<Set<TrackingState>> iterator = keys.values().iterator(); iterator.hasNext(); ) {
+         states.addAll(iterator.next());
+         iterator.remove();
+         size.decrementAndGet();
+      }
+      states.addAll(broadcasts);
+      for (TrackingState state : states) {
+         send(state, null);
+      }
+   }
+
+   private static boolean matchesPrefix(TrackingState state, byte[] key) {
+      if (state.prefixes().isEmpty()) {
+         return true;
+      }
+      for (byte[] prefix : state.prefixes()) {
+         if (startsWith(key, prefix)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   static boolean startsWith(byte[] key, byte[] prefix) {
+      if (prefix.length > key.length) {
+         return false;
+      }
+      for (int i = 0; i < prefix.length; i++) {
+         if (key[i] != prefix[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static void send(TrackingState state, byte[] key) {
+      Channel channel = state.channel();
+      if (!channel.isActive()) {
+         return;
+      }
+      Channel redirect = state.redirect();
+      if (redirect == null) {
+         channel.writeAndFlush(encode(channel, PUSH_PREFIX, key), channel.voidPromise());
+      } else if (redirect.isActive()) {
+         // The redirect connection is subscribed to the __redis__:invalidate channel
+         redirect.writeAndFlush(encode(redirect, MESSAGE_PREFIX, key), redirect.voidPromise());
+      } else if (!state.isRedirectBroken()) {
+         state.redirectBroken();
+         ByteBuf buf = channel.alloc().buffer(REDIR_BROKEN.length + 24);
+         buf.writeBytes(REDIR_BROKEN);
+         buf.writeByte(':');
+         ByteBufferUtils.writeInt(buf, ConnectionMetadata.getInstance(redirect).id());
+         buf.writeBytes(CRLF);
+         channel.writeAndFlush(buf, channel.voidPromise());
+      }
+   }
+
+   private static ByteBuf encode(Channel channel, byte[] prefix, byte[] key) {
+      if (key == null) {
+         // A null invalidates all the keys
+         byte[] none = prefix == PUSH_PREFIX ? NULL : NULL_ARRAY;
+         ByteBuf buf = channel.alloc().buffer(prefix.length + none.length);
+         buf.writeBytes(prefix);
+         buf.writeBytes(none);
+         return buf;
+      }
+      // prefix + *1\r\n + $ + key length + \r\n + key + \r\n
+      int keySize = ByteBufferUtils.stringSize(key.length);
+      int byteSize = prefix.length + 4 + 1 + keySize + 2 + key.length + 2;
+      ByteBuf buf = channel.alloc().buffer(byteSize, byteSize);
+      buf.writeBytes(prefix);
+      buf.writeByte('*');
+      buf.writeByte('1');
+      buf.writeBytes(CRLF);
+      buf.writeByte('$');
+      ByteBufferUtils.setIntChars(key.length, keySize, buf);
+      buf.writeBytes(CRLF);
+      buf.writeBytes(key);
+      buf.writeBytes(CRLF);
+      return buf;
+   }
+
+   @Listener(clustered = true)
+   public class InvalidationListener {
+
+      @CacheEntryCreated
+      @CacheEntryModified
+      @CacheEntryExpired
+      @CacheEntryRemoved
+      public CompletionStage<Void> onEvent(CacheEntryEvent<Object, Object> event) {
+         Object key = event.getKey();
+         invalidate(key instanceof WrappedByteArray ? (WrappedByteArray) key : new WrappedByteArray((byte[]) key));
+         return CompletableFutures.completedNull();
+      }
+   }
+}
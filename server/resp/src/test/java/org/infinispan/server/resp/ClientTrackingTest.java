@@ -0,0 +1,83 @@
+package org.infinispan.server.resp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.infinispan.server.resp.test.RespTestingUtil.OK;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.StringCodec;
+
+@Test(groups = "functional", testName = "server.resp.ClientTrackingTest")
+public class ClientTrackingTest extends SingleNodeRespBaseTest {
+
+   public void testInvalidationOfReadKey() throws InterruptedException {
+      BlockingQueue<PushMessage> messages = new LinkedBlockingQueue<>();
+      redisConnection.addListener(messages::add);
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.clientTracking(TrackingArgs.Builder.enabled())).isEqualTo(OK);
+      assertThat(redis.clientGetredir()).isZero();
+
+      redis.set("tracked", "v1");
+      assertThat(redis.get("tracked")).isEqualTo("v1");
+
+      try (StatefulRedisConnection<String, String> other = client.connect()) {
+         other.sync().set("tracked", "v2");
+         other.sync().set("not-tracked", "v2");
+      }
+
+      PushMessage message = messages.poll(10, TimeUnit.SECONDS);
+      assertThat(message).isNotNull();
+      assertThat(message.getType()).isEqualTo("invalidate");
+      assertThat(message.getContent(StringCodec.UTF8::decodeKey).toString()).contains("tracked").doesNotContain("not-tracked");
+
+      assertThat(redis.clientTracking(TrackingArgs.Builder.enabled(false))).isEqualTo(OK);
+      assertThat(redis.clientGetredir()).isEqualTo(-1);
+   }
+
+   public void testListenerRemovedWithLastConnection() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      try (StatefulRedisConnection<String, String> other = client.connect()) {
+         assertThat(redis.clientTracking(TrackingArgs.Builder.enabled())).isEqualTo(OK);
+         assertThat(other.sync().clientTracking(TrackingArgs.Builder.enabled().bcast())).isEqualTo(OK);
+         assertThat(invalidationListeners()).isEqualTo(1);
+
+         assertThat(redis.clientTracking(TrackingArgs.Builder.enabled(false))).isEqualTo(OK);
+         assertThat(invalidationListeners()).isEqualTo(1);
+      }
+      // The last connection with tracking enabled is closed
+      eventually(() -> invalidationListeners() == 0);
+   }
+
+   private long invalidationListeners() {
+      return cache.getAdvancedCache().getListeners().stream()
+            .filter(l -> l.getClass().getSimpleName().equals("InvalidationListener"))
+            .count();
+   }
+
+   public void testBroadcastPrefix() throws InterruptedException {
+      StatefulRedisConnection<String, String> connection = client.connect();
+      try {
+         BlockingQueue<PushMessage> messages = new LinkedBlockingQueue<>();
+         connection.addListener(messages::add);
+         RedisCommands<String, String> redis = connection.sync();
+         assertThat(redis.clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes("feature:"))).isEqualTo(OK);
+
+         redisConnection.sync().set("config:a", "1");
+         redisConnection.sync().set("feature:a", "1");
+
+         PushMessage message = messages.poll(10, TimeUnit.SECONDS);
+         assertThat(message).isNotNull();
+         assertThat(message.getContent(StringCodec.UTF8::decodeKey).toString()).contains("feature:a").doesNotContain("config:a");
+      } finally {
+         connection.close();
+      }
+   }
+}
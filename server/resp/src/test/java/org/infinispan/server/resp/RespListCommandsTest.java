@@ -4,11 +4,14 @@
 import io.lettuce.core.LMoveArgs;
 import io.lettuce.core.LPosArgs;
 import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static io.lettuce.core.LMPopArgs.Builder.left;
 import static io.lettuce.core.LMPopArgs.Builder.right;
@@ -387,4 +390,61 @@ public void testLMPOP() {
       assertThat(redis.exists("leads")).isEqualTo(0);
       assertWrongType(() -> redis.set("another", "tristan"), () -> redis.lmpop(left(), "another"));
    }
+
+   public void testBLPOPAndBRPOP() {
+      redis.rpush("queue", "a", "b", "c");
+      assertThat(redis.blpop(1, "empty", "queue")).isEqualTo(KeyValue.just("queue", "a"));
+      assertThat(redis.brpop(1, "empty", "queue")).isEqualTo(KeyValue.just("queue", "c"));
+      assertThat(redis.blpop(0.1, "empty")).isNull();
+
+      assertThatThrownBy(() -> redis.blpop(-1, "queue"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("timeout is negative");
+      assertWrongType(() -> redis.set("another", "tristan"), () -> redis.blpop(1, "another"));
+   }
+
+   public void testBLPOPWokenByPush() throws Exception {
+      try (StatefulRedisConnection<String, String> first = client.connect();
+           StatefulRedisConnection<String, String> second = client.connect()) {
+         CompletableFuture<KeyValue<String, String>> firstWaiter = first.async().blpop(30, "jobs").toCompletableFuture();
+         // The waiters are served in the order they blocked
+         eventually(() -> server.blockingManager().blockedKeys(cache.getAdvancedCache()) == 1);
+         CompletableFuture<KeyValue<String, String>> secondWaiter = second.async().blpop(30, "jobs").toCompletableFuture();
+         Thread.sleep(50);
+         assertThat(firstWaiter).isNotDone();
+         assertThat(secondWaiter).isNotDone();
+         // The waiters of a key share its listener
+         assertThat(wakeUpListeners()).isEqualTo(1);
+
+         redis.rpush("jobs", "job1", "job2");
+         assertThat(firstWaiter.get(10, TimeUnit.SECONDS)).isEqualTo(KeyValue.just("jobs", "job1"));
+         assertThat(secondWaiter.get(10, TimeUnit.SECONDS)).isEqualTo(KeyValue.just("jobs", "job2"));
+         assertThat(redis.exists("jobs")).isZero();
+         // The listener is removed with the last waiter
+         eventually(() -> wakeUpListeners() == 0);
+      }
+   }
+
+   private long wakeUpListeners() {
+      return cache.getAdvancedCache().getListeners().stream()
+            .filter(l -> l.getClass().getSimpleName().equals("WakeUpListener"))
+            .count();
+   }
+
+   public void testBLMOVE() throws Exception {
+      redis.rpush("source", "a");
+      assertThat(redis.blmove("source", "destination", LMoveArgs.Builder.leftRight(), 1)).isEqualTo("a");
+      assertThat(redis.blmove("source", "destination", LMoveArgs.Builder.leftRight(), 0.1)).isNull();
+
+      try (StatefulRedisConnection<String, String> other = client.connect()) {
+         CompletableFuture<String> moved = other.async()
+               .blmove("source", "destination", LMoveArgs.Builder.rightLeft(), 30).toCompletableFuture();
+         Thread.sleep(50);
+         assertThat(moved).isNotDone();
+         redis.rpush("source", "b");
+         assertThat(moved.get(10, TimeUnit.SECONDS)).isEqualTo("b");
+      }
+      assertThat(redis.lrange("destination", 0, -1)).containsExactly("b", "a");
+      assertThat(redis.exists("source")).isZero();
+   }
 }
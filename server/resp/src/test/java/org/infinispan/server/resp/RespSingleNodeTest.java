@@ -38,6 +38,7 @@
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.server.resp.commands.Commands;
+import org.infinispan.server.resp.pubsub.PubSubRegistry;
 import org.infinispan.server.resp.test.CommonRespTests;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Factory;
@@ -58,8 +59,10 @@
 import io.lettuce.core.api.sync.RedisCommands;
 import io.lettuce.core.codec.StringCodec;
 import io.lettuce.core.output.ArrayOutput;
+import io.lettuce.core.output.IntegerOutput;
 import io.lettuce.core.output.StatusOutput;
 import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
 import io.lettuce.core.protocol.ProtocolKeyword;
 import io.lettuce.core.pubsub.RedisPubSubAdapter;
 import io.lettuce.core.pubsub.api.sync.RedisPubSubCommands;
@@ -245,6 +248,58 @@ public void testMSetMGet() {
       assertThat(results).containsExactlyElementsOf(expected);
    }
 
+   public void testMGetDuplicateAndMissingKeys() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      redis.set("k1", "v1");
+      redis.set("k3", "v3");
+
+      List<KeyValue<String, String>> results = redis.mget("k1", "k2", "k1", "k3", "k2", "k3");
+      assertThat(results).containsExactly(KeyValue.just("k1", "v1"), KeyValue.empty("k2"), KeyValue.just("k1", "v1"),
+            KeyValue.just("k3", "v3"), KeyValue.empty("k2"), KeyValue.just("k3", "v3"));
+   }
+
+   public void testMSetDuplicateKeys() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      CommandArgs<String, String> args = new CommandArgs<>(StringCodec.UTF8)
+            .addKey("k1").addValue("v1")
+            .addKey("k2").addValue("v2")
+            .addKey("k1").addValue("v3");
+      assertThat(redis.dispatch(CommandType.MSET, new StatusOutput<>(StringCodec.UTF8), args)).isEqualTo(OK);
+
+      // The last value of a repeated key wins
+      assertThat(redis.mget("k1", "k2")).containsExactly(KeyValue.just("k1", "v3"), KeyValue.just("k2", "v2"));
+   }
+
+   public void testDelDuplicateAndMissingKeys() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      redis.set("k1", "v1");
+      redis.set("k2", "v2");
+
+      assertThat(redis.del("k1", "missing", "k1", "k2", "k2")).isEqualTo(2);
+      assertThat(redis.exists("k1", "k2")).isZero();
+      assertThat(redis.del("k1", "missing")).isZero();
+   }
+
+   public void testMultiKeyWrongNumberOfArguments() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      CommandArgs<String, String> odd = new CommandArgs<>(StringCodec.UTF8)
+            .addKey("k1").addValue("v1")
+            .addKey("k2");
+      assertThatThrownBy(() -> redis.dispatch(CommandType.MSET, new StatusOutput<>(StringCodec.UTF8), odd))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessage("ERR wrong number of arguments for 'mset' command");
+      assertThat(redis.get("k1")).isNull();
+
+      assertThatThrownBy(() -> redis.dispatch(CommandType.MGET, new ArrayOutput<>(StringCodec.UTF8),
+            new CommandArgs<>(StringCodec.UTF8)))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessage("ERR wrong number of arguments for 'mget' command");
+      assertThatThrownBy(() -> redis.dispatch(CommandType.DEL, new IntegerOutput<>(StringCodec.UTF8),
+            new CommandArgs<>(StringCodec.UTF8)))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessage("ERR wrong number of arguments for 'del' command");
+   }
+
    public void testSetGetDelete() {
       RedisCommands<String, String> redis = redisConnection.sync();
       redis.set("k1", "v1");
@@ -316,7 +371,8 @@ Object[][] booleans() {
 
    @Test(dataProvider = "booleans")
    public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
-      int listenersBefore = cache.getAdvancedCache().getListeners().size();
+      PubSubRegistry registry = server.pubSubRegistry();
+      int subscriptionsBefore = registry.subscriptions();
 
       RedisPubSubCommands<String, String> connection = createPubSubConnection();
       BlockingQueue<String> handOffQueue = addPubSubListener(connection);
@@ -328,8 +384,8 @@ public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
       value = handOffQueue.poll(10, TimeUnit.SECONDS);
       assertThat(value).isEqualTo("subscribed-test-2");
 
-      // 2 listeners, one for each sub above
-      assertThat(cache.getAdvancedCache().getListeners()).hasSize(listenersBefore + 2);
+      // 2 subscriptions, one for each sub above
+      assertThat(registry.subscriptions()).isEqualTo(subscriptionsBefore + 2);
       // Unsubscribe to all channels
       if (quit) {
          // Originally wanted to use reset or quit, but they don't do what we expect from
@@ -337,8 +393,7 @@ public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
          connection.getStatefulConnection().close();
 
          // Have to use eventually as they are removed asynchronously
-         eventually(() -> cache.getAdvancedCache().getListeners().size() == listenersBefore);
-         assertThat(cache.getAdvancedCache().getListeners()).hasSize(listenersBefore);
+         eventually(() -> registry.subscriptions() == subscriptionsBefore);
 
          assertThat(handOffQueue).isEmpty();
       } else {
@@ -354,7 +409,7 @@ public void testPubSubUnsubscribe(boolean quit) throws InterruptedException {
             }
          }
 
-         assertThat(cache.getAdvancedCache().getListeners()).hasSize(listenersBefore);
+         assertThat(registry.subscriptions()).isEqualTo(subscriptionsBefore);
          assertThat(connection.ping()).isEqualTo(PONG);
       }
    }
@@ -372,7 +427,7 @@ public void testPubSub() throws InterruptedException {
 
       // Send a message to confirm it is properly listening
       RedisCommands<String, String> redis = redisConnection.sync();
-      redis.publish("channel2", "boomshakayaka");
+      assertThat(redis.publish("channel2", "boomshakayaka")).isEqualTo(1);
       value = handOffQueue.poll(10, TimeUnit.SECONDS);
       assertThat(value).isEqualTo("message-channel2-boomshakayaka");
 
@@ -1187,4 +1242,29 @@ public void testPFADD() {
 
       assertWrongType(() -> redis.set("plain", "string"), () -> redis.pfadd("plain", "el1"));
    }
+
+   @Test
+   public void testPFCOUNTAndPFMERGE() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+
+      assertThat(redis.pfcount("hll-missing")).isEqualTo(0L);
+
+      assertThat(redis.pfadd("hll-1", "a", "b", "c")).isEqualTo(1L);
+      assertThat(redis.pfadd("hll-2", "c", "d")).isEqualTo(1L);
+
+      assertThat(redis.pfcount("hll-1")).isEqualTo(3L);
+      assertThat(redis.pfcount("hll-1", "hll-2", "hll-missing")).isEqualTo(4L);
+
+      assertThat(redis.pfmerge("hll-dest", "hll-1", "hll-2")).isEqualTo("OK");
+      assertThat(redis.pfcount("hll-dest")).isEqualTo(4L);
+
+      // The merge keeps the elements of the destination.
+      assertThat(redis.pfadd("hll-3", "e")).isEqualTo(1L);
+      assertThat(redis.pfmerge("hll-dest", "hll-3")).isEqualTo("OK");
+      assertThat(redis.pfcount("hll-dest")).isEqualTo(5L);
+
+      assertWrongType(() -> redis.set("plain-hll", "string"), () -> redis.pfcount("plain-hll"));
+      assertWrongType(() -> {}, () -> redis.pfmerge("hll-dest", "plain-hll"));
+      assertWrongType(() -> {}, () -> redis.pfmerge("plain-hll", "hll-1"));
+   }
 }
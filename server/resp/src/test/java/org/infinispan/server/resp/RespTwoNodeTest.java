@@ -8,8 +8,10 @@
 import static org.mockito.ArgumentMatchers.anyBoolean;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -27,6 +29,8 @@
 import io.lettuce.core.RedisFuture;
 import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 
 @Test(groups = "functional", testName = "server.resp.RespTwoNodeTest")
 public class RespTwoNodeTest extends BaseMultipleRespTest {
@@ -106,4 +110,26 @@ public void testPfaddMultipleServers() throws Exception {
       assertThat(sa.errorsCollected()).hasSize(16);
       // TODO: Verify cardinality ISPN-14676
    }
+
+   public void testPublishToOtherNode() throws InterruptedException {
+      BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+      StatefulRedisPubSubConnection<String, String> subscriber = client2.connectPubSub();
+      try {
+         subscriber.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+               messages.add(channel + "-" + message);
+            }
+         });
+         subscriber.sync().subscribe("news");
+
+         assertThat(redisConnection1.sync().publish("news", "from-node-1")).isEqualTo(1);
+         assertThat(messages.poll(10, TimeUnit.SECONDS)).isEqualTo("news-from-node-1");
+         assertThat(redisConnection2.sync().publish("news", "from-node-2")).isEqualTo(1);
+         assertThat(messages.poll(10, TimeUnit.SECONDS)).isEqualTo("news-from-node-2");
+         assertThat(redisConnection1.sync().publish("other", "ignored")).isZero();
+      } finally {
+         subscriber.close();
+      }
+   }
 }
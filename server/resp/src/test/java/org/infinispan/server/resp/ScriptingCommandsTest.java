@@ -0,0 +1,202 @@
+package org.infinispan.server.resp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+
+@Test(groups = "functional", testName = "server.resp.ScriptingCommandsTest")
+public class ScriptingCommandsTest extends SingleNodeRespBaseTest {
+
+   private static final String SCRIPT = "return redis.call('GET', KEYS[1])";
+   private static final String INCREMENT_SCRIPT = "local v = tonumber(redis.call('GET', KEYS[1])) or 0\n" +
+         "redis.call('SET', KEYS[1], v + 1)\n" +
+         "return v + 1";
+
+   public void testScriptLoadAndExists() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      String sha = redis.scriptLoad(SCRIPT);
+      assertThat(sha).isEqualTo(redis.digest(SCRIPT)).isLowerCase().hasSize(40);
+      assertThat(redis.scriptExists(sha, "0000000000000000000000000000000000000000")).containsExactly(true, false);
+   }
+
+   public void testScriptFlush() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      String sha = redis.scriptLoad(SCRIPT);
+      assertThat(redis.scriptFlush()).isEqualTo("OK");
+      assertThat(redis.scriptExists(sha)).containsExactly(false);
+   }
+
+   public void testEvalShaUnknownScript() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThatThrownBy(() -> redis.evalsha("0000000000000000000000000000000000000000", ScriptOutputType.VALUE, "k1"))
+            .isInstanceOf(RedisNoScriptException.class)
+            .hasMessageStartingWith("NOSCRIPT");
+   }
+
+   public void testEvalReplies() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.<Long>eval("return 3.7", ScriptOutputType.INTEGER)).isEqualTo(3L);
+      assertThat(redis.<String>eval("return 'text'", ScriptOutputType.VALUE)).isEqualTo("text");
+      assertThat(redis.<List<Object>>eval("return {1, 'two', {3}, nil, 5}", ScriptOutputType.MULTI))
+            .containsExactly(1L, "two", List.of(3L));
+      assertThat(redis.<String>eval("return redis.status_reply('FINE')", ScriptOutputType.STATUS)).isEqualTo("FINE");
+      assertThatThrownBy(() -> redis.eval("return redis.error_reply('MY failure')", ScriptOutputType.STATUS))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessage("MY failure");
+   }
+
+   public void testEvalKeysAndArguments() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.<List<Object>>eval("return {#KEYS, KEYS[2], #ARGV, ARGV[1]}", ScriptOutputType.MULTI,
+            new String[] { "k1", "k2" }, "a1"))
+            .containsExactly(2L, "k2", 1L, "a1");
+   }
+
+   public void testRedisCall() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      String script = "redis.call('SET', KEYS[1], ARGV[1])\n" +
+            "redis.call('APPEND', KEYS[1], '-suffix')\n" +
+            "return redis.call('GET', KEYS[1])";
+      assertThat(redis.<String>eval(script, ScriptOutputType.VALUE, new String[] { "call-key" }, "value"))
+            .isEqualTo("value-suffix");
+      assertThat(redis.get("call-key")).isEqualTo("value-suffix");
+
+      String sha = redis.scriptLoad(INCREMENT_SCRIPT);
+      assertThat(redis.<Long>evalsha(sha, ScriptOutputType.INTEGER, "counter")).isEqualTo(1L);
+      assertThat(redis.<Long>evalsha(sha, ScriptOutputType.INTEGER, "counter")).isEqualTo(2L);
+      assertThat(redis.get("counter")).isEqualTo("2");
+   }
+
+   public void testRedisCallErrors() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThatThrownBy(() -> redis.eval("return redis.call('GET', 'undeclared')", ScriptOutputType.VALUE, "k1"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("not declared in KEYS");
+      assertThatThrownBy(() -> redis.eval("return redis.call('NOPE', KEYS[1])", ScriptOutputType.VALUE, "k1"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("Unknown Redis command");
+      // pcall returns the error to the script instead of aborting it
+      assertThat(redis.<String>eval("local r = redis.pcall('NOPE', KEYS[1])\n return 'after'", ScriptOutputType.VALUE,
+            "k1")).isEqualTo("after");
+   }
+
+   public void testSandbox() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.<List<Object>>eval("return {type(os), type(io), type(luajava), type(load), type(loadstring), " +
+            "type(dofile), type(require), type(debug), type(package)}", ScriptOutputType.MULTI))
+            .containsOnly("nil");
+      assertThatThrownBy(() -> redis.eval("return os.execute('id')", ScriptOutputType.VALUE))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("nil");
+      assertThatThrownBy(() -> redis.eval("return io.open('/etc/passwd')", ScriptOutputType.VALUE))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("nil");
+      assertThatThrownBy(() -> redis.eval("return luajava.bindClass('java.lang.System')", ScriptOutputType.VALUE))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("nil");
+      // The redis table only holds functions
+      assertThat(redis.<List<Object>>eval("return {type(redis), type(redis.call), type(getmetatable(redis))}",
+            ScriptOutputType.MULTI)).containsExactly("table", "function", "nil");
+      // The libraries are shared by the scripts, they cannot be modified
+      assertThatThrownBy(() -> redis.eval("string.upper = nil return 'changed'", ScriptOutputType.VALUE))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("read-only");
+      assertThat(redis.<String>eval("return ('text'):upper()", ScriptOutputType.VALUE)).isEqualTo("TEXT");
+   }
+
+   public void testGlobalsNotShared() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.<String>eval("leaked = 'value' return leaked", ScriptOutputType.VALUE)).isEqualTo("value");
+      assertThat(redis.<String>eval("return type(leaked)", ScriptOutputType.VALUE)).isEqualTo("nil");
+   }
+
+   public void testScriptTimeLimit() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThatThrownBy(() -> redis.eval("while true do end", ScriptOutputType.VALUE, "looping-key"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("time limit");
+      // The script cannot catch the time limit error
+      assertThatThrownBy(() -> redis.eval("pcall(function() while true do end end) return 'caught'",
+            ScriptOutputType.VALUE, "looping-key"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("time limit");
+      // The aborted scripts released the lock of the key
+      assertThat(redis.set("looping-key", "value")).isEqualTo("OK");
+   }
+
+   public void testLocksReleasedAfterFailure() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThatThrownBy(() -> redis.eval("return redis.call('NOPE', KEYS[1])", ScriptOutputType.INTEGER,
+            new String[] { "failed-key" }))
+            .isInstanceOf(RedisCommandExecutionException.class);
+      redis.set("failed-key", "not a number");
+      assertThatThrownBy(() -> redis.eval("return redis.call('INCR', KEYS[1])", ScriptOutputType.INTEGER,
+            new String[] { "failed-key" }))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("not an integer");
+
+      // The failed scripts released the lock of the key, the writes would time out otherwise
+      assertThat(redis.set("failed-key", "1")).isEqualTo("OK");
+      assertThat(redis.<Long>eval(INCREMENT_SCRIPT, ScriptOutputType.INTEGER, "failed-key")).isEqualTo(2L);
+   }
+
+   public void testConcurrentScriptsAreAtomic() throws Exception {
+      int threads = 4;
+      int increments = 50;
+      String sha = redisConnection.sync().scriptLoad(INCREMENT_SCRIPT);
+      List<Future<Void>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+         futures.add(fork(() -> {
+            // A connection per thread, the commands of a connection run one at a time
+            try (StatefulRedisConnection<String, String> connection = client.connect()) {
+               for (int i = 0; i < increments; i++) {
+                  connection.sync().evalsha(sha, ScriptOutputType.INTEGER, "atomic-counter");
+               }
+            }
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      // The read and the write of each script run under the lock of the key, no increment is lost
+      assertThat(redisConnection.sync().get("atomic-counter")).isEqualTo(String.valueOf(threads * increments));
+   }
+
+   public void testConcurrentScriptsSeeTheirOwnKeys() throws Exception {
+      int threads = 4;
+      int runs = 50;
+      String sha = redisConnection.sync().scriptLoad("redis.call('SET', KEYS[1], ARGV[1])\n" +
+            "return {KEYS[1], redis.call('GET', KEYS[1])}");
+      List<Future<Void>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+         String key = "own-key-" + t;
+         futures.add(fork(() -> {
+            try (StatefulRedisConnection<String, String> connection = client.connect()) {
+               for (int i = 0; i < runs; i++) {
+                  String value = key + "-" + i;
+                  assertThat(connection.sync().<List<Object>>evalsha(sha, ScriptOutputType.MULTI, new String[] { key },
+                        value)).containsExactly(key, value);
+               }
+            }
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      for (int t = 0; t < threads; t++) {
+         assertThat(redisConnection.sync().get("own-key-" + t)).isEqualTo("own-key-" + t + "-" + (runs - 1));
+      }
+   }
+}
@@ -0,0 +1,144 @@
+package org.infinispan.server.resp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.infinispan.server.resp.test.RespTestingUtil.OK;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.XReadArgs.StreamOffset;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.models.stream.PendingMessages;
+
+@Test(groups = "functional", testName = "server.resp.StreamCommandsTest")
+public class StreamCommandsTest extends SingleNodeRespBaseTest {
+
+   public void testAddAndRange() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.xadd("stream", new XAddArgs().id("1-1"), "name", "a")).isEqualTo("1-1");
+      assertThat(redis.xadd("stream", new XAddArgs().id("1-*"), "name", "b")).isEqualTo("1-2");
+      String id = redis.xadd("stream", Map.of("name", "c"));
+      assertThat(redis.xlen("stream")).isEqualTo(3);
+
+      List<StreamMessage<String, String>> messages = redis.xrange("stream", Range.create("-", "+"));
+      assertThat(messages).extracting(StreamMessage::getId).containsExactly("1-1", "1-2", id);
+      assertThat(messages.get(0).getBody()).containsEntry("name", "a");
+
+      messages = redis.xrevrange("stream", Range.create("-", "+"), Limit.from(2));
+      assertThat(messages).extracting(StreamMessage::getId).containsExactly(id, "1-2");
+      assertThat(redis.xrange("stream", Range.create("1", "1"))).hasSize(2);
+
+      assertThatThrownBy(() -> redis.xadd("stream", new XAddArgs().id("1-1"), "name", "d"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("equal or smaller");
+      assertThat(redis.xadd("missing", new XAddArgs().nomkstream(), "name", "d")).isNull();
+      assertThat(redis.xlen("missing")).isZero();
+   }
+
+   public void testMaxLen() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      for (int i = 0; i < 20; i++) {
+         redis.xadd("capped", new XAddArgs().maxlen(5), "i", Integer.toString(i));
+      }
+      assertThat(redis.xlen("capped")).isEqualTo(5);
+      assertThat(redis.xrange("capped", Range.create("-", "+")).get(0).getBody()).containsEntry("i", "15");
+   }
+
+   public void testRead() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      redis.xadd("read1", new XAddArgs().id("1-0"), "k", "v1");
+      redis.xadd("read1", new XAddArgs().id("2-0"), "k", "v2");
+      redis.xadd("read2", new XAddArgs().id("3-0"), "k", "v3");
+
+      List<StreamMessage<String, String>> messages = redis.xread(XReadArgs.Builder.count(1),
+            StreamOffset.from("read1", "0"), StreamOffset.from("read2", "0"));
+      assertThat(messages).extracting(StreamMessage::getId).containsExactly("1-0", "3-0");
+      assertThat(redis.xread(StreamOffset.from("read1", "2-0"))).isEmpty();
+   }
+
+   public void testBlockingReadWokenByAdd() throws Exception {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      redis.xadd("blocking", new XAddArgs().id("1-0"), "k", "v1");
+
+      try (StatefulRedisConnection<String, String> other = client.connect()) {
+         CompletableFuture<List<StreamMessage<String, String>>> blocked = other.async()
+               .xread(XReadArgs.Builder.block(Duration.ofSeconds(30)), StreamOffset.latest("blocking"))
+               .toCompletableFuture();
+         // The command waits for new entries after the last identifier
+         Thread.sleep(100);
+         assertThat(blocked).isNotDone();
+
+         redis.xadd("blocking", new XAddArgs().id("2-0"), "k", "v2");
+         List<StreamMessage<String, String>> messages = blocked.get(10, TimeUnit.SECONDS);
+         assertThat(messages).extracting(StreamMessage::getId).containsExactly("2-0");
+      }
+   }
+
+   public void testBlockingReadTimeout() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThat(redis.xread(XReadArgs.Builder.block(100), StreamOffset.latest("empty-stream"))).isEmpty();
+   }
+
+   public void testConsumerGroup() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      assertThatThrownBy(() -> redis.xgroupCreate(StreamOffset.from("group-stream", "0"), "g"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageContaining("requires the key to exist");
+      assertThat(redis.xgroupCreate(StreamOffset.from("group-stream", "$"), "g", XGroupCreateArgs.Builder.mkstream()))
+            .isEqualTo(OK);
+      assertThatThrownBy(() -> redis.xgroupCreate(StreamOffset.from("group-stream", "$"), "g"))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageStartingWith("BUSYGROUP");
+
+      redis.xadd("group-stream", new XAddArgs().id("1-0"), "k", "v1");
+      redis.xadd("group-stream", new XAddArgs().id("2-0"), "k", "v2");
+      redis.xadd("group-stream", new XAddArgs().id("3-0"), "k", "v3");
+
+      List<StreamMessage<String, String>> messages = redis.xreadgroup(Consumer.from("g", "alice"),
+            XReadArgs.Builder.count(2), StreamOffset.lastConsumed("group-stream"));
+      assertThat(messages).extracting(StreamMessage::getId).containsExactly("1-0", "2-0");
+      messages = redis.xreadgroup(Consumer.from("g", "bob"), StreamOffset.lastConsumed("group-stream"));
+      assertThat(messages).extracting(StreamMessage::getId).containsExactly("3-0");
+
+      PendingMessages pending = redis.xpending("group-stream", "g");
+      assertThat(pending.getCount()).isEqualTo(3);
+      assertThat(pending.getConsumerMessageCount()).containsEntry("alice", 2L).containsEntry("bob", 1L);
+
+      // The history of the pending entries of the consumer
+      messages = redis.xreadgroup(Consumer.from("g", "alice"), StreamOffset.from("group-stream", "0"));
+      assertThat(messages).extracting(StreamMessage::getId).containsExactly("1-0", "2-0");
+
+      assertThat(redis.xack("group-stream", "g", "1-0", "2-0", "5-0")).isEqualTo(2);
+      assertThat(redis.xpending("group-stream", "g").getCount()).isEqualTo(1);
+      assertThat(redis.xgroupDelconsumer("group-stream", Consumer.from("g", "bob"))).isEqualTo(1);
+      assertThat(redis.xpending("group-stream", "g").getCount()).isZero();
+
+      assertThatThrownBy(() -> redis.xreadgroup(Consumer.from("missing", "alice"), StreamOffset.lastConsumed("group-stream")))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageStartingWith("NOGROUP");
+      assertThat(redis.xgroupDestroy("group-stream", "g")).isTrue();
+   }
+
+   public void testWrongType() {
+      RedisCommands<String, String> redis = redisConnection.sync();
+      redis.set("not-a-stream", "value");
+      assertThatThrownBy(() -> redis.xadd("not-a-stream", Map.of("k", "v")))
+            .isInstanceOf(RedisCommandExecutionException.class)
+            .hasMessageStartingWith("WRONGTYPE");
+   }
+}
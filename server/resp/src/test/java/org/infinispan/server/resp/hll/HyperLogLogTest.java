@@ -2,14 +2,22 @@
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.infinispan.protostream.SerializationContextInitializer;
+import org.infinispan.server.resp.PersistenceContextInitializerImpl;
 import org.infinispan.server.resp.hll.internal.CompactSet;
 import org.infinispan.server.resp.hll.internal.ExplicitSet;
 import org.infinispan.server.resp.hll.internal.HLLRepresentation;
+import org.infinispan.server.resp.hll.internal.RedisEncoding;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -100,6 +108,85 @@ public void testConcurrentOperationsHLL() throws Exception {
       assertThat(hll.cardinality()).isEqualTo(2003L);
    }
 
+   public void testMergeRepresentations() {
+      HyperLogLog explicit = new HyperLogLog();
+      HyperLogLog compact = new HyperLogLog();
+      for (int i = 0; i < 100; i++) {
+         explicit.add(("zt-" + i).getBytes(StandardCharsets.US_ASCII));
+      }
+      for (int i = 0; i < 1000; i++) {
+         compact.add(("tt-" + i).getBytes(StandardCharsets.US_ASCII));
+      }
+
+      HyperLogLog union = new HyperLogLog();
+      assertThat(union.merge(explicit)).isTrue();
+      assertThat(union.store()).isInstanceOf(ExplicitSet.class);
+      assertThat(union.cardinality()).isEqualTo(100L);
+
+      // Merging the same elements twice does not change the registers.
+      assertThat(union.merge(explicit)).isFalse();
+
+      assertThat(union.merge(compact)).isTrue();
+      assertThat(union.store()).isInstanceOf(CompactSet.class);
+      assertThat(((double) (union.cardinality() - 1100) / 1100)).isBetween(-0.015, 0.015);
+   }
+
+   public void testRedisEncodingRoundTrip() {
+      HyperLogLog hll = new HyperLogLog();
+      for (int i = 0; i < 1000; i++) {
+         hll.add(("zt-" + i).getBytes(StandardCharsets.US_ASCII));
+      }
+
+      byte[] encoded = hll.toRedisEncoding();
+      assertThat(RedisEncoding.isEncoded(encoded)).isTrue();
+      assertThat(encoded).hasSize(RedisEncoding.HEADER_SIZE + CompactSet.REGISTERS_BYTES);
+      assertThat(new String(encoded, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("HYLL");
+      assertThat(RedisEncoding.cachedCardinality(encoded)).isEqualTo(hll.cardinality());
+
+      HyperLogLog decoded = HyperLogLog.fromRedisEncoding(encoded);
+      assertThat(decoded.cardinality()).isEqualTo(hll.cardinality());
+      assertThat(decoded.toRedisEncoding()).isEqualTo(encoded);
+   }
+
+   public void testCompactSetMarshalling() throws Exception {
+      SerializationContext ctx = ProtobufUtil.newSerializationContext();
+      SerializationContextInitializer sci = new PersistenceContextInitializerImpl();
+      sci.registerSchema(ctx);
+      sci.registerMarshallers(ctx);
+
+      CompactSet cs = new CompactSet();
+      for (int i = 0; i < 1000; i++) {
+         cs.set(("zt-" + i).getBytes(StandardCharsets.US_ASCII));
+      }
+
+      CompactSet decoded = ProtobufUtil.fromByteArray(ctx, ProtobufUtil.toByteArray(ctx, cs), CompactSet.class);
+      assertThat(decoded.registers()).isEqualTo(cs.registers());
+      assertThat(decoded.cardinality()).isEqualTo(cs.cardinality());
+
+      // The sets persisted before the registers field only have the store, the registers as longs.
+      ByteBuffer registers = ByteBuffer.wrap(cs.registers()).order(ByteOrder.LITTLE_ENDIAN);
+      ByteArrayOutputStream old = new ByteArrayOutputStream();
+      while (registers.hasRemaining()) {
+         writeVarint(old, 1 << 3);
+         writeVarint(old, registers.getLong());
+      }
+      // Most of the registers are still 0
+      writeVarint(old, 3 << 3);
+      writeVarint(old, 0);
+
+      decoded = ProtobufUtil.fromByteArray(ctx, old.toByteArray(), CompactSet.class);
+      assertThat(decoded.registers()).isEqualTo(cs.registers());
+      assertThat(decoded.cardinality()).isEqualTo(cs.cardinality());
+   }
+
+   private static void writeVarint(ByteArrayOutputStream out, long value) {
+      while ((value & ~0x7FL) != 0) {
+         out.write((int) ((value & 0x7F) | 0x80));
+         value >>>= 7;
+      }
+      out.write((int) value);
+   }
+
    @Test(dataProvider = "representations")
    public void testSingleThreadOperationsRepresentation(HLLRepresentation representation, long expected) {
       assertThat(representation.cardinality()).isEqualTo(0L);
@@ -0,0 +1,78 @@
+package org.infinispan.rest;
+
+/**
+ * A single byte range of a <code>Range: bytes=first-last</code> request header, resolved against the length of the
+ * representation.
+ * <p>
+ * Malformed headers and headers with several ranges are ignored, so the whole representation is served, as allowed by
+ * RFC 9110.
+ *
+ * @since 15.0
+ */
+public final class ByteRange {
+   public static final String BYTES = "bytes";
+   private static final String PREFIX = BYTES + "=";
+
+   private final long first;
+   private final long last;
+   private final long total;
+
+   private ByteRange(long first, long last, long total) {
+      this.first = first;
+      this.last = last;
+      this.total = total;
+   }
+
+   /**
+    * Parses the header value.
+    *
+    * @param header the value of the <code>Range</code> header, may be null.
+    * @param total  the length of the representation.
+    * @return the range, or <code>null</code> if the whole representation must be served.
+    */
+   public static ByteRange parse(String header, long total) {
+      if (header == null || !header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) return null;
+      String spec = header.substring(PREFIX.length()).trim();
+      int dash = spec.indexOf('-');
+      if (dash < 0 || spec.indexOf(',') >= 0) return null;
+      try {
+         String firstPos = spec.substring(0, dash).trim();
+         String lastPos = spec.substring(dash + 1).trim();
+         if (firstPos.isEmpty()) {
+            // The suffix range, the last bytes of the representation
+            long suffix = Long.parseLong(lastPos);
+            if (suffix < 0) return null;
+            return suffix == 0 ? new ByteRange(0, -1, total) : new ByteRange(Math.max(0, total - suffix), total - 1, total);
+         }
+         long first = Long.parseLong(firstPos);
+         long last = lastPos.isEmpty() ? total - 1 : Long.parseLong(lastPos);
+         if (first < 0 || last < first) return null;
+         return new ByteRange(first, Math.min(last, total - 1), total);
+      } catch (NumberFormatException e) {
+         return null;
+      }
+   }
+
+   /**
+    * @return <code>false</code> if the range starts after the end of the representation, and the request must fail
+    * with <code>416 Range Not Satisfiable</code>.
+    */
+   public boolean isSatisfiable() {
+      return first < total && first <= last;
+   }
+
+   public long first() {
+      return first;
+   }
+
+   public long length() {
+      return last - first + 1;
+   }
+
+   /**
+    * @return the value of the <code>Content-Range</code> response header.
+    */
+   public String contentRange() {
+      return isSatisfiable() ? BYTES + " " + first + "-" + last + "/" + total : BYTES + " */" + total;
+   }
+}
@@ -32,6 +32,7 @@
 import org.infinispan.rest.framework.impl.RestResponseBuilder;
 import org.infinispan.rest.stream.CacheChunkedStream;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpResponse;
@@ -80,6 +81,11 @@ public NettyRestResponse build() {
          if (entity instanceof File || entity instanceof ChunkedInput || entity instanceof EventStream ||
                entity instanceof CacheChunkedStream) {
             response = new DefaultHttpResponse(HTTP_1_1, OK);
+         } else if (entity instanceof byte[]) {
+            // Wrap the value instead of copying it into the response content
+            response = new DefaultFullHttpResponse(HTTP_1_1, OK, Unpooled.wrappedBuffer((byte[]) entity));
+         } else if (entity instanceof ByteBuf) {
+            response = new DefaultFullHttpResponse(HTTP_1_1, OK, (ByteBuf) entity);
          } else {
             response = new DefaultFullHttpResponse(HTTP_1_1, OK, Unpooled.buffer());
          }
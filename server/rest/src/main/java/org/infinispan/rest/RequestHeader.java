@@ -21,6 +21,7 @@ public enum RequestHeader {
    LAST_USED_HEADER("lastUsed"),
    MAX_TIME_IDLE_HEADER("maxIdleTimeSeconds"),
    TTL_SECONDS_HEADER("timeToLiveSeconds"),
+   VALUE_CONTENT_TYPE_HEADER("value-content-type"),
    USER_AGENT("User-Agent");
 
    private static final CharSequence[] ALL_VALUES = Arrays.stream(values()).map(RequestHeader::getValue).toArray(String[]::new);
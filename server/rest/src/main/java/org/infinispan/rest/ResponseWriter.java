@@ -17,7 +17,10 @@
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpChunkedInput;
@@ -25,6 +28,7 @@
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.stream.ChunkedFile;
 
@@ -48,11 +52,10 @@ void writeResponse(ChannelHandlerContext ctx, FullHttpRequest request, NettyRest
          HttpResponse res = response.getResponse();
          ByteBuf responseContent = ((FullHttpResponse) res).content();
          Object entity = response.getEntity();
-         if (entity instanceof byte[]) {
-            responseContent.writeBytes((byte[]) entity);
-         } else if (entity instanceof ByteArrayOutputStream) {
+         // The content of byte[] and ByteBuf entities is wrapped by the response without copying
+         if (entity instanceof ByteArrayOutputStream) {
             responseContent.writeBytes(((ByteArrayOutputStream)entity).toByteArray());
-         } else {
+         } else if (!(entity instanceof byte[]) && !(entity instanceof ByteBuf)) {
             ByteBufUtil.writeUtf8(responseContent, entity.toString());
          }
          HttpUtil.setContentLength(res, responseContent.readableBytes());
@@ -67,11 +70,32 @@ void writeResponse(ChannelHandlerContext ctx, FullHttpRequest request, NettyRest
             // The file is closed by the ChunkedWriteHandler
             RandomAccessFile randomAccessFile = new RandomAccessFile((File) response.getEntity(), "r");
             HttpResponse res = response.getResponse();
-            HttpUtil.setContentLength(res, randomAccessFile.length());
+            long offset = 0;
+            long length = randomAccessFile.length();
+            if (res.status().equals(HttpResponseStatus.OK)) {
+               res.headers().set(HttpHeaderNames.ACCEPT_RANGES, ByteRange.BYTES);
+               ByteRange range = ByteRange.parse(request.headers().get(HttpHeaderNames.RANGE), length);
+               if (range != null) {
+                  res.headers().set(HttpHeaderNames.CONTENT_RANGE, range.contentRange());
+                  if (!range.isSatisfiable()) {
+                     randomAccessFile.close();
+                     res.setStatus(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                     HttpUtil.setContentLength(res, 0);
+                     log(ctx, request, res);
+                     ctx.writeAndFlush(new DefaultFullHttpResponse(res.protocolVersion(), res.status(), Unpooled.EMPTY_BUFFER, res.headers(), EmptyHttpHeaders.INSTANCE));
+                     return;
+                  }
+                  res.setStatus(HttpResponseStatus.PARTIAL_CONTENT);
+                  res.headers().set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.IDENTITY);
+                  offset = range.first();
+                  length = range.length();
+               }
+            }
+            HttpUtil.setContentLength(res, length);
             log(ctx, request, res);
             response.getResponse().headers().add(ResponseHeader.TRANSFER_ENCODING.getValue(), "chunked");
             ctx.write(res);
-            ctx.writeAndFlush(new HttpChunkedInput(new ChunkedFile(randomAccessFile, 0, randomAccessFile.length(), 8192)), ctx.newProgressivePromise());
+            ctx.writeAndFlush(new HttpChunkedInput(new ChunkedFile(randomAccessFile, offset, length, 8192)), ctx.newProgressivePromise());
          } catch (IOException e) {
             throw new RestResponseException(e);
          }
@@ -20,6 +20,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.rest.ByteRange;
 import org.infinispan.rest.DateUtils;
 import org.infinispan.rest.InvocationHelper;
 import org.infinispan.rest.NettyRestResponse;
@@ -36,6 +37,9 @@
 import org.infinispan.rest.tracing.RestTelemetryService;
 import org.infinispan.security.actions.SecurityActions;
 
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
 /**
@@ -229,6 +233,10 @@ CompletionStage<RestResponse> getCacheValue(RestRequest request) throws RestResp
                      .created(ice.getCreated())
                      .lastUsed(ice.getLastUsed());
 
+               if (value instanceof byte[]) {
+                  writeRange(request, (byte[]) value, etag, responseBuilder, returnBody);
+               }
+
                List<String> extended = request.parameters().get(EXTENDED_HEADER.getValue());
                RestServerConfiguration restServerConfiguration = invocationHelper.getConfiguration();
                if (extended != null && extended.size() > 0 && CacheOperationsHelper.supportsExtendedHeaders(restServerConfiguration, extended.iterator().next())) {
@@ -276,6 +284,29 @@ private void writeValue(Object value, MediaType requested, MediaType configuredM
       if (returnBody) responseBuilder.entity(value);
    }
 
+   /**
+    * Serves a slice of the value when the request has a <code>Range</code> header. The slice wraps the value, so it is
+    * not copied. A stale <code>If-Range</code> entity tag ignores the range.
+    */
+   private static void writeRange(RestRequest request, byte[] value, String etag,
+                                  NettyRestResponse.Builder responseBuilder, boolean returnBody) {
+      responseBuilder.header(HttpHeaderNames.ACCEPT_RANGES.toString(), ByteRange.BYTES);
+      if (!returnBody) return;
+      String ifRange = request.header(HttpHeaderNames.IF_RANGE.toString());
+      if (ifRange != null && !ifRange.equals(etag)) return;
+      ByteRange range = ByteRange.parse(request.header(HttpHeaderNames.RANGE.toString()), value.length);
+      if (range == null) return;
+      responseBuilder.header(HttpHeaderNames.CONTENT_RANGE.toString(), range.contentRange());
+      if (range.isSatisfiable()) {
+         // The range refers to the value, the slice must not be compressed
+         responseBuilder.status(HttpResponseStatus.PARTIAL_CONTENT)
+               .header(HttpHeaderNames.CONTENT_ENCODING.toString(), HttpHeaderValues.IDENTITY.toString())
+               .entity(Unpooled.wrappedBuffer(value, (int) range.first(), (int) range.length()));
+      } else {
+         responseBuilder.status(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE).entity(null);
+      }
+   }
+
    private <V> String calcETAG(V value) {
       return String.valueOf(hashFunc.hash(value));
    }
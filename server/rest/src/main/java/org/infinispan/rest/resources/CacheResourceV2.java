@@ -35,6 +35,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -63,8 +64,10 @@
 import org.infinispan.commons.dataconversion.internal.Json;
 import org.infinispan.commons.dataconversion.internal.JsonSerialization;
 import org.infinispan.commons.io.StringBuilderWriter;
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.CompletableFutures;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.SecurityConfiguration;
@@ -75,6 +78,7 @@
 import org.infinispan.configuration.parsing.ParserRegistry;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.impl.InternalEntryFactory;
+import org.infinispan.context.Flag;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -82,6 +86,7 @@
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.manager.EmbeddedCacheManagerAdmin;
 import org.infinispan.marshall.core.EncoderRegistry;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
@@ -104,6 +109,7 @@
 import org.infinispan.rest.InvocationHelper;
 import org.infinispan.rest.NettyRestRequest;
 import org.infinispan.rest.NettyRestResponse;
+import org.infinispan.rest.RequestHeader;
 import org.infinispan.rest.ResponseHeader;
 import org.infinispan.rest.RestResponseException;
 import org.infinispan.rest.ServerSentEvent;
@@ -115,6 +121,8 @@
 import org.infinispan.rest.framework.RestResponse;
 import org.infinispan.rest.framework.impl.Invocations;
 import org.infinispan.rest.logging.Log;
+import org.infinispan.rest.operations.CacheOperationsHelper;
+import org.infinispan.rest.operations.exceptions.NoDataFoundException;
 import org.infinispan.rest.stream.CacheChunkedStream;
 import org.infinispan.rest.stream.CacheEntryStreamProcessor;
 import org.infinispan.rest.stream.CacheKeyStreamProcessor;
@@ -129,6 +137,8 @@
 import org.infinispan.topology.ClusterTopologyManager;
 import org.infinispan.topology.LocalTopologyManager;
 import org.infinispan.upgrade.RollingUpgradeManager;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.CompletionStages;
 
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
@@ -137,6 +147,7 @@
 import io.netty.handler.codec.http.multipart.InterfaceHttpData;
 import io.netty.handler.codec.http.multipart.MemoryAttribute;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
 
 /**
  * REST resource to manage the caches.
@@ -146,6 +157,7 @@
 public class CacheResourceV2 extends BaseCacheResource implements ResourceHandler {
 
    private static final int STREAM_BATCH_SIZE = 1000;
+   private static final MediaType APPLICATION_NDJSON = MediaType.fromString("application/x-ndjson");
    private static final String MIGRATOR_NAME = "hotrod";
 
    private final ParserRegistry parserRegistry = new ParserRegistry();
@@ -168,6 +180,9 @@ public Invocations getInvocations() {
             .invocation().method(DELETE).path("/v2/caches/{cacheName}/{cacheKey}").handleWith(this::deleteCacheValue)
             .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("keys").handleWith(this::streamKeys)
             .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("entries").handleWith(this::streamEntries)
+            .invocation().methods(POST).path("/v2/caches/{cacheName}").withAction("get-many").handleWith(this::getMany)
+            .invocation().methods(POST).path("/v2/caches/{cacheName}").withAction("put-many").handleWith(this::putMany)
+            .invocation().methods(POST).path("/v2/caches/{cacheName}").withAction("remove-many").handleWith(this::removeMany)
             .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("listen").handleWith(this::cacheListen)
 
             // Config and statistics
@@ -526,6 +541,184 @@ private CompletionStage<RestResponse> streamEntries(RestRequest request) {
       return CompletableFuture.completedFuture(responseBuilder.build());
    }
 
+   /**
+    * Returns the entries of the keys in the body, in the order of the keys. The keys are retrieved with a
+    * {@link AdvancedCache#getAllCacheEntriesAsync(Set)} for each batch, and the entries are streamed as the batches
+    * complete. The missing keys are not included.
+    */
+   private CompletionStage<RestResponse> getMany(RestRequest request) {
+      String cacheName = request.variables().get("cacheName");
+      boolean metadata = Boolean.parseBoolean(request.getParameter("metadata"));
+      int batch = batchSize(request);
+
+      RestCacheManager<Object> restCacheManager = invocationHelper.getRestCacheManager();
+      if (!restCacheManager.cacheExists(cacheName))
+         return invocationHelper.newResponse(request, NOT_FOUND).toFuture();
+
+      MediaType keyMediaType = request.keyContentType();
+      MediaType valueMediaType = valueMediaType(request, cacheName);
+      boolean keysAreJson = keyMediaType.match(APPLICATION_JSON);
+      List<byte[]> keys = new ArrayList<>();
+      for (Json key : readBulkContents(request)) {
+         keys.add(bulkContent(key, keysAreJson));
+      }
+
+      AdvancedCache<Object, Object> cache = restCacheManager.getCache(cacheName, keyMediaType, valueMediaType, request);
+      Flowable<CacheEntry<?, ?>> flowable = Flowable.fromIterable(partition(keys, batch))
+            .concatMapSingle(chunk -> Single.fromCompletionStage(cache.getAllCacheEntriesAsync(new HashSet<>(chunk)))
+                  .map(found -> inKeyOrder(chunk, found)))
+            .concatMapIterable(entries -> entries);
+
+      NettyRestResponse.Builder responseBuilder = invocationHelper.newResponse(request);
+      responseBuilder.entity(new CacheEntryStreamProcessor(flowable, keysAreJson,
+            valueMediaType.match(APPLICATION_JSON), metadata));
+      responseBuilder.contentType(APPLICATION_JSON_TYPE);
+      responseBuilder.header(ResponseHeader.KEY_CONTENT_TYPE_HEADER.getValue(), keyMediaType.toString());
+      responseBuilder.header(ResponseHeader.VALUE_CONTENT_TYPE_HEADER.getValue(), valueMediaType.toString());
+      return CompletableFuture.completedFuture(responseBuilder.build());
+   }
+
+   /**
+    * Stores the <code>{"key": ..., "value": ...}</code> objects of the body with a
+    * {@link AdvancedCache#putAllAsync(Map, org.infinispan.metadata.Metadata)} for each batch. The lifespan and max-idle
+    * headers apply to all the entries, and the last value wins for a repeated key.
+    */
+   private CompletionStage<RestResponse> putMany(RestRequest request) {
+      String cacheName = request.variables().get("cacheName");
+      int batch = batchSize(request);
+
+      RestCacheManager<Object> restCacheManager = invocationHelper.getRestCacheManager();
+      if (!restCacheManager.cacheExists(cacheName))
+         return invocationHelper.newResponse(request, NOT_FOUND).toFuture();
+
+      MediaType keyMediaType = request.keyContentType();
+      MediaType valueMediaType = valueMediaType(request, cacheName);
+      boolean keysAreJson = keyMediaType.match(APPLICATION_JSON);
+      boolean valuesAreJson = valueMediaType.match(APPLICATION_JSON);
+      Map<WrappedByteArray, byte[]> entries = new LinkedHashMap<>();
+      for (Json entry : readBulkContents(request)) {
+         if (!entry.isObject() || !entry.has("key") || !entry.has("value"))
+            throw new NoDataFoundException("Each entry must be an object with a 'key' and a 'value'");
+         entries.put(new WrappedByteArray(bulkContent(entry.at("key"), keysAreJson)),
+               bulkContent(entry.at("value"), valuesAreJson));
+      }
+
+      AdvancedCache<Object, Object> cache = restCacheManager.getCache(cacheName, keyMediaType, valueMediaType, request);
+      Configuration config = SecurityActions.getCacheConfiguration(cache);
+      Metadata metadata = CacheOperationsHelper.createMetadata(config, request.getTimeToLiveSecondsHeader(),
+            request.getMaxIdleTimeSecondsHeader());
+      CompletionStage<Void> stage = CompletableFutures.completedNull();
+      for (List<Map.Entry<WrappedByteArray, byte[]>> chunk : partition(new ArrayList<>(entries.entrySet()), batch)) {
+         Map<Object, Object> values = new LinkedHashMap<>(chunk.size());
+         for (Map.Entry<WrappedByteArray, byte[]> e : chunk) {
+            values.put(e.getKey().getBytes(), e.getValue());
+         }
+         // Indexing is still blocking, as in the single key put
+         if (config.indexing().enabled()) {
+            stage = stage.thenComposeAsync(ignore -> cache.putAllAsync(values, metadata), invocationHelper.getExecutor());
+         } else {
+            stage = stage.thenCompose(ignore -> cache.putAllAsync(values, metadata));
+         }
+      }
+      return stage.thenApply(ignore -> invocationHelper.newResponse(request, NO_CONTENT).build());
+   }
+
+   /**
+    * Removes the keys in the body. There is no grouped removal in the cache API, so the removals of a batch run
+    * concurrently and the batches run one after the other.
+    */
+   private CompletionStage<RestResponse> removeMany(RestRequest request) {
+      String cacheName = request.variables().get("cacheName");
+      int batch = batchSize(request);
+
+      RestCacheManager<Object> restCacheManager = invocationHelper.getRestCacheManager();
+      if (!restCacheManager.cacheExists(cacheName))
+         return invocationHelper.newResponse(request, NOT_FOUND).toFuture();
+
+      MediaType keyMediaType = request.keyContentType();
+      boolean keysAreJson = keyMediaType.match(APPLICATION_JSON);
+      List<byte[]> keys = new ArrayList<>();
+      for (Json key : readBulkContents(request)) {
+         keys.add(bulkContent(key, keysAreJson));
+      }
+
+      AdvancedCache<Object, Object> cache = restCacheManager.getCache(cacheName, keyMediaType, MATCH_ALL, request)
+            .withFlags(Flag.IGNORE_RETURN_VALUES);
+      CompletionStage<Void> stage = CompletableFutures.completedNull();
+      for (List<byte[]> chunk : partition(keys, batch)) {
+         stage = stage.thenCompose(ignore -> {
+            AggregateCompletionStage<Void> removals = CompletionStages.aggregateCompletionStage();
+            for (byte[] key : chunk) {
+               removals.dependsOn(cache.removeAsync(key));
+            }
+            return removals.freeze();
+         });
+      }
+      return stage.thenApply(ignore -> invocationHelper.newResponse(request, NO_CONTENT).build());
+   }
+
+   private int batchSize(RestRequest request) {
+      String batchParam = request.getParameter("batch");
+      int batch = batchParam == null || batchParam.isEmpty() ? STREAM_BATCH_SIZE : Integer.parseInt(batchParam);
+      if (batch <= 0) throw new IllegalArgumentException("The batch size must be positive");
+      return batch;
+   }
+
+   private MediaType valueMediaType(RestRequest request, String cacheName) {
+      String header = request.header(RequestHeader.VALUE_CONTENT_TYPE_HEADER.getValue());
+      if (header != null) return MediaType.fromString(header);
+      return getMediaType(false, invocationHelper.getRestCacheManager().getCache(cacheName, request), false);
+   }
+
+   /**
+    * Reads the elements of a JSON array body, or the lines of a newline delimited JSON body.
+    */
+   private static List<Json> readBulkContents(RestRequest request) {
+      ContentSource contents = request.contents();
+      if (contents == null || contents.size() == 0) throw new NoDataFoundException();
+      String body = contents.asString();
+      if (request.contentType().match(APPLICATION_NDJSON)) {
+         List<Json> elements = new ArrayList<>();
+         for (String line : body.split("\n")) {
+            if (!line.isBlank()) elements.add(Json.read(line));
+         }
+         return elements;
+      }
+      Json json = Json.read(body);
+      if (!json.isArray()) throw new NoDataFoundException("The body must be a JSON array");
+      return json.asJsonList();
+   }
+
+   /**
+    * @return The JSON text of the element when the media type is JSON, or the content of the JSON string otherwise.
+    */
+   private static byte[] bulkContent(Json element, boolean json) {
+      String content = json || !element.isString() ? element.toString() : element.asString();
+      return content.getBytes(UTF_8);
+   }
+
+   private static List<CacheEntry<?, ?>> inKeyOrder(List<byte[]> keys, Map<Object, CacheEntry<Object, Object>> found) {
+      // The returned keys are not the requested instances
+      Map<WrappedByteArray, CacheEntry<?, ?>> entries = new HashMap<>(found.size());
+      for (CacheEntry<Object, Object> entry : found.values()) {
+         entries.put(new WrappedByteArray(CacheChunkedStream.readContentAsBytes(entry.getKey())), entry);
+      }
+      List<CacheEntry<?, ?>> ordered = new ArrayList<>(entries.size());
+      for (byte[] key : keys) {
+         CacheEntry<?, ?> entry = entries.get(new WrappedByteArray(key));
+         if (entry != null) ordered.add(entry);
+      }
+      return ordered;
+   }
+
+   private static <T> List<List<T>> partition(List<T> list, int size) {
+      List<List<T>> partitions = new ArrayList<>((list.size() + size - 1) / size);
+      for (int i = 0; i < list.size(); i += size) {
+         partitions.add(list.subList(i, Math.min(list.size(), i + size)));
+      }
+      return partitions;
+   }
+
    private CompletionStage<RestResponse> cacheListen(RestRequest request) {
       MediaType accept = negotiateMediaType(request, APPLICATION_JSON, TEXT_PLAIN);
       String cacheName = request.variables().get("cacheName");
@@ -11,7 +11,9 @@
 import static io.netty.handler.codec.http.HttpResponseStatus.NOT_MODIFIED;
 import static io.netty.handler.codec.http.HttpResponseStatus.NO_CONTENT;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpResponseStatus.PARTIAL_CONTENT;
 import static io.netty.handler.codec.http.HttpResponseStatus.PERMANENT_REDIRECT;
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static io.netty.handler.codec.http.HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE;
 import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
 import static io.netty.handler.codec.http.HttpResponseStatus.TEMPORARY_REDIRECT;
@@ -238,6 +240,16 @@ public ResponseAssertion isNotModified() {
       return this;
    }
 
+   public ResponseAssertion isPartialContent() {
+      Assertions.assertThat(response.getStatus()).isEqualTo(PARTIAL_CONTENT.code());
+      return this;
+   }
+
+   public ResponseAssertion isRangeNotSatisfiable() {
+      Assertions.assertThat(response.getStatus()).isEqualTo(REQUESTED_RANGE_NOT_SATISFIABLE.code());
+      return this;
+   }
+
    public ResponseAssertion hasContentEqualToFile(String fileName) {
       try {
          Path path = Paths.get(getClass().getClassLoader().getResource(fileName).toURI());
@@ -1048,6 +1048,59 @@ private void putInCache(String cacheName, String key, String keyType, String val
       ResponseAssertion.assertThat(r).isOk();
    }
 
+   @Test
+   public void testBulkOperations() {
+      RestCacheClient cacheClient = client.cache("default");
+      Json entries = Json.array();
+      for (int i = 0; i < 10; i++) {
+         entries.add(Json.object("key", "key_" + i, "value", "value_" + i));
+      }
+      assertThat(cacheClient.putMany(RestEntity.create(APPLICATION_JSON, entries.toString()))).isOk();
+      String ndjson = "{\"key\":\"key_10\",\"value\":\"value_10\"}\n{\"key\":\"key_0\",\"value\":\"new\"}\n";
+      assertThat(cacheClient.putMany(RestEntity.create(MediaType.fromString("application/x-ndjson"), ndjson))).isOk();
+      assertThat(cacheClient.get("key_10")).hasReturnedText("value_10");
+      assertThat(cacheClient.get("key_0")).hasReturnedText("new");
+
+      Json keys = Json.array("key_5", "missing", "key_0", "key_10");
+      RestResponse response = join(cacheClient.getMany(RestEntity.create(APPLICATION_JSON, keys.toString())));
+      List<Json> found = Json.read(response.getBody()).asJsonList();
+      assertEquals(3, found.size());
+      assertEquals("key_5", found.get(0).at("key").asString());
+      assertEquals("value_5", found.get(0).at("value").asString());
+      assertEquals("key_0", found.get(1).at("key").asString());
+      assertEquals("new", found.get(1).at("value").asString());
+      assertEquals("key_10", found.get(2).at("key").asString());
+
+      assertThat(cacheClient.removeMany(RestEntity.create(APPLICATION_JSON, Json.array("key_0", "key_1").toString()))).isOk();
+      assertThat(cacheClient.get("key_0")).isNotFound();
+      assertThat(cacheClient.get("key_1")).isNotFound();
+      assertThat(cacheClient.get("key_2")).hasReturnedText("value_2");
+
+      assertThat(cacheClient.putMany(RestEntity.create(APPLICATION_JSON, "[{\"key\":\"k\"}]"))).isBadRequest();
+      assertThat(cacheClient.getMany(RestEntity.create(APPLICATION_JSON, "{\"key\":\"k\"}"))).isBadRequest();
+   }
+
+   @Test
+   public void testGetRange() {
+      RestCacheClient cacheClient = client.cache("default");
+      putTextEntryInCache("default", "range", "0123456789");
+
+      RestResponse response = join(cacheClient.get("range", Map.of("Range", "bytes=2-4")));
+      assertThat(response).isPartialContent().hasReturnedText("234").hasContentLength(3)
+            .hasHeaderMatching("Content-Range", "bytes 2-4/10");
+      assertThat(cacheClient.get("range", Map.of("Range", "bytes=7-"))).isPartialContent().hasReturnedText("789");
+      assertThat(cacheClient.get("range", Map.of("Range", "bytes=-2"))).isPartialContent().hasReturnedText("89");
+      assertThat(cacheClient.get("range", Map.of("Range", "bytes=5-100"))).isPartialContent().hasReturnedText("56789");
+
+      assertThat(cacheClient.get("range", Map.of("Range", "bytes=10-"))).isRangeNotSatisfiable()
+            .hasHeaderMatching("Content-Range", "bytes \\*/10");
+      // Malformed ranges and stale If-Range tags return the whole value
+      assertThat(cacheClient.get("range", Map.of("Range", "bytes=4-2"))).isOk().hasReturnedText("0123456789");
+      assertThat(cacheClient.get("range", Map.of("Range", "bytes=2-4", "If-Range", "\"stale\"")))
+            .isOk().hasReturnedText("0123456789");
+      assertThat(cacheClient.get("range")).isOk().hasHeaderMatching("Accept-Ranges", "bytes");
+   }
+
    @Test
    public void testStreamEntries() {
       RestResponse response = join(client.cache("default").entries());